@@ -0,0 +1,110 @@
+package com.banking.system.accountservice.caches;
+
+import com.banking.system.accountservice.configs.CustomerCacheConfig;
+import com.banking.system.accountservice.feign.CustomerServiceFeign;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bounded cache of customer existence, in front of customer-service.
+ * Both found (positive) and missing (negative) customers are cached, each with its own TTL.
+ * Transient failures (customer-service down, timeouts) are not cached and are re-thrown.
+ * Hit, miss and eviction counts are published as the "customer.existence" cache metrics.
+ *
+ * The cache holds futures: a miss only inserts an empty future under the cache lock, the remote call is
+ * made afterwards by the caller that inserted it, and concurrent lookups of the same id wait on that future.
+ * A synchronous loader would run the remote call inside a ConcurrentHashMap bin lock (synchronized),
+ * pinning the carrier thread of a virtual thread for the whole request.
+ */
+@Component
+public class CustomerExistenceCache {
+    public static final String CACHE_NAME = "customer.existence";
+
+    private final CustomerServiceFeign customerServiceFeign;
+    private final AsyncCache<Long, Boolean> cache;
+
+    public CustomerExistenceCache(CustomerServiceFeign customerServiceFeign,
+                                  CustomerCacheConfig config,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.customerServiceFeign = customerServiceFeign;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(new ExistenceExpiry(config.getPositiveTtl().toNanos(), config.getNegativeTtl().toNanos()))
+                .recordStats()
+                .buildAsync();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    /**
+     * @return true if customer-service knows the customer, false if it answered the customer is not found
+     * @throws FeignException when customer-service could not answer. Nothing is cached in that case
+     */
+    public boolean exists(Long customerId) {
+        CompletableFuture<Boolean> load = new CompletableFuture<>();
+        CompletableFuture<Boolean> result = cache.get(customerId, (id, executor) -> load);
+        if (result == load) {
+            try {
+                load.complete(fetch(customerId));
+            } catch (RuntimeException e) {
+                // failed futures are dropped by the cache, the next lookup retries
+                load.completeExceptionally(e);
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Invalidation hook, called when a customer is deleted
+     */
+    public void evict(Long customerId) {
+        cache.synchronous().invalidate(customerId);
+    }
+
+    long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private Boolean fetch(Long customerId) {
+        try {
+            customerServiceFeign.getCustomerById(customerId);
+            return Boolean.TRUE;
+        } catch (FeignException.NotFound | FeignException.BadRequest e) {
+            // customer-service answers an unknown id with 400 (IllegalArgumentException handler)
+            return Boolean.FALSE;
+        }
+    }
+
+    /**
+     * Positive and negative entries expire after their own TTL, counted from the lookup
+     */
+    private record ExistenceExpiry(long positiveTtlNanos, long negativeTtlNanos) implements Expiry<Long, Boolean> {
+        @Override
+        public long expireAfterCreate(Long customerId, Boolean exists, long currentTime) {
+            return exists ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long customerId, Boolean exists, long currentTime, long currentDuration) {
+            return expireAfterCreate(customerId, exists, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long customerId, Boolean exists, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
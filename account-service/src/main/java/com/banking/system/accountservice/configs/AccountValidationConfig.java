@@ -0,0 +1,28 @@
+package com.banking.system.accountservice.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * IBAN and BIC validation settings, read from account.validation properties
+ */
+@Component
+@ConfigurationProperties(prefix = "account.validation")
+@Getter
+@Setter
+public class AccountValidationConfig {
+    /**
+     * IBAN length by country code, added to or replacing the built-in SWIFT IBAN registry lengths
+     */
+    private Map<String, Integer> ibanLengths = new LinkedHashMap<>();
+    /**
+     * Optional directory of accepted BICs (file: or classpath: location), one BIC8 or BIC11 per line.
+     * A BIC8 accepts all branches of the bank. Empty = structure check only
+     */
+    private String bicDirectory;
+}
@@ -0,0 +1,27 @@
+package com.banking.system.accountservice.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the customer existence cache, read from account.customer-cache properties
+ */
+@Component
+@ConfigurationProperties(prefix = "account.customer-cache")
+@Getter
+@Setter
+public class CustomerCacheConfig {
+    private long maximumSize = 100_000;
+    /**
+     * How long a customer confirmed by customer-service is trusted
+     */
+    private Duration positiveTtl = Duration.ofMinutes(10);
+    /**
+     * How long a missing customer is remembered. Kept short, the customer may be created right after
+     */
+    private Duration negativeTtl = Duration.ofSeconds(30);
+}
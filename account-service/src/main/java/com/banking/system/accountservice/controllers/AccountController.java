@@ -1,17 +1,30 @@
 package com.banking.system.accountservice.controllers;
 
+import com.banking.system.accountservice.dtos.AccountBatchResponse;
 import com.banking.system.accountservice.dtos.AccountDto;
 import com.banking.system.accountservice.dtos.AccountUpdateDto;
+import com.banking.system.accountservice.dtos.CardDto;
 import com.banking.system.accountservice.services.AccountService;
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.utils.ETags;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 /**
  * Account management controller
@@ -20,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
  */
 
 @RestController
+@Timed(MetricsConfig.CONTROLLER_CALLS)
 @RequestMapping("/accounts")
 @RequiredArgsConstructor
 @Tag(name = "Account management", description = "All CRUD operations on accounts")
@@ -43,6 +57,22 @@ public class AccountController {
         return new ResponseEntity<>(returnedDto, HttpStatus.CREATED);
     }
 
+    /**
+     * Batch creation, used to onboard clients with many accounts
+     * @param dtos - accounts to create
+     * @return a result per account. Created accounts are committed even when others are rejected
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Create many accounts at once. " +
+            "Every account is validated like a single creation and gets its own result, " +
+            "invalid accounts are rejected without stopping the valid ones.")
+    public ResponseEntity<AccountBatchResponse> saveBatch(
+            @Parameter(description = "List of account details",required = true)
+            @RequestBody List<AccountDto> dtos
+    ) {
+        return new ResponseEntity<>(accountService.saveAccounts(dtos), HttpStatus.OK);
+    }
 
     /**
      *
@@ -55,7 +85,7 @@ public class AccountController {
      */
     @GetMapping
     @ResponseStatus(value = HttpStatus.OK)
-    @Operation(summary = "fetch all Accounts, Filters supported include customerId, Iban")
+    @Operation(summary = "fetch all Accounts, Filters supported include customerId, Iban and cardAlias")
     public ResponseEntity<Page<AccountDto>> findAll(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -65,6 +95,88 @@ public class AccountController {
         return new ResponseEntity<>(accountService.findAllAccounts(page, size, customerId, iban, cardAlias), HttpStatus.OK);
     }
 
+    /**
+     * No-count mode of fetch all, selected by includeTotal=false. Same page as fetch all, without the
+     * count query: one more record is read to tell whether there is a next page
+     * @param page - the page number to be fetched
+     * @param size - Expected size of the page, number of records
+     * @param iban - mapped to account Iban Number - Not mandatory, used for filter
+     * @param cardAlias - Account that has card with this card Alias - Not mandatory, used for filter
+     * @param customerId - customer linked to the account
+     * @return list of filtered accounts and whether there is a next page
+     */
+    @GetMapping(params = {"includeTotal=false", "!cursor"})
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "fetch all Accounts without the total count (includeTotal=false), hasNext tells whether there is a next page")
+    public ResponseEntity<SlicePage<AccountDto>> findAllWithoutTotal(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String iban,
+            @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) Long customerId) {
+        return new ResponseEntity<>(accountService.findAllAccountsWithoutTotal(page, size, customerId, iban, cardAlias), HttpStatus.OK);
+    }
+
+    /**
+     * Cursor mode of fetch all, selected when the cursor parameter is present (empty for the first page).
+     * Page N costs the same as page 1 and no total count is computed
+     * @param cursor - nextCursor of the previous page
+     * @param size - Expected size of the page, number of records
+     * @param iban - mapped to account Iban Number - Not mandatory, used for filter
+     * @param cardAlias - Account that has card with this card Alias - Not mandatory, used for filter
+     * @param customerId - customer linked to the account
+     * @return list of filtered accounts ordered by account id, with the cursor of the next page
+     */
+    @GetMapping(params = "cursor")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "fetch all Accounts in cursor mode. Pass an empty cursor for the first page, then the returned nextCursor")
+    public ResponseEntity<CursorPage<AccountDto>> findAllByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String iban,
+            @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) Long customerId) {
+        return new ResponseEntity<>(accountService.findAllAccounts(cursor, size, customerId, iban, cardAlias), HttpStatus.OK);
+    }
+
+    /**
+     * Export of all the filtered accounts, streamed row by row from the database
+     * @param format - NDJSON (default) or CSV
+     * @param iban - mapped to account Iban Number - Not mandatory, used for filter
+     * @param cardAlias - Account that has card with this card Alias - Not mandatory, used for filter
+     * @param customerId - customer linked to the account
+     * @return accounts ordered by account id, as an attachment
+     */
+    @GetMapping("/export")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Export all Accounts as NDJSON or CSV, Filters supported include customerId, Iban and cardAlias")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) String iban,
+            @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) Long customerId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("accounts." + format.getExtension()).build());
+        StreamingResponseBody body = out -> accountService.exportAccounts(format, customerId, iban, cardAlias, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Multi-get, used by card-service to check the accounts of many cards with one call
+     * @param accountIds - ids to be fetched, at most account.batch.max-size
+     * @return the accounts found. Unknown ids are left out
+     */
+    @GetMapping("/by-ids")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Fetch many accounts by their IDs. Unknown IDs are left out of the result")
+    public ResponseEntity<List<AccountDto>> getAccountsByIds(
+            @RequestParam List<Long> accountIds
+    ) {
+        return new ResponseEntity<>(accountService.getAccountsByIds(accountIds), HttpStatus.OK);
+    }
+
     /**
      *
      * @param accountId - id to be fetched
@@ -73,11 +185,25 @@ public class AccountController {
 
     @GetMapping("/{accountId}")
     @ResponseStatus(value = HttpStatus.OK)
-    @Operation(summary = "Fetch a account by its ID")
+    @Operation(summary = "Fetch a account by its ID. The ETag header holds the account version, " +
+            "send it back in If-None-Match to get 304 Not Modified while the account is unchanged")
     public ResponseEntity<AccountDto> getAccountById(
-            @PathVariable Long accountId
+            @PathVariable Long accountId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return new ResponseEntity<>(accountService.getAccountById(accountId), HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(accountService.getAccountVersion(accountId));
+            if (ETags.matchesNoneMatch(ifNoneMatch, etag)) {
+                headers.setETag(etag);
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+        }
+        AccountDto dto = accountService.getAccountById(accountId);
+        if (dto.getVersion() != null) {
+            headers.setETag(ETags.of(dto.getVersion()));
+        }
+        return new ResponseEntity<>(dto, headers, HttpStatus.OK);
     }
 
     /**
@@ -90,12 +216,19 @@ public class AccountController {
     @ResponseStatus(value = HttpStatus.OK)
     @Operation(summary = "Update an existing account. " +
             "Requires a valid IBAN and BicSwift code. " +
-            "The provided customerId must correspond to an existing customer.")
+            "The provided customerId must correspond to an existing customer. " +
+            "With If-Match (ETag of a previous read) the update is only applied if the account is unchanged, else 412")
     public ResponseEntity<AccountDto> update(
             @Valid @RequestBody AccountUpdateDto dto,
-            @PathVariable Long accountId
+            @PathVariable Long accountId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ){
-        return new ResponseEntity<>(accountService.updateAccount(accountId, dto),HttpStatus.OK);
+        AccountDto updated = accountService.updateAccount(accountId, dto, ETags.expectedVersion(ifMatch));
+        HttpHeaders headers = new HttpHeaders();
+        if (updated.getVersion() != null) {
+            headers.setETag(ETags.of(updated.getVersion()));
+        }
+        return new ResponseEntity<>(updated, headers, HttpStatus.OK);
     }
 
     /**
@@ -110,4 +243,49 @@ public class AccountController {
             @PathVariable Long accountId){
         return new ResponseEntity<>(accountService.deleteAccount(accountId), HttpStatus.OK);
     }
+
+    /**
+     * Invalidate the cached existence of a customer. Used by customer-service on customer deletion
+     * @param customerId - deleted customer
+     */
+    @DeleteMapping("/customer-cache/{customerId}")
+    @ResponseStatus(value = HttpStatus.NO_CONTENT)
+    @Operation(summary = "Evict a customer from the customer existence cache. Called by customer-service on customer deletion")
+    public ResponseEntity<Void> evictCustomer(
+            @PathVariable Long customerId){
+        accountService.evictCustomer(customerId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * Link a card to an account in the local card alias index. Used by card-service
+     * @param accountId - account the card belongs to
+     * @param cardId - card unique id
+     * @param dto - card details, only the card alias is read
+     */
+    @PutMapping("/{accountId}/cards/{cardId}")
+    @ResponseStatus(value = HttpStatus.NO_CONTENT)
+    @Operation(summary = "Link a card (and its alias) to an account. Called by card-service on card changes")
+    public ResponseEntity<Void> linkCard(
+            @PathVariable Long accountId,
+            @PathVariable Long cardId,
+            @RequestBody CardDto dto){
+        accountService.linkCard(accountId, cardId, dto.getCardAlias());
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * Remove a card from the local card alias index. Used by card-service
+     * @param accountId - account the card belongs to
+     * @param cardId - card unique id
+     */
+    @DeleteMapping("/{accountId}/cards/{cardId}")
+    @ResponseStatus(value = HttpStatus.NO_CONTENT)
+    @Operation(summary = "Unlink a deleted card from an account. Called by card-service on card deletion")
+    public ResponseEntity<Void> unlinkCard(
+            @PathVariable Long accountId,
+            @PathVariable Long cardId){
+        accountService.unlinkCard(accountId, cardId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 }
@@ -0,0 +1,23 @@
+package com.banking.system.accountservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Schema(description = "Response of a batch account creation, one result per requested account in request order")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBatchResponse {
+    @Schema(description = "Number of accounts created", example = "98")
+    private int createdCount;
+
+    @Schema(description = "Number of accounts rejected", example = "2")
+    private int rejectedCount;
+
+    @Schema(description = "Result of every requested account")
+    private List<AccountBatchResult> results;
+}
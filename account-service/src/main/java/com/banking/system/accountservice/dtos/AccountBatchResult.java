@@ -0,0 +1,25 @@
+package com.banking.system.accountservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Getter
+@Setter
+@Schema(description = "Result of one account of a batch creation request")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBatchResult {
+    @Schema(description = "Position of the account in the request list, zero-based", example = "0")
+    private int index;
+
+    @Schema(description = "true when the account was created")
+    private boolean created;
+
+    @Schema(description = "Saved account, only set when created")
+    private AccountDto account;
+
+    @Schema(description = "Reason the account was rejected, only set when not created",
+            example = "An account with that IBAN already exist")
+    private String error;
+}
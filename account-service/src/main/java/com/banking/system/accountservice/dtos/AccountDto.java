@@ -1,5 +1,6 @@
 package com.banking.system.accountservice.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
@@ -31,4 +32,11 @@ public class AccountDto {
     @Schema(description = "Date and time when the account was created",example = "2024-05-16T12:30:00",
             accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime createdAt;
+
+    /**
+     * Account version, sent as the ETag header and not in the body
+     */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package com.banking.system.accountservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(name = "CardLinkDto", description = "Card to account link as returned by card-service, used to reconcile the card alias index")
+public class CardLinkDto {
+    @Schema(description = "Card unique identifier")
+    private Long cardId;
+
+    @Schema(description = "user defined name/nickname for the card")
+    private String cardAlias;
+
+    @Schema(description = "Id of the account linked to the card")
+    private Long accountId;
+}
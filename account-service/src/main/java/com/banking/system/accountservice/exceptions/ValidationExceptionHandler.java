@@ -1,5 +1,10 @@
 package com.banking.system.accountservice.exceptions;
 
+import com.banking.system.common.exceptions.ValidationFailureMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -9,15 +14,21 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ValidationExceptionHandler {
+    private final MessageSource messageSource;
+    private final ValidationFailureMetrics validationFailureMetrics;
+
     /**
      * @return structured error response for all @valid errors
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getFieldErrors().forEach(error ->
-                errors.put(error.getField(), error.getDefaultMessage()));
+        ex.getBindingResult().getFieldErrors().forEach(error -> {
+            validationFailureMetrics.count(error);
+            errors.put(error.getField(), error.getDefaultMessage());
+        });
         return ResponseEntity.badRequest().body(errors);
     }
 
@@ -26,8 +37,19 @@ public class ValidationExceptionHandler {
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        validationFailureMetrics.count(ex);
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getMessage());
         return ResponseEntity.badRequest().body(error);
     }
+
+    /**
+     * @return 409, the record was updated by another request between read and write
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", messageSource.getMessage("concurrent.modification", null, null));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
 }
@@ -1,12 +1,15 @@
 package com.banking.system.accountservice.feign;
 
+import com.banking.system.accountservice.dtos.CardLinkDto;
 import com.banking.system.accountservice.dtos.CardResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "card-service", url = "127.0.0.1:1502")
+import java.util.List;
+
+@FeignClient(name = "card-service", url = "${downstream.clients.card-service.url:http://127.0.0.1:1502}")
 public interface CardServiceFeign {
 
     @Operation(summary = "Get cards by account ID", description = "Retrieves a list of cards linked to an account.")
@@ -16,4 +19,11 @@ public interface CardServiceFeign {
             @RequestParam("page") int page,
             @RequestParam("size") int size
     );
+
+    @Operation(summary = "Get card links", description = "Keyset page of card id, alias and account id, ordered by card id.")
+    @GetMapping("/card/links")
+    List<CardLinkDto> getCardLinks(
+            @RequestParam("afterCardId") Long afterCardId,
+            @RequestParam("size") int size
+    );
 }
@@ -6,7 +6,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "customer-service", url = "127.0.0.1:1500")
+@FeignClient(name = "customer-service", url = "${downstream.clients.customer-service.url:http://127.0.0.1:1500}")
 public interface CustomerServiceFeign {
 
     @Operation(summary = "Get customer By id", description = "fetch customer, from customer service, based on customer Id")
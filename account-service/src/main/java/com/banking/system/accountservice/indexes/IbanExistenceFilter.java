@@ -0,0 +1,111 @@
+package com.banking.system.accountservice.indexes;
+
+import com.banking.system.accountservice.models.AccountIbanView;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.common.indexes.ExistenceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Existence filter (filter tag "iban") of the ibans used by an account, in front of the iban uniqueness
+ * queries of account creation. An iban it does not hold is new and is not queried, ACC_IBAN unique constraint
+ * still rejects an iban created meanwhile by another instance.
+ *
+ * Built on startup and kept up to date by the account service after each committed write, like IbanTrigramIndex.
+ * An iban is removed only once its account was deleted (or its iban replaced) by this instance.
+ */
+@Component
+public class IbanExistenceFilter {
+    static final String FILTER_NAME = "iban";
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final ExistenceFilter filter;
+
+    public IbanExistenceFilter(AccountRepository accountRepository,
+                               ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${account.iban-filter.enabled:true}") boolean enabled,
+                               @Value("${account.iban-filter.min-keys:100000}") int minKeys) {
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.filter = new ExistenceFilter(FILTER_NAME, minKeys, meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * Load every iban, in primary key order, batch by batch
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) return;
+        filter.start(accountRepository.count());
+        long lastId = 0L;
+        List<AccountIbanView> batch;
+        do {
+            batch = accountRepository.findByAccountIdGreaterThanOrderByAccountId(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (AccountIbanView account : batch) {
+                add(account.getIban());
+                lastId = account.getAccountId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        filter.ready();
+    }
+
+    /**
+     * @return false when no account uses the iban, true when it must be queried (then report the result with confirm)
+     */
+    public boolean mightExist(String iban) {
+        return filter.mightContain(ExistenceFilter.hash(iban));
+    }
+
+    /**
+     * @param exists result of the existsByIban query of a possibly used iban
+     * @return exists
+     */
+    public boolean confirm(boolean exists) {
+        return filter.confirm(exists);
+    }
+
+    /**
+     * @param queried possibly used ibans queried by findExistingIbans
+     * @param found ibans it returned
+     */
+    public void confirm(int queried, int found) {
+        filter.confirm(queried, found);
+    }
+
+    /**
+     * ACC_IBAN unique constraint rejected the iban
+     */
+    public void stale(String iban) {
+        filter.stale(ExistenceFilter.hash(iban));
+    }
+
+    public void add(String iban) {
+        if (iban != null) filter.add(ExistenceFilter.hash(iban));
+    }
+
+    /**
+     * @param iban of an account deleted by this instance, see ExistenceFilter.remove
+     */
+    public void remove(String iban) {
+        if (iban != null) filter.remove(ExistenceFilter.hash(iban));
+    }
+
+    public void replace(String oldIban, String newIban) {
+        if (oldIban != null && oldIban.equals(newIban)) return;
+        remove(oldIban);
+        add(newIban);
+    }
+
+    public boolean isReady() {
+        return filter.isReady();
+    }
+}
@@ -0,0 +1,217 @@
+package com.banking.system.accountservice.indexes;
+
+import com.banking.system.accountservice.models.AccountIbanView;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over Account.iban.
+ * Every iban is split in overlapping 3 character grams, each gram keeps a sorted list of ACC_IDs.
+ * A substring query intersects the lists of its grams and returns the candidate ACC_IDs,
+ * the database then only re-checks the LIKE on those primary keys instead of scanning ACCOUNTS.
+ *
+ * The index is built on startup and kept up to date by the account service after each committed write.
+ * An id left over from a deleted account or a replaced iban only costs a re-check of the LIKE.
+ *
+ * The index lives in the heap of each instance and only sees the writes of that instance: with several
+ * account-service instances on one database, an account created or given a new iban by another instance is
+ * missing from the candidates, so the iban searches miss it until the next restart. It is therefore off by
+ * default (account.iban-index.enabled=false, plain LIKE), to be enabled only for a single instance.
+ * IbanSearchBenchmark measures it against the plain LIKE on PostgreSQL
+ */
+@Slf4j
+@Component
+public class IbanTrigramIndex {
+    static final int GRAM_SIZE = 3;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public IbanTrigramIndex(AccountRepository accountRepository,
+                            @Value("${account.iban-index.enabled:false}") boolean enabled,
+                            @Value("${account.iban-index.max-candidates:5000}") int maxCandidates) {
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Load every iban, in primary key order, batch by batch
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) return;
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        int total = 0;
+        List<AccountIbanView> batch;
+        do {
+            batch = accountRepository.findByAccountIdGreaterThanOrderByAccountId(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (AccountIbanView account : batch) {
+                add(account.getAccountId(), account.getIban());
+                lastId = account.getAccountId();
+            }
+            total += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        ready = true;
+        log.info("Iban trigram index built with {} accounts and {} grams in {} ms",
+                total, gramCount(), System.currentTimeMillis() - start);
+    }
+
+    public void add(Long accountId, String iban) {
+        if (accountId == null || iban == null) return;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i + GRAM_SIZE <= iban.length(); i++) {
+                postings.computeIfAbsent(gram(iban, i), key -> new Postings()).add(accountId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long accountId, String iban) {
+        if (accountId == null || iban == null) return;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i + GRAM_SIZE <= iban.length(); i++) {
+                long key = gram(iban, i);
+                Postings ids = postings.get(key);
+                if (ids != null && ids.remove(accountId) && ids.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replace(Long accountId, String oldIban, String newIban) {
+        if (oldIban != null && oldIban.equals(newIban)) return;
+        remove(accountId, oldIban);
+        add(accountId, newIban);
+    }
+
+    /**
+     * @param fragment iban substring searched
+     * @return sorted candidate ACC_IDs, or null when the index cannot narrow the search
+     * (index disabled or not built yet, fragment shorter than a gram or holding LIKE wildcards, too many candidates)
+     */
+    public long[] candidates(String fragment) {
+        if (!ready || fragment == null || fragment.length() < GRAM_SIZE
+                || fragment.indexOf('%') >= 0 || fragment.indexOf('_') >= 0) return null;
+
+        lock.readLock().lock();
+        try {
+            int gramCount = fragment.length() - GRAM_SIZE + 1;
+            Postings[] lists = new Postings[gramCount];
+            for (int i = 0; i < gramCount; i++) {
+                Postings ids = postings.get(gram(fragment, i));
+                if (ids == null) return new long[0];
+                lists[i] = ids;
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int size = result.length;
+            for (int i = 1; i < lists.length && size > 0; i++) {
+                size = intersect(result, size, lists[i]);
+            }
+            return size > maxCandidates ? null : Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keep in result only the ids also present in other, in place. Both are sorted
+     * @return new size of result
+     */
+    private static int intersect(long[] result, int size, Postings other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            long id = result[i];
+            while (j < other.size && other.ids[j] < id) j++;
+            if (j < other.size && other.ids[j] == id) result[kept++] = id;
+        }
+        return kept;
+    }
+
+    /**
+     * Pack three UTF-16 chars in one long key
+     */
+    private static long gram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32)
+                | ((long) value.charAt(offset + 1) << 16)
+                | value.charAt(offset + 2);
+    }
+
+    /**
+     * Growable sorted array of ids. Ids are mostly appended since ACC_IDs are generated in ascending order
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) return;
+            int insertAt = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
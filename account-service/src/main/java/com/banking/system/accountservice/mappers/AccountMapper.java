@@ -25,6 +25,7 @@ public class AccountMapper {
                 .bicSwift(account.getBicSwift())
                 .customerId(account.getCustomerId())
                 .createdAt(account.getCreatedAt())
+                .version(account.getVersion())
                 .build();
     }
 
@@ -17,18 +17,24 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "ACCOUNTS", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "iban")
+        @UniqueConstraint(columnNames = "ACC_IBAN")
 })
 @AllArgsConstructor
 @NoArgsConstructor
 public class Account {
+    /**
+     * Ids pre-allocated per ACCOUNTS_SEQ call
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
 
     /**
      * A unique system generated identifier
      * Account table primary key
+     * Sequence based (ids are pre-allocated by 50) so inserts can be sent as JDBC batches
       */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ACCOUNTS_SEQ")
+    @SequenceGenerator(name = "ACCOUNTS_SEQ", sequenceName = "ACCOUNTS_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "ACC_ID", nullable = false)
     private Long accountId;
 
@@ -58,4 +64,18 @@ public class Account {
     @CreationTimestamp
     @Column(name = "ACC_CREATED_AT", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    /**
+     * Number of cards linked to the account, maintained from card-service link/unlink events
+     * and periodically reconciled. An account with cards cannot be deleted
+     */
+    @Column(name = "ACC_CARD_COUNT", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long cardCount;
+
+    /**
+     * Optimistic lock version, incremented by every update of the account. Exposed as the account ETag
+     */
+    @Version
+    @Column(name = "ACC_VERSION", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
 }
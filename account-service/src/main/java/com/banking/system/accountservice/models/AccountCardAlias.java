@@ -0,0 +1,44 @@
+package com.banking.system.accountservice.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Local copy of the card aliases linked to an account.
+ * Kept in sync by card-service whenever a card is created, renamed or deleted,
+ * so the account list can be filtered by card alias without calling card-service.
+ */
+
+@Getter
+@Setter
+@Entity
+@Table(name = "ACCOUNT_CARD_ALIASES", indexes = {
+        @Index(name = "IDX_ACA_ACC_ID", columnList = "ACA_ACC_ID"),
+        @Index(name = "IDX_ACA_CARD_ALIAS", columnList = "ACA_CARD_ALIAS")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountCardAlias {
+
+    /**
+     * Id of the card in card-service. A card belongs to a single account
+     */
+    @Id
+    @Column(name = "ACA_CARD_ID", nullable = false)
+    private Long cardId;
+
+    /**
+     * Account the card is linked to
+     */
+    @Column(name = "ACA_ACC_ID", nullable = false)
+    private Long accountId;
+
+    /**
+     * User defined card name, can be empty
+     */
+    @Column(name = "ACA_CARD_ALIAS")
+    private String cardAlias;
+}
@@ -0,0 +1,10 @@
+package com.banking.system.accountservice.models;
+
+/**
+ * Projection of the account id and iban only. Used to build in-memory iban indexes
+ */
+public interface AccountIbanView {
+    Long getAccountId();
+
+    String getIban();
+}
@@ -0,0 +1,30 @@
+package com.banking.system.accountservice.repositories;
+
+import com.banking.system.accountservice.models.AccountCardAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AccountCardAliasRepository extends JpaRepository<AccountCardAlias, Long> {
+    /**
+     * Delete without loading, so concurrent unlinks of the same card only count once
+     * @param cardId
+     * @return number of deleted links
+     */
+    @Modifying
+    @Query("delete from AccountCardAlias l where l.cardId = :cardId")
+    int deleteByCardId(@Param("cardId") Long cardId);
+
+    /**
+     * Links of a card id range, used by reconciliation
+     * @param fromCardId - exclusive
+     * @param toCardId - inclusive
+     */
+    List<AccountCardAlias> findByCardIdGreaterThanAndCardIdLessThanEqual(Long fromCardId, Long toCardId);
+
+    @Query("select max(l.cardId) from AccountCardAlias l")
+    Long findMaxCardId();
+}
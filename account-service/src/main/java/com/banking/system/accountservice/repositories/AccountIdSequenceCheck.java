@@ -0,0 +1,24 @@
+package com.banking.system.accountservice.repositories;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves ACCOUNTS_SEQ above the existing account ids on startup, before the web server accepts requests, so the
+ * first insert of an upgraded database (ids were IDENTITY) does not reuse an ACC_ID. Startup fails if it cannot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountIdSequenceCheck {
+    private final AccountRepository accountRepository;
+
+    @PostConstruct
+    void alignIdSequence() {
+        if (accountRepository.alignIdSequence()) {
+            log.warn("ACCOUNTS_SEQ was not above max(ACC_ID), restarted above it");
+        }
+    }
+}
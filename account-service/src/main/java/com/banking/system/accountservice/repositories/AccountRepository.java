@@ -1,14 +1,76 @@
 package com.banking.system.accountservice.repositories;
 
 import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountIbanView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account>,
+        AccountRepositoryCustom {
     /**
      *
      * @param iban
      * @return true or false, validate if the Iban number is used by another account
      */
     boolean existsByIban(String iban);
+
+    /**
+     * Set based version of existsByIban, used by batch creation
+     * @param ibans
+     * @return the ibans already used by an account
+     */
+    @Query("select a.iban from Account a where a.iban in :ibans")
+    Set<String> findExistingIbans(@Param("ibans") Collection<String> ibans);
+
+    /**
+     * Keyset batch of ids and ibans, used to load in-memory indexes without loading full entities
+     * @param accountId - last id of the previous batch
+     * @param limit - batch size
+     */
+    List<AccountIbanView> findByAccountIdGreaterThanOrderByAccountId(Long accountId, Limit limit);
+
+    /**
+     * Atomic increment/decrement of the account card counter
+     * @param accountId
+     * @param delta - 1 when a card is linked, -1 when it is unlinked
+     * @return number of updated accounts, 0 when the account does not exist
+     */
+    @Modifying
+    @Query("update Account a set a.cardCount = a.cardCount + :delta where a.accountId = :accountId")
+    int addToCardCount(@Param("accountId") Long accountId, @Param("delta") long delta);
+
+    /**
+     * Row lock of the account, taken by the card link events before they change the card alias index and the
+     * counter, so a counter recount or a delete of the account waits for them (and they wait for it)
+     * @return the account id, empty when the account does not exist
+     */
+    @Query(value = "SELECT ACC_ID FROM ACCOUNTS WHERE ACC_ID = :accountId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockForCardCount(@Param("accountId") Long accountId);
+
+    /**
+     * Delete in its own transaction, committed when it returns, only while the account has no card: a card linked
+     * meanwhile holds the row lock and the condition is checked again once it is released
+     * @return number of deleted accounts, 0 when another request deleted it first or a card was linked meanwhile
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Account a where a.accountId = :accountId and a.cardCount = 0")
+    int deleteWithoutCards(@Param("accountId") Long accountId);
+
+    /**
+     * Version only, to answer a conditional GET without loading the account
+     */
+    @Query("select a.version from Account a where a.accountId = :accountId")
+    Optional<Long> findVersionByAccountId(@Param("accountId") Long accountId);
+
 }
@@ -0,0 +1,78 @@
+package com.banking.system.accountservice.repositories;
+
+import com.banking.system.accountservice.dtos.AccountDto;
+import com.banking.system.accountservice.models.Account;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries not supported by the Spring Data derived/specification methods
+ */
+public interface AccountRepositoryCustom {
+    /**
+     * Forward-only stream of every account matching the specification, ordered by id.
+     * Rows are read from a database cursor and detached once read, so memory stays constant.
+     * Must be called inside a transaction and the stream must be closed
+     */
+    Stream<Account> streamAll(Specification<Account> spec);
+
+    /**
+     * Read-only page of the matching accounts, built as dtos straight from the query.
+     * The count query is skipped when the page content already tells the total
+     */
+    Page<AccountDto> findAllAsDto(Specification<Account> spec, Pageable pageable);
+
+    /**
+     * Same as findAllAsDto without the count query:
+     * size + 1 rows are fetched, the extra one only tells whether there is a next page
+     */
+    Slice<AccountDto> findSliceAsDto(Specification<Account> spec, Pageable pageable);
+
+    /**
+     * Keyset page: the first matching accounts with an id greater than afterAccountId (all when null), ordered by id
+     */
+    List<AccountDto> findAfterAsDto(Specification<Account> spec, Long afterAccountId, int limit);
+
+    /**
+     * Single statement partial update: UPDATE ... SET only the given (non null) columns ... RETURNING the new row
+     * and the previous iban. One round trip, no entity loaded, no dirty check
+     * @param expectedVersion when not null, the row is only updated if it is still at this version (If-Match)
+     * @return the updated row, empty when the account does not exist or is not at the expected version
+     */
+    Optional<PartialUpdate> updatePartially(Long accountId, Long expectedVersion, String iban, String bicSwift);
+
+    /**
+     * Resets the card counters that differ from the card alias index, for the next accounts after afterAccountId.
+     * Their rows are locked first (FOR UPDATE) and counted by a later statement, so a card link event in progress
+     * on one of them is either counted or waits for the recount. Must be called inside a transaction
+     * @param limit - number of accounts
+     */
+    CardRecount recountCards(long afterAccountId, int limit);
+
+    /**
+     * Restarts ACCOUNTS_SEQ above max(ACC_ID) when its next ids are not above it: a database created while the
+     * ids were IDENTITY has accounts and a sequence starting at 1. Consumes one block of ids when already above
+     * @return true when the sequence was restarted
+     */
+    boolean alignIdSequence();
+
+    /**
+     * @param account the account after the update, not managed by the persistence context
+     * @param previousIban iban before the update
+     */
+    record PartialUpdate(Account account, String previousIban) {
+    }
+
+    /**
+     * @param lastAccountId greatest account id of the batch, null when no account is left
+     * @param corrected number of counters reset
+     */
+    record CardRecount(Long lastAccountId, int corrected) {
+    }
+}
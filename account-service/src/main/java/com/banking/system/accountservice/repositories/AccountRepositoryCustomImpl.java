@@ -0,0 +1,177 @@
+package com.banking.system.accountservice.repositories;
+
+import com.banking.system.accountservice.dtos.AccountDto;
+import com.banking.system.accountservice.models.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Stream<Account> streamAll(Specification<Account> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Account> query = criteriaBuilder.createQuery(Account.class);
+        Root<Account> root = query.from(Account.class);
+        query.where(spec.toPredicate(root, query, criteriaBuilder))
+                .orderBy(criteriaBuilder.asc(root.get("accountId")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public Page<AccountDto> findAllAsDto(Specification<Account> spec, Pageable pageable) {
+        List<AccountDto> content = dtoQuery(spec, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<AccountDto> findSliceAsDto(Specification<Account> spec, Pageable pageable) {
+        List<AccountDto> content = dtoQuery(spec, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<AccountDto> findAfterAsDto(Specification<Account> spec, Long afterAccountId, int limit) {
+        return dtoQuery(spec, afterAccountId, Sort.by("accountId"))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * SELECT new AccountDto(...) over the filtered accounts: only the returned columns are read
+     * and no entity, snapshot or persistence context entry is created per row
+     */
+    private TypedQuery<AccountDto> dtoQuery(Specification<Account> spec, Long afterAccountId, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AccountDto> query = criteriaBuilder.createQuery(AccountDto.class);
+        Root<Account> root = query.from(Account.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (afterAccountId != null) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.greaterThan(root.get("accountId"), afterAccountId));
+        }
+        query.select(criteriaBuilder.construct(AccountDto.class,
+                        root.get("accountId"), root.get("iban"), root.get("bicSwift"),
+                        root.get("customerId"), root.get("createdAt"), root.get("version")))
+                .where(predicate)
+                .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Account> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Account> root = query.from(Account.class);
+        query.select(criteriaBuilder.count(root))
+                .where(spec.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * The previous iban comes from a locked sub-select joined to the updated row,
+     * still a single statement (PostgreSQL UPDATE ... FROM ... RETURNING)
+     */
+    @Override
+    public Optional<PartialUpdate> updatePartially(Long accountId, Long expectedVersion, String iban, String bicSwift) {
+        MapSqlParameterSource params = new MapSqlParameterSource("accountId", accountId);
+        StringBuilder sql = new StringBuilder("UPDATE ACCOUNTS a SET ACC_VERSION = a.ACC_VERSION + 1");
+        if (iban != null) {
+            sql.append(", ACC_IBAN = :iban");
+            params.addValue("iban", iban);
+        }
+        if (bicSwift != null) {
+            sql.append(", ACC_BICSWIFT = :bicSwift");
+            params.addValue("bicSwift", bicSwift);
+        }
+        sql.append(" FROM (SELECT ACC_ID, ACC_IBAN FROM ACCOUNTS WHERE ACC_ID = :accountId FOR UPDATE) previous")
+                .append(" WHERE a.ACC_ID = previous.ACC_ID");
+        if (expectedVersion != null) {
+            sql.append(" AND a.ACC_VERSION = :version");
+            params.addValue("version", expectedVersion);
+        }
+        sql.append(" RETURNING a.ACC_ID, a.ACC_IBAN, a.ACC_BICSWIFT, a.ACC_CUST_ID, a.ACC_CREATED_AT,")
+                .append(" a.ACC_CARD_COUNT, a.ACC_VERSION, previous.ACC_IBAN AS PREVIOUS_IBAN");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new PartialUpdate(
+                new Account(rs.getLong("ACC_ID"), rs.getString("ACC_IBAN"), rs.getString("ACC_BICSWIFT"),
+                        rs.getLong("ACC_CUST_ID"), rs.getObject("ACC_CREATED_AT", LocalDateTime.class),
+                        rs.getLong("ACC_CARD_COUNT"), rs.getLong("ACC_VERSION")),
+                rs.getString("PREVIOUS_IBAN"))).stream().findFirst();
+    }
+
+    @Override
+    public CardRecount recountCards(long afterAccountId, int limit) {
+        List<Long> accountIds = jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS WHERE ACC_ID > :afterAccountId" +
+                        " ORDER BY ACC_ID LIMIT :limit FOR UPDATE",
+                new MapSqlParameterSource("afterAccountId", afterAccountId).addValue("limit", limit), Long.class);
+        if (accountIds.isEmpty()) {
+            return new CardRecount(null, 0);
+        }
+        int corrected = jdbcTemplate.update("UPDATE ACCOUNTS a SET ACC_CARD_COUNT =" +
+                        " (SELECT count(*) FROM ACCOUNT_CARD_ALIASES l WHERE l.ACA_ACC_ID = a.ACC_ID)" +
+                        " WHERE a.ACC_ID IN (:accountIds) AND a.ACC_CARD_COUNT <>" +
+                        " (SELECT count(*) FROM ACCOUNT_CARD_ALIASES l WHERE l.ACA_ACC_ID = a.ACC_ID)",
+                new MapSqlParameterSource("accountIds", accountIds));
+        return new CardRecount(accountIds.get(accountIds.size() - 1), corrected);
+    }
+
+    @Override
+    public boolean alignIdSequence() {
+        Long maxAccountId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT max(ACC_ID) FROM ACCOUNTS", Long.class);
+        if (maxAccountId == null) {
+            return false;
+        }
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        Long next = jdbcTemplate.getJdbcTemplate().queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString("ACCOUNTS_SEQ"), Long.class);
+        // the next block Hibernate takes starts after next
+        if (next != null && next >= maxAccountId) {
+            return false;
+        }
+        jdbcTemplate.getJdbcTemplate().execute("ALTER SEQUENCE ACCOUNTS_SEQ RESTART WITH "
+                + (maxAccountId + Account.ID_ALLOCATION_SIZE));
+        return true;
+    }
+}
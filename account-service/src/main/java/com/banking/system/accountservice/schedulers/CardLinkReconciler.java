@@ -0,0 +1,189 @@
+package com.banking.system.accountservice.schedulers;
+
+import com.banking.system.accountservice.dtos.CardLinkDto;
+import com.banking.system.accountservice.feign.CardServiceFeign;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.repositories.AccountCardAliasRepository;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.repositories.AccountRepositoryCustom.CardRecount;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Periodic reconciliation of the card alias index and the account card counters against card-service.
+ * Link/unlink events keep them up to date, this job repairs what a lost event (card-service or
+ * account-service down, timeout) left behind, and loads the cards created before the index existed.
+ *
+ * Card links are read from card-service in card id order, page by page. Each page is merged with the
+ * local links of the same card id range in its own transaction, then the counters are recounted
+ * from the index in account id batches, each batch locking its rows first so a concurrent link event
+ * is serialized with it.
+ *
+ * The first run starts when the application is ready and is retried until card-service answers: it
+ * backfills the counters of the cards linked before they existed, deleteAccount does not rely on them
+ * alone until it completed (isReconciled).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.card-reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class CardLinkReconciler {
+    private final CardServiceFeign cardServiceFeign;
+    private final AccountCardAliasRepository accountCardAliasRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final Duration retryInterval;
+    private volatile boolean reconciled;
+
+    public record Result(int linked, int unlinked, int recounted) {
+    }
+
+    public CardLinkReconciler(CardServiceFeign cardServiceFeign,
+                              AccountCardAliasRepository accountCardAliasRepository,
+                              AccountRepository accountRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${account.card-reconciliation.page-size:1000}") int pageSize,
+                              @Value("${account.card-reconciliation.retry-interval:30s}") Duration retryInterval) {
+        this.cardServiceFeign = cardServiceFeign;
+        this.accountCardAliasRepository = accountCardAliasRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.pageSize = pageSize;
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * True once a reconciliation completed, the card counters then include the cards linked before them
+     */
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("card-link-reconciler").start(this::reconcileUntilComplete);
+    }
+
+    /**
+     * Startup run, retried every retry interval until it completes
+     */
+    void reconcileUntilComplete() {
+        while (!reconciled) {
+            try {
+                reconcileAndLog();
+                reconciled = true;
+            } catch (RuntimeException e) {
+                log.warn("Card link reconciliation failed, retrying in {}: {}", retryInterval, e.getMessage());
+                try {
+                    Thread.sleep(retryInterval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${account.card-reconciliation.interval:15m}",
+            fixedDelayString = "${account.card-reconciliation.interval:15m}")
+    public void scheduledReconcile() {
+        if (!reconciled) {
+            // the startup run is still retrying
+            return;
+        }
+        try {
+            reconcileAndLog();
+        } catch (FeignException e) {
+            log.warn("Card link reconciliation skipped, card-service unavailable: {}", e.getMessage());
+        }
+    }
+
+    private void reconcileAndLog() {
+        long start = System.currentTimeMillis();
+        Result result = reconcile();
+        log.info("Card links reconciled in {} ms: {} linked, {} unlinked, {} account counters corrected",
+                System.currentTimeMillis() - start, result.linked(), result.unlinked(), result.recounted());
+    }
+
+    public Result reconcile() {
+        /*
+         * Card ids are generated in increasing order: a card created after this point has a greater id
+         * than any local link, so the tail clean-up below never removes a link newer than the run
+         */
+        Long maxLocalCardId = accountCardAliasRepository.findMaxCardId();
+        long highWater = maxLocalCardId == null ? 0L : maxLocalCardId;
+
+        int linked = 0;
+        int unlinked = 0;
+        long afterCardId = 0L;
+        boolean lastPage;
+        do {
+            List<CardLinkDto> cards = cardServiceFeign.getCardLinks(afterCardId, pageSize);
+            lastPage = cards.size() < pageSize;
+            long from = afterCardId;
+            long to = cards.isEmpty() ? from : cards.get(cards.size() - 1).getCardId();
+            if (lastPage) {
+                to = Math.max(to, highWater);
+            }
+            long upTo = to;
+            int[] page = transactionTemplate.execute(status -> mergeRange(from, upTo, cards));
+            linked += page[0];
+            unlinked += page[1];
+            afterCardId = to;
+        } while (!lastPage);
+
+        int recounted = 0;
+        long afterAccountId = 0L;
+        CardRecount batch;
+        do {
+            long from = afterAccountId;
+            batch = transactionTemplate.execute(status -> accountRepository.recountCards(from, pageSize));
+            recounted += batch.corrected();
+            afterAccountId = batch.lastAccountId() == null ? afterAccountId : batch.lastAccountId();
+        } while (batch.lastAccountId() != null);
+        return new Result(linked, unlinked, recounted);
+    }
+
+    /**
+     * Align the local links of (fromCardId, toCardId] with the cards of card-service in that range
+     * @return number of links saved and deleted
+     */
+    private int[] mergeRange(long fromCardId, long toCardId, List<CardLinkDto> cards) {
+        Map<Long, AccountCardAlias> local = new HashMap<>();
+        for (AccountCardAlias link : accountCardAliasRepository
+                .findByCardIdGreaterThanAndCardIdLessThanEqual(fromCardId, toCardId)) {
+            local.put(link.getCardId(), link);
+        }
+
+        int linked = 0;
+        for (CardLinkDto card : cards) {
+            AccountCardAlias link = local.remove(card.getCardId());
+            if (link == null
+                    || !Objects.equals(link.getAccountId(), card.getAccountId())
+                    || !Objects.equals(link.getCardAlias(), card.getCardAlias())) {
+                accountCardAliasRepository.save(
+                        new AccountCardAlias(card.getCardId(), card.getAccountId(), card.getCardAlias()));
+                linked++;
+            }
+        }
+
+        /*
+         * What is left no longer exists in card-service
+         */
+        accountCardAliasRepository.deleteAllInBatch(local.values());
+        return new int[]{linked, local.size()};
+    }
+}
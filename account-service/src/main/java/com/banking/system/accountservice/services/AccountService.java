@@ -1,10 +1,18 @@
 package com.banking.system.accountservice.services;
 
+import com.banking.system.accountservice.dtos.AccountBatchResponse;
 import com.banking.system.accountservice.dtos.AccountDto;
 import com.banking.system.accountservice.dtos.AccountUpdateDto;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 /**
  * Account service, key for all CRUD activities on account
  */
@@ -17,6 +25,15 @@ public interface AccountService {
      */
     AccountDto saveAccount(AccountDto dto);
 
+    /**
+     * Create many accounts at once. Each distinct customer is checked once, duplicate ibans
+     * are checked with one query and accepted accounts are inserted as JDBC batches.
+     * Invalid accounts are reported and do not stop the others
+     * @param dtos
+     * @return a result per requested account, in request order
+     */
+    AccountBatchResponse saveAccounts(List<AccountDto> dtos);
+
     /**
      *
      * @param page
@@ -28,6 +45,34 @@ public interface AccountService {
      */
     Page<AccountDto> findAllAccounts(int page, int size, Long customerId, String iban, String cardAlias);
 
+    /**
+     * Same page as findAllAccounts, without the total count query
+     * @return a page of accounts and whether there is a next one
+     */
+    SlicePage<AccountDto> findAllAccountsWithoutTotal(int page, int size, Long customerId, String iban, String cardAlias);
+
+    /**
+     * Keyset (cursor) pagination, ordered by account id. Same filters as the paged version, no total count
+     * @param cursor - nextCursor returned by the previous page, empty for the first page
+     * @param size
+     * @param customerId
+     * @param iban
+     * @param cardAlias
+     * @return a page of accounts and the cursor of the next page
+     */
+    CursorPage<AccountDto> findAllAccounts(String cursor, int size, Long customerId, String iban, String cardAlias);
+
+    /**
+     * Stream every account matching the filters to the output, ordered by account id.
+     * Rows are read from a database cursor and written as they come, whatever the number of accounts
+     * @param format - NDJSON or CSV
+     * @param customerId
+     * @param iban
+     * @param cardAlias
+     * @param out
+     */
+    void exportAccounts(ExportFormat format, Long customerId, String iban, String cardAlias, OutputStream out) throws IOException;
+
     /**
      * Used for updating accounts
      * @param accountId
@@ -36,6 +81,14 @@ public interface AccountService {
      */
     AccountDto updateAccount(Long accountId, @Valid AccountUpdateDto dto);
 
+    /**
+     * Conditional update, applied with a single UPDATE only if the account is still at the expected version
+     * @param expectedVersion version of the If-Match ETag, null for an unconditional update
+     * @return a dto of the updated record
+     * @throws com.banking.system.common.exceptions.PreconditionFailedException when the account was modified since
+     */
+    AccountDto updateAccount(Long accountId, @Valid AccountUpdateDto dto, Long expectedVersion);
+
     /**
      *
      * @param accountId
@@ -49,4 +102,40 @@ public interface AccountService {
      * @return a dto of the account with the specified accountId
      */
     AccountDto getAccountById(Long accountId);
+
+    /**
+     * @return current version of the account, used as its ETag
+     */
+    long getAccountVersion(Long accountId);
+
+    /**
+     * Multi-get, used by the other services to check many accounts with one call
+     * @param accountIds at most account.batch.max-size ids
+     * @return the accounts found, in accountId order. Unknown ids are left out
+     */
+    List<AccountDto> getAccountsByIds(List<Long> accountIds);
+
+    /**
+     * Drop a customer from the customer existence cache.
+     * Called by customer-service when a customer is deleted
+     * @param customerId
+     */
+    void evictCustomer(Long customerId);
+
+    /**
+     * Record (or refresh) a card alias in the local card alias index and count the card on the account.
+     * Called by card-service when a card is created or updated, replaying the same event is harmless
+     * @param accountId
+     * @param cardId
+     * @param cardAlias
+     */
+    void linkCard(Long accountId, Long cardId, String cardAlias);
+
+    /**
+     * Remove a card from the local card alias index and from the account card counter.
+     * Called by card-service when a card is deleted
+     * @param accountId
+     * @param cardId
+     */
+    void unlinkCard(Long accountId, Long cardId);
 }
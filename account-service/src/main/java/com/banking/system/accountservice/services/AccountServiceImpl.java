@@ -1,137 +1,514 @@
 package com.banking.system.accountservice.services;
 
+import com.banking.system.accountservice.caches.CustomerExistenceCache;
+import com.banking.system.accountservice.dtos.AccountBatchResponse;
+import com.banking.system.accountservice.dtos.AccountBatchResult;
 import com.banking.system.accountservice.dtos.AccountDto;
 import com.banking.system.accountservice.dtos.AccountUpdateDto;
-import com.banking.system.accountservice.dtos.CardResponse;
 import com.banking.system.accountservice.feign.CardServiceFeign;
-import com.banking.system.accountservice.feign.CustomerServiceFeign;
+import com.banking.system.accountservice.indexes.IbanExistenceFilter;
+import com.banking.system.accountservice.indexes.IbanTrigramIndex;
 import com.banking.system.accountservice.mappers.AccountMapper;
 import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.repositories.AccountCardAliasRepository;
 import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.repositories.AccountRepositoryCustom;
+import com.banking.system.accountservice.schedulers.CardLinkReconciler;
 import com.banking.system.accountservice.specifications.AccountSpecifications;
+import com.banking.system.accountservice.validation.AccountNumberViolation;
+import com.banking.system.accountservice.validation.IbanBicValidator;
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.exceptions.PreconditionFailedException;
+import com.banking.system.common.exceptions.ValidationException;
+import com.banking.system.common.utils.CursorCodec;
+import com.banking.system.common.utils.ETags;
+import com.banking.system.common.utils.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
+@Timed(MetricsConfig.SERVICE_CALLS)
 @RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
+    private static final List<ExportWriter.Column<AccountDto>> EXPORT_COLUMNS = List.of(
+            new ExportWriter.Column<>("accountId", AccountDto::getAccountId),
+            new ExportWriter.Column<>("iban", AccountDto::getIban),
+            new ExportWriter.Column<>("bicSwift", AccountDto::getBicSwift),
+            new ExportWriter.Column<>("customerId", AccountDto::getCustomerId),
+            new ExportWriter.Column<>("createdAt", AccountDto::getCreatedAt));
+
     private final AccountRepository accountRepository;
+    private final AccountCardAliasRepository accountCardAliasRepository;
     private final MessageSource messageSource;
+    private final CustomerExistenceCache customerExistenceCache;
+    private final IbanTrigramIndex ibanTrigramIndex;
+    private final IbanExistenceFilter ibanExistenceFilter;
+    private final IbanBicValidator ibanBicValidator;
+    private final ObjectMapper objectMapper;
     private final CardServiceFeign cardServiceFeign;
-    private final CustomerServiceFeign customerServiceFeign;
+    private final ObjectProvider<CardLinkReconciler> cardLinkReconciler;
+
+    @Value("${account.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${account.batch.chunk-size:100}")
+    private int chunkSize;
 
     @Override
     public AccountDto saveAccount(AccountDto dto){
 
         /**
-         * check if customer exist and if the data given are valid. e.g. Iban is unique
+         * check the data given are valid (IBAN checksum, BIC), then if customer exist and the Iban is unique.
+         * An invalid request is rejected before any remote call or query
          */
+        ValidationException error = localAccountError(dto);
+        if (error != null) {
+            throw error;
+        }
         validateCustomerExist(dto);
-        validateAccountDto(dto);
+        validateIbanUnique(dto);
         Account account = AccountMapper.toEntity(dto);
-        account = accountRepository.save(account);
+        try {
+            account = accountRepository.save(account);
+        } catch (DataIntegrityViolationException e) {
+            // the iban was used meanwhile, by another instance when the existence filter skipped the query
+            if (!accountRepository.existsByIban(dto.getIban())) throw e;
+            ibanExistenceFilter.stale(dto.getIban());
+            throw new ValidationException(messageSource, "iban.number.exist", null);
+        }
+        ibanTrigramIndex.add(account.getAccountId(), account.getIban());
+        ibanExistenceFilter.add(account.getIban());
         return AccountMapper.toDto(account);
     }
 
+    @Override
+    public AccountBatchResponse saveAccounts(List<AccountDto> dtos) {
+        if (dtos == null || dtos.isEmpty() || dtos.size() > maxBatchSize) {
+            throw new ValidationException(messageSource, "invalid.batch.size", new Object[]{maxBatchSize});
+        }
+
+        AccountBatchResult[] results = new AccountBatchResult[dtos.size()];
+        Map<Long, String> customerErrors = new HashMap<>();
+        Set<String> batchIbans = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        /*
+         * Local checks first, then one customer lookup per distinct customer id
+         */
+        for (int i = 0; i < dtos.size(); i++) {
+            AccountDto dto = dtos.get(i);
+            ValidationException invalid = localAccountError(dto);
+            String error = invalid == null ? null : invalid.getMessage();
+            if (error == null && !batchIbans.add(dto.getIban())) {
+                error = messageSource.getMessage("iban.number.exist", null, null);
+            }
+            if (error == null) {
+                if (!customerErrors.containsKey(dto.getCustomerId())) {
+                    customerErrors.put(dto.getCustomerId(), customerError(dto.getCustomerId()));
+                }
+                error = customerErrors.get(dto.getCustomerId());
+            }
+            if (error != null) {
+                results[i] = rejected(i, error);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        /*
+         * One set based query for the ibans already used, only those the existence filter may hold
+         */
+        List<String> possiblyUsedIbans = candidates.stream()
+                .map(i -> dtos.get(i).getIban())
+                .filter(ibanExistenceFilter::mightExist)
+                .toList();
+        Set<String> existingIbans = possiblyUsedIbans.isEmpty() ? Set.of()
+                : accountRepository.findExistingIbans(possiblyUsedIbans);
+        ibanExistenceFilter.confirm(possiblyUsedIbans.size(), existingIbans.size());
+
+        List<Integer> accepted = new ArrayList<>();
+        for (Integer i : candidates) {
+            if (existingIbans.contains(dtos.get(i).getIban())) {
+                results[i] = rejected(i, messageSource.getMessage("iban.number.exist", null, null));
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        /*
+         * Saved in chunks, each in its own transaction: an iban used meanwhile only rolls back its chunk
+         */
+        int createdCount = 0;
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            createdCount += saveChunk(dtos, accepted.subList(from, Math.min(from + chunkSize, accepted.size())), results);
+        }
+
+        return AccountBatchResponse.builder()
+                .createdCount(createdCount)
+                .rejectedCount(dtos.size() - createdCount)
+                .results(List.of(results))
+                .build();
+    }
+
+    /**
+     * List modes read dtos straight from the query (constructor projection), no managed entity per row
+     */
     @Override
     public Page<AccountDto> findAllAccounts(int page, int size, Long customerId, String iban, String cardAlias) {
         Pageable pageable = PageRequest.of(page, size);
-        Specification<Account> spec = AccountSpecifications.accountWithFilter(customerId,iban);
+        Specification<Account> spec = accountFilter(customerId, iban, cardAlias);
+        return accountRepository.findAllAsDto(spec, pageable);
+    }
 
-        if (cardAlias != null) {
-            System.out.println(cardAlias + " cardAlias");
-            /*
-              Card filter implementation to go there.
-              Not implemented due to double pagination. Planning on implementation to continue.
-              Current plan - > fetch all cards by giving the size as total elements.
-              This might affect performance and unnecessary pooling. Thinking of a better implementation plan
-             */
-        }
+    @Override
+    public SlicePage<AccountDto> findAllAccountsWithoutTotal(int page, int size, Long customerId, String iban, String cardAlias) {
+        Specification<Account> spec = accountFilter(customerId, iban, cardAlias);
+        Slice<AccountDto> accounts = accountRepository.findSliceAsDto(spec, PageRequest.of(page, size));
+        return SlicePage.of(accounts);
+    }
+
+    @Override
+    public CursorPage<AccountDto> findAllAccounts(String cursor, int size, Long customerId, String iban, String cardAlias) {
+        Specification<Account> spec = accountFilter(customerId, iban, cardAlias);
+        Long lastId = decodeCursor(cursor);
 
+        /*
+         * Keyset scroll on ACC_ID: WHERE ACC_ID > :lastId ORDER BY ACC_ID LIMIT size + 1, no count query.
+         */
+        List<AccountDto> accounts = accountRepository.findAfterAsDto(spec, lastId, size + 1);
+        boolean hasNext = accounts.size() > size;
+        if (hasNext) {
+            accounts = accounts.subList(0, size);
+        }
 
-        Page<Account> customers = accountRepository.findAll(spec, pageable);
-        return customers.map(AccountMapper::toDto);
+        String nextCursor = hasNext && !accounts.isEmpty()
+                ? CursorCodec.encode(accounts.get(accounts.size() - 1).getAccountId())
+                : null;
+        return new CursorPage<>(accounts, nextCursor, size);
     }
 
     @Override
-    public AccountDto updateAccount(Long accountId, AccountUpdateDto dto) {
-        Account existingAccount = accountRepository.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("account.not.found", new Object[]{accountId},null)));
+    @Transactional(readOnly = true)
+    public void exportAccounts(ExportFormat format, Long customerId, String iban, String cardAlias, OutputStream out) throws IOException {
+        Specification<Account> spec = accountFilter(customerId, iban, cardAlias);
+        try (Stream<Account> accounts = accountRepository.streamAll(spec);
+             ExportWriter<AccountDto> writer = new ExportWriter<>(objectMapper, AccountDto.class, format, EXPORT_COLUMNS, out)) {
+            for (Account account : (Iterable<Account>) accounts::iterator) {
+                writer.write(AccountMapper.toDto(account));
+            }
+        }
+    }
 
-        if (dto.getIban() != null && !dto.getIban().trim().isEmpty()) {
-            existingAccount.setIban(dto.getIban());
+    /**
+     * Single UPDATE ... RETURNING statement, only the provided columns are set.
+     * Not found and version mismatch are told apart by a version read, on failure only
+     */
+    @Override
+    public AccountDto updateAccount(Long accountId, AccountUpdateDto dto, Long expectedVersion) {
+        String iban = dto.getIban() != null && !dto.getIban().trim().isEmpty() ? dto.getIban() : null;
+        String bicSwift = dto.getBicSwift() != null && !dto.getBicSwift().trim().isEmpty() ? dto.getBicSwift() : null;
+        ValidationException error = accountNumberError(iban, bicSwift);
+        if (error != null) {
+            throw error;
         }
 
-        if (dto.getBicSwift() != null && !dto.getBicSwift().trim().isEmpty()) {
-            existingAccount.setBicSwift(dto.getBicSwift());
+        if (iban == null && bicSwift == null) {
+            Account existingAccount = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new ValidationException(messageSource, "account.not.found", new Object[]{accountId}));
+            if (expectedVersion != null && existingAccount.getVersion() != expectedVersion) {
+                throw versionMismatch(accountId, existingAccount.getVersion());
+            }
+            return AccountMapper.toDto(existingAccount);
         }
 
-        Account updatedAccount = accountRepository.save(existingAccount);
-        return AccountMapper.toDto(updatedAccount);
+        AccountRepositoryCustom.PartialUpdate update = accountRepository
+                .updatePartially(accountId, expectedVersion, iban, bicSwift)
+                .orElseThrow(() -> {
+                    if (expectedVersion == null) {
+                        return new ValidationException(messageSource, "account.not.found", new Object[]{accountId});
+                    }
+                    return versionMismatch(accountId, getAccountVersion(accountId));
+                });
+        ibanTrigramIndex.replace(accountId, update.previousIban(), update.account().getIban());
+        ibanExistenceFilter.replace(update.previousIban(), update.account().getIban());
+        return AccountMapper.toDto(update.account());
+    }
+
+    @Override
+    public AccountDto updateAccount(Long accountId, AccountUpdateDto dto) {
+        return updateAccount(accountId, dto, null);
+    }
+
+    private PreconditionFailedException versionMismatch(Long accountId, long currentVersion) {
+        return new PreconditionFailedException(messageSource.getMessage("account.version.mismatch",
+                new Object[]{accountId, ETags.of(currentVersion)}, null));
     }
 
     @Override
     public String deleteAccount(Long accountId) {
         Account existingAccount = accountRepository.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("account.not.found", new Object[]{accountId},null)));
+                .orElseThrow(() -> new ValidationException(messageSource, "account.not.found", new Object[]{accountId}));
 
         /**
-         * Confirm if the account has a card registered
-         * Do not delete any account with a card. i.e. total element is greater than 0
-         *
+         * Do not delete any account with a card.
+         * The card counter is kept up to date by card-service link/unlink events. Until the first reconciliation
+         * has backfilled it (cards linked before the counter existed), card-service is asked as well
          */
-        CardResponse cardResponse = cardServiceFeign.getCardsByAccountCode(
-                accountId,0,1
-        );
-
-        if (cardResponse.getTotalElements() > 0) {
-            throw new IllegalArgumentException(
-                    messageSource.getMessage("account.deletion.rejected", new Object[]{accountId}, null)
-            );
+        if (existingAccount.getCardCount() > 0 || (!cardCountReconciled()
+                && cardServiceFeign.getCardsByAccountCode(accountId, 0, 1).getTotalElements() > 0)) {
+            throw new ValidationException(messageSource, "account.deletion.rejected", new Object[]{accountId});
+        }
+        // the indexes only forget the iban of a row this request deleted, a concurrent delete removes nothing
+        if (accountRepository.deleteWithoutCards(accountId) > 0) {
+            ibanTrigramIndex.remove(accountId, existingAccount.getIban());
+            ibanExistenceFilter.remove(existingAccount.getIban());
+        } else if (accountRepository.existsById(accountId)) {
+            // a card was linked since the account was read
+            throw new ValidationException(messageSource, "account.deletion.rejected", new Object[]{accountId});
         }
-        accountRepository.delete(existingAccount);
 
         return messageSource.getMessage("account.deletion.successful", new Object[]{accountId},null);
     }
 
+    /**
+     * Card counters are trusted once a reconciliation against card-service completed, never without the reconciler
+     */
+    private boolean cardCountReconciled() {
+        CardLinkReconciler reconciler = cardLinkReconciler.getIfAvailable();
+        return reconciler != null && reconciler.isReconciled();
+    }
+
     @Override
     public AccountDto getAccountById(Long accountId) {
         Account existingAccount = accountRepository.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("account.not.found", new Object[]{accountId},null)));
+                .orElseThrow(() -> new ValidationException(messageSource, "account.not.found", new Object[]{accountId}));
         return AccountMapper.toDto(existingAccount);
     }
 
-    private void validateAccountDto(AccountDto dto) {
-        if (dto.getIban() == null || dto.getIban().trim().isEmpty()) {
-            throw new IllegalArgumentException(messageSource.getMessage("missing.iban.number", null, null));
+    @Override
+    public long getAccountVersion(Long accountId) {
+        return accountRepository.findVersionByAccountId(accountId)
+                .orElseThrow(() -> new ValidationException(messageSource, "account.not.found", new Object[]{accountId}));
+    }
+
+    @Override
+    public List<AccountDto> getAccountsByIds(List<Long> accountIds) {
+        if (accountIds == null || accountIds.isEmpty() || accountIds.size() > maxBatchSize) {
+            throw new ValidationException(messageSource, "invalid.batch.size", new Object[]{maxBatchSize});
         }
+        return accountRepository.findAllById(new HashSet<>(accountIds)).stream()
+                .sorted(Comparator.comparing(Account::getAccountId))
+                .map(AccountMapper::toDto)
+                .toList();
+    }
 
-        if (accountRepository.existsByIban(dto.getIban())) {
-            throw new IllegalArgumentException(messageSource.getMessage("iban.number.exist", null, null));
+    @Override
+    public void evictCustomer(Long customerId) {
+        customerExistenceCache.evict(customerId);
+    }
+
+    @Override
+    @Transactional
+    public void linkCard(Long accountId, Long cardId, String cardAlias) {
+        // serialized with the counter recount and the delete of the account
+        accountRepository.lockForCardCount(accountId);
+        AccountCardAlias link = accountCardAliasRepository.findById(cardId)
+                .orElseGet(AccountCardAlias::new);
+        Long previousAccountId = link.getAccountId();
+        link.setCardId(cardId);
+        link.setAccountId(accountId);
+        link.setCardAlias(cardAlias);
+        accountCardAliasRepository.save(link);
+
+        /*
+         * Only a new link (or a card moved to another account) changes the counters,
+         * replayed events and alias updates leave them as they are
+         */
+        if (!accountId.equals(previousAccountId)) {
+            if (previousAccountId != null) {
+                accountRepository.addToCardCount(previousAccountId, -1);
+            }
+            accountRepository.addToCardCount(accountId, 1);
         }
+    }
+
+    @Override
+    @Transactional
+    public void unlinkCard(Long accountId, Long cardId) {
+        accountCardAliasRepository.findById(cardId).ifPresent(link -> {
+            accountRepository.lockForCardCount(link.getAccountId());
+            if (accountCardAliasRepository.deleteByCardId(cardId) > 0) {
+                accountRepository.addToCardCount(link.getAccountId(), -1);
+            }
+        });
+    }
+
+    /**
+     * Build the account filter, resolving the iban substring through the trigram index when possible
+     */
+    private Specification<Account> accountFilter(Long customerId, String iban, String cardAlias) {
+        long[] ibanCandidates = iban == null ? null : ibanTrigramIndex.candidates(iban);
+        return AccountSpecifications.accountWithFilter(customerId, iban, cardAlias, ibanCandidates);
+    }
 
+    private Long decodeCursor(String cursor) {
+        try {
+            return CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(messageSource, "invalid.cursor", new Object[]{cursor});
+        }
+    }
+
+    /**
+     * Queried only when the existence filter may hold the iban
+     */
+    private void validateIbanUnique(AccountDto dto) {
+        if (ibanExistenceFilter.mightExist(dto.getIban())
+                && ibanExistenceFilter.confirm(accountRepository.existsByIban(dto.getIban()))) {
+            throw new ValidationException(messageSource, "iban.number.exist", null);
+        }
+    }
+
+    /**
+     * Checks of validateCustomerExist and validateIbanUnique that need no round trip, IBAN and BIC format included
+     * @return error, null when valid
+     */
+    private ValidationException localAccountError(AccountDto dto) {
+        if (dto.getCustomerId() == null || dto.getCustomerId() == 0L) {
+            return new ValidationException(messageSource, "missing.customer.id", null);
+        }
+        if (dto.getIban() == null || dto.getIban().trim().isEmpty()) {
+            return new ValidationException(messageSource, "missing.iban.number", null);
+        }
         if (dto.getBicSwift() == null || dto.getBicSwift().trim().isEmpty()) {
-            throw new IllegalArgumentException(messageSource.getMessage("missing.bicswift.number", null, null));
+            return new ValidationException(messageSource, "missing.bicswift.number", null);
+        }
+        return accountNumberError(dto.getIban(), dto.getBicSwift());
+    }
+
+    /**
+     * IBAN checksum and country length, BIC structure and directory. Null values are not checked
+     * @return error, null when valid
+     */
+    private ValidationException accountNumberError(String iban, String bicSwift) {
+        AccountNumberViolation violation = iban == null ? null : ibanBicValidator.validateIban(iban);
+        if (violation == null && bicSwift != null) {
+            violation = ibanBicValidator.validateBic(bicSwift);
+        }
+        return violation == null ? null : new ValidationException(messageSource, violation.getMessageKey(), null);
+    }
+
+    /**
+     * @return error message, null when the customer exists
+     */
+    private String customerError(Long customerId) {
+        try {
+            return customerExistenceCache.exists(customerId) ? null
+                    : messageSource.getMessage("customer.not.found", new Object[]{customerId}, null);
+        } catch (Exception e) {
+            return messageSource.getMessage("customer.service.unavailable", new Object[]{customerId}, null);
+        }
+    }
+
+    /**
+     * Save the chunk in one transaction. When it is rolled back, the ibans used meanwhile (by another instance
+     * when the existence filter skipped them) are rejected and the rest of the chunk is saved again
+     * @return number of created accounts
+     */
+    private int saveChunk(List<AccountDto> dtos, List<Integer> chunk, AccountBatchResult[] results) {
+        List<Integer> pending = chunk;
+        List<Account> saved = null;
+        while (saved == null) {
+            try {
+                saved = saveAll(dtos, pending);
+            } catch (DataIntegrityViolationException e) {
+                Set<String> usedIbans = accountRepository.findExistingIbans(
+                        pending.stream().map(i -> dtos.get(i).getIban()).toList());
+                if (usedIbans.isEmpty()) {
+                    // not an iban conflict: earlier chunks are committed, report this chunk as not saved
+                    String error = messageSource.getMessage("account.batch.chunk.failed", null, null);
+                    pending.forEach(i -> results[i] = rejected(i, error));
+                    return 0;
+                }
+                List<Integer> retried = new ArrayList<>();
+                for (Integer i : pending) {
+                    if (usedIbans.contains(dtos.get(i).getIban())) {
+                        ibanExistenceFilter.stale(dtos.get(i).getIban());
+                        results[i] = rejected(i, messageSource.getMessage("iban.number.exist", null, null));
+                    } else {
+                        retried.add(i);
+                    }
+                }
+                pending = retried;
+            }
+        }
+        for (int j = 0; j < saved.size(); j++) {
+            Account account = saved.get(j);
+            ibanTrigramIndex.add(account.getAccountId(), account.getIban());
+            ibanExistenceFilter.add(account.getIban());
+            int index = pending.get(j);
+            results[index] = AccountBatchResult.builder()
+                    .index(index)
+                    .created(true)
+                    .account(AccountMapper.toDto(account))
+                    .build();
         }
+        return saved.size();
+    }
+
+    /**
+     * New entities for the accepted batch items, in their order
+     */
+    private List<Account> saveAll(List<AccountDto> dtos, List<Integer> accepted) {
+        if (accepted.isEmpty()) return List.of();
+        return accountRepository.saveAll(accepted.stream().map(i -> AccountMapper.toEntity(dtos.get(i))).toList());
+    }
+
+    private static AccountBatchResult rejected(int index, String error) {
+        return AccountBatchResult.builder().index(index).created(false).error(error).build();
     }
 
     private void validateCustomerExist(AccountDto dto) {
         if (dto.getCustomerId() == null || dto.getCustomerId()==0L) {
-            throw new IllegalArgumentException(messageSource.getMessage("missing.customer.id", null, null));
+            throw new ValidationException(messageSource, "missing.customer.id", null);
         }
 
+        boolean customerExists;
         try {
-            customerServiceFeign.getCustomerById(dto.getCustomerId());
+            customerExists = customerExistenceCache.exists(dto.getCustomerId());
         }catch (Exception e){
-            throw new IllegalArgumentException(messageSource.getMessage("customer.not.found", new Object[]{dto.getCustomerId()}, null));
+            throw new ValidationException(messageSource, "customer.service.unavailable", new Object[]{dto.getCustomerId()});
+        }
+
+        if (!customerExists) {
+            throw new ValidationException(messageSource, "customer.not.found", new Object[]{dto.getCustomerId()});
         }
     }
 }
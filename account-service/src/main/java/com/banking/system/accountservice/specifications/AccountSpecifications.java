@@ -1,6 +1,10 @@
 package com.banking.system.accountservice.specifications;
 
 import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.Predicate;
 
@@ -9,11 +13,20 @@ import java.util.List;
 
 /**
  * Account specification to create a query filter to be used on fetching accounts
- * support iban and customer id
+ * support iban, customer id and card alias
  */
 public class AccountSpecifications {
 
-    public static Specification<Account> accountWithFilter(Long customerId, String iban) {
+    public static Specification<Account> accountWithFilter(Long customerId, String iban, String cardAlias) {
+        return accountWithFilter(customerId, iban, cardAlias, null);
+    }
+
+    /**
+     * @param ibanCandidates - ACC_IDs resolved by the iban trigram index, null when the index cannot be used.
+     *                       The LIKE is kept as a re-check, but only on those primary keys
+     */
+    public static Specification<Account> accountWithFilter(Long customerId, String iban, String cardAlias,
+                                                           long[] ibanCandidates) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -21,9 +34,33 @@ public class AccountSpecifications {
                 predicates.add(criteriaBuilder.equal(root.get("customerId"), customerId));
             }
 
+            if (iban != null && ibanCandidates != null) {
+                if (ibanCandidates.length == 0) {
+                    predicates.add(criteriaBuilder.disjunction());
+                } else {
+                    CriteriaBuilder.In<Long> candidates = criteriaBuilder.in(root.get("accountId"));
+                    for (long accountId : ibanCandidates) {
+                        candidates.value(accountId);
+                    }
+                    predicates.add(candidates);
+                }
+            }
+
             if (iban != null) {
                 predicates.add(criteriaBuilder.like(root.get("iban"), "%" + iban + "%"));
             }
+
+            /*
+             * Card alias is resolved against the local alias index (ACCOUNT_CARD_ALIASES)
+             * as an IN sub-query, so pagination stays on the accounts table.
+             */
+            if (cardAlias != null && !cardAlias.isEmpty()) {
+                Subquery<Long> cardAccounts = query.subquery(Long.class);
+                Root<AccountCardAlias> card = cardAccounts.from(AccountCardAlias.class);
+                cardAccounts.select(card.get("accountId"))
+                        .where(criteriaBuilder.equal(card.get("cardAlias"), cardAlias));
+                predicates.add(root.get("accountId").in(cardAccounts));
+            }
             return criteriaBuilder.and(predicates.toArray(new Predicate[predicates.size()]));
         };
     }
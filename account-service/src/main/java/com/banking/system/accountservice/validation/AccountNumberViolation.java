@@ -0,0 +1,20 @@
+package com.banking.system.accountservice.validation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Why an IBAN or BIC was rejected, with the key of its message in messages.properties
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AccountNumberViolation {
+    IBAN_FORMAT("invalid.iban.format"),
+    IBAN_COUNTRY("invalid.iban.country"),
+    IBAN_LENGTH("invalid.iban.length"),
+    IBAN_CHECKSUM("invalid.iban.checksum"),
+    BIC_FORMAT("invalid.bicswift.format"),
+    BIC_UNKNOWN("unknown.bicswift");
+
+    private final String messageKey;
+}
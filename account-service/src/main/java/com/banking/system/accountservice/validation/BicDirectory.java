@@ -0,0 +1,128 @@
+package com.banking.system.accountservice.validation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of known BICs, each packed into a long (11 chars in base 36, a BIC8 as its XXX primary office)
+ * in an open addressing table, no object per entry. 100k BICs take 2 MB, a lookup allocates nothing
+ */
+public final class BicDirectory {
+    private static final long EMPTY = 0L;
+    private static final int MAX_ENTRIES = 1 << 28;
+
+    private final long[] table;
+    private final int mask;
+    private final int size;
+
+    private BicDirectory(List<Long> keys) {
+        // at most half full, a missing BIC ends its probe quickly
+        int capacity = Integer.highestOneBit(Math.max(keys.size(), 8) * 2 - 1) << 1;
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+        int added = 0;
+        for (long key : keys) {
+            if (insert(key)) added++;
+        }
+        this.size = added;
+    }
+
+    /**
+     * @throws IllegalArgumentException on a malformed BIC
+     */
+    public static BicDirectory of(Iterable<? extends CharSequence> bics) {
+        List<Long> keys = new ArrayList<>();
+        for (CharSequence bic : bics) {
+            if (!IbanBicValidator.isBic(bic)) {
+                throw new IllegalArgumentException("Malformed BIC " + bic);
+            }
+            keys.add(key(bic, bic.length()));
+        }
+        return new BicDirectory(keys);
+    }
+
+    /**
+     * One BIC per line, blank lines and # comments skipped
+     * @throws IllegalArgumentException on a malformed BIC, with its line number
+     */
+    public static BicDirectory load(InputStream in) throws IOException {
+        List<Long> keys = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String bic = line.trim();
+                if (bic.isEmpty() || bic.startsWith("#")) {
+                    continue;
+                }
+                if (!IbanBicValidator.isBic(bic)) {
+                    throw new IllegalArgumentException("Malformed BIC '" + bic + "' on line " + lineNumber);
+                }
+                if (keys.size() == MAX_ENTRIES) {
+                    throw new IllegalArgumentException("BIC directory larger than " + MAX_ENTRIES + " entries");
+                }
+                keys.add(key(bic, bic.length()));
+            }
+        }
+        return new BicDirectory(keys);
+    }
+
+    /**
+     * @param bic a well-formed BIC8 or BIC11
+     * @return true when the BIC, or the bank (BIC8) it belongs to, is listed
+     */
+    public boolean contains(CharSequence bic) {
+        if (find(key(bic, bic.length()))) {
+            return true;
+        }
+        return bic.length() == 11 && find(key(bic, 8));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean insert(long key) {
+        int slot = slot(key);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        return true;
+    }
+
+    private boolean find(long key) {
+        int slot = slot(key);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 33) & mask;
+    }
+
+    /**
+     * @param length chars of the BIC used, the rest of the 11 read as X (BIC8 = its XXX primary office).
+     *               Never EMPTY: the country code letters are 10 or more in base 36
+     */
+    private static long key(CharSequence bic, int length) {
+        long key = 0;
+        for (int i = 0; i < 11; i++) {
+            key = key * 36 + digit36(i < length ? bic.charAt(i) : 'X');
+        }
+        return key;
+    }
+
+    private static int digit36(char c) {
+        return c <= '9' ? c - '0' : c - 'A' + 10;
+    }
+}
@@ -0,0 +1,144 @@
+package com.banking.system.accountservice.validation;
+
+import com.banking.system.accountservice.configs.AccountValidationConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * IBAN and BIC checks run before any remote call or query, over the chars of the value:
+ * no regex, BigInteger or intermediate String.
+ * - IBAN: country code, check digits, length of the country, mod-97 of the rearranged IBAN (ISO 13616)
+ * - BIC: 4 bank, 2 country, 2 location and optional 3 branch characters (ISO 9362), listed in the
+ *   BIC directory when one is configured
+ */
+@Slf4j
+@Component
+public class IbanBicValidator {
+    /**
+     * SWIFT IBAN registry, country code and IBAN length
+     */
+    private static final String REGISTRY_LENGTHS = """
+            AD24 AE23 AL28 AT20 AZ28 BA20 BE16 BG22 BH22 BI27 BR29 BY28 CH21 CR22 CY28 CZ24 DE22 DJ27 DK18 DO28
+            EE20 EG29 ES24 FI18 FK18 FO18 FR27 GB22 GE22 GI23 GL18 GR27 GT28 HR21 HU28 IE22 IL23 IQ23 IS26 IT27
+            JO30 KW30 KZ20 LB28 LC32 LI21 LT20 LU20 LV21 LY25 MC27 MD24 ME22 MK19 MN20 MR27 MT31 MU30 NI28 NL18
+            NO15 OM23 PK24 PL28 PS29 PT25 QA29 RO24 RS22 RU33 SA24 SC31 SD18 SE24 SI19 SK24 SM27 SO23 ST25 SV28
+            TL23 TN24 TR26 UA29 VA22 VG24 XK20 YE30""";
+    private static final int MAX_IBAN_LENGTH = 34;
+    private static final long MOD97_REDUCE_ABOVE = 1_000_000_000_000_000L;
+
+    /**
+     * IBAN length by country, index (first letter - 'A') * 26 + second letter - 'A', 0 = no IBAN
+     */
+    private final byte[] ibanLengths = new byte[26 * 26];
+    private final BicDirectory bicDirectory;
+
+    public IbanBicValidator(AccountValidationConfig config, ResourceLoader resourceLoader) {
+        for (String entry : REGISTRY_LENGTHS.split("\\s+")) {
+            setIbanLength(entry.substring(0, 2), Integer.parseInt(entry.substring(2)));
+        }
+        config.getIbanLengths().forEach(this::setIbanLength);
+        this.bicDirectory = loadBicDirectory(config.getBicDirectory(), resourceLoader);
+    }
+
+    /**
+     * @return the violation, null when the IBAN is valid
+     */
+    public AccountNumberViolation validateIban(CharSequence iban) {
+        int length = iban.length();
+        if (length < 5 || length > MAX_IBAN_LENGTH
+                || !isLetter(iban.charAt(0)) || !isLetter(iban.charAt(1))
+                || !isDigit(iban.charAt(2)) || !isDigit(iban.charAt(3))) {
+            return AccountNumberViolation.IBAN_FORMAT;
+        }
+        int expectedLength = ibanLengths[(iban.charAt(0) - 'A') * 26 + iban.charAt(1) - 'A'];
+        if (expectedLength == 0) {
+            return AccountNumberViolation.IBAN_COUNTRY;
+        }
+
+        // the BBAN then the first 4 chars, letters as 10-35, mod 97 must be 1. Scanned before the length
+        // check, a printed IBAN (with spaces) is told as a format error
+        // digits are accumulated in a long and reduced only before it could overflow
+        long remainder = 0;
+        for (int n = 0; n < length; n++) {
+            char c = iban.charAt(n < length - 4 ? n + 4 : n - length + 4);
+            if (isDigit(c)) {
+                remainder = remainder * 10 + c - '0';
+            } else if (isLetter(c)) {
+                remainder = remainder * 100 + c - 'A' + 10;
+            } else {
+                return AccountNumberViolation.IBAN_FORMAT;
+            }
+            if (remainder >= MOD97_REDUCE_ABOVE) {
+                remainder %= 97;
+            }
+        }
+        if (length != expectedLength) {
+            return AccountNumberViolation.IBAN_LENGTH;
+        }
+        return remainder % 97 == 1 ? null : AccountNumberViolation.IBAN_CHECKSUM;
+    }
+
+    /**
+     * @return the violation, null when the BIC is valid
+     */
+    public AccountNumberViolation validateBic(CharSequence bic) {
+        if (!isBic(bic)) {
+            return AccountNumberViolation.BIC_FORMAT;
+        }
+        return bicDirectory == null || bicDirectory.contains(bic) ? null : AccountNumberViolation.BIC_UNKNOWN;
+    }
+
+    /**
+     * BIC8 or BIC11 structure, upper case
+     */
+    static boolean isBic(CharSequence bic) {
+        int length = bic.length();
+        if (length != 8 && length != 11) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = bic.charAt(i);
+            boolean valid = i == 4 || i == 5 ? isLetter(c) : isLetter(c) || isDigit(c);
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setIbanLength(String country, Integer length) {
+        if (country.length() != 2 || !isLetter(country.charAt(0)) || !isLetter(country.charAt(1))
+                || length == null || length < 5 || length > MAX_IBAN_LENGTH) {
+            throw new IllegalArgumentException("account.validation.iban-lengths: invalid entry " + country + "=" + length);
+        }
+        ibanLengths[(country.charAt(0) - 'A') * 26 + country.charAt(1) - 'A'] = length.byteValue();
+    }
+
+    private static BicDirectory loadBicDirectory(String location, ResourceLoader resourceLoader) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            BicDirectory directory = BicDirectory.load(in);
+            log.info("Loaded {} BICs from {}", directory.size(), location);
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the BIC directory " + location, e);
+        }
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.system.accountservice.caches;
+
+import com.banking.system.accountservice.configs.CustomerCacheConfig;
+import com.banking.system.accountservice.dtos.CustomerDto;
+import com.banking.system.accountservice.feign.CustomerServiceFeign;
+import com.banking.system.common.diagnostics.VirtualThreadPinningMonitor;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CustomerExistenceCacheTest {
+    private CustomerServiceFeign customerServiceFeign;
+    private SimpleMeterRegistry meterRegistry;
+    private CustomerExistenceCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        customerServiceFeign = mock(CustomerServiceFeign.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> registryProvider = mock(ObjectProvider.class);
+        doAnswer(invocation -> {
+            invocation.<java.util.function.Consumer<MeterRegistry>>getArgument(0).accept(meterRegistry);
+            return null;
+        }).when(registryProvider).ifAvailable(any());
+
+        cache = new CustomerExistenceCache(customerServiceFeign, new CustomerCacheConfig(), registryProvider);
+    }
+
+    @Test
+    void exists_PositiveResultCached() {
+        when(customerServiceFeign.getCustomerById(1L)).thenReturn(new CustomerDto(1L));
+
+        assertTrue(cache.exists(1L));
+        assertTrue(cache.exists(1L));
+
+        verify(customerServiceFeign, times(1)).getCustomerById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void exists_NegativeResultCached() {
+        when(customerServiceFeign.getCustomerById(999L)).thenThrow(feignError(400));
+
+        assertFalse(cache.exists(999L));
+        assertFalse(cache.exists(999L));
+
+        verify(customerServiceFeign, times(1)).getCustomerById(999L);
+    }
+
+    @Test
+    void exists_TransientFailureNotCached() {
+        when(customerServiceFeign.getCustomerById(1L))
+                .thenThrow(feignError(503))
+                .thenReturn(new CustomerDto(1L));
+
+        assertThrows(FeignException.class, () -> cache.exists(1L));
+        assertTrue(cache.exists(1L));
+
+        verify(customerServiceFeign, times(2)).getCustomerById(1L);
+    }
+
+    @Test
+    void evict_NextLookupGoesToCustomerService() {
+        when(customerServiceFeign.getCustomerById(1L)).thenReturn(new CustomerDto(1L));
+
+        cache.exists(1L);
+        cache.evict(1L);
+        cache.exists(1L);
+
+        verify(customerServiceFeign, times(2)).getCustomerById(1L);
+    }
+
+    @Test
+    void exists_RemoteCallDoesNotPinVirtualThread() throws Exception {
+        when(customerServiceFeign.getCustomerById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return new CustomerDto(1L);
+        });
+
+        try (VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10))) {
+            monitor.start();
+            Thread.ofVirtual().start(() -> cache.exists(1L)).join();
+            Thread.sleep(2000);
+
+            assertEquals(0, monitor.pinnedCount());
+        }
+        verify(customerServiceFeign).getCustomerById(1L);
+    }
+
+    private static FeignException feignError(int status) {
+        Request request = Request.create(Request.HttpMethod.GET, "/customer/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("CustomerServiceFeign#getCustomerById(Long)",
+                feign.Response.builder().status(status).reason("error").request(request)
+                        .headers(Collections.emptyMap()).build());
+    }
+}
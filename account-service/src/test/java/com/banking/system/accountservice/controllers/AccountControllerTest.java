@@ -1,9 +1,15 @@
 package com.banking.system.accountservice.controllers;
 
+import com.banking.system.accountservice.dtos.AccountBatchResponse;
+import com.banking.system.accountservice.dtos.AccountBatchResult;
 import com.banking.system.accountservice.dtos.AccountDto;
 import com.banking.system.accountservice.dtos.AccountUpdateDto;
+import com.banking.system.accountservice.dtos.CardDto;
 import com.banking.system.accountservice.models.Account;
 import com.banking.system.accountservice.services.AccountService;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,9 +18,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -72,6 +81,23 @@ class AccountControllerTest {
         verify(accountService).saveAccount(createAccountDto);
     }
 
+    /**
+     * Test batch save endpoint.
+     * Expected feedback is a result per requested account
+     */
+    @Test
+    void saveBatch_ValidInput() {
+        AccountBatchResponse batchResponse = new AccountBatchResponse(1, 0,
+                List.of(new AccountBatchResult(0, true, fetchAccountDto, null)));
+        when(accountService.saveAccounts(List.of(createAccountDto))).thenReturn(batchResponse);
+
+        ResponseEntity<AccountBatchResponse> response = accountController.saveBatch(List.of(createAccountDto));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getCreatedCount());
+        assertEquals(fetchAccountDto, response.getBody().getResults().get(0).getAccount());
+    }
+
     /**
      * Test fetch all endpoint with no filters.
      * Expected feedback paginated list of all data - no filter applied
@@ -125,15 +151,51 @@ class AccountControllerTest {
     void getAccountById_ExistingId() {
         Long accountId = 1L;
 
+        createAccountDto.setVersion(3L);
         when(accountService.getAccountById(accountId)).thenReturn(createAccountDto);
 
-        ResponseEntity<AccountDto> response = accountController.getAccountById(accountId);
+        ResponseEntity<AccountDto> response = accountController.getAccountById(accountId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(createAccountDto, response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
         verify(accountService).getAccountById(accountId);
     }
 
+    @Test
+    void getAccountById_CurrentETag_NotModified() {
+        when(accountService.getAccountVersion(1L)).thenReturn(3L);
+
+        ResponseEntity<AccountDto> response = accountController.getAccountById(1L, "W/\"2\", \"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(accountService, never()).getAccountById(any());
+    }
+
+    @Test
+    void getAccountById_StaleETag_ReturnsAccount() {
+        createAccountDto.setVersion(4L);
+        when(accountService.getAccountVersion(1L)).thenReturn(4L);
+        when(accountService.getAccountById(1L)).thenReturn(createAccountDto);
+
+        ResponseEntity<AccountDto> response = accountController.getAccountById(1L, "\"3\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getAccountsByIds() {
+        when(accountService.getAccountsByIds(List.of(1L, 2L))).thenReturn(List.of(createAccountDto));
+
+        ResponseEntity<List<AccountDto>> response = accountController.getAccountsByIds(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(createAccountDto), response.getBody());
+    }
+
     /**
      * Test update account.
      * Expected feedback - a account dto with the updated details
@@ -148,14 +210,28 @@ class AccountControllerTest {
         updatedDto.setAccountId(accountId);
         updatedDto.setIban("3543343454453466");
 
-        when(accountService.updateAccount(accountId, toUpdateDto)).thenReturn(updatedDto);
+        when(accountService.updateAccount(accountId, toUpdateDto, null)).thenReturn(updatedDto);
 
-        ResponseEntity<AccountDto> response = accountController.update(toUpdateDto, accountId);
+        ResponseEntity<AccountDto> response = accountController.update(toUpdateDto, accountId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedDto, response.getBody());
         assertEquals("3543343454453466", Objects.requireNonNull(response.getBody()).getIban());
-        verify(accountService).updateAccount(accountId, toUpdateDto);
+        verify(accountService).updateAccount(accountId, toUpdateDto, null);
+    }
+
+    @Test
+    void updateAccount_IfMatch_PassesExpectedVersion() {
+        AccountUpdateDto toUpdateDto = new AccountUpdateDto();
+        toUpdateDto.setBicSwift("FERHEGS");
+        AccountDto updatedDto = new AccountDto();
+        updatedDto.setVersion(8L);
+        when(accountService.updateAccount(1L, toUpdateDto, 7L)).thenReturn(updatedDto);
+
+        ResponseEntity<AccountDto> response = accountController.update(toUpdateDto, 1L, "\"7\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"8\"", response.getHeaders().getETag());
     }
 
     /**
@@ -187,4 +263,68 @@ class AccountControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllAccounts_WithoutTotal() {
+        SlicePage<AccountDto> expectedPage = new SlicePage<>(List.of(fetchAccountDto), page, size, false);
+        when(accountService.findAllAccountsWithoutTotal(page, size, 1L, null, null)).thenReturn(expectedPage);
+
+        ResponseEntity<SlicePage<AccountDto>> response = accountController.findAllWithoutTotal(page, size, null, null, 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.getBody().isHasNext());
+        assertEquals(fetchAccountDto, response.getBody().getContent().get(0));
+    }
+
+    @Test
+    void findAllAccounts_CursorMode() {
+        CursorPage<AccountDto> expectedPage = new CursorPage<>(List.of(fetchAccountDto), "MQ", size);
+        when(accountService.findAllAccounts("", size, null, null, null)).thenReturn(expectedPage);
+
+        ResponseEntity<CursorPage<AccountDto>> response = accountController.findAllByCursor("", size, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("MQ", response.getBody().getNextCursor());
+        assertEquals(fetchAccountDto, response.getBody().getContent().get(0));
+    }
+
+    @Test
+    void evictCustomer_ExistingCustomer() {
+        ResponseEntity<Void> response = accountController.evictCustomer(1L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(accountService).evictCustomer(1L);
+    }
+
+    @Test
+    void linkCard_ValidInput() {
+        CardDto cardDto = new CardDto("5", "Shopping card", "1");
+
+        ResponseEntity<Void> response = accountController.linkCard(1L, 5L, cardDto);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(accountService).linkCard(1L, 5L, "Shopping card");
+    }
+
+    @Test
+    void unlinkCard_ExistingCard() {
+        ResponseEntity<Void> response = accountController.unlinkCard(1L, 5L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(accountService).unlinkCard(1L, 5L);
+    }
+
+    @Test
+    void export_StreamsAccountsAsAttachment() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = accountController.export(ExportFormat.CSV, null, null, 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv", String.valueOf(response.getHeaders().getContentType()));
+        assertEquals("attachment; filename=\"accounts.csv\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        verifyNoInteractions(accountService);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(accountService).exportAccounts(ExportFormat.CSV, 1L, null, null, out);
+    }
+}
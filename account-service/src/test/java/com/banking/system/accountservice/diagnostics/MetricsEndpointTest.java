@@ -0,0 +1,129 @@
+package com.banking.system.accountservice.diagnostics;
+
+import com.banking.system.accountservice.controllers.AccountController;
+import com.banking.system.accountservice.dtos.AccountDto;
+import com.banking.system.accountservice.exceptions.ValidationExceptionHandler;
+import com.banking.system.accountservice.services.AccountServiceImpl;
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import com.banking.system.common.diagnostics.SqlDataSourceProxy;
+import com.banking.system.common.diagnostics.SqlStatementListener;
+import com.banking.system.common.exceptions.ValidationException;
+import com.banking.system.common.exceptions.ValidationFailureMetrics;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.RequestLine;
+import feign.micrometer.MicrometerObservationCapability;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Boots the web layer with the metrics configuration of application.yml (service mocked, in-memory pool)
+ * and checks the Prometheus scrape holds the controller, service, Feign, pool and validation metrics
+ */
+class MetricsEndpointTest {
+    private static ConfigurableApplicationContext context;
+    private static HttpServer downstream;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void start() throws Exception {
+        context = SpringApplication.run(MetricsApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:metrics",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        downstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        downstream.createContext("/customer/1", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        downstream.start();
+    }
+
+    @AfterAll
+    static void stop() {
+        downstream.stop(0);
+        context.close();
+    }
+
+    @Test
+    void scrapeHoldsTheServiceMetrics() throws Exception {
+        assertEquals(200, get("/accounts/1"));
+        assertEquals(400, get("/accounts/2"));
+        CustomerStub customerStub = Feign.builder()
+                .addCapability(new MicrometerObservationCapability(context.getBean(ObservationRegistry.class)))
+                .target(CustomerStub.class, "http://127.0.0.1:" + downstream.getAddress().getPort());
+        customerStub.getCustomer();
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+
+        PrometheusScrapeStub scrape = PrometheusScrapeStub.scrape(URI.create(baseUrl + "/actuator/prometheus"));
+
+        Map<String, String> getAccountById = Map.of("method", "getAccountById", "application", "account-service");
+        assertEquals(2, scrape.sum("controller_calls_seconds_count", getAccountById));
+        assertFalse(scrape.samples("controller_calls_seconds_bucket", getAccountById).isEmpty());
+        assertEquals(2, scrape.sum("service_calls_seconds_count", getAccountById));
+        assertEquals(2, scrape.sum("http_server_requests_seconds_count", Map.of("uri", "/accounts/{accountId}")));
+        assertEquals(1, scrape.sum("http_client_requests_seconds_count", Map.of("feign_method", "CustomerStub#getCustomer()")));
+        assertEquals(1, scrape.sum("validation_failures_total", Map.of("key", "account.not.found")));
+        assertFalse(scrape.samples("hikaricp_connections_pending", Map.of("pool", "account-pool")).isEmpty());
+        assertFalse(scrape.samples("hikaricp_connections_acquire_seconds_bucket", Map.of("pool", "account-pool")).isEmpty());
+    }
+
+    private static int get(String path) throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    interface CustomerStub {
+        @RequestLine("GET /customer/1")
+        void getCustomer();
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+    @Import({MetricsConfig.class, AccountController.class, ValidationExceptionHandler.class, ValidationFailureMetrics.class,
+            SqlDiagnosticsConfig.class, SqlStatementListener.class, SqlDataSourceProxy.class})
+    static class MetricsApplication {
+        @Bean
+        AccountServiceImpl accountService() {
+            AccountServiceImpl accountService = mock(AccountServiceImpl.class);
+            when(accountService.getAccountById(1L)).thenReturn(AccountDto.builder().accountId(1L).version(0L).build());
+            when(accountService.getAccountById(2L)).thenThrow(new ValidationException("account.not.found", new Object[]{2L}, "Account with id 2 not found"));
+            return accountService;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.system.accountservice.diagnostics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scrapes a metrics endpoint the way a Prometheus server does (text exposition format 0.0.4) and parses the
+ * samples, failing on any line Prometheus would reject. Tests assert on the parsed samples instead of running
+ * a Prometheus server.
+ */
+public final class PrometheusScrapeStub {
+    static final String ACCEPT = "text/plain;version=0.0.4;q=1,*/*;q=0.1";
+    private static final Pattern SAMPLE = Pattern.compile(
+            "^([a-zA-Z_:][a-zA-Z0-9_:]*)(?:\\{(.*)})?\\s+(\\S+)(?:\\s+-?\\d+)?$");
+    private static final Pattern LABEL = Pattern.compile(
+            "\\s*([a-zA-Z_][a-zA-Z0-9_]*)=\"((?:[^\"\\\\]|\\\\.)*)\"\\s*(?:,|$)");
+    private static final Pattern COMMENT = Pattern.compile("^# (?:HELP|TYPE) [a-zA-Z_:][a-zA-Z0-9_:]* .*$|^# EOF$");
+
+    private final List<Sample> samples;
+
+    private PrometheusScrapeStub(List<Sample> samples) {
+        this.samples = samples;
+    }
+
+    public static PrometheusScrapeStub scrape(URI endpoint) throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(endpoint).header("Accept", ACCEPT).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new AssertionError("Scrape of " + endpoint + " answered " + response.statusCode());
+            }
+            String contentType = response.headers().firstValue("Content-Type").orElse("");
+            if (!contentType.startsWith("text/plain")) {
+                throw new AssertionError("Scrape of " + endpoint + " answered content type " + contentType);
+            }
+            return parse(response.body());
+        }
+    }
+
+    static PrometheusScrapeStub parse(String body) {
+        List<Sample> samples = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (line.isBlank()) continue;
+            if (line.startsWith("#")) {
+                if (!COMMENT.matcher(line).matches()) throw new AssertionError("Malformed comment line: " + line);
+                continue;
+            }
+            Matcher sample = SAMPLE.matcher(line);
+            if (!sample.matches()) throw new AssertionError("Malformed sample line: " + line);
+            samples.add(new Sample(sample.group(1), labels(sample.group(2), line), value(sample.group(3), line)));
+        }
+        return new PrometheusScrapeStub(samples);
+    }
+
+    /**
+     * @return samples of the metric having at least the given labels
+     */
+    public List<Sample> samples(String name, Map<String, String> labels) {
+        return samples.stream()
+                .filter(sample -> sample.name().equals(name))
+                .filter(sample -> sample.labels().entrySet().containsAll(labels.entrySet()))
+                .toList();
+    }
+
+    /**
+     * @return sum of the matching samples, 0 if there is none
+     */
+    public double sum(String name, Map<String, String> labels) {
+        return samples(name, labels).stream().mapToDouble(Sample::value).sum();
+    }
+
+    private static Map<String, String> labels(String labels, String line) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        if (labels == null || labels.isBlank()) return parsed;
+        Matcher label = LABEL.matcher(labels);
+        int end = 0;
+        while (label.find() && label.start() == end) {
+            parsed.put(label.group(1), label.group(2).replace("\\\"", "\"").replace("\\n", "\n").replace("\\\\", "\\"));
+            end = label.end();
+        }
+        if (end != labels.length()) throw new AssertionError("Malformed labels: " + line);
+        return parsed;
+    }
+
+    private static double value(String value, String line) {
+        return switch (value) {
+            case "+Inf" -> Double.POSITIVE_INFINITY;
+            case "-Inf" -> Double.NEGATIVE_INFINITY;
+            case "NaN" -> Double.NaN;
+            default -> {
+                try {
+                    yield Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    throw new AssertionError("Malformed sample value: " + line);
+                }
+            }
+        };
+    }
+
+    public record Sample(String name, Map<String, String> labels, double value) {
+    }
+}
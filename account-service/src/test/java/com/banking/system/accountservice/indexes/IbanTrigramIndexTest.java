@@ -0,0 +1,103 @@
+package com.banking.system.accountservice.indexes;
+
+import com.banking.system.accountservice.models.AccountIbanView;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IbanTrigramIndexTest {
+    private AccountRepository accountRepository;
+    private IbanTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findByAccountIdGreaterThanOrderByAccountId(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(
+                        view(1L, "GB82WEST12345698765432"),
+                        view(2L, "DE89370400440532013000"),
+                        view(3L, "GB29NWBK60161331926819")));
+        index = new IbanTrigramIndex(accountRepository, true, 5000);
+        index.build();
+    }
+
+    @Test
+    void candidates_SubstringMatch() {
+        assertArrayEquals(new long[]{1L}, index.candidates("WEST123"));
+        assertArrayEquals(new long[]{2L}, index.candidates("0532013"));
+        assertArrayEquals(new long[]{3L}, index.candidates("NWBK"));
+    }
+
+    @Test
+    void candidates_NoMatch() {
+        assertEquals(0, index.candidates("XYZ").length);
+    }
+
+    @Test
+    void candidates_ShortOrWildcardFragmentNotIndexed() {
+        assertNull(index.candidates("GB"));
+        assertNull(index.candidates("GB_2"));
+        assertNull(index.candidates(null));
+    }
+
+    @Test
+    void candidates_TooManyCandidatesFallsBack() {
+        IbanTrigramIndex small = new IbanTrigramIndex(accountRepository, true, 1);
+        small.build();
+        small.add(4L, "GB82WEST12345698765433");
+
+        assertArrayEquals(new long[]{3L}, small.candidates("NWBK"));
+        assertNull(small.candidates("WEST"));
+    }
+
+    @Test
+    void candidates_NotReadyBeforeBuild() {
+        IbanTrigramIndex notBuilt = new IbanTrigramIndex(accountRepository, true, 5000);
+
+        assertFalse(notBuilt.isReady());
+        assertNull(notBuilt.candidates("WEST"));
+    }
+
+    @Test
+    void add_Remove_Replace() {
+        index.add(4L, "FR1420041010050500013M02606");
+        assertArrayEquals(new long[]{4L}, index.candidates("13M026"));
+
+        index.replace(4L, "FR1420041010050500013M02606", "FR7630006000011234567890189");
+        assertEquals(0, index.candidates("13M026").length);
+        assertArrayEquals(new long[]{4L}, index.candidates("0189"));
+
+        index.remove(4L, "FR7630006000011234567890189");
+        assertEquals(0, index.candidates("0189").length);
+    }
+
+    @Test
+    void candidates_SortedIds() {
+        index.add(10L, "GB82WEST12345698765432");
+        index.add(7L, "GB82WEST12345698765433");
+
+        assertArrayEquals(new long[]{1L, 7L, 10L}, index.candidates("WEST1234"));
+    }
+
+    private static AccountIbanView view(Long accountId, String iban) {
+        return new AccountIbanView() {
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public String getIban() {
+                return iban;
+            }
+        };
+    }
+}
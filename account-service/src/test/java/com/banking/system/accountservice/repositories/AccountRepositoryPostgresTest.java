@@ -0,0 +1,144 @@
+package com.banking.system.accountservice.repositories;
+
+import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.repositories.AccountRepositoryCustom.CardRecount;
+import com.banking.system.accountservice.repositories.AccountRepositoryCustom.PartialUpdate;
+import com.banking.system.common.database.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The partial update statement (UPDATE ... FROM ... FOR UPDATE ... RETURNING) and the card counter recount
+ * (SELECT ... LIMIT ... FOR UPDATE) on an embedded postgres, H2 does not run them, and the ACCOUNTS_SEQ alignment
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AccountRepositoryPostgresTest {
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Account account;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        account = accountRepository.save(new Account(null, "GB29NWBK60161331926819", "NWBKGB2L", 7L, null, 2, 0));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void updatePartially_ReturnsTheNewRowAndThePreviousIban() {
+        PartialUpdate update = accountRepository.updatePartially(account.getAccountId(), null,
+                "GB82WEST12345698765432", "COBADEFFXXX").orElseThrow();
+
+        assertEquals("GB29NWBK60161331926819", update.previousIban());
+        Account updated = update.account();
+        assertEquals(account.getAccountId(), updated.getAccountId());
+        assertEquals("GB82WEST12345698765432", updated.getIban());
+        assertEquals("COBADEFFXXX", updated.getBicSwift());
+        assertEquals(7L, updated.getCustomerId());
+        assertEquals(2, updated.getCardCount());
+        assertEquals(account.getVersion() + 1, updated.getVersion());
+        Account stored = entityManager.find(Account.class, account.getAccountId());
+        assertEquals("GB82WEST12345698765432", stored.getIban());
+        assertEquals(stored.getCreatedAt(), updated.getCreatedAt());
+    }
+
+    @Test
+    void updatePartially_OnlyBic_IbanKeptAndReturnedAsPrevious() {
+        PartialUpdate update = accountRepository.updatePartially(account.getAccountId(), null, null, "COBADEFFXXX")
+                .orElseThrow();
+
+        assertEquals("GB29NWBK60161331926819", update.previousIban());
+        assertEquals("GB29NWBK60161331926819", update.account().getIban());
+        assertEquals("COBADEFFXXX", update.account().getBicSwift());
+    }
+
+    @Test
+    void updatePartially_ExpectedVersion_UpdatedOnlyAtThatVersion() {
+        assertTrue(accountRepository.updatePartially(account.getAccountId(), account.getVersion() + 1,
+                null, "COBADEFFXXX").isEmpty());
+        assertEquals("NWBKGB2L", entityManager.find(Account.class, account.getAccountId()).getBicSwift());
+        entityManager.clear();
+
+        PartialUpdate update = accountRepository.updatePartially(account.getAccountId(), account.getVersion(),
+                null, "COBADEFFXXX").orElseThrow();
+
+        assertEquals("COBADEFFXXX", update.account().getBicSwift());
+        assertEquals(account.getVersion() + 1, update.account().getVersion());
+    }
+
+    @Test
+    void updatePartially_UnknownId_Empty() {
+        assertTrue(accountRepository.updatePartially(account.getAccountId() + 1000, null, null, "COBADEFFXXX").isEmpty());
+    }
+
+    @Test
+    void recountCards_ResetsTheCountersOfTheBatchOnly() {
+        Account second = accountRepository.save(new Account(null, "GB82WEST12345698765432", "NWBKGB2L", 7L, null, 0, 0));
+        entityManager.persist(new AccountCardAlias(1L, second.getAccountId(), "Shopping card"));
+        entityManager.flush();
+        entityManager.clear();
+
+        CardRecount first = accountRepository.recountCards(0L, 1);
+
+        assertEquals(new CardRecount(account.getAccountId(), 1), first);
+        assertEquals(0, entityManager.find(Account.class, account.getAccountId()).getCardCount());
+        assertEquals(0, entityManager.find(Account.class, second.getAccountId()).getCardCount());
+        entityManager.clear();
+
+        assertEquals(new CardRecount(second.getAccountId(), 1), accountRepository.recountCards(first.lastAccountId(), 1));
+        assertEquals(1, entityManager.find(Account.class, second.getAccountId()).getCardCount());
+        assertEquals(new CardRecount(null, 0), accountRepository.recountCards(second.getAccountId(), 1));
+    }
+
+    @Test
+    void deleteWithoutCards_OnlyWhenNoCardIsCounted() {
+        assertEquals(0, accountRepository.deleteWithoutCards(account.getAccountId()));
+        assertTrue(accountRepository.existsById(account.getAccountId()));
+
+        accountRepository.addToCardCount(account.getAccountId(), -2);
+
+        assertEquals(1, accountRepository.deleteWithoutCards(account.getAccountId()));
+        assertFalse(accountRepository.existsById(account.getAccountId()));
+    }
+
+    @Test
+    void alignIdSequence_RestartedAboveIdsInsertedWithoutIt() {
+        assertFalse(accountRepository.alignIdSequence());
+
+        // an account created while ACC_ID was IDENTITY
+        entityManager.getEntityManager().createNativeQuery("INSERT INTO ACCOUNTS (ACC_ID, ACC_IBAN, ACC_BICSWIFT, "
+                + "ACC_CUST_ID, ACC_CREATED_AT, ACC_CARD_COUNT, ACC_VERSION) "
+                + "VALUES (1000, 'GB82WEST12345698765432', 'NWBKGB2L', 7, now(), 0, 0)").executeUpdate();
+
+        assertTrue(accountRepository.alignIdSequence());
+        assertFalse(accountRepository.alignIdSequence());
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Account.class)
+    @EnableJpaRepositories(basePackageClasses = AccountRepository.class)
+    static class PostgresConfig {
+    }
+}
@@ -0,0 +1,129 @@
+package com.banking.system.accountservice.schedulers;
+
+import com.banking.system.accountservice.dtos.CardLinkDto;
+import com.banking.system.accountservice.feign.CardServiceFeign;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.repositories.AccountCardAliasRepository;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.repositories.AccountRepositoryCustom.CardRecount;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class CardLinkReconcilerTest {
+    private CardServiceFeign cardServiceFeign;
+    private AccountCardAliasRepository accountCardAliasRepository;
+    private AccountRepository accountRepository;
+    private CardLinkReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        cardServiceFeign = mock(CardServiceFeign.class);
+        accountCardAliasRepository = mock(AccountCardAliasRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        reconciler = new CardLinkReconciler(cardServiceFeign, accountCardAliasRepository, accountRepository,
+                transactionTemplate, 2, Duration.ZERO);
+        when(accountRepository.recountCards(anyLong(), anyInt())).thenReturn(new CardRecount(null, 0));
+    }
+
+    @Test
+    void reconcile_AddsMissingUpdatesChangedAndRemovesDeletedLinks() {
+        when(accountCardAliasRepository.findMaxCardId()).thenReturn(9L);
+        when(cardServiceFeign.getCardLinks(0L, 2)).thenReturn(List.of(
+                new CardLinkDto(1L, "Shopping card", 1L),
+                new CardLinkDto(3L, "Renamed", 1L)));
+        when(cardServiceFeign.getCardLinks(3L, 2)).thenReturn(List.of(
+                new CardLinkDto(4L, null, 2L)));
+        when(accountCardAliasRepository.findByCardIdGreaterThanAndCardIdLessThanEqual(0L, 3L)).thenReturn(List.of(
+                new AccountCardAlias(1L, 1L, "Shopping card"),
+                new AccountCardAlias(2L, 1L, "Deleted card"),
+                new AccountCardAlias(3L, 1L, "Old alias")));
+        when(accountCardAliasRepository.findByCardIdGreaterThanAndCardIdLessThanEqual(3L, 9L)).thenReturn(List.of(
+                new AccountCardAlias(9L, 2L, "Deleted card")));
+        when(accountRepository.recountCards(0L, 2)).thenReturn(new CardRecount(2L, 1));
+        when(accountRepository.recountCards(2L, 2)).thenReturn(new CardRecount(3L, 1));
+
+        CardLinkReconciler.Result result = reconciler.reconcile();
+
+        assertEquals(new CardLinkReconciler.Result(2, 2, 2), result);
+        verify(accountCardAliasRepository).save(argThat(link -> link.getCardId() == 3L && "Renamed".equals(link.getCardAlias())));
+        verify(accountCardAliasRepository).save(argThat(link -> link.getCardId() == 4L && link.getAccountId() == 2L));
+        verify(accountCardAliasRepository, never()).save(argThat(link -> link.getCardId() == 1L));
+        verify(accountCardAliasRepository).deleteAllInBatch(argThat((Collection<AccountCardAlias> links) ->
+                links.size() == 1 && links.iterator().next().getCardId() == 2L));
+        verify(accountCardAliasRepository).deleteAllInBatch(argThat((Collection<AccountCardAlias> links) ->
+                links.size() == 1 && links.iterator().next().getCardId() == 9L));
+        verify(accountRepository).recountCards(3L, 2);
+    }
+
+    @Test
+    void reconcile_NoCards_ClearsIndex() {
+        when(accountCardAliasRepository.findMaxCardId()).thenReturn(5L);
+        when(cardServiceFeign.getCardLinks(0L, 2)).thenReturn(Collections.emptyList());
+        when(accountCardAliasRepository.findByCardIdGreaterThanAndCardIdLessThanEqual(0L, 5L)).thenReturn(List.of(
+                new AccountCardAlias(5L, 1L, null)));
+
+        CardLinkReconciler.Result result = reconciler.reconcile();
+
+        assertEquals(1, result.unlinked());
+        verify(cardServiceFeign, times(1)).getCardLinks(anyLong(), anyInt());
+    }
+
+    @Test
+    void reconcileUntilComplete_RetriesUntilCardServiceAnswers() {
+        when(cardServiceFeign.getCardLinks(0L, 2))
+                .thenThrow(cardServiceDown())
+                .thenReturn(Collections.emptyList());
+
+        reconciler.reconcileUntilComplete();
+
+        assertTrue(reconciler.isReconciled());
+        verify(cardServiceFeign, times(2)).getCardLinks(0L, 2);
+        verify(accountRepository, times(1)).recountCards(0L, 2);
+    }
+
+    @Test
+    void scheduledReconcile_BeforeStartupRun_Skipped() {
+        reconciler.scheduledReconcile();
+
+        assertFalse(reconciler.isReconciled());
+        verifyNoInteractions(cardServiceFeign);
+    }
+
+    @Test
+    void scheduledReconcile_CardServiceDown_SkipsRun() {
+        when(cardServiceFeign.getCardLinks(anyLong(), anyInt())).thenReturn(Collections.emptyList());
+        reconciler.reconcileUntilComplete();
+        clearInvocations(accountRepository);
+        when(cardServiceFeign.getCardLinks(anyLong(), anyInt())).thenThrow(cardServiceDown());
+
+        assertDoesNotThrow(() -> reconciler.scheduledReconcile());
+        assertTrue(reconciler.isReconciled());
+        verify(accountRepository, never()).recountCards(anyLong(), anyInt());
+    }
+
+    private FeignException cardServiceDown() {
+        Request request = Request.create(Request.HttpMethod.GET, "/card/links", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("getCardLinks",
+                feign.Response.builder().status(503).request(request).headers(Collections.emptyMap()).build());
+    }
+}
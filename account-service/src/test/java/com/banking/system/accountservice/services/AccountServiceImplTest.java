@@ -1,29 +1,60 @@
 package com.banking.system.accountservice.services;
 
+import com.banking.system.accountservice.caches.CustomerExistenceCache;
+import com.banking.system.accountservice.configs.AccountValidationConfig;
+import com.banking.system.accountservice.dtos.AccountBatchResponse;
 import com.banking.system.accountservice.dtos.AccountDto;
 import com.banking.system.accountservice.dtos.AccountUpdateDto;
 import com.banking.system.accountservice.dtos.CardResponse;
-import com.banking.system.accountservice.dtos.CustomerDto;
 import com.banking.system.accountservice.feign.CardServiceFeign;
-import com.banking.system.accountservice.feign.CustomerServiceFeign;
+import com.banking.system.accountservice.indexes.IbanExistenceFilter;
+import com.banking.system.accountservice.indexes.IbanTrigramIndex;
+import com.banking.system.accountservice.mappers.AccountMapper;
 import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.models.AccountIbanView;
+import com.banking.system.accountservice.repositories.AccountCardAliasRepository;
 import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.repositories.AccountRepositoryCustom;
+import com.banking.system.accountservice.schedulers.CardLinkReconciler;
+import com.banking.system.accountservice.validation.IbanBicValidator;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.exceptions.PreconditionFailedException;
+import com.banking.system.common.utils.CursorCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.MessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,14 +66,35 @@ class AccountServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountCardAliasRepository accountCardAliasRepository;
+
     @Mock
     private MessageSource messageSource;
 
+    @Mock
+    private CustomerExistenceCache customerExistenceCache;
+
+    @Mock
+    private IbanTrigramIndex ibanTrigramIndex;
+
     @Mock
     private CardServiceFeign cardServiceFeign;
 
     @Mock
-    private CustomerServiceFeign customerServiceFeign;
+    private ObjectProvider<CardLinkReconciler> cardLinkReconciler;
+
+    /**
+     * Not built: every iban is possibly used and queried, unless a test builds it
+     */
+    @Spy
+    private IbanExistenceFilter ibanExistenceFilter = new IbanExistenceFilter(null, mock(ObjectProvider.class), true, 16);
+
+    @Spy
+    private IbanBicValidator ibanBicValidator = new IbanBicValidator(new AccountValidationConfig(), new DefaultResourceLoader());
+
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -55,25 +107,27 @@ class AccountServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(accountService, "chunkSize", 100);
+
         createAccountDto = new AccountDto();
-            createAccountDto.setIban("3434343234323345");
-            createAccountDto.setBicSwift("FDEGHE");
+            createAccountDto.setIban("DE89370400440532013000");
+            createAccountDto.setBicSwift("DEUTDEFF");
             createAccountDto.setCustomerId(1L);
 
         fetchAccountDto = new AccountDto();
             fetchAccountDto.setAccountId(1L);
-            fetchAccountDto.setIban("3434343234323345");
+            fetchAccountDto.setIban("DE89370400440532013000");
 
         account = new Account();
             account.setAccountId(1L);
-            account.setIban("3434343234323345");
-            account.setBicSwift("FDEGHE");
+            account.setIban("DE89370400440532013000");
+            account.setBicSwift("DEUTDEFF");
             account.setCustomerId(1L);
     }
 
     @Test
     void saveAccount_ValidInput() {
-        when(customerServiceFeign.getCustomerById(1L)).thenReturn(new CustomerDto());
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
         when(accountRepository.existsByIban(anyString())).thenReturn(false);
         when(accountRepository.save(any(Account.class))).thenReturn(account);
 
@@ -81,8 +135,9 @@ class AccountServiceImplTest {
 
         assertNotNull(result);
         assertEquals(1L, result.getAccountId());
-        assertEquals("3434343234323345", result.getIban());
+        assertEquals("DE89370400440532013000", result.getIban());
         verify(accountRepository).save(any(Account.class));
+        verify(ibanTrigramIndex).add(1L, "DE89370400440532013000");
     }
 
     @Test
@@ -100,8 +155,8 @@ class AccountServiceImplTest {
 
     @Test
     void saveAccount_DuplicateIban() {
-        when(customerServiceFeign.getCustomerById(1L)).thenReturn(new CustomerDto());
-        when(accountRepository.existsByIban("3434343234323345")).thenReturn(true);
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.existsByIban("DE89370400440532013000")).thenReturn(true);
         when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any()))
                 .thenReturn("IBAN already exists");
 
@@ -110,21 +165,362 @@ class AccountServiceImplTest {
         assertEquals("IBAN already exists", exception.getMessage());
     }
 
+    @Test
+    void saveAccount_IbanNotInExistenceFilter_NoUniquenessQuery() {
+        buildExistenceFilter("NL91ABNA0417164300");
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.save(any(Account.class))).thenReturn(account);
+
+        accountService.saveAccount(createAccountDto);
+
+        verify(accountRepository, never()).existsByIban(anyString());
+        assertTrue(ibanExistenceFilter.mightExist("DE89370400440532013000"));
+    }
+
+    @Test
+    void saveAccount_IbanInExistenceFilter_Queried() {
+        buildExistenceFilter("DE89370400440532013000");
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.existsByIban("DE89370400440532013000")).thenReturn(true);
+        when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any())).thenReturn("IBAN already exists");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.saveAccount(createAccountDto));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void saveAccount_IbanUsedByAnotherInstance_UniqueConstraint() {
+        buildExistenceFilter();
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.save(any(Account.class))).thenThrow(new DataIntegrityViolationException("ACC_IBAN"));
+        when(accountRepository.existsByIban("DE89370400440532013000")).thenReturn(true);
+        when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any())).thenReturn("IBAN already exists");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accountService.saveAccount(createAccountDto));
+        assertEquals("IBAN already exists", exception.getMessage());
+        assertTrue(ibanExistenceFilter.mightExist("DE89370400440532013000"));
+    }
+
+    @Test
+    void saveAccount_InvalidIbanChecksum_NoRoundTrip() {
+        createAccountDto.setIban("DE89370400440532013001");
+        when(messageSource.getMessage(eq("invalid.iban.checksum"), isNull(), any()))
+                .thenReturn("Invalid IBAN, the check digits do not match");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accountService.saveAccount(createAccountDto));
+        assertEquals("Invalid IBAN, the check digits do not match", exception.getMessage());
+        verifyNoInteractions(customerExistenceCache, accountRepository);
+    }
+
+    @Test
+    void saveAccount_InvalidBic_NoRoundTrip() {
+        createAccountDto.setBicSwift("FDEGHE");
+        when(messageSource.getMessage(eq("invalid.bicswift.format"), isNull(), any())).thenReturn("Invalid BIC");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accountService.saveAccount(createAccountDto));
+        assertEquals("Invalid BIC", exception.getMessage());
+        verifyNoInteractions(customerExistenceCache, accountRepository);
+    }
+
+    @Test
+    void saveAccounts_MixedBatch() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        AccountDto second = AccountDto.builder().iban("NL91ABNA0417164300").bicSwift("DEUTDEFF").customerId(1L).build();
+        AccountDto existingIban = AccountDto.builder().iban("FR1420041010050500013M02606").bicSwift("DEUTDEFF").customerId(1L).build();
+        AccountDto duplicateInBatch = AccountDto.builder().iban("NL91ABNA0417164300").bicSwift("DEUTDEFF").customerId(1L).build();
+        AccountDto unknownCustomer = AccountDto.builder().iban("BE68539007547034").bicSwift("DEUTDEFF").customerId(2L).build();
+        AccountDto missingBic = AccountDto.builder().iban("CH9300762011623852957").customerId(1L).build();
+
+        Account secondAccount = new Account(2L, "NL91ABNA0417164300", "DEUTDEFF", 1L, null, 0, 0);
+
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(customerExistenceCache.exists(2L)).thenReturn(false);
+        when(accountRepository.findExistingIbans(List.of("DE89370400440532013000", "NL91ABNA0417164300", "FR1420041010050500013M02606")))
+                .thenReturn(Set.of("FR1420041010050500013M02606"));
+        when(accountRepository.saveAll(anyList())).thenReturn(List.of(account, secondAccount));
+        when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any())).thenReturn("IBAN already exists");
+        when(messageSource.getMessage(eq("customer.not.found"), any(), any())).thenReturn("Customer not found");
+        when(messageSource.getMessage(eq("missing.bicswift.number"), isNull(), any())).thenReturn("BIC is required");
+
+        AccountBatchResponse result = accountService.saveAccounts(
+                List.of(createAccountDto, second, existingIban, duplicateInBatch, unknownCustomer, missingBic));
+
+        assertEquals(2, result.getCreatedCount());
+        assertEquals(4, result.getRejectedCount());
+        assertEquals(6, result.getResults().size());
+        assertTrue(result.getResults().get(0).isCreated());
+        assertEquals(1L, result.getResults().get(0).getAccount().getAccountId());
+        assertEquals(2L, result.getResults().get(1).getAccount().getAccountId());
+        assertEquals("IBAN already exists", result.getResults().get(2).getError());
+        assertEquals("IBAN already exists", result.getResults().get(3).getError());
+        assertEquals("Customer not found", result.getResults().get(4).getError());
+        assertEquals("BIC is required", result.getResults().get(5).getError());
+        verify(customerExistenceCache, times(1)).exists(1L);
+        verify(accountRepository, never()).existsByIban(anyString());
+        verify(ibanTrigramIndex).add(2L, "NL91ABNA0417164300");
+    }
+
+    @Test
+    void saveAccounts_OnlyPossiblyUsedIbansQueried() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        buildExistenceFilter("FR1420041010050500013M02606");
+        AccountDto existingIban = AccountDto.builder().iban("FR1420041010050500013M02606").bicSwift("DEUTDEFF").customerId(1L).build();
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.findExistingIbans(List.of("FR1420041010050500013M02606")))
+                .thenReturn(Set.of("FR1420041010050500013M02606"));
+        when(accountRepository.saveAll(anyList())).thenReturn(List.of(account));
+        when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any())).thenReturn("IBAN already exists");
+
+        AccountBatchResponse result = accountService.saveAccounts(List.of(createAccountDto, existingIban));
+
+        assertEquals(1, result.getCreatedCount());
+        assertEquals("IBAN already exists", result.getResults().get(1).getError());
+    }
+
+    @Test
+    void saveAccounts_IbanUsedByAnotherInstance_RestSavedAgain() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        buildExistenceFilter();
+        AccountDto second = AccountDto.builder().iban("NL91ABNA0417164300").bicSwift("DEUTDEFF").customerId(1L).build();
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("ACC_IBAN"))
+                .thenReturn(List.of(account));
+        when(accountRepository.findExistingIbans(List.of("DE89370400440532013000", "NL91ABNA0417164300")))
+                .thenReturn(Set.of("NL91ABNA0417164300"));
+        when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any())).thenReturn("IBAN already exists");
+
+        AccountBatchResponse result = accountService.saveAccounts(List.of(createAccountDto, second));
+
+        assertEquals(1, result.getCreatedCount());
+        assertTrue(result.getResults().get(0).isCreated());
+        assertEquals("IBAN already exists", result.getResults().get(1).getError());
+        verify(accountRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void saveAccounts_IbanUsedByAnotherInstance_OnlyItsChunkSavedAgain() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(accountService, "chunkSize", 2);
+        buildExistenceFilter();
+        AccountDto second = AccountDto.builder().iban("NL91ABNA0417164300").bicSwift("DEUTDEFF").customerId(1L).build();
+        AccountDto third = AccountDto.builder().iban("BE68539007547034").bicSwift("DEUTDEFF").customerId(1L).build();
+        Account secondAccount = new Account(2L, "NL91ABNA0417164300", "DEUTDEFF", 1L, null, 0, 0);
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.saveAll(anyList()))
+                .thenReturn(List.of(account, secondAccount))
+                .thenThrow(new DataIntegrityViolationException("ACC_IBAN"));
+        when(accountRepository.findExistingIbans(List.of("BE68539007547034")))
+                .thenReturn(Set.of("BE68539007547034"));
+        when(messageSource.getMessage(eq("iban.number.exist"), isNull(), any())).thenReturn("IBAN already exists");
+
+        AccountBatchResponse result = accountService.saveAccounts(List.of(createAccountDto, second, third));
+
+        assertEquals(2, result.getCreatedCount());
+        assertTrue(result.getResults().get(0).isCreated());
+        assertTrue(result.getResults().get(1).isCreated());
+        assertEquals("IBAN already exists", result.getResults().get(2).getError());
+        // the first chunk is committed and not saved again, the rest of the second chunk is empty
+        verify(accountRepository, times(2)).saveAll(anyList());
+        verify(ibanTrigramIndex).add(2L, "NL91ABNA0417164300");
+    }
+
+    @Test
+    void saveAccounts_OtherConstraintViolated_ChunkRejectedEarlierChunksKept() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(accountService, "chunkSize", 2);
+        buildExistenceFilter();
+        AccountDto second = AccountDto.builder().iban("NL91ABNA0417164300").bicSwift("DEUTDEFF").customerId(1L).build();
+        AccountDto third = AccountDto.builder().iban("BE68539007547034").bicSwift("DEUTDEFF").customerId(1L).build();
+        Account secondAccount = new Account(2L, "NL91ABNA0417164300", "DEUTDEFF", 1L, null, 0, 0);
+        when(customerExistenceCache.exists(1L)).thenReturn(true);
+        when(accountRepository.saveAll(anyList()))
+                .thenReturn(List.of(account, secondAccount))
+                .thenThrow(new DataIntegrityViolationException("ACC_ID"));
+        when(accountRepository.findExistingIbans(List.of("BE68539007547034"))).thenReturn(Set.of());
+        when(messageSource.getMessage(eq("account.batch.chunk.failed"), isNull(), any())).thenReturn("Chunk failed");
+
+        AccountBatchResponse result = accountService.saveAccounts(List.of(createAccountDto, second, third));
+
+        assertEquals(2, result.getCreatedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertTrue(result.getResults().get(1).isCreated());
+        assertEquals("Chunk failed", result.getResults().get(2).getError());
+        verify(accountRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void saveAccounts_TooLarge() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1);
+        when(messageSource.getMessage(eq("invalid.batch.size"), any(), any())).thenReturn("Invalid batch size");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accountService.saveAccounts(List.of(createAccountDto, createAccountDto)));
+        assertEquals("Invalid batch size", exception.getMessage());
+        verifyNoInteractions(accountRepository);
+    }
+
     @Test
     void findAllAccounts_WithFilterCustomerId() {
         Long customerId = 1L;
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Account> accountPage = new PageImpl<>(List.of(account), pageable, 1);
+        Page<AccountDto> accountPage = new PageImpl<>(List.of(AccountMapper.toDto(account)), pageable, 1);
 
-        when(accountRepository.findAll(any(Specification.class), eq(pageable)))
+        when(accountRepository.findAllAsDto(any(Specification.class), eq(pageable)))
                 .thenReturn(accountPage);
 
         Page<AccountDto> result = accountService.findAllAccounts(page, size, customerId, null, null);
 
         assertEquals(1, result.getTotalElements());
         assertEquals(customerId, result.getContent().get(0).getCustomerId());
-        verify(accountRepository).findAll(any(Specification.class), eq(pageable));
+        verify(accountRepository).findAllAsDto(any(Specification.class), eq(pageable));
+        verify(accountRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void findAllAccounts_WithoutTotal_NoCountQuery() {
+        Pageable pageable = PageRequest.of(page, size);
+        when(accountRepository.findSliceAsDto(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(AccountMapper.toDto(account)), pageable, true));
+
+        SlicePage<AccountDto> result = accountService.findAllAccountsWithoutTotal(page, size, 1L, null, null);
+
+        assertTrue(result.isHasNext());
+        assertEquals(1, result.getContent().size());
+        assertEquals(size, result.getSize());
+        verify(accountRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void findAllAccounts_WithFilterIban_UsesTrigramIndex() {
+        Pageable pageable = PageRequest.of(page, size);
+
+        Page<AccountDto> accountPage = new PageImpl<>(List.of(AccountMapper.toDto(account)), pageable, 1);
+
+        when(ibanTrigramIndex.candidates("34323")).thenReturn(new long[]{1L});
+        when(accountRepository.findAllAsDto(any(Specification.class), eq(pageable)))
+                .thenReturn(accountPage);
+
+        Page<AccountDto> result = accountService.findAllAccounts(page, size, 1L, "34323", null);
+
+        assertEquals(1, result.getTotalElements());
+        verify(ibanTrigramIndex).candidates("34323");
+    }
+
+    @Test
+    void findAllAccounts_WithFilterCardAlias() {
+        Pageable pageable = PageRequest.of(page, size);
+
+        Page<AccountDto> accountPage = new PageImpl<>(List.of(AccountMapper.toDto(account)), pageable, 1);
+
+        when(accountRepository.findAllAsDto(any(Specification.class), eq(pageable)))
+                .thenReturn(accountPage);
+
+        Page<AccountDto> result = accountService.findAllAccounts(page, size, null, null, "Shopping card");
+
+        assertEquals(1, result.getTotalElements());
+        verify(accountRepository).findAllAsDto(any(Specification.class), eq(pageable));
+    }
+
+    @Test
+    void findAllAccounts_CursorMode_HasNextPage() {
+        AccountDto second = AccountMapper.toDto(account);
+        second.setAccountId(2L);
+        when(accountRepository.findAfterAsDto(any(Specification.class), isNull(), eq(2)))
+                .thenReturn(List.of(AccountMapper.toDto(account), second));
+
+        CursorPage<AccountDto> result = accountService.findAllAccounts("", 1, 1L, null, null);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, CursorCodec.decode(result.getNextCursor()));
+        verify(accountRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void findAllAccounts_CursorMode_LastPage() {
+        when(accountRepository.findAfterAsDto(any(Specification.class), eq(10L), eq(size + 1)))
+                .thenReturn(List.of(AccountMapper.toDto(account)));
+
+        CursorPage<AccountDto> result = accountService.findAllAccounts(CursorCodec.encode(10L), size, null, null, null);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findAllAccounts_CursorMode_InvalidCursor() {
+        when(messageSource.getMessage(eq("invalid.cursor"), any(), any()))
+                .thenReturn("Invalid cursor");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accountService.findAllAccounts("not-a-cursor", size, null, null, null));
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void linkCard_NewCard() {
+        when(accountCardAliasRepository.findById(5L)).thenReturn(Optional.empty());
+
+        accountService.linkCard(1L, 5L, "Shopping card");
+
+        verify(accountCardAliasRepository).save(argThat(link ->
+                link.getCardId().equals(5L)
+                        && link.getAccountId().equals(1L)
+                        && "Shopping card".equals(link.getCardAlias())));
+        InOrder inOrder = inOrder(accountRepository, accountCardAliasRepository);
+        inOrder.verify(accountRepository).lockForCardCount(1L);
+        inOrder.verify(accountCardAliasRepository).findById(5L);
+        verify(accountRepository).addToCardCount(1L, 1);
+    }
+
+    @Test
+    void linkCard_ExistingCardAliasUpdated() {
+        AccountCardAlias existing = new AccountCardAlias(5L, 1L, "Old alias");
+        when(accountCardAliasRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        accountService.linkCard(1L, 5L, "New alias");
+
+        assertEquals("New alias", existing.getCardAlias());
+        verify(accountCardAliasRepository).save(existing);
+        verify(accountRepository, never()).addToCardCount(anyLong(), anyLong());
+    }
+
+    @Test
+    void linkCard_CardMovedToAnotherAccount() {
+        AccountCardAlias existing = new AccountCardAlias(5L, 1L, "Shopping card");
+        when(accountCardAliasRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        accountService.linkCard(2L, 5L, "Shopping card");
+
+        verify(accountRepository).addToCardCount(1L, -1);
+        verify(accountRepository).addToCardCount(2L, 1);
+    }
+
+    @Test
+    void unlinkCard_RemovesAlias() {
+        when(accountCardAliasRepository.findById(5L)).thenReturn(Optional.of(new AccountCardAlias(5L, 1L, null)));
+        when(accountCardAliasRepository.deleteByCardId(5L)).thenReturn(1);
+
+        accountService.unlinkCard(1L, 5L);
+
+        InOrder inOrder = inOrder(accountRepository, accountCardAliasRepository);
+        inOrder.verify(accountRepository).lockForCardCount(1L);
+        inOrder.verify(accountCardAliasRepository).deleteByCardId(5L);
+        verify(accountRepository).addToCardCount(1L, -1);
+    }
+
+    @Test
+    void unlinkCard_UnknownCard() {
+        when(accountCardAliasRepository.findById(5L)).thenReturn(Optional.empty());
+
+        accountService.unlinkCard(1L, 5L);
+
+        verify(accountCardAliasRepository, never()).deleteByCardId(anyLong());
+        verify(accountRepository, never()).addToCardCount(anyLong(), anyLong());
     }
 
     @Test
@@ -137,78 +533,308 @@ class AccountServiceImplTest {
 
         assertNotNull(result);
         assertEquals(accountId, result.getAccountId());
-        assertEquals("3434343234323345", result.getIban());
+        assertEquals("DE89370400440532013000", result.getIban());
+    }
+
+    @Test
+    void getAccountsByIds_ReturnsFoundAccountsInIdOrder() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        Account second = new Account();
+        second.setAccountId(2L);
+        when(accountRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(second, account));
+
+        List<AccountDto> result = accountService.getAccountsByIds(List.of(3L, 2L, 1L, 2L));
+
+        assertEquals(List.of(1L, 2L), result.stream().map(AccountDto::getAccountId).toList());
+    }
+
+    @Test
+    void getAccountsByIds_TooManyIds_Throws() {
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1);
+        when(messageSource.getMessage(eq("invalid.batch.size"), any(), any())).thenReturn("A batch must contain between 1 and 1 accounts");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccountsByIds(List.of(1L, 2L)));
+        verifyNoInteractions(accountRepository);
     }
 
     @Test
     void updateAccount_ValidInput() {
         Long accountId = 1L;
         AccountUpdateDto updateDto = new AccountUpdateDto();
-        updateDto.setIban("7658548493930240");
-        updateDto.setBicSwift("FERHEGS");
-
-        Account existingAccount = new Account();
-        existingAccount.setAccountId(accountId);
-        existingAccount.setIban("3434343234323345");
+        updateDto.setIban("GB82WEST12345698765432");
+        updateDto.setBicSwift("COBADEFFXXX");
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(existingAccount));
-        when(accountRepository.save(existingAccount)).thenReturn(existingAccount);
+        Account updatedAccount = new Account(accountId, "GB82WEST12345698765432", "COBADEFFXXX", 1L, null, 0, 1);
+        when(accountRepository.updatePartially(accountId, null, "GB82WEST12345698765432", "COBADEFFXXX"))
+                .thenReturn(Optional.of(new AccountRepositoryCustom.PartialUpdate(updatedAccount, "DE89370400440532013000")));
 
         AccountDto result = accountService.updateAccount(accountId, updateDto);
 
         assertNotNull(result);
         assertEquals(accountId, result.getAccountId());
-        assertEquals("7658548493930240", result.getIban());
+        assertEquals("GB82WEST12345698765432", result.getIban());
+        verify(accountRepository, never()).findById(any());
+        verify(accountRepository, never()).save(any());
+        verify(ibanTrigramIndex).replace(accountId, "DE89370400440532013000", "GB82WEST12345698765432");
+    }
+
+    @Test
+    void updateAccount_InvalidIban_NoUpdateStatement() {
+        AccountUpdateDto updateDto = new AccountUpdateDto();
+        updateDto.setIban("GB82WEST1234569876543");
+        when(messageSource.getMessage(eq("invalid.iban.length"), isNull(), any())).thenReturn("Invalid IBAN length");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.updateAccount(1L, updateDto, 3L));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void updateAccount_UnknownAccount_NotFound() {
+        AccountUpdateDto updateDto = new AccountUpdateDto();
+        updateDto.setBicSwift("COBADEFFXXX");
+        when(accountRepository.updatePartially(9L, null, null, "COBADEFFXXX")).thenReturn(Optional.empty());
+        when(messageSource.getMessage(eq("account.not.found"), any(), any())).thenReturn("Account with id 9 not found");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.updateAccount(9L, updateDto));
+        verify(accountRepository, never()).findVersionByAccountId(any());
+    }
+
+    @Test
+    void updateAccount_NothingToChange_NoUpdateStatement() {
+        AccountUpdateDto updateDto = new AccountUpdateDto();
+        updateDto.setIban(" ");
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(new Account(1L, "DE89370400440532013000", "DEUTDEFF", 1L, null, 0, 3)));
+
+        AccountDto result = accountService.updateAccount(1L, updateDto, 3L);
+
+        assertEquals(3L, result.getVersion());
+        verify(accountRepository, never()).updatePartially(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateAccount_IfMatchCurrentVersion_SingleConditionalUpdate() {
+        AccountUpdateDto updateDto = new AccountUpdateDto();
+        updateDto.setIban("GB82WEST12345698765432");
+        updateDto.setBicSwift(" ");
+        Account updatedAccount = new Account(1L, "GB82WEST12345698765432", "DEUTDEFF", 1L, null, 0, 4);
+        when(accountRepository.updatePartially(1L, 3L, "GB82WEST12345698765432", null))
+                .thenReturn(Optional.of(new AccountRepositoryCustom.PartialUpdate(updatedAccount, "DE89370400440532013000")));
+
+        AccountDto result = accountService.updateAccount(1L, updateDto, 3L);
+
+        assertEquals(4L, result.getVersion());
+        assertEquals("GB82WEST12345698765432", result.getIban());
+        verify(accountRepository, never()).findById(any());
+        verify(ibanTrigramIndex).replace(1L, "DE89370400440532013000", "GB82WEST12345698765432");
+    }
+
+    @Test
+    void updateAccount_IfMatchStaleVersion_PreconditionFailed() {
+        AccountUpdateDto updateDto = new AccountUpdateDto();
+        updateDto.setBicSwift("COBADEFFXXX");
+        when(accountRepository.updatePartially(1L, 3L, null, "COBADEFFXXX")).thenReturn(Optional.empty());
+        when(accountRepository.findVersionByAccountId(1L)).thenReturn(Optional.of(5L));
+        when(messageSource.getMessage(eq("account.version.mismatch"), any(), any())).thenReturn("modified");
+
+        assertThrows(PreconditionFailedException.class, () -> accountService.updateAccount(1L, updateDto, 3L));
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateAccount_IfMatchUnknownAccount_NotFound() {
+        AccountUpdateDto updateDto = new AccountUpdateDto();
+        updateDto.setIban("GB82WEST12345698765432");
+        when(accountRepository.updatePartially(9L, 3L, "GB82WEST12345698765432", null)).thenReturn(Optional.empty());
+        when(accountRepository.findVersionByAccountId(9L)).thenReturn(Optional.empty());
+        when(messageSource.getMessage(eq("account.not.found"), any(), any())).thenReturn("Account with id 9 not found");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.updateAccount(9L, updateDto, 3L));
     }
 
     @Test
     void deleteAccount_NoCards() {
         Long accountId = 1L;
-
-        CardResponse emptyCardResponse = new CardResponse();
-        emptyCardResponse.setTotalElements(0L);
+        reconciled(true);
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(cardServiceFeign.getCardsByAccountCode(accountId, 0, 1))
-                .thenReturn(emptyCardResponse);
+        when(accountRepository.deleteWithoutCards(accountId)).thenReturn(1);
         when(messageSource.getMessage(eq("account.deletion.successful"), any(), isNull()))
                 .thenReturn("Account deleted successfully");
 
         String result = accountService.deleteAccount(accountId);
 
         assertEquals("Account deleted successfully", result);
-        verify(accountRepository).delete(account);
+        verify(accountRepository).deleteWithoutCards(accountId);
+        verify(ibanTrigramIndex).remove(accountId, "DE89370400440532013000");
+        verifyNoInteractions(cardServiceFeign);
     }
 
     @Test
-    void deleteAccount_WithCards() {
+    void deleteAccount_DeletedMeanwhile_IndexesUnchanged() {
         Long accountId = 1L;
+        reconciled(true);
+        buildExistenceFilter("DE89370400440532013000");
+
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(accountRepository.deleteWithoutCards(accountId)).thenReturn(0);
+        when(accountRepository.existsById(accountId)).thenReturn(false);
 
-        CardResponse cardResponse = new CardResponse();
-        cardResponse.setTotalElements(1L);
+        accountService.deleteAccount(accountId);
+
+        verify(ibanTrigramIndex, never()).remove(any(), any());
+        assertTrue(ibanExistenceFilter.mightExist("DE89370400440532013000"));
+    }
+
+    @Test
+    void deleteAccount_CardLinkedMeanwhile_Rejected() {
+        Long accountId = 1L;
+        reconciled(true);
+
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(accountRepository.deleteWithoutCards(accountId)).thenReturn(0);
+        when(accountRepository.existsById(accountId)).thenReturn(true);
+        when(messageSource.getMessage(eq("account.deletion.rejected"), any(), any()))
+                .thenReturn("Account has cards and cannot be deleted");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.deleteAccount(accountId));
+        verify(ibanTrigramIndex, never()).remove(any(), any());
+    }
+
+    @Test
+    void deleteAccount_WithCards() {
+        Long accountId = 1L;
+        account.setCardCount(1);
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(cardServiceFeign.getCardsByAccountCode(accountId, 0, 1))
-                .thenReturn(cardResponse);
         when(messageSource.getMessage(eq("account.deletion.rejected"), any(), any()))
                 .thenReturn("Account has cards and cannot be deleted");
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> accountService.deleteAccount(accountId));
         assertEquals("Account has cards and cannot be deleted", exception.getMessage());
-        verify(accountRepository, never()).delete(any(Account.class));
+        verify(accountRepository, never()).deleteWithoutCards(any());
+    }
+
+    @Test
+    void deleteAccount_NotReconciledYet_CardServiceReportsCards() {
+        Long accountId = 1L;
+        reconciled(false);
+
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(cardServiceFeign.getCardsByAccountCode(accountId, 0, 1))
+                .thenReturn(new CardResponse(Collections.emptyList(), 1, 1, 0, 1));
+        when(messageSource.getMessage(eq("account.deletion.rejected"), any(), any()))
+                .thenReturn("Account has cards and cannot be deleted");
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.deleteAccount(accountId));
+        verify(accountRepository, never()).deleteWithoutCards(any());
+    }
+
+    @Test
+    void deleteAccount_NoReconciler_CardServiceAsked() {
+        Long accountId = 1L;
+
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(cardServiceFeign.getCardsByAccountCode(accountId, 0, 1))
+                .thenReturn(new CardResponse(Collections.emptyList(), 0, 0, 0, 1));
+        when(accountRepository.deleteWithoutCards(accountId)).thenReturn(1);
+
+        accountService.deleteAccount(accountId);
+
+        verify(accountRepository).deleteWithoutCards(accountId);
+    }
+
+    private void reconciled(boolean reconciled) {
+        CardLinkReconciler reconciler = mock(CardLinkReconciler.class);
+        when(reconciler.isReconciled()).thenReturn(reconciled);
+        when(cardLinkReconciler.getIfAvailable()).thenReturn(reconciler);
     }
 
     @Test
     void validateCustomerExist_CustomerNotFound() {
         createAccountDto.setCustomerId(999L);
 
-        when(customerServiceFeign.getCustomerById(999L)).thenThrow(new RuntimeException());
+        when(customerExistenceCache.exists(999L)).thenReturn(false);
         when(messageSource.getMessage(eq("customer.not.found"), any(), any()))
                 .thenReturn("Customer not found");
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> accountService.saveAccount(createAccountDto));
         assertEquals("Customer not found", exception.getMessage());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void validateCustomerExist_CustomerServiceUnavailable() {
+        when(customerExistenceCache.exists(1L)).thenThrow(new RuntimeException());
+        when(messageSource.getMessage(eq("customer.service.unavailable"), any(), any()))
+                .thenReturn("Customer service unavailable");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accountService.saveAccount(createAccountDto));
+        assertEquals("Customer service unavailable", exception.getMessage());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void evictCustomer_InvalidatesCache() {
+        accountService.evictCustomer(1L);
+
+        verify(customerExistenceCache).evict(1L);
+    }
+
+    @Test
+    void exportAccounts_Ndjson() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(accountRepository.streamAll(any(Specification.class)))
+                .thenReturn(Stream.of(account).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        accountService.exportAccounts(ExportFormat.NDJSON, 1L, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], AccountDto.class).getAccountId());
+        assertEquals("DE89370400440532013000", objectMapper.readValue(lines[0], AccountDto.class).getIban());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportAccounts_Csv() throws Exception {
+        when(accountRepository.streamAll(any(Specification.class))).thenReturn(Stream.of(account));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        accountService.exportAccounts(ExportFormat.CSV, null, null, null, out);
+
+        assertEquals("accountId,iban,bicSwift,customerId,createdAt\n1,DE89370400440532013000,DEUTDEFF,1,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Build the existence filter from the given used ibans
+     */
+    private void buildExistenceFilter(String... ibans) {
+        List<AccountIbanView> views = new ArrayList<>();
+        for (int i = 0; i < ibans.length; i++) {
+            views.add(ibanView(i + 1L, ibans[i]));
+        }
+        when(accountRepository.count()).thenReturn((long) ibans.length);
+        when(accountRepository.findByAccountIdGreaterThanOrderByAccountId(eq(0L), any(Limit.class))).thenReturn(views);
+        ReflectionTestUtils.setField(ibanExistenceFilter, "accountRepository", accountRepository);
+        ibanExistenceFilter.build();
+    }
+
+    private static AccountIbanView ibanView(Long accountId, String iban) {
+        return new AccountIbanView() {
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public String getIban() {
+                return iban;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.banking.system.accountservice.services;
+
+import com.banking.system.accountservice.caches.CustomerExistenceCache;
+import com.banking.system.accountservice.dtos.AccountDto;
+import com.banking.system.accountservice.feign.CardServiceFeign;
+import com.banking.system.accountservice.indexes.IbanExistenceFilter;
+import com.banking.system.accountservice.indexes.IbanTrigramIndex;
+import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.repositories.AccountCardAliasRepository;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.validation.IbanBicValidator;
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import com.banking.system.common.diagnostics.QueryBudget;
+import com.banking.system.common.diagnostics.SqlDataSourceProxy;
+import com.banking.system.common.diagnostics.SqlStatementListener;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Statement budgets of the account read paths on an in-memory database, a list must not turn into
+ * one query per row
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class AccountServiceQueryBudgetTest {
+    private static final int ACCOUNTS = 30;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountCardAliasRepository accountCardAliasRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private AccountServiceImpl accountService;
+    private List<Long> accountIds;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountServiceImpl(accountRepository, accountCardAliasRepository, mock(MessageSource.class),
+                mock(CustomerExistenceCache.class), mock(IbanTrigramIndex.class), mock(IbanExistenceFilter.class),
+                mock(IbanBicValidator.class), new ObjectMapper(), mock(CardServiceFeign.class), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(accountService, "chunkSize", 100);
+
+        accountIds = LongStream.range(0, ACCOUNTS)
+                .mapToObj(i -> accountRepository.save(new Account(null, String.format("KE%018d", i), "FDEGHE", i % 3, null, 0, 0)))
+                .map(Account::getAccountId)
+                .toList();
+        AccountCardAlias alias = new AccountCardAlias();
+        alias.setCardId(100L);
+        alias.setAccountId(accountIds.get(0));
+        alias.setCardAlias("Salary");
+        accountCardAliasRepository.save(alias);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllAccounts_PageAndCount() {
+        Page<AccountDto> accounts = QueryBudget.atMost(2, () -> accountService.findAllAccounts(0, 20, null, null, null));
+
+        assertEquals(20, accounts.getContent().size());
+        assertEquals(ACCOUNTS, accounts.getTotalElements());
+    }
+
+    @Test
+    void findAllAccountsWithoutTotal_SingleStatement() {
+        SlicePage<AccountDto> accounts = QueryBudget.atMost(1, () -> accountService.findAllAccountsWithoutTotal(0, 20, 1L, null, null));
+
+        assertEquals(10, accounts.getContent().size());
+    }
+
+    @Test
+    void findAllAccountsByCursor_SingleStatement() {
+        CursorPage<AccountDto> accounts = QueryBudget.atMost(1, () -> accountService.findAllAccounts((String) null, 20, null, null, null));
+
+        assertEquals(20, accounts.getContent().size());
+        assertNotNull(accounts.getNextCursor());
+    }
+
+    @Test
+    void findAllAccountsByCardAlias_PageAndCount() {
+        Page<AccountDto> accounts = QueryBudget.atMost(2, () -> accountService.findAllAccounts(0, 20, null, null, "Salary"));
+
+        assertEquals(List.of(accountIds.get(0)), accounts.map(AccountDto::getAccountId).getContent());
+    }
+
+    @Test
+    void getAccountsByIds_SingleStatement() {
+        List<AccountDto> accounts = QueryBudget.atMost(1, () -> accountService.getAccountsByIds(accountIds));
+
+        assertEquals(accountIds, accounts.stream().map(AccountDto::getAccountId).toList());
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Account.class)
+    @EnableJpaRepositories(basePackageClasses = AccountRepository.class)
+    @Import({SqlDiagnosticsConfig.class, SqlStatementListener.class, SqlDataSourceProxy.class})
+    static class QueryBudgetConfig {
+    }
+}
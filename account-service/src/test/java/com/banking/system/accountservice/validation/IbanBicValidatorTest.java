@@ -0,0 +1,96 @@
+package com.banking.system.accountservice.validation;
+
+import com.banking.system.accountservice.configs.AccountValidationConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IbanBicValidatorTest {
+    private final IbanBicValidator validator = new IbanBicValidator(new AccountValidationConfig(), new DefaultResourceLoader());
+
+    @Test
+    void validIbans() {
+        for (String iban : List.of("DE89370400440532013000", "GB82WEST12345698765432", "FR1420041010050500013M02606",
+                "NL91ABNA0417164300", "BE68539007547034", "NO9386011117947", "MT84MALT011000012345MTLCAST001S",
+                "LC55HEMM000100010012001200023015", "RU0204452560040702810412345678901")) {
+            assertNull(validator.validateIban(iban), iban);
+        }
+    }
+
+    @Test
+    void invalidIbans() {
+        assertEquals(AccountNumberViolation.IBAN_FORMAT, validator.validateIban("DE89 3704 0044 0532 0130 00"));
+        assertEquals(AccountNumberViolation.IBAN_FORMAT, validator.validateIban("de89370400440532013000"));
+        assertEquals(AccountNumberViolation.IBAN_FORMAT, validator.validateIban("DE8937040044053201300-"));
+        assertEquals(AccountNumberViolation.IBAN_FORMAT, validator.validateIban("3434343234323345"));
+        assertEquals(AccountNumberViolation.IBAN_FORMAT, validator.validateIban("DE89"));
+        assertEquals(AccountNumberViolation.IBAN_COUNTRY, validator.validateIban("US89370400440532013000"));
+        assertEquals(AccountNumberViolation.IBAN_LENGTH, validator.validateIban("DE8937040044053201300"));
+        assertEquals(AccountNumberViolation.IBAN_CHECKSUM, validator.validateIban("DE88370400440532013000"));
+        assertEquals(AccountNumberViolation.IBAN_CHECKSUM, validator.validateIban("DE89370400440532031000"));
+    }
+
+    @Test
+    void configuredIbanLength_AddsCountry() {
+        AccountValidationConfig config = new AccountValidationConfig();
+        config.getIbanLengths().put("KE", 22);
+        IbanBicValidator withKenya = new IbanBicValidator(config, new DefaultResourceLoader());
+
+        assertEquals(AccountNumberViolation.IBAN_COUNTRY, validator.validateIban("KE69370400440532013000"));
+        assertNotEquals(AccountNumberViolation.IBAN_COUNTRY, withKenya.validateIban("KE69370400440532013000"));
+    }
+
+    @Test
+    void bicStructure() {
+        assertNull(validator.validateBic("DEUTDEFF"));
+        assertNull(validator.validateBic("DEUTDEFF500"));
+        assertNull(validator.validateBic("1BANDEFF"));
+        assertEquals(AccountNumberViolation.BIC_FORMAT, validator.validateBic("FDEGHE"));
+        assertEquals(AccountNumberViolation.BIC_FORMAT, validator.validateBic("DEUTD3FF"));
+        assertEquals(AccountNumberViolation.BIC_FORMAT, validator.validateBic("deutdeff"));
+        assertEquals(AccountNumberViolation.BIC_FORMAT, validator.validateBic("DEUTDEFF50"));
+    }
+
+    @Test
+    void bicDirectory_ListedBanksAndBranches() {
+        AccountValidationConfig config = new AccountValidationConfig();
+        config.setBicDirectory("directory");
+        Resource directory = new ByteArrayResource("# banks\nDEUTDEFF\n\nCOBADEFF100\n".getBytes(StandardCharsets.US_ASCII));
+        IbanBicValidator withDirectory = new IbanBicValidator(config, new DefaultResourceLoader() {
+            @Override
+            public Resource getResource(String location) {
+                return directory;
+            }
+        });
+
+        assertNull(withDirectory.validateBic("DEUTDEFF"));
+        assertNull(withDirectory.validateBic("DEUTDEFFXXX"));
+        assertNull(withDirectory.validateBic("DEUTDEFF500"));
+        assertNull(withDirectory.validateBic("COBADEFF100"));
+        assertEquals(AccountNumberViolation.BIC_UNKNOWN, withDirectory.validateBic("COBADEFF"));
+        assertEquals(AccountNumberViolation.BIC_UNKNOWN, withDirectory.validateBic("COBADEFF200"));
+        assertEquals(AccountNumberViolation.BIC_FORMAT, withDirectory.validateBic("COBADE"));
+    }
+
+    @Test
+    void bicDirectory_ManyEntries() throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            lines.append(String.format("B%03dDEFF%03d%n", i % 1000, i / 1000));
+        }
+        BicDirectory directory = BicDirectory.load(new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(50_000, directory.size());
+        assertTrue(directory.contains("B999DEFF049"));
+        assertFalse(directory.contains("B999DEFF050"));
+        assertThrows(IllegalArgumentException.class,
+                () -> BicDirectory.load(new ByteArrayInputStream("DEUTDEFF\nDEUT\n".getBytes(StandardCharsets.US_ASCII))));
+    }
+}
@@ -0,0 +1,72 @@
+package com.banking.system.common.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the Feign clients, per downstream service (Feign client name), read from downstream.clients properties.
+ * Method entries are keyed by the Feign interface method name and override the client timeouts
+ */
+@Component
+@ConfigurationProperties(prefix = "downstream")
+@Getter
+@Setter
+public class DownstreamClientsConfig {
+    private Map<String, Client> clients = new HashMap<>();
+
+    public Client client(String name) {
+        return clients.computeIfAbsent(name, key -> new Client());
+    }
+
+    @Getter
+    @Setter
+    public static class Client {
+        private String url;
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(3);
+        /**
+         * Calls in flight to this downstream, beyond that calls wait up to bulkheadMaxWait then fail fast
+         */
+        private int bulkheadMaxConcurrentCalls = 100;
+        private Duration bulkheadMaxWait = Duration.ZERO;
+        /**
+         * Circuit breaker opens when this percentage of the last slidingWindowSize calls failed (IO error or 5xx)
+         * or were slower than slowCallDuration
+         */
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        /**
+         * At most this percentage of the calls can be hedged, hedges must not double the load of a slow service
+         */
+        private int hedgeBudgetPercent = 10;
+        private Map<String, Method> methods = new HashMap<>();
+
+        public Method method(String name) {
+            return methods.getOrDefault(name, Method.NONE);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Method {
+        static final Method NONE = new Method();
+
+        private Duration connectTimeout;
+        private Duration readTimeout;
+        /**
+         * When set (idempotent GET only), a second identical request is sent if the first one has not
+         * answered after this delay, the first answer wins
+         */
+        private Duration hedgeDelay;
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.system.common.configs;
+
+import feign.MethodMetadata;
+import feign.micrometer.FeignContext;
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics published on /actuator/prometheus next to the Spring Boot ones (http.server.requests,
+ * hikaricp.connections.*, jvm.*):
+ * - controller.calls and service.calls, timers of the classes annotated @Timed, tagged with class and method.
+ *   http.server.requests minus controller.calls is the time spent in filters and writing the response (Jackson)
+ * - http.client.requests of the Feign clients, tagged with the Feign interface method
+ * - validation.failures by message key, see ValidationFailureMetrics
+ * - existence.filter.* queries saved and false positive rate of the unique key filters (account and card services),
+ *   see ExistenceFilter
+ *
+ * Histogram buckets are enabled per metric in management.metrics.distribution, percentiles are computed by
+ * Prometheus (histogram_quantile), they aggregate across instances unlike client side percentiles.
+ */
+@Configuration
+public class MetricsConfig {
+    public static final String CONTROLLER_CALLS = "controller.calls";
+    public static final String SERVICE_CALLS = "service.calls";
+    static final String FEIGN_METHOD_TAG = "feign.method";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Adds the Feign method config key (AccountServiceFeign#getAccountById(Long)) to the Feign client
+     * observations: one http.client.requests timer per client method, not only per uri template
+     */
+    @Bean
+    public ObservationFilter feignMethodObservationFilter() {
+        return context -> {
+            if (context instanceof FeignContext feignContext && feignContext.getCarrier() != null) {
+                MethodMetadata method = feignContext.getCarrier().requestTemplate().methodMetadata();
+                if (method != null) {
+                    context.addLowCardinalityKeyValue(KeyValue.of(FEIGN_METHOD_TAG, method.configKey()));
+                }
+            }
+            return context;
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.banking.system.common.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the SQL statement diagnostics, read from diagnostics.sql properties
+ */
+@Component
+@ConfigurationProperties(prefix = "diagnostics.sql")
+@Getter
+@Setter
+public class SqlDiagnosticsConfig {
+    /**
+     * Statements slower than this are logged at WARN with their bound parameters
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+    /**
+     * Requests running more statements are logged with their statements and counted, 0 disables the check
+     */
+    private int maxStatementsPerRequest = 20;
+    /**
+     * Columns whose bound values are never logged
+     */
+    private List<String> redactedColumns = new ArrayList<>();
+}
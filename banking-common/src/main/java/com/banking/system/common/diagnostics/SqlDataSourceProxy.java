@@ -0,0 +1,47 @@
+package com.banking.system.common.diagnostics;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource beans in a datasource-proxy ProxyDataSource reporting every executed statement
+ * to SqlStatementListener. The pool stays underneath, unwrap() still reaches it for the pool metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlDataSourceProxy implements BeanPostProcessor {
+    private final ObjectProvider<SqlStatementListener> listener;
+
+    public SqlDataSourceProxy(ObjectProvider<SqlStatementListener> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return wrap(dataSource, beanName, listener.getObject());
+        }
+        return bean;
+    }
+
+    /**
+     * @return the data source reporting its statements to the listener, elapsed times in nanoseconds
+     */
+    public static ProxyDataSource wrap(DataSource dataSource, String name, QueryExecutionListener listener) {
+        ProxyDataSource proxy = new ProxyDataSource(dataSource);
+        proxy.setProxyConfig(ProxyConfig.Builder.create()
+                .dataSourceName(name)
+                .queryListener(listener)
+                .stopwatchFactory(new NanoTimeStopwatchFactory())
+                .build());
+        return proxy;
+    }
+}
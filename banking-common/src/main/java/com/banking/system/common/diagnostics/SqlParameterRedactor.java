@@ -0,0 +1,89 @@
+package com.banking.system.common.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Hides the bound parameters of sensitive columns in logged statements.
+ *
+ * The column of each '?' is read from the SQL text: the column list of an insert, otherwise the column
+ * compared or assigned right before it (col = ?, col like ?, col in (?, ?)). Values looking like a card
+ * number are hidden whatever their column, in case the column could not be told.
+ */
+public class SqlParameterRedactor {
+    static final String REDACTED = "<redacted>";
+    private static final Pattern INSERT = Pattern.compile(
+            "^\\s*insert\\s+into\\s+\\S+\\s*\\(([^)]*)\\)\\s*values\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+            "([\\w.\"]+)\\)?\\s*(?:=|<>|!=|<=|>=|<|>|\\blike|\\bin\\s*\\((?:\\s*\\?\\s*,)*)\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CARD_NUMBER = Pattern.compile("%?\\d{12,19}%?");
+    private static final int LOOK_BEHIND = 120;
+
+    private final Set<String> columns;
+
+    public SqlParameterRedactor(Collection<String> columns) {
+        this.columns = columns.stream()
+                .map(column -> column.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @param parameters bound values in parameter index order
+     * @return the values, sensitive ones replaced by a placeholder
+     */
+    public List<Object> redact(String sql, List<?> parameters) {
+        List<String> parameterColumns = columns.isEmpty() ? List.of() : parameterColumns(sql);
+        List<Object> redacted = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = parameters.get(i);
+            String column = i < parameterColumns.size() ? parameterColumns.get(i) : null;
+            boolean sensitive = (column != null && columns.contains(column))
+                    || (value instanceof CharSequence text && CARD_NUMBER.matcher(text).matches());
+            redacted.add(sensitive ? REDACTED : value);
+        }
+        return redacted;
+    }
+
+    /**
+     * @return upper case column name of each '?' of the statement, null when unknown
+     */
+    List<String> parameterColumns(String sql) {
+        List<String> insertColumns = List.of();
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.find()) {
+            insertColumns = List.of(insert.group(1).split(","));
+        }
+
+        List<String> parameterColumns = new ArrayList<>();
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                if (!insertColumns.isEmpty() && i > insert.end() - 1) {
+                    // multi-row values lists repeat the columns
+                    parameterColumns.add(normalize(insertColumns.get(parameterColumns.size() % insertColumns.size())));
+                } else {
+                    Matcher compared = COMPARED_COLUMN.matcher(sql.substring(Math.max(0, i - LOOK_BEHIND), i));
+                    parameterColumns.add(compared.find() ? normalize(compared.group(1)) : null);
+                }
+            }
+        }
+        return parameterColumns;
+    }
+
+    /**
+     * c1_0.card_pan_code and "CARD_PAN_CODE" both give CARD_PAN_CODE
+     */
+    private static String normalize(String column) {
+        String name = column.trim().replace("\"", "");
+        return name.substring(name.lastIndexOf('.') + 1).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,106 @@
+package com.banking.system.common.diagnostics;
+
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Receives every statement executed through the DataSource (wrapped by SqlDataSourceProxy): records it in the
+ * SqlStatementScope of the current thread, and logs the statements slower than diagnostics.sql.slow-threshold
+ * at WARN with their bound parameters, redacted by SqlParameterRedactor. Slow statements are counted in
+ * sql.slow.statements.
+ *
+ * Replaces spring.jpa.show-sql, which printed every statement to stdout without parameters nor timings.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "diagnostics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementListener implements QueryExecutionListener {
+    static final String SLOW_STATEMENTS = "sql.slow.statements";
+    private static final int LOGGED_BATCH_ENTRIES = 10;
+
+    private final long slowThresholdNanos;
+    private final SqlParameterRedactor redactor;
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    @Autowired
+    public SqlStatementListener(SqlDiagnosticsConfig config, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(config.getSlowThreshold(), config.getRedactedColumns(), meterRegistry::getIfAvailable);
+    }
+
+    SqlStatementListener(Duration slowThreshold, Collection<String> redactedColumns, Supplier<MeterRegistry> meterRegistry) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.redactor = new SqlParameterRedactor(redactedColumns);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    /**
+     * Elapsed time is in nanoseconds, SqlDataSourceProxy installs a nano time stopwatch
+     */
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        String sql = queries.size() == 1 ? queries.get(0).getQuery()
+                : queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        SqlStatementScope.record(sql, execution.getElapsedTime());
+
+        if (execution.getElapsedTime() >= slowThresholdNanos) {
+            MeterRegistry registry = meterRegistry.get();
+            if (registry != null) {
+                registry.counter(SLOW_STATEMENTS).increment();
+            }
+            if (log.isWarnEnabled()) {
+                log.warn("Slow SQL statement, {} ms{}: {}", Duration.ofNanos(execution.getElapsedTime()).toMillis(),
+                        execution.isBatch() ? " (batch of " + execution.getBatchSize() + ")" : "", describe(queries));
+            }
+        }
+    }
+
+    /**
+     * SQL with its redacted parameters, one line per batch entry
+     */
+    String describe(List<QueryInfo> queries) {
+        StringBuilder description = new StringBuilder();
+        for (QueryInfo query : queries) {
+            if (!description.isEmpty()) description.append("\n\t");
+            description.append(query.getQuery());
+            List<List<ParameterSetOperation>> parametersList = query.getParametersList();
+            for (int i = 0; i < parametersList.size() && i < LOGGED_BATCH_ENTRIES; i++) {
+                description.append("\n\t").append(redactor.redact(query.getQuery(), values(parametersList.get(i))));
+            }
+            if (parametersList.size() > LOGGED_BATCH_ENTRIES) {
+                description.append("\n\t... ").append(parametersList.size() - LOGGED_BATCH_ENTRIES).append(" more");
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Bound values in parameter index order, setNull gives null
+     */
+    private static List<Object> values(List<ParameterSetOperation> operations) {
+        return operations.stream()
+                .filter(operation -> !ParameterSetOperation.isRegisterOutParameterOperation(operation))
+                .sorted(Comparator.comparing(operation -> operation.getArgs()[0] instanceof Integer index ? index : 0))
+                .map(operation -> ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1])
+                .toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.banking.system.common.diagnostics;
+
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request SQL statement count (http.server.sql.statements) and JDBC time (http.server.sql.time), tagged
+ * with the request method and the matched endpoint pattern like http.server.requests.
+ *
+ * A request running more statements than diagnostics.sql.max-statements-per-request is logged at WARN with its
+ * statements grouped by SQL and counted in http.server.sql.budget.exceeded, usually an N+1 or a loop of single
+ * row calls. Statements of work handed to another thread (streamed exports) are not counted.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "diagnostics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+    static final String STATEMENTS = "http.server.sql.statements";
+    static final String TIME = "http.server.sql.time";
+    static final String BUDGET_EXCEEDED = "http.server.sql.budget.exceeded";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatementsPerRequest;
+
+    public SqlStatementMetricsFilter(SqlDiagnosticsConfig config, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatementsPerRequest = config.getMaxStatementsPerRequest();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementScope scope = SqlStatementScope.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            record(request, scope);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementScope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder(STATEMENTS).baseUnit("statements").tags(tags).register(meterRegistry)
+                .record(scope.count());
+        Timer.builder(TIME).tags(tags).register(meterRegistry)
+                .record(scope.elapsed().toNanos(), TimeUnit.NANOSECONDS);
+
+        if (maxStatementsPerRequest > 0 && scope.count() > maxStatementsPerRequest) {
+            Counter.builder(BUDGET_EXCEEDED).tags(tags).register(meterRegistry).increment();
+            Map<String, Long> statements = scope.statements().stream()
+                    .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()));
+            log.warn("{} {} ran {} SQL statements, budget is {}:\n\t{}", request.getMethod(), uri, scope.count(),
+                    maxStatementsPerRequest, statements.entrySet().stream()
+                            .map(statement -> statement.getValue() + " x " + statement.getKey())
+                            .collect(Collectors.joining("\n\t")));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.system.common.diagnostics;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * SQL statements run by the current thread between open() and close(). Scopes nest, a statement is recorded
+ * in every scope open on its thread. Opened per request by SqlStatementMetricsFilter, and by tests asserting
+ * a statement budget.
+ *
+ * Filled by SqlStatementListener, i.e. only while diagnostics.sql.enabled is true. One entry per execution
+ * (round trip), a JDBC batch is one entry.
+ */
+public final class SqlStatementScope implements AutoCloseable {
+    private static final ThreadLocal<Deque<SqlStatementScope>> OPEN_SCOPES = new ThreadLocal<>();
+
+    private final List<String> statements = new ArrayList<>();
+    private long elapsedNanos;
+
+    private SqlStatementScope() {
+    }
+
+    public static SqlStatementScope open() {
+        Deque<SqlStatementScope> scopes = OPEN_SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            OPEN_SCOPES.set(scopes);
+        }
+        SqlStatementScope scope = new SqlStatementScope();
+        scopes.push(scope);
+        return scope;
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        Deque<SqlStatementScope> scopes = OPEN_SCOPES.get();
+        if (scopes == null) return;
+        for (SqlStatementScope scope : scopes) {
+            scope.statements.add(sql);
+            scope.elapsedNanos += elapsedNanos;
+        }
+    }
+
+    /**
+     * @return number of statements executed in this scope
+     */
+    public int count() {
+        return statements.size();
+    }
+
+    /**
+     * @return total JDBC execution time of the statements, result set reads not included
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * @return SQL of the statements in execution order, without their parameters
+     */
+    public List<String> statements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    @Override
+    public void close() {
+        Deque<SqlStatementScope> scopes = OPEN_SCOPES.get();
+        if (scopes == null) return;
+        scopes.removeFirstOccurrence(this);
+        if (scopes.isEmpty()) {
+            OPEN_SCOPES.remove();
+        }
+    }
+}
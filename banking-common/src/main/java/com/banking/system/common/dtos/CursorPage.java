@@ -0,0 +1,25 @@
+package com.banking.system.common.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(name = "CursorPage", description = "A page of records fetched in cursor (keyset) mode. No total count is returned")
+public class CursorPage<T> {
+    @Schema(description = "Records of the page, ordered by their unique identifier")
+    private List<T> content;
+
+    @Schema(description = "Opaque cursor to fetch the next page. Null when there are no more records")
+    private String nextCursor;
+
+    @Schema(description = "Number of records requested per page", example = "10")
+    private int size;
+}
@@ -0,0 +1,33 @@
+package com.banking.system.common.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(name = "SlicePage", description = "A page of records fetched without a total count (includeTotal=false)")
+public class SlicePage<T> {
+    @Schema(description = "Records of the page")
+    private List<T> content;
+
+    @Schema(description = "Page number, starting at 0", example = "0")
+    private int page;
+
+    @Schema(description = "Number of records requested per page", example = "10")
+    private int size;
+
+    @Schema(description = "Whether there is at least one more record after this page")
+    private boolean hasNext;
+
+    public static <T> SlicePage<T> of(Slice<T> slice) {
+        return new SlicePage<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
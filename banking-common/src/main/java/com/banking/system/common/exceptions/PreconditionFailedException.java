@@ -0,0 +1,10 @@
+package com.banking.system.common.exceptions;
+
+/**
+ * The If-Match version of a conditional update is not the current version, answered with 412
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.banking.system.common.exceptions;
+
+import lombok.Getter;
+import org.springframework.context.MessageSource;
+
+/**
+ * A rejected request (400). Holds the key and arguments of the bundle message next to the resolved text,
+ * the failure is counted by its key without matching the message, see ValidationFailureMetrics
+ */
+@Getter
+public class ValidationException extends IllegalArgumentException {
+    private final String key;
+    private final transient Object[] args;
+
+    public ValidationException(String key, Object[] args, String message) {
+        super(message);
+        this.key = key;
+        this.args = args;
+    }
+
+    public ValidationException(MessageSource messageSource, String key, Object[] args) {
+        this(key, args, messageSource.getMessage(key, args, null));
+    }
+}
@@ -0,0 +1,49 @@
+package com.banking.system.common.exceptions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.FieldError;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the rejected requests by message key (validation.failures, tag key).
+ *
+ * Bean validation errors carry their key in the constraint message template ({pan.mandatory}), a
+ * ValidationException carries the key it was thrown with. Any other IllegalArgumentException is counted as
+ * "unknown", the tag values stay bounded by the bundle keys.
+ */
+@Component
+public class ValidationFailureMetrics {
+    static final String VALIDATION_FAILURES = "validation.failures";
+    static final String UNKNOWN_KEY = "unknown";
+    private static final Pattern TEMPLATE_KEY = Pattern.compile("^\\{(.+)}$");
+
+    private final MeterRegistry meterRegistry;
+
+    public ValidationFailureMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    public void count(FieldError error) {
+        String key = error.getCode();
+        if (error.contains(ConstraintViolation.class)) {
+            Matcher template = TEMPLATE_KEY.matcher(error.unwrap(ConstraintViolation.class).getMessageTemplate());
+            if (template.matches()) key = template.group(1);
+        }
+        increment(key);
+    }
+
+    public void count(IllegalArgumentException exception) {
+        increment(exception instanceof ValidationException validation ? validation.getKey() : UNKNOWN_KEY);
+    }
+
+    private void increment(String key) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(VALIDATION_FAILURES, "key", key == null ? UNKNOWN_KEY : key).increment();
+        }
+    }
+}
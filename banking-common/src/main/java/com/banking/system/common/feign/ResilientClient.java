@@ -0,0 +1,218 @@
+package com.banking.system.common.feign;
+
+import com.banking.system.common.configs.DownstreamClientsConfig;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feign client decorator applying, per downstream service, the circuit breaker, the bulkhead,
+ * the per-method timeouts and the hedging of idempotent GETs. See DownstreamClientsConfig.
+ *
+ * Calls refused by the circuit breaker or the bulkhead fail fast with a 503 RetryableException,
+ * a FeignException like any other downstream failure.
+ */
+class ResilientClient implements Client {
+    private final Client delegate;
+    private final DownstreamClientsConfig config;
+    private final ResilientFeignCapability registry;
+    private final ExecutorService hedgeExecutor;
+    private final MeterRegistry meterRegistry;
+
+    ResilientClient(Client delegate, DownstreamClientsConfig config, ResilientFeignCapability registry,
+                    ExecutorService hedgeExecutor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.config = config;
+        this.registry = registry;
+        this.hedgeExecutor = hedgeExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String downstream = request.requestTemplate().feignTarget().name();
+        String methodName = request.requestTemplate().methodMetadata().method().getName();
+        DownstreamClientsConfig.Client client = config.client(downstream);
+        DownstreamClientsConfig.Method method = client.method(methodName);
+        Request.Options effective = new Request.Options(
+                (method.getConnectTimeout() != null ? method.getConnectTimeout() : client.getConnectTimeout()).toMillis(),
+                TimeUnit.MILLISECONDS,
+                (method.getReadTimeout() != null ? method.getReadTimeout() : client.getReadTimeout()).toMillis(),
+                TimeUnit.MILLISECONDS,
+                options.isFollowRedirects());
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(downstream, client);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw rejected(request, "circuit breaker of " + downstream + " is open");
+        }
+        Bulkhead bulkhead = registry.bulkhead(downstream, client);
+        long start = System.nanoTime();
+        try {
+            Response response = method.getHedgeDelay() != null && request.httpMethod() == Request.HttpMethod.GET
+                    ? hedged(request, effective, bulkhead, client, method, downstream, methodName)
+                    : attempt(request, effective, bulkhead);
+            long duration = System.nanoTime() - start;
+            if (response.status() >= 500) {
+                circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, new DownstreamError(response.status()));
+            } else {
+                circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+            }
+            return response;
+        } catch (BulkheadRejection e) {
+            circuitBreaker.releasePermission();
+            throw rejected(request, "bulkhead of " + downstream + " is full");
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+    }
+
+    private Response attempt(Request request, Request.Options options, Bulkhead bulkhead) throws IOException {
+        if (!bulkhead.tryAcquirePermission()) {
+            throw new BulkheadRejection();
+        }
+        try {
+            return delegate.execute(request, options);
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    /**
+     * Send the request, and a second one if the first has not answered after the hedge delay.
+     * The first successful response is returned, the other one is closed when it arrives.
+     * A fast failure is not hedged, hedging is for slowness only
+     */
+    private Response hedged(Request request, Request.Options options, Bulkhead bulkhead,
+                            DownstreamClientsConfig.Client client, DownstreamClientsConfig.Method method,
+                            String downstream, String methodName) throws IOException {
+        HedgeBudget budget = registry.hedgeBudget(downstream);
+        budget.recordCall();
+        CompletableFuture<Response> primary = submit(request, options, bulkhead);
+        try {
+            return primary.get(method.getHedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!budget.tryAcquire(client.getHedgeBudgetPercent())
+                    || bulkhead.getMetrics().getAvailableConcurrentCalls() == 0) {
+                return await(primary);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + downstream);
+        }
+
+        if (meterRegistry != null) {
+            meterRegistry.counter("feign.client.hedges", "client", downstream, "method", methodName).increment();
+        }
+        CompletableFuture<Response> backup = submit(request, options, bulkhead);
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<Response> attempt : List.of(primary, backup)) {
+            attempt.whenComplete((response, error) -> {
+                if (error == null) {
+                    if (!first.complete(response)) response.close();
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        return await(first);
+    }
+
+    private CompletableFuture<Response> submit(Request request, Request.Options options, Bulkhead bulkhead) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return attempt(request, options, bulkhead);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, hedgeExecutor);
+    }
+
+    private static Response await(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the downstream response");
+        }
+    }
+
+    private static IOException unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof UncheckedIOException unchecked) return unchecked.getCause();
+        if (error instanceof IOException io) return io;
+        if (error instanceof RuntimeException runtime) throw runtime;
+        if (error instanceof Error fatal) throw fatal;
+        return new IOException(error);
+    }
+
+    private static RetryableException rejected(Request request, String reason) {
+        return new RetryableException(503, reason, request.httpMethod(), (Long) null, request);
+    }
+
+    /**
+     * Bulkhead refused the call, not a downstream failure: not recorded by the circuit breaker
+     */
+    private static class BulkheadRejection extends RuntimeException {
+        BulkheadRejection() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * 5xx answer recorded as a circuit breaker failure
+     */
+    private static class DownstreamError extends RuntimeException {
+        DownstreamError(int status) {
+            super("HTTP " + status, null, false, false);
+        }
+    }
+
+    /**
+     * Share of hedged calls, over a window that is halved every 1000 calls
+     */
+    static class HedgeBudget {
+        private static final long WINDOW = 1000;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+
+        void recordCall() {
+            if (calls.incrementAndGet() > WINDOW) {
+                calls.set(WINDOW / 2);
+                hedges.set(hedges.get() / 2);
+            }
+        }
+
+        boolean tryAcquire(int percent) {
+            if ((hedges.get() + 1) * 100 > Math.max(calls.get(), 10) * percent) {
+                return false;
+            }
+            hedges.incrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.banking.system.common.feign;
+
+import com.banking.system.common.configs.DownstreamClientsConfig;
+import feign.Capability;
+import feign.Client;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Applied by Spring Cloud OpenFeign to every Feign client of the service: wraps the HTTP client
+ * (pooled Apache HttpClient 5) in a ResilientClient, with one circuit breaker and one bulkhead per
+ * downstream service. Their state is published as resilience4j metrics, next to the per-method
+ * feign client timers of feign-micrometer.
+ */
+@Component
+public class ResilientFeignCapability implements Capability, DisposableBean {
+    private final DownstreamClientsConfig config;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    private final Map<String, ResilientClient.HedgeBudget> hedgeBudgets = new ConcurrentHashMap<>();
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ResilientFeignCapability(DownstreamClientsConfig config, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        if (this.meterRegistry != null) {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(this.meterRegistry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(this.meterRegistry);
+        }
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return new ResilientClient(client, config, this, hedgeExecutor, meterRegistry);
+    }
+
+    CircuitBreaker circuitBreaker(String downstream, DownstreamClientsConfig.Client settings) {
+        return circuitBreakerRegistry.circuitBreaker(downstream, () -> CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDuration())
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getWaitInOpenState())
+                .recordExceptions(IOException.class, RuntimeException.class)
+                .build());
+    }
+
+    Bulkhead bulkhead(String downstream, DownstreamClientsConfig.Client settings) {
+        return bulkheadRegistry.bulkhead(downstream, () -> BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getBulkheadMaxConcurrentCalls())
+                .maxWaitDuration(settings.getBulkheadMaxWait())
+                .build());
+    }
+
+    ResilientClient.HedgeBudget hedgeBudget(String downstream) {
+        return hedgeBudgets.computeIfAbsent(downstream, key -> new ResilientClient.HedgeBudget());
+    }
+
+    @Override
+    public void destroy() {
+        hedgeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,318 @@
+package com.banking.system.common.indexes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Cuckoo filter over the 64 bit hashes of the values of one unique column: a value not in the filter is
+ * definitely not in the table, its existence query can be skipped and the unique constraint still guards the
+ * insert. A value in the filter is only possibly in the table (about 0.01% false positives) and is queried.
+ *
+ * Buckets of 4 slots hold 16 bit fingerprints in one short[], each value has 2 candidate buckets
+ * (partial-key cuckoo hashing), a delete removes one copy of the fingerprint. 2 bytes per slot, sized at
+ * twice the keys loaded on startup. Lookups are optimistic reads (StampedLock), only retried under the read lock
+ * when a write ran meanwhile.
+ *
+ * Until started and filled, or once an insert could not find a slot, every value is reported as possibly
+ * present: the filter then only costs the queries it would have saved.
+ *
+ * Invariant: a value is only removed after this instance deleted its row (the delete affected one row). A value
+ * the filter does not hold is left alone, but one never added whose fingerprint another value shares in a bucket
+ * would take that fingerprint out, the other value would then be reported absent (its insert is still rejected by
+ * the unique constraint, see stale).
+ *
+ * Metrics, tag filter:
+ * - existence.filter.checks, tag result: absent (query saved), present (query confirmed the value),
+ *   false.positive (query found nothing), stale (insert rejected by the unique constraint after a skipped query,
+ *   the value was added by another instance)
+ * - existence.filter.false.positive.rate, false positives over the values found absent
+ * - existence.filter.keys, values in the filter
+ */
+@Slf4j
+public class ExistenceFilter {
+    public static final String CHECKS = "existence.filter.checks";
+    public static final String FALSE_POSITIVE_RATE = "existence.filter.false.positive.rate";
+    public static final String KEYS = "existence.filter.keys";
+
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final int MAX_KICKS = 500;
+    private static final int MAX_BUCKETS = 1 << 26;
+
+    private final String name;
+    private final int minKeys;
+    private final StampedLock lock = new StampedLock();
+    private final Counter absent;
+    private final Counter present;
+    private final Counter falsePositive;
+    private final Counter stale;
+
+    private short[] slots;
+    private int bucketMask;
+    private volatile int size;
+    private volatile boolean ready;
+    private volatile boolean saturated;
+
+    /**
+     * @param minKeys capacity allocated when fewer keys are loaded on startup
+     * @param meterRegistry null when metrics are not available
+     */
+    public ExistenceFilter(String name, int minKeys, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.minKeys = minKeys;
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        this.absent = registry.counter(CHECKS, "filter", name, "result", "absent");
+        this.present = registry.counter(CHECKS, "filter", name, "result", "present");
+        this.falsePositive = registry.counter(CHECKS, "filter", name, "result", "false.positive");
+        this.stale = registry.counter(CHECKS, "filter", name, "result", "stale");
+        registry.gauge(FALSE_POSITIVE_RATE, Tags.of("filter", name), this, ExistenceFilter::falsePositiveRate);
+        registry.gauge(KEYS, Tags.of("filter", name), this, ExistenceFilter::size);
+    }
+
+    /**
+     * Allocate the table before the keys are loaded. Values added or removed from now on are applied,
+     * the filter answers once ready() is called
+     * @param expectedKeys keys about to be loaded
+     */
+    public void start(long expectedKeys) {
+        long keys = Math.max(minKeys, expectedKeys * 2);
+        long minBuckets = Math.max(1, (keys + SLOTS_PER_BUCKET - 1) / SLOTS_PER_BUCKET);
+        int buckets = (int) Math.min(MAX_BUCKETS, Long.highestOneBit(minBuckets * 2 - 1));
+        long stamp = lock.writeLock();
+        try {
+            slots = new short[buckets * SLOTS_PER_BUCKET];
+            bucketMask = buckets - 1;
+            size = 0;
+            saturated = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * All the existing keys are loaded
+     */
+    public void ready() {
+        if (slots == null) return;
+        ready = true;
+        log.info("Existence filter {} ready with {} keys", name, size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(long hash) {
+        long stamp = lock.writeLock();
+        try {
+            if (slots == null || saturated) return;
+            short fingerprint = fingerprint(hash);
+            int bucket = (int) hash & bucketMask;
+            int alternate = alternate(bucket, fingerprint);
+            if (insert(bucket, fingerprint) || insert(alternate, fingerprint)) {
+                size++;
+                return;
+            }
+            // evict a random fingerprint to its other bucket, until one lands in a free slot
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int current = random.nextBoolean() ? bucket : alternate;
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                int slot = current * SLOTS_PER_BUCKET + random.nextInt(SLOTS_PER_BUCKET);
+                short evicted = slots[slot];
+                slots[slot] = fingerprint;
+                fingerprint = evicted;
+                current = alternate(current, fingerprint);
+                if (insert(current, fingerprint)) {
+                    size++;
+                    return;
+                }
+            }
+            // the last evicted fingerprint has no slot, a lookup could now miss it
+            saturated = true;
+            log.warn("Existence filter {} is full with {} keys, every value is now queried until restart", name, size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Forget the value of a row deleted by this instance, never on a delete that found no row (see the invariant)
+     */
+    public void remove(long hash) {
+        long stamp = lock.writeLock();
+        try {
+            if (slots == null) return;
+            short fingerprint = fingerprint(hash);
+            int bucket = (int) hash & bucketMask;
+            if (delete(bucket, fingerprint) || delete(alternate(bucket, fingerprint), fingerprint)) {
+                size--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * A value found absent is counted as a saved query, a possibly present one must be queried and its result
+     * reported with confirm
+     * @return false when the value is definitely not in the table
+     */
+    public boolean mightContain(long hash) {
+        if (!ready || saturated) return true;
+        long stamp = lock.tryOptimisticRead();
+        boolean found = lookup(slots, hash);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = lookup(slots, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (!found) absent.increment();
+        return found;
+    }
+
+    /**
+     * Result of the existence query of a possibly present value
+     * @return exists
+     */
+    public boolean confirm(boolean exists) {
+        if (ready && !saturated) {
+            (exists ? present : falsePositive).increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Results of one set based existence query
+     * @param queried possibly present values queried
+     * @param found values the query found
+     */
+    public void confirm(int queried, int found) {
+        if (ready && !saturated) {
+            present.increment(found);
+            falsePositive.increment(queried - found);
+        }
+    }
+
+    /**
+     * The unique constraint rejected a value found absent: it was inserted by another instance
+     */
+    public void stale(long hash) {
+        stale.increment();
+        add(hash);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * False positives over all the values not in the table (saved queries and false positives)
+     */
+    double falsePositiveRate() {
+        double negatives = absent.count() + falsePositive.count();
+        return negatives == 0 ? 0 : falsePositive.count() / negatives;
+    }
+
+    /**
+     * 64 bit hash of a value (FNV-1a over the chars, then the murmur3 finalizer), no allocation
+     */
+    public static long hash(CharSequence value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * 64 bit hash of a binary value (FNV-1a over the bytes, then the murmur3 finalizer), no allocation
+     */
+    public static long hash(byte[] value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * 64 bit hash of a composite key of two numbers
+     */
+    public static long hash(long first, long second) {
+        return mix(mix(first) ^ second);
+    }
+
+    private boolean insert(int bucket, short fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (slots[slot] == 0) {
+                slots[slot] = fingerprint;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean delete(int bucket, short fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (slots[slot] == fingerprint) {
+                slots[slot] = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fingerprint of the hash in one of its buckets. The bucket mask is taken from the table read, a table
+     * replaced by start during an optimistic read cannot be indexed out of bounds
+     */
+    private static boolean lookup(short[] table, long hash) {
+        int mask = table.length / SLOTS_PER_BUCKET - 1;
+        short fingerprint = fingerprint(hash);
+        int bucket = (int) hash & mask;
+        return contains(table, bucket, fingerprint) || contains(table, alternate(bucket, fingerprint, mask), fingerprint);
+    }
+
+    private static boolean contains(short[] table, int bucket, short fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (table[slot] == fingerprint) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The other bucket of a fingerprint, from either of its two buckets
+     */
+    private int alternate(int bucket, short fingerprint) {
+        return alternate(bucket, fingerprint, bucketMask);
+    }
+
+    private static int alternate(int bucket, short fingerprint, int mask) {
+        return (bucket ^ (int) mix(fingerprint)) & mask;
+    }
+
+    /**
+     * High 16 bits of the hash, the bucket uses the low ones. Never 0, 0 is an empty slot
+     */
+    private static short fingerprint(long hash) {
+        short fingerprint = (short) (hash >>> 48);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB93FE1A85EC1L;
+        return value ^ (value >>> 33);
+    }
+}
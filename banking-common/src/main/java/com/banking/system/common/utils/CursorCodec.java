@@ -0,0 +1,26 @@
+package com.banking.system.common.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encode and decode the opaque cursor used by keyset pagination.
+ * The cursor holds the primary key of the last record of the previous page.
+ */
+public class CursorCodec {
+
+    public static String encode(Long lastId) {
+        if (lastId == null) return null;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return the last id of the previous page, null for the first page
+     * @throws IllegalArgumentException if the cursor was not issued by {@link #encode(Long)}
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.system.common.utils;
+
+/**
+ * Strong ETags built from the entity @Version, optionally with a representation suffix ("12", "12-full").
+ * If-None-Match uses the weak comparison, If-Match the strong one (RFC 9110 13.1)
+ */
+public class ETags {
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String of(long version, String representation) {
+        return representation == null ? of(version) : "\"" + version + "-" + representation + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch If-None-Match header, may be null
+     * @return true when the header matches the ETag, the client copy is current
+     */
+    public static boolean matchesNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        if (ifNoneMatch.trim().equals("*")) return true;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Version expected by an If-Match header, for a conditional update
+     * @param ifMatch If-Match header, may be null
+     * @return null when the update is unconditional (no header or "*"), -1 when no version can match
+     * (weak or malformed tag, several tags)
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"' || tag.indexOf(',') >= 0) {
+            return -1L;
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int suffix = value.indexOf('-');
+        try {
+            return Long.parseLong(suffix < 0 ? value : value.substring(0, suffix));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.banking.system.common.utils;
+
+import com.banking.system.common.enums.ExportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Write exported rows one by one, as NDJSON (one json document per line) or CSV.
+ * Rows go straight to the output stream through a single buffered generator, nothing is kept in memory
+ */
+public class ExportWriter<T> implements Closeable {
+    private final ExportFormat format;
+    private final List<Column<T>> columns;
+    private final JsonGenerator generator;
+    private final ObjectWriter objectWriter;
+
+    /**
+     * A CSV column: header name and value extractor
+     */
+    public record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    public ExportWriter(ObjectMapper objectMapper, Class<T> type, ExportFormat format,
+                        List<Column<T>> columns, OutputStream out) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+        this.objectWriter = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) generator.writeRaw(',');
+                writeCsvValue(columns.get(i).name());
+            }
+            generator.writeRaw('\n');
+        }
+    }
+
+    public void write(T row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            objectWriter.writeValue(generator, row);
+        } else {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) generator.writeRaw(',');
+                Object value = columns.get(i).value().apply(row);
+                if (value != null) writeCsvValue(value.toString());
+            }
+        }
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    /**
+     * Quote values holding a separator, a quote or a line break. Quotes are doubled
+     */
+    private void writeCsvValue(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            generator.writeRaw(value);
+            return;
+        }
+        generator.writeRaw('"');
+        generator.writeRaw(value.replace("\"", "\"\""));
+        generator.writeRaw('"');
+    }
+}
@@ -0,0 +1,56 @@
+package com.banking.system.common.database;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * One embedded postgres per test JVM (binaries from the classpath, free local port), for the repository tests of
+ * the statements H2 does not run. Started on first use, stopped when the JVM exits. Used with
+ * AutoConfigureTestDatabase(replace = NONE), so the test database is not swapped for H2:
+ *
+ * @DynamicPropertySource
+ * static void database(DynamicPropertyRegistry registry) {
+ *     PostgresTestDatabase.register(registry);
+ * }
+ */
+public final class PostgresTestDatabase {
+    private static EmbeddedPostgres postgres;
+
+    private PostgresTestDatabase() {
+    }
+
+    /**
+     * Datasource of the test context on the embedded postgres, schema created from the entities
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        String jdbcUrl = start().getJdbcUrl("postgres", "postgres");
+        registry.add("spring.datasource.url", () -> jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        // created on start, not dropped on exit: the database is gone by then
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+    }
+
+    private static synchronized EmbeddedPostgres start() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Embedded postgres not started", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // the JVM is exiting, the data directory is temporary
+                }
+            }));
+        }
+        return postgres;
+    }
+}
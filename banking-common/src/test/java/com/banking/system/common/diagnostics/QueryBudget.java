@@ -0,0 +1,25 @@
+package com.banking.system.common.diagnostics;
+
+import java.util.function.Supplier;
+
+/**
+ * Test assertion on the number of SQL statements (round trips) a call runs, catches N+1 and extra round trip
+ * regressions. Needs a DataSource wrapped by SqlDataSourceProxy:
+ *
+ * Page<AccountDto> page = QueryBudget.atMost(2, () -> accountService.findAllAccounts(0, 20, null, null, null));
+ */
+public final class QueryBudget {
+    private QueryBudget() {
+    }
+
+    public static <T> T atMost(int maxStatements, Supplier<T> call) {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            T result = call.get();
+            if (scope.count() > maxStatements) {
+                throw new AssertionError("Expected at most " + maxStatements + " SQL statements, ran " + scope.count()
+                        + ":\n\t" + String.join("\n\t", scope.statements()));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.banking.system.common.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlParameterRedactorTest {
+    private final SqlParameterRedactor redactor = new SqlParameterRedactor(List.of("card_pan_code", "CARD_CVV_NUMBER"));
+
+    @Test
+    void insertValues_RedactedByColumnList() {
+        String sql = "insert into bank_cards (card_acc_id,card_alias,card_cvv_number,card_pan_code) values (?,?,?,?)";
+
+        assertEquals(List.of(1L, "Salary", "<redacted>", "<redacted>"),
+                redactor.redact(sql, List.of(1L, "Salary", "123", "46460000000001")));
+    }
+
+    @Test
+    void comparedAndAssignedColumns_Redacted() {
+        String sql = "select c1_0.card_id from bank_cards c1_0 where c1_0.card_pan_code like ? escape '' and c1_0.card_acc_id=?";
+        assertEquals(Arrays.asList("<redacted>", 7L), redactor.redact(sql, List.of("%4646%", 7L)));
+
+        String update = "UPDATE BANK_CARDS SET CARD_CVV_NUMBER = ?, CARD_ALIAS = ? WHERE CARD_ID IN (?, ?)";
+        assertEquals(Arrays.asList("<redacted>", "Travel", 1L, 2L), redactor.redact(update, List.of("999", "Travel", 1L, 2L)));
+    }
+
+    @Test
+    void cardNumberLookingValue_RedactedWhateverTheColumn() {
+        String sql = "select * from bank_cards where upper(card_alias) = upper(?) and card_id = ?";
+
+        assertEquals(Arrays.asList("<redacted>", 5L), redactor.redact(sql, List.of("4646000000000001", 5L)));
+        assertEquals(Arrays.asList("Salary", 5L), redactor.redact(sql, List.of("Salary", 5L)));
+    }
+
+    @Test
+    void questionMarkInLiteral_IsNotAParameter() {
+        String sql = "select * from bank_cards where card_alias = 'why?' and card_cvv_number = ?";
+
+        assertEquals(List.of("CARD_CVV_NUMBER"), redactor.parameterColumns(sql));
+    }
+}
@@ -0,0 +1,84 @@
+package com.banking.system.common.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementListenerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-listener;DB_CLOSE_DELAY=-1");
+        meterRegistry = new SimpleMeterRegistry();
+        SqlStatementListener listener = new SqlStatementListener(Duration.ZERO, List.of("ACC_SECRET"), () -> meterRegistry);
+        jdbcTemplate = new JdbcTemplate(SqlDataSourceProxy.wrap(h2, "h2", listener));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS ACCOUNTS");
+        jdbcTemplate.execute("CREATE TABLE ACCOUNTS (ACC_ID BIGINT PRIMARY KEY, ACC_SECRET VARCHAR(20))");
+    }
+
+    @Test
+    void statementsAreRecordedInEveryOpenScope() {
+        try (SqlStatementScope outer = SqlStatementScope.open()) {
+            jdbcTemplate.update("INSERT INTO ACCOUNTS (ACC_ID, ACC_SECRET) VALUES (?, ?)", 1L, "s3cret");
+            try (SqlStatementScope inner = SqlStatementScope.open()) {
+                jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS WHERE ACC_ID = ?", Long.class, 1L);
+
+                assertEquals(1, inner.count());
+                assertEquals(List.of("SELECT ACC_ID FROM ACCOUNTS WHERE ACC_ID = ?"), inner.statements());
+            }
+            jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS", Long.class);
+
+            assertEquals(3, outer.count());
+            assertTrue(outer.elapsed().toNanos() > 0);
+        }
+    }
+
+    @Test
+    void batchIsOneStatement() {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            jdbcTemplate.batchUpdate("INSERT INTO ACCOUNTS (ACC_ID, ACC_SECRET) VALUES (?, ?)",
+                    List.of(new Object[]{1L, "a"}, new Object[]{2L, "b"}, new Object[]{3L, "c"}));
+
+            assertEquals(1, scope.count());
+        }
+    }
+
+    @Test
+    void statementsOutsideScopeAreNotRecorded() {
+        jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS", Long.class);
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            assertEquals(0, scope.count());
+        }
+    }
+
+    @Test
+    void slowStatementsAreCounted() {
+        double before = meterRegistry.counter(SqlStatementListener.SLOW_STATEMENTS).count();
+        jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS", Long.class);
+        jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS", Long.class);
+
+        assertEquals(before + 2, meterRegistry.counter(SqlStatementListener.SLOW_STATEMENTS).count());
+    }
+
+    @Test
+    void queryBudget_FailsAboveBudget() {
+        AssertionError error = assertThrows(AssertionError.class, () -> QueryBudget.atMost(1, () -> {
+            jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS WHERE ACC_ID = ?", Long.class, 1L);
+            return jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS WHERE ACC_ID = ?", Long.class, 2L);
+        }));
+
+        assertTrue(error.getMessage().contains("ran 2"));
+        assertEquals(List.of(), QueryBudget.atMost(1, () -> jdbcTemplate.queryForList("SELECT ACC_ID FROM ACCOUNTS", Long.class)));
+    }
+}
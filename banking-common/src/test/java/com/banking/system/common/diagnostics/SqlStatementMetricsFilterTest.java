@@ -0,0 +1,69 @@
+package com.banking.system.common.diagnostics;
+
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementMetricsFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SqlDiagnosticsConfig config = new SqlDiagnosticsConfig();
+        config.setMaxStatementsPerRequest(2);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlStatementMetricsFilter(config, meterRegistry);
+    }
+
+    @Test
+    void statementsOfTheRequest_RecordedPerEndpoint() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts/1"), new MockHttpServletResponse(),
+                endpoint("/accounts/{accountId}", 2));
+
+        assertEquals(2, meterRegistry.get(SqlStatementMetricsFilter.STATEMENTS)
+                .tags("method", "GET", "uri", "/accounts/{accountId}").summary().totalAmount());
+        assertEquals(2_000_000, meterRegistry.get(SqlStatementMetricsFilter.TIME)
+                .tags("method", "GET", "uri", "/accounts/{accountId}").timer().totalTime(TimeUnit.NANOSECONDS));
+        assertTrue(meterRegistry.find(SqlStatementMetricsFilter.BUDGET_EXCEEDED).counters().isEmpty());
+    }
+
+    @Test
+    void requestAboveBudget_Counted() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), new MockHttpServletResponse(),
+                endpoint("/accounts", 3));
+
+        assertEquals(1, meterRegistry.get(SqlStatementMetricsFilter.BUDGET_EXCEEDED)
+                .tags("method", "GET", "uri", "/accounts").counter().count());
+    }
+
+    @Test
+    void statementsAfterTheRequest_NotRecorded() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), new MockHttpServletResponse(),
+                endpoint("/accounts", 1));
+        SqlStatementScope.record("select 1", 1_000_000);
+
+        assertEquals(1, meterRegistry.get(SqlStatementMetricsFilter.STATEMENTS).summary().totalAmount());
+    }
+
+    /**
+     * Handler matched to the pattern, running the given number of 1 ms statements
+     */
+    private static FilterChain endpoint(String pattern, int statements) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            for (int i = 0; i < statements; i++) {
+                SqlStatementScope.record("select " + i, 1_000_000);
+            }
+        };
+    }
+}
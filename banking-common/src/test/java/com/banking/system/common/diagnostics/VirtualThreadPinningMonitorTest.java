@@ -0,0 +1,63 @@
+package com.banking.system.common.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10));
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    void blockingInsideSynchronized_IsReported() throws Exception {
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleep(50);
+            }
+        }).join();
+
+        assertTrue(awaitPinned(1), "pinning not reported");
+    }
+
+    @Test
+    void blockingOutsideSynchronized_IsNotReported() throws Exception {
+        Thread.ofVirtual().start(() -> sleep(50)).join();
+
+        assertFalse(awaitPinned(1));
+    }
+
+    /**
+     * JFR delivers events on its own flush cycle (about once a second)
+     */
+    private boolean awaitPinned(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(3).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (monitor.pinnedCount() >= expected) return true;
+            Thread.sleep(100);
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
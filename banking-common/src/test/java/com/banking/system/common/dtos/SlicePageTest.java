@@ -0,0 +1,31 @@
+package com.banking.system.common.dtos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlicePageTest {
+
+    @Test
+    void of_PageNumberSizeAndNextFromTheSlice() {
+        SlicePage<String> page = SlicePage.of(new SliceImpl<>(List.of("a", "b"), PageRequest.of(3, 2), true));
+
+        assertEquals(List.of("a", "b"), page.getContent());
+        assertEquals(3, page.getPage());
+        assertEquals(2, page.getSize());
+        assertTrue(page.isHasNext());
+    }
+
+    @Test
+    void json_NoTotalCount() throws Exception {
+        SlicePage<String> page = SlicePage.of(new SliceImpl<>(List.of("a"), PageRequest.of(0, 10), false));
+
+        assertEquals("{\"content\":[\"a\"],\"page\":0,\"size\":10,\"hasNext\":false}",
+                new ObjectMapper().writeValueAsString(page));
+    }
+}
@@ -0,0 +1,21 @@
+package com.banking.system.common.exceptions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PreconditionFailedExceptionHandlerTest {
+
+    @Test
+    void staleVersion_412WithTheMessage() {
+        ResponseEntity<Map<String, String>> response = new PreconditionFailedExceptionHandler()
+                .handlePreconditionFailedException(new PreconditionFailedException("Account with id 1 was modified"));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals(Map.of("error", "Account with id 1 was modified"), response.getBody());
+    }
+}
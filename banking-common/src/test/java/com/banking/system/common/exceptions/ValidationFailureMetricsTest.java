@@ -0,0 +1,93 @@
+package com.banking.system.common.exceptions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationFailureMetricsTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationFailureMetrics metrics;
+    private LocalValidatorFactoryBean validator;
+
+    @Getter
+    @AllArgsConstructor
+    static class Request {
+        @NotNull(message = "{account.id.mandatory}")
+        private Long accountId;
+
+        @NotBlank(message = "{pan.mandatory}")
+        private String pan;
+
+        @NotNull
+        private String alias;
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", meterRegistry);
+        metrics = new ValidationFailureMetrics(beans.getBeanProvider(MeterRegistry.class));
+        validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validator.close();
+    }
+
+    @Test
+    void validationException_CountedByItsKey() {
+        StaticMessageSource messageSource = new StaticMessageSource();
+        messageSource.addMessage("account.not.found", Locale.getDefault(), "Account with id {0} not found");
+
+        ValidationException exception = new ValidationException(messageSource, "account.not.found", new Object[]{42L});
+        metrics.count(exception);
+        metrics.count(new ValidationException("card.pan.exist", null, "card with the same pan number exist"));
+
+        assertEquals("Account with id 42 not found", exception.getMessage());
+        assertEquals(1, failures("account.not.found"));
+        assertEquals(1, failures("card.pan.exist"));
+    }
+
+    @Test
+    void otherIllegalArgument_CountedAsUnknown() {
+        metrics.count(new IllegalArgumentException("Account with id 42 not found"));
+        metrics.count(new IllegalArgumentException());
+
+        assertEquals(2, failures(ValidationFailureMetrics.UNKNOWN_KEY));
+        assertEquals(0, failures("account.not.found"));
+    }
+
+    @Test
+    void beanValidationError_CountedByTemplateKey() {
+        Request request = new Request(null, "4646000000000001", null);
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(request, "request");
+        validator.validate(request, errors);
+
+        errors.getFieldErrors().forEach(metrics::count);
+
+        assertEquals(1, failures("account.id.mandatory"));
+        assertEquals(1, failures("jakarta.validation.constraints.NotNull.message"));
+        assertEquals(0, failures("pan.mandatory"));
+    }
+
+    private double failures(String key) {
+        return meterRegistry.counter(ValidationFailureMetrics.VALIDATION_FAILURES, "key", key).count();
+    }
+}
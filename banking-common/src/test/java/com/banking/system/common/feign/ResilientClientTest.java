@@ -0,0 +1,200 @@
+package com.banking.system.common.feign;
+
+import com.banking.system.common.configs.DownstreamClientsConfig;
+import feign.Client;
+import feign.Contract;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.RetryableException;
+import feign.Target;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ResilientClientTest {
+    private static final String DOWNSTREAM = "downstream-service";
+
+    interface Downstream {
+        @RequestLine("GET /resource/1")
+        String read();
+
+        @RequestLine("DELETE /resource/1")
+        void delete();
+    }
+
+    private final Map<String, MethodMetadata> metadata = new Contract.Default()
+            .parseAndValidateMetadata(Downstream.class).stream()
+            .collect(Collectors.toMap(md -> md.method().getName(), md -> md));
+
+    private DownstreamClientsConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private ResilientFeignCapability capability;
+    private Client delegate;
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        config = new DownstreamClientsConfig();
+        DownstreamClientsConfig.Client settings = config.client(DOWNSTREAM);
+        settings.setConnectTimeout(Duration.ofMillis(200));
+        settings.setReadTimeout(Duration.ofSeconds(2));
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumNumberOfCalls(4);
+        settings.setBulkheadMaxConcurrentCalls(1);
+        settings.setHedgeBudgetPercent(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        ObjectProvider<MeterRegistry> provider = beanFactory.getBeanProvider(MeterRegistry.class);
+        capability = new ResilientFeignCapability(config, provider);
+        delegate = mock(Client.class);
+        client = capability.enrich(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        capability.destroy();
+    }
+
+    @Test
+    void execute_MethodTimeoutsOverrideClientTimeouts() throws Exception {
+        DownstreamClientsConfig.Method read = new DownstreamClientsConfig.Method();
+        read.setReadTimeout(Duration.ofMillis(500));
+        config.client(DOWNSTREAM).getMethods().put("read", read);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> response(invocation.getArgument(0), 200));
+
+        client.execute(request("read"), new Request.Options());
+        client.execute(request("delete"), new Request.Options());
+
+        verify(delegate).execute(any(), argThatTimeouts(200, 500));
+        verify(delegate).execute(any(), argThatTimeouts(200, 2000));
+    }
+
+    @Test
+    void execute_ServerErrors_OpenCircuitAndFailFast() throws Exception {
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> response(invocation.getArgument(0), 503));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(503, client.execute(request("delete"), new Request.Options()).status());
+        }
+
+        RetryableException exception = assertThrows(RetryableException.class,
+                () -> client.execute(request("delete"), new Request.Options()));
+
+        assertEquals(503, exception.status());
+        verify(delegate, times(4)).execute(any(), any());
+    }
+
+    @Test
+    void execute_ClientErrors_DoNotOpenCircuit() throws Exception {
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> response(invocation.getArgument(0), 404));
+        for (int i = 0; i < 6; i++) {
+            assertEquals(404, client.execute(request("delete"), new Request.Options()).status());
+        }
+
+        verify(delegate, times(6)).execute(any(), any());
+    }
+
+    @Test
+    void execute_BulkheadFull_RejectsCall() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> {
+            inFlight.countDown();
+            release.await();
+            return response(invocation.getArgument(0), 200);
+        });
+        Thread first = Thread.ofVirtual().start(() -> {
+            try {
+                client.execute(request("delete"), new Request.Options());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RetryableException.class, () -> client.execute(request("delete"), new Request.Options()));
+
+        release.countDown();
+        first.join();
+    }
+
+    @Test
+    void execute_SlowGet_HedgedAndFirstAnswerWins() throws Exception {
+        config.client(DOWNSTREAM).setBulkheadMaxConcurrentCalls(10);
+        DownstreamClientsConfig.Method read = new DownstreamClientsConfig.Method();
+        read.setHedgeDelay(Duration.ofMillis(50));
+        config.client(DOWNSTREAM).getMethods().put("read", read);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        Response slow = mock(Response.class);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                release.await();
+                return slow;
+            }
+            return response(invocation.getArgument(0), 200);
+        });
+
+        Response response = client.execute(request("read"), new Request.Options());
+
+        assertEquals(200, response.status());
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("feign.client.hedges", "client", DOWNSTREAM, "method", "read").count());
+        release.countDown();
+        verify(slow, timeout(5000)).close();
+    }
+
+    @Test
+    void execute_NonIdempotentMethod_NeverHedged() throws Exception {
+        DownstreamClientsConfig.Method delete = new DownstreamClientsConfig.Method();
+        delete.setHedgeDelay(Duration.ofMillis(1));
+        config.client(DOWNSTREAM).getMethods().put("delete", delete);
+        when(delegate.execute(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return response(invocation.getArgument(0), 200);
+        });
+
+        client.execute(request("delete"), new Request.Options());
+
+        verify(delegate, times(1)).execute(any(), any());
+    }
+
+    private Request request(String method) {
+        RequestTemplate template = new RequestTemplate();
+        MethodMetadata md = metadata.get(method);
+        template.method(md.template().method());
+        template.uri(md.template().url());
+        template.methodMetadata(md);
+        template.feignTarget(new Target.HardCodedTarget<>(Downstream.class, DOWNSTREAM, "http://127.0.0.1"));
+        return template.resolve(Collections.emptyMap()).request();
+    }
+
+    private static Response response(Request request, int status) {
+        return Response.builder().status(status).request(request).headers(Collections.emptyMap()).body(new byte[0]).build();
+    }
+
+    private static Request.Options argThatTimeouts(long connectMillis, long readMillis) {
+        return argThat(options -> options != null
+                && options.connectTimeoutMillis() == connectMillis && options.readTimeoutMillis() == readMillis);
+    }
+}
@@ -0,0 +1,138 @@
+package com.banking.system.common.indexes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExistenceFilterTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void notReady_EveryValuePossiblyPresent() {
+        ExistenceFilter filter = new ExistenceFilter("iban", 16, meterRegistry);
+        assertTrue(filter.mightContain(ExistenceFilter.hash("DE89370400440532013000")));
+
+        filter.start(0);
+        assertTrue(filter.mightContain(ExistenceFilter.hash("DE89370400440532013000")));
+    }
+
+    @Test
+    void binaryValuesFound_OtherBytesAbsent() {
+        ExistenceFilter filter = new ExistenceFilter("pan", 16, meterRegistry);
+        filter.start(0);
+        filter.add(ExistenceFilter.hash(new byte[]{1, 2, (byte) 0xFF}));
+        filter.ready();
+
+        assertTrue(filter.mightContain(ExistenceFilter.hash(new byte[]{1, 2, (byte) 0xFF})));
+        assertFalse(filter.mightContain(ExistenceFilter.hash(new byte[]{1, 2, (byte) 0xFE})));
+    }
+
+    @Test
+    void addedValuesFound_RemovedValuesAbsent() {
+        ExistenceFilter filter = new ExistenceFilter("iban", 16, meterRegistry);
+        filter.start(0);
+        filter.add(ExistenceFilter.hash("DE89370400440532013000"));
+        filter.add(ExistenceFilter.hash("GB82WEST12345698765432"));
+        filter.ready();
+
+        assertTrue(filter.mightContain(ExistenceFilter.hash("DE89370400440532013000")));
+        assertTrue(filter.mightContain(ExistenceFilter.hash("GB82WEST12345698765432")));
+        assertFalse(filter.mightContain(ExistenceFilter.hash("NL91ABNA0417164300")));
+
+        filter.remove(ExistenceFilter.hash("DE89370400440532013000"));
+        assertFalse(filter.mightContain(ExistenceFilter.hash("DE89370400440532013000")));
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    void removeOfValueNotHeld_LeavesTheFilterUnchanged() {
+        ExistenceFilter filter = new ExistenceFilter("pan", 16, meterRegistry);
+        filter.start(0);
+        filter.add(ExistenceFilter.hash("4646557784849383"));
+        filter.ready();
+
+        filter.remove(ExistenceFilter.hash("5555555555554444"));
+
+        assertTrue(filter.mightContain(ExistenceFilter.hash("4646557784849383")));
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    void removeOfValueNeverAdded_SharingAFingerprint_TakesTheOtherValueOut() {
+        // same high 16 bits (fingerprint) and low bits (bucket): why remove needs a deleted row, see the invariant
+        long added = 0x1234_0000_0000_0005L;
+        long neverAdded = 0x1234_0000_0100_0005L;
+        ExistenceFilter filter = new ExistenceFilter("iban", 16, meterRegistry);
+        filter.start(0);
+        filter.add(added);
+        filter.ready();
+
+        filter.remove(neverAdded);
+
+        assertFalse(filter.mightContain(added));
+    }
+
+    @Test
+    void manyValues_NoFalseNegativeAndFewFalsePositives() {
+        int keys = 200_000;
+        ExistenceFilter filter = new ExistenceFilter("iban", 16, meterRegistry);
+        filter.start(keys);
+        for (int i = 0; i < keys; i++) {
+            filter.add(ExistenceFilter.hash(String.format("DE%020d", i)));
+        }
+        filter.ready();
+
+        for (int i = 0; i < keys; i++) {
+            assertTrue(filter.mightContain(ExistenceFilter.hash(String.format("DE%020d", i))));
+        }
+        int falsePositives = 0;
+        for (int i = keys; i < 2 * keys; i++) {
+            if (filter.mightContain(ExistenceFilter.hash(String.format("DE%020d", i)))) {
+                filter.confirm(false);
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < keys / 1000, "false positives " + falsePositives);
+        assertEquals(keys, filter.size());
+        assertEquals((double) falsePositives / keys, filter.falsePositiveRate(), 1e-9);
+    }
+
+    @Test
+    void full_EveryValuePossiblyPresent() {
+        ExistenceFilter filter = new ExistenceFilter("iban", 16, meterRegistry);
+        filter.start(0);
+        filter.ready();
+        for (int i = 0; i < 1000; i++) {
+            filter.add(ExistenceFilter.hash("value" + i));
+        }
+
+        assertTrue(filter.mightContain(ExistenceFilter.hash("absent")));
+    }
+
+    @Test
+    void metrics_SavedQueriesAndFalsePositives() {
+        ExistenceFilter filter = new ExistenceFilter("iban", 16, meterRegistry);
+        filter.start(0);
+        filter.add(ExistenceFilter.hash("DE89370400440532013000"));
+        filter.ready();
+
+        filter.mightContain(ExistenceFilter.hash("NL91ABNA0417164300"));
+        filter.confirm(filter.mightContain(ExistenceFilter.hash("DE89370400440532013000")));
+        filter.confirm(3, 1);
+        filter.stale(ExistenceFilter.hash("BE68539007547034"));
+
+        assertEquals(1, checks("absent"));
+        assertEquals(2, checks("present"));
+        assertEquals(2, checks("false.positive"));
+        assertEquals(1, checks("stale"));
+        assertEquals(2.0 / 3, meterRegistry.get(ExistenceFilter.FALSE_POSITIVE_RATE).tag("filter", "iban").gauge().value(), 1e-9);
+        assertEquals(2, meterRegistry.get(ExistenceFilter.KEYS).tag("filter", "iban").gauge().value());
+        assertTrue(filter.mightContain(ExistenceFilter.hash("BE68539007547034")));
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get(ExistenceFilter.CHECKS).tag("filter", "iban").tag("result", result).counter().count();
+    }
+}
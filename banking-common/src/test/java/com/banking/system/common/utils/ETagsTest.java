@@ -0,0 +1,51 @@
+package com.banking.system.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void of_QuotedVersionWithOptionalRepresentation() {
+        assertEquals("\"12\"", ETags.of(12));
+        assertEquals("\"12\"", ETags.of(12, null));
+        assertEquals("\"12-full\"", ETags.of(12, "full"));
+    }
+
+    @Test
+    void matchesNoneMatch_WeakComparison() {
+        String etag = ETags.of(3);
+
+        assertTrue(ETags.matchesNoneMatch("\"3\"", etag));
+        assertTrue(ETags.matchesNoneMatch("W/\"3\"", etag));
+        assertTrue(ETags.matchesNoneMatch("\"1\", W/\"3\"", etag));
+        assertTrue(ETags.matchesNoneMatch("*", etag));
+        assertFalse(ETags.matchesNoneMatch("\"4\"", etag));
+        assertFalse(ETags.matchesNoneMatch("\"3-full\"", etag));
+        assertFalse(ETags.matchesNoneMatch(null, etag));
+        assertFalse(ETags.matchesNoneMatch(" ", etag));
+    }
+
+    @Test
+    void expectedVersion_StrongTagVersion() {
+        assertEquals(7L, ETags.expectedVersion("\"7\""));
+        assertEquals(7L, ETags.expectedVersion(" \"7-full\" "));
+    }
+
+    @Test
+    void expectedVersion_UnconditionalWithoutHeaderOrWildcard() {
+        assertNull(ETags.expectedVersion(null));
+        assertNull(ETags.expectedVersion(""));
+        assertNull(ETags.expectedVersion("*"));
+    }
+
+    @Test
+    void expectedVersion_WeakMalformedOrSeveralTags_NeverMatch() {
+        assertEquals(-1L, ETags.expectedVersion("W/\"7\""));
+        assertEquals(-1L, ETags.expectedVersion("7"));
+        assertEquals(-1L, ETags.expectedVersion("\"\""));
+        assertEquals(-1L, ETags.expectedVersion("\"abc\""));
+        assertEquals(-1L, ETags.expectedVersion("\"7\", \"8\""));
+    }
+}
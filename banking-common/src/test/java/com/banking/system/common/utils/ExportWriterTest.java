@@ -0,0 +1,64 @@
+package com.banking.system.common.utils;
+
+import com.banking.system.common.enums.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    record Row(Long id, String name) {
+    }
+
+    private static final List<ExportWriter.Column<Row>> COLUMNS = List.of(
+            new ExportWriter.Column<>("id", Row::id),
+            new ExportWriter.Column<>("name", Row::name));
+
+    @Test
+    void ndjson_OneDocumentPerLine() throws IOException {
+        assertEquals("{\"id\":1,\"name\":\"Jane\"}\n{\"id\":2,\"name\":null}\n",
+                export(ExportFormat.NDJSON, new Row(1L, "Jane"), new Row(2L, null)));
+    }
+
+    @Test
+    void csv_HeaderThenRows_NullValuesLeftEmpty() throws IOException {
+        assertEquals("id,name\n1,Jane\n2,\n", export(ExportFormat.CSV, new Row(1L, "Jane"), new Row(2L, null)));
+    }
+
+    @Test
+    void csv_ValuesWithSeparatorQuoteOrLineBreak_Quoted() throws IOException {
+        assertEquals("id,name\n1,\"Doe, Jane\"\n2,\"say \"\"hi\"\"\"\n3,\"two\nlines\"\n",
+                export(ExportFormat.CSV, new Row(1L, "Doe, Jane"), new Row(2L, "say \"hi\""), new Row(3L, "two\nlines")));
+    }
+
+    @Test
+    void close_LeavesTheOutputStreamOpen() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("output stream closed by the writer");
+            }
+        };
+        try (ExportWriter<Row> writer = new ExportWriter<>(objectMapper, Row.class, ExportFormat.CSV, COLUMNS, out)) {
+            writer.write(new Row(1L, "Jane"));
+        }
+        assertEquals("id,name\n1,Jane\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private String export(ExportFormat format, Row... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Row> writer = new ExportWriter<>(objectMapper, Row.class, format, COLUMNS, out)) {
+            for (Row row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.mappers.CardMapper;
+import com.banking.system.cardservice.models.Card;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CardMapper.toEntityDataHidden, the card read path, with the PAN and CVV shown and masked
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardMapperBenchmark {
+    @Param({"true", "false"})
+    private boolean showSensitiveData;
+
+    private Card card;
+
+    @Setup
+    public void setUp() {
+        card = Card.builder()
+                .cardId(1L)
+                .accountId(1L)
+                .cardType(CardType.VIRTUAL)
+                .pan("4111111111111111")
+                .cvv("123")
+                .cardAlias("salary card")
+                .version(3)
+                .build();
+    }
+
+    @Benchmark
+    public CardDto toEntityDataHidden() {
+        return CardMapper.toEntityDataHidden(card, showSensitiveData);
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.mappers.CardMapper;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of 1,000 cards mapped and written as JSON:
+ * - shown: PAN and CVV as stored
+ * - masked-strings: masked Strings built per card (MaskSensitiveData.maskPan/maskCvv), then encoded
+ * - masked-serializer: CardMapper.toEntityDataHidden, masks written by SensitiveValueSerializer from the pan and cvv
+ * - masked-stored: the list projection, stored masked pan (CARD_PAN_MASKED) and shared CVV mask, written by the
+ *   same serializer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardPageSerializationBenchmark {
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"shown", "masked-strings", "masked-serializer", "masked-stored"})
+    private String cards;
+
+    private final ObjectWriter writer = new ObjectMapper().writerFor(List.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private List<Card> page;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(Card.builder()
+                    .cardId((long) i)
+                    .accountId((long) i)
+                    .cardType(i % 2 == 0 ? CardType.VIRTUAL : CardType.PHYSICAL)
+                    .pan(String.format("4%015d", i))
+                    .cvv(String.format("%03d", i % 1000))
+                    .panMasked(MaskSensitiveData.maskPan(String.format("4%015d", i)))
+                    .cardAlias("card " + i)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void writePage() throws IOException {
+        List<CardDto> dtos = new ArrayList<>(PAGE_SIZE);
+        for (Card card : page) {
+            dtos.add(switch (cards) {
+                case "shown" -> CardMapper.toEntityDataHidden(card, true);
+                case "masked-strings" -> maskedStrings(card);
+                case "masked-serializer" -> CardMapper.toEntityDataHidden(card, false);
+                default -> new CardDto(card.getCardId(), card.getAccountId(), card.getCardType(), card.getPanMasked(),
+                        card.getCvv().length(), card.getCardAlias(), card.getVersion());
+            });
+        }
+        writer.writeValue(out, dtos);
+    }
+
+    /**
+     * Masking as done before the serializer: the repeated '*' string, the last digits substring
+     * and their concatenation
+     */
+    private static CardDto maskedStrings(Card card) {
+        CardDto dto = CardMapper.toEntityDataHidden(card, true);
+        String pan = card.getPan();
+        int stars = pan.length() - MaskSensitiveData.PAN_VISIBLE_DIGITS;
+        dto.setPan("*".repeat(stars) + pan.substring(stars));
+        dto.setCvv("*".repeat(card.getCvv().length()));
+        return dto;
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.enums.CardTypeDeserializer;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CardTypeDeserializer alone (an unknown type goes through the valueOf exception) and as part
+ * of reading a CardDto request body
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardTypeDeserializerBenchmark {
+    @Param({"VIRTUAL", "physical", "unknown"})
+    private String typeOfCard;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CardTypeDeserializer deserializer = new CardTypeDeserializer();
+    private ObjectReader cardReader;
+    private byte[] cardType;
+    private byte[] cardBody;
+
+    @Setup
+    public void setUp() {
+        cardReader = objectMapper.readerFor(CardDto.class);
+        cardType = ("\"" + typeOfCard + "\"").getBytes(StandardCharsets.UTF_8);
+        cardBody = ("{\"accountId\":1,\"typeOfCard\":\"" + typeOfCard + "\",\"pan\":\"4111111111111111\","
+                + "\"cvv\":\"123\",\"cardAlias\":\"salary card\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Includes the parser creation, the deserializer only reads the current token
+     */
+    @Benchmark
+    public CardType deserialize() throws IOException {
+        try (JsonParser parser = objectMapper.createParser(cardType)) {
+            parser.nextToken();
+            return deserializer.deserialize(parser, null);
+        }
+    }
+
+    @Benchmark
+    public CardDto readCardDto() throws IOException {
+        return cardReader.readValue(cardBody);
+    }
+}
@@ -0,0 +1,73 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.cardservice.configs.CardFormatConfig;
+import com.banking.system.cardservice.validation.CardFormatViolation;
+import com.banking.system.cardservice.validation.CardValidationEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PAN and CVV format check of a new card with the schemes of the card application.yml:
+ * - engine: CardValidationEngine.validate, compiled rules (BIN ranges, lengths, Luhn) on a char scan
+ * - matches: the former check, String.matches with the \d{16} and \d{3} formats, pattern compiled per call
+ * Both return the violation found, the error built from it by CardServiceImpl is the same for both
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardValidationBenchmark {
+    private static final String PAN_FORMAT = "\\d{16}";
+    private static final String CVV_FORMAT = "\\d{3}";
+
+    @Param({"valid", "invalid-cvv", "invalid-pan"})
+    private String card;
+
+    @Param({"engine", "matches"})
+    private String validator;
+
+    private CardValidationEngine cardValidation;
+    private String pan;
+    private String cvv;
+
+    @Setup
+    public void setUp() {
+        CardFormatConfig cardFormatConfig = new CardFormatConfig();
+        cardFormatConfig.getSchemes().put("visa", scheme(List.of("4"), List.of(13, 16, 19), 3));
+        cardFormatConfig.getSchemes().put("mastercard", scheme(List.of("51-55", "2221-2720"), List.of(16), 3));
+        cardFormatConfig.getSchemes().put("amex", scheme(List.of("34", "37"), List.of(15), 4));
+        cardValidation = new CardValidationEngine(cardFormatConfig);
+        pan = card.equals("invalid-pan") ? "4111-1111-1111-1111" : "4111111111111111";
+        cvv = card.equals("invalid-cvv") ? "12a" : "123";
+    }
+
+    @Benchmark
+    public CardFormatViolation validate() {
+        return validator.equals("engine") ? cardValidation.validate(pan, cvv) : validateWithMatches(pan, cvv);
+    }
+
+    /**
+     * The format checks of CardServiceImpl.validateCardDetails before the validation engine, CVV first
+     */
+    private static CardFormatViolation validateWithMatches(String pan, String cvv) {
+        if (!cvv.matches(CVV_FORMAT)) {
+            return CardFormatViolation.CVV_FORMAT;
+        }
+        if (!pan.matches(PAN_FORMAT)) {
+            return CardFormatViolation.PAN_FORMAT;
+        }
+        return null;
+    }
+
+    private static CardFormatConfig.Scheme scheme(List<String> binRanges, List<Integer> panLengths, int cvvLength) {
+        CardFormatConfig.Scheme scheme = new CardFormatConfig.Scheme();
+        scheme.setBinRanges(binRanges);
+        scheme.setPanLengths(panLengths);
+        scheme.setCvvLength(cvvLength);
+        return scheme;
+    }
+}
@@ -0,0 +1,48 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.common.indexes.ExistenceFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of a new iban in the existence filter of account creation (instead of the existsByIban round trip),
+ * filter loaded with 1,000,000 ibans. absent = query saved, present = query still run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExistenceFilterBenchmark {
+    private static final int KEYS = 1_000_000;
+
+    @Param({"absent", "present"})
+    private String iban;
+
+    private ExistenceFilter filter;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        filter = new ExistenceFilter("iban", KEYS, null);
+        filter.start(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add(ExistenceFilter.hash(String.format("DE%020d", i)));
+        }
+        filter.ready();
+        value = String.format("DE%020d", iban.equals("absent") ? KEYS + 42 : 42);
+    }
+
+    @Benchmark
+    public boolean mightContain() {
+        return filter.mightContain(ExistenceFilter.hash(value));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean mightContainConcurrent() {
+        return filter.mightContain(ExistenceFilter.hash(value));
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.accountservice.configs.AccountValidationConfig;
+import com.banking.system.accountservice.validation.IbanBicValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IBAN mod-97/country length and BIC checks of a new account (IbanBicValidator), single thread.
+ * The BIC is looked up in a directory of 100,000 BICs
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IbanBicValidationBenchmark {
+    private static final int DIRECTORY_SIZE = 100_000;
+
+    @Param({"DE89370400440532013000", "MT84MALT011000012345MTLCAST001S", "DE89370400440532013001"})
+    private String iban;
+
+    private String knownBic = "B042DEFF017";
+    private String unknownBic = "UNKNDEFFXXX";
+
+    private IbanBicValidator validator;
+
+    @Setup
+    public void setUp() {
+        StringBuilder directory = new StringBuilder();
+        for (int i = 0; i < DIRECTORY_SIZE; i++) {
+            directory.append(String.format("B%03dDEFF%03d%n", i % 1000, i / 1000));
+        }
+        Resource resource = new ByteArrayResource(directory.toString().getBytes(StandardCharsets.US_ASCII));
+        AccountValidationConfig config = new AccountValidationConfig();
+        config.setBicDirectory("directory");
+        validator = new IbanBicValidator(config, new DefaultResourceLoader() {
+            @Override
+            public Resource getResource(String location) {
+                return resource;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object validateIban() {
+        return validator.validateIban(iban);
+    }
+
+    @Benchmark
+    public Object validateKnownBic() {
+        return validator.validateBic(knownBic);
+    }
+
+    @Benchmark
+    public Object validateUnknownBic() {
+        return validator.validateBic(unknownBic);
+    }
+}
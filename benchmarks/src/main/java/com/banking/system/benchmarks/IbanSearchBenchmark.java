@@ -0,0 +1,113 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.accountservice.dtos.AccountDto;
+import com.banking.system.accountservice.indexes.IbanTrigramIndex;
+import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.specifications.AccountSpecifications;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the account list filtered by an iban substring, first page with its total as returned by
+ * getAllAccounts: plain LIKE '%fragment%' (like) vs the ACC_IDs resolved by IbanTrigramIndex and the LIKE
+ * re-checked on them only (trigram-index, the index lookup included).
+ *
+ * Runs on an embedded PostgreSQL (binaries from the classpath, no installed database) holding 1M accounts.
+ * The ibans are spread numbers, the fragment is taken from the middle of an existing one. The LIKE has no
+ * database index to use, it scans ACCOUNTS. The trigram index is built once per trial, its heap is the cost
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IbanSearchBenchmark {
+    @Param({"like", "trigram-index"})
+    private String searchPath;
+
+    @Param({"1000000"})
+    private int rows;
+
+    /**
+     * Digits searched, 4 leaves a few thousand candidates, 8 about one
+     */
+    @Param({"4", "8"})
+    private int fragmentLength;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private IbanTrigramIndex ibanTrigramIndex;
+    private String fragment;
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:postgresql://127.0.0.1:" + postgres.getPort() + "/postgres",
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        accountRepository = context.getBean(AccountRepository.class);
+        seedAccounts(context.getBean(JdbcTemplate.class));
+
+        String iban = accountRepository.findById((long) rows / 2).orElseThrow().getIban();
+        fragment = iban.substring(8, 8 + fragmentLength);
+        if (searchPath.equals("trigram-index")) {
+            ibanTrigramIndex = new IbanTrigramIndex(accountRepository, true, 5000);
+            ibanTrigramIndex.build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Page<AccountDto> search() {
+        long[] candidates = ibanTrigramIndex == null ? null : ibanTrigramIndex.candidates(fragment);
+        return accountRepository.findAllAsDto(
+                AccountSpecifications.accountWithFilter(null, fragment, null, candidates), pageable);
+    }
+
+    /**
+     * One INSERT ... SELECT, the ibans are distinct multiples of a large prime, 18 digits zero padded
+     */
+    private void seedAccounts(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO ACCOUNTS (ACC_ID, ACC_IBAN, ACC_BICSWIFT, ACC_CUST_ID, ACC_CREATED_AT," +
+                " ACC_CARD_COUNT, ACC_VERSION)" +
+                " SELECT i, 'KE' || lpad((i * 982451653)::text, 18, '0'), 'FDEGHE', i % 1000, now(), 0, 0" +
+                " FROM generate_series(1::bigint, ?) AS i", (long) rows);
+        jdbcTemplate.execute("ANALYZE ACCOUNTS");
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Account.class)
+    @EnableJpaRepositories(basePackageClasses = AccountRepository.class)
+    static class BenchmarkApplication {
+    }
+}
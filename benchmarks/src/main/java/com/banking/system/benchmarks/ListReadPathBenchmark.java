@@ -0,0 +1,163 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.accountservice.mappers.AccountMapper;
+import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.repositories.AccountRepository;
+import com.banking.system.accountservice.specifications.AccountSpecifications;
+import com.banking.system.cardservice.configs.PanFingerprintConfig;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.mappers.CardMapper;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.cardservice.specifications.CardSpecification;
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import com.banking.system.cardservice.utils.PanFingerprint;
+import com.banking.system.customer.service.mappers.CustomerMapper;
+import com.banking.system.customer.service.models.Customer;
+import com.banking.system.customer.service.repositories.CustomerRepository;
+import com.banking.system.customer.service.specifications.CustomerSpecification;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Time and bytes allocated per page of the list read paths: managed entities mapped (and masked, for the
+ * cards) one by one (entity) vs the dto constructor projection of findAllAsDto (projection).
+ * gc.alloc.rate.norm divided by pageSize is the allocation per listed row.
+ *
+ * Runs on an in-memory H2 database, so the absolute times are not the PostgreSQL ones,
+ * the allocation difference comes from the persistence context and is the same
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListReadPathBenchmark {
+    @Param({"account", "card", "customer"})
+    private String list;
+
+    @Param({"entity", "projection"})
+    private String readPath;
+
+    @Param({"5000"})
+    private int rows;
+
+    @Param({"1000"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private Supplier<Page<?>> query;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:lists;MODE=PostgreSQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        Pageable pageable = PageRequest.of(1, pageSize);
+        boolean entity = readPath.equals("entity");
+        switch (list) {
+            case "account" -> {
+                AccountRepository repository = context.getBean(AccountRepository.class);
+                seedAccounts(repository);
+                var spec = AccountSpecifications.accountWithFilter(null, null, null);
+                query = entity ? () -> repository.findAll(spec, pageable).map(AccountMapper::toDto)
+                        : () -> repository.findAllAsDto(spec, pageable);
+            }
+            case "card" -> {
+                CardRepository repository = context.getBean(CardRepository.class);
+                seedCards(repository);
+                var spec = CardSpecification.filterCardDetails(null, null, null, null);
+                query = entity ? () -> repository.findAll(spec, pageable).map(card -> CardMapper.toEntityDataHidden(card, false))
+                        : () -> repository.findAllAsDto(spec, pageable, false);
+            }
+            default -> {
+                CustomerRepository repository = context.getBean(CustomerRepository.class);
+                seedCustomers(repository);
+                var spec = CustomerSpecification.findWithFilters(null, null, null);
+                query = entity ? () -> repository.findAll(spec, pageable).map(CustomerMapper::toDto)
+                        : () -> repository.findAllAsDto(spec, pageable);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<?> page() {
+        return query.get();
+    }
+
+    private void seedAccounts(AccountRepository repository) {
+        List<Account> accounts = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            accounts.add(new Account(null, String.format("KE%018d", i), "FDEGHE", (long) (i % 100), null, 0, 0));
+        }
+        repository.saveAll(accounts);
+    }
+
+    private void seedCards(CardRepository repository) {
+        PanFingerprintConfig config = new PanFingerprintConfig();
+        config.setKey("YmVuY2htYXJrLWtleS1vZi10aGUtbGlzdC1yZWFkLXBhdGg=");
+        PanFingerprint panFingerprint = new PanFingerprint(config);
+        List<Card> cards = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String pan = String.format("4646%012d", i);
+            cards.add(Card.builder()
+                    .accountId((long) i / 2)
+                    .cardType(i % 2 == 0 ? CardType.PHYSICAL : CardType.VIRTUAL)
+                    .pan(pan)
+                    .panFingerprint(panFingerprint.of(pan))
+                    .panLast4(MaskSensitiveData.lastDigits(pan))
+                    .panMasked(MaskSensitiveData.maskPan(pan))
+                    .cvv(String.format("%03d", i % 1000))
+                    .cardAlias("Card " + i)
+                    .build());
+        }
+        repository.saveAll(cards);
+    }
+
+    private void seedCustomers(CustomerRepository repository) {
+        List<Customer> customers = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            customers.add(Customer.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .otherName("Other" + i)
+                    .build());
+        }
+        repository.saveAll(customers);
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = {Account.class, Card.class, Customer.class})
+    @EnableJpaRepositories(basePackageClasses = {AccountRepository.class, CardRepository.class, CustomerRepository.class})
+    static class BenchmarkApplication {
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.accountservice.mappers.AccountMapper;
+import com.banking.system.accountservice.models.Account;
+import com.banking.system.customer.service.mappers.CustomerMapper;
+import com.banking.system.customer.service.models.Customer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to dto and back with AccountMapper and CustomerMapper
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperRoundTripBenchmark {
+    private Account account;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 16, 12, 30);
+        account = new Account();
+        account.setAccountId(1L);
+        account.setIban("KE000000000000000001");
+        account.setBicSwift("FDEGHE");
+        account.setCustomerId(1L);
+        account.setCreatedAt(createdAt);
+        customer = Customer.builder()
+                .customerId(1L)
+                .firstName("Jane")
+                .lastName("Doe")
+                .otherName("Wanjiru")
+                .createdAt(createdAt)
+                .build();
+    }
+
+    @Benchmark
+    public Account accountRoundTrip() {
+        return AccountMapper.toEntity(AccountMapper.toDto(account));
+    }
+
+    @Benchmark
+    public Customer customerRoundTrip() {
+        return CustomerMapper.toEntity(CustomerMapper.toDto(customer));
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PAN and CVV masking, from the full value (insert, backfill and cards without stored mask) and the CVV
+ * from its length (masked list projection, which reads the stored masked pan)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskSensitiveDataBenchmark {
+    private String pan = "4111111111111111";
+    private String cvv = "123";
+    private Integer cvvLength = 3;
+
+    @Benchmark
+    public String maskPan() {
+        return MaskSensitiveData.maskPan(pan);
+    }
+
+    @Benchmark
+    public String maskCvv() {
+        return MaskSensitiveData.maskCvv(cvv);
+    }
+
+    @Benchmark
+    public String maskCvvFromLength() {
+        return MaskSensitiveData.maskCvv(cvvLength);
+    }
+}
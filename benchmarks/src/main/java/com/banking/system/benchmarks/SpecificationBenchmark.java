@@ -0,0 +1,88 @@
+package com.banking.system.benchmarks;
+
+import com.banking.system.accountservice.models.Account;
+import com.banking.system.accountservice.models.AccountCardAlias;
+import com.banking.system.accountservice.specifications.AccountSpecifications;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.specifications.CardSpecification;
+import com.banking.system.customer.service.models.Customer;
+import com.banking.system.customer.service.specifications.CustomerSpecification;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criteria query and predicate construction of the list filters, as done by the repositories
+ * for every list request (createQuery, from, toPredicate, where). Without filters and with all of them.
+ *
+ * The criteria builder comes from a Hibernate session factory over the entities of the three
+ * services, built without a database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecificationBenchmark {
+    @Param({"none", "all"})
+    private String filters;
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+    private boolean filtered;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Account.class)
+                .addAnnotatedClass(AccountCardAlias.class)
+                .addAnnotatedClass(Card.class)
+                .addAnnotatedClass(Customer.class)
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+        filtered = filters.equals("all");
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Account> accountSpecification() {
+        return apply(Account.class, filtered
+                ? AccountSpecifications.accountWithFilter(1L, "KE0000", "salary card")
+                : AccountSpecifications.accountWithFilter(null, null, null));
+    }
+
+    @Benchmark
+    public CriteriaQuery<Card> cardSpecification() {
+        return apply(Card.class, filtered
+                ? CardSpecification.filterCardDetails("1111", CardType.VIRTUAL, "salary", 1L)
+                : CardSpecification.filterCardDetails(null, null, null, null));
+    }
+
+    @Benchmark
+    public CriteriaQuery<Customer> customerSpecification() {
+        return apply(Customer.class, filtered
+                ? CustomerSpecification.findWithFilters("jane", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))
+                : CustomerSpecification.findWithFilters(null, null, null));
+    }
+
+    private <T> CriteriaQuery<T> apply(Class<T> entity, Specification<T> spec) {
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(entity);
+        Root<T> root = query.from(entity);
+        return query.where(spec.toPredicate(root, query, criteriaBuilder));
+    }
+}
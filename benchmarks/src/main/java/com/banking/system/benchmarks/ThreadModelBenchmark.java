@@ -0,0 +1,169 @@
+package com.banking.system.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.RequestLine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The service request shape (blocking Feign call, then blocking JDBC work) on Tomcat platform threads
+ * vs virtual threads. One operation is a wave of concurrent requests, all sent at once, timed until the
+ * last one answered: with more requests than Tomcat platform threads (200), the platform wave queues.
+ *
+ * The downstream service is a local stub answering after a fixed delay, the JDBC work is a sleep,
+ * so the result only depends on the thread model:
+ *
+ * java -jar benchmarks/target/benchmarks.jar ThreadModelBenchmark [-p clients=2000 -p downstreamLatencyMs=20]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dhttp.maxConnections=5000")
+public class ThreadModelBenchmark {
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"1000"})
+    private int clients;
+
+    @Param({"20"})
+    private int downstreamLatencyMs;
+
+    @Param({"5"})
+    private int dbLatencyMs;
+
+    private HttpServer downstream;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        downstream = startDownstreamStub(Duration.ofMillis(downstreamLatencyMs));
+        context = SpringApplication.run(BenchmarkApplication.class,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+                "--benchmark.downstream-url=http://127.0.0.1:" + downstream.getAddress().getPort(),
+                "--benchmark.db-latency=" + dbLatencyMs + "ms",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/work"))
+                .timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+        downstream.stop(0);
+    }
+
+    /**
+     * @return requests answered with 200
+     */
+    @Benchmark
+    public int wave() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+        CompletableFuture.allOf(responses).join();
+        int ok = 0;
+        for (CompletableFuture<?> response : responses) {
+            if (((HttpResponse<?>) response.join()).statusCode() == 200) ok++;
+        }
+        return ok;
+    }
+
+    private static HttpServer startDownstreamStub(Duration latency) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        byte[] body = "{\"customerId\":1}".getBytes(StandardCharsets.UTF_8);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/customer/1", exchange -> {
+            sleep(latency);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    interface CustomerStub {
+        @RequestLine("GET /customer/1")
+        String getCustomer();
+    }
+
+    /**
+     * Same request shape as the services: blocking remote call, then blocking database work
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    static class BenchmarkApplication {
+        @Bean
+        CustomerStub customerStub(Environment environment) {
+            return Feign.builder().target(CustomerStub.class, environment.getRequiredProperty("benchmark.downstream-url"));
+        }
+
+        @Bean
+        WorkController workController(CustomerStub customerStub, Environment environment) {
+            return new WorkController(customerStub, environment.getRequiredProperty("benchmark.db-latency", Duration.class));
+        }
+    }
+
+    @RestController
+    static class WorkController {
+        private final CustomerStub customerStub;
+        private final Duration dbLatency;
+
+        WorkController(CustomerStub customerStub, Duration dbLatency) {
+            this.customerStub = customerStub;
+            this.dbLatency = dbLatency;
+        }
+
+        @GetMapping("/work")
+        String work() {
+            customerStub.getCustomer();
+            sleep(dbLatency);
+            return "ok";
+        }
+    }
+}
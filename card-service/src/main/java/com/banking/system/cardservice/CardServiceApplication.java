@@ -3,9 +3,11 @@ package com.banking.system.cardservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"com.banking.system.cardservice", "com.banking.system.common"})
 @EnableFeignClients
+@EnableScheduling
 public class CardServiceApplication {
 
     public static void main(String[] args) {
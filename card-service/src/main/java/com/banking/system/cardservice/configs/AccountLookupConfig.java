@@ -0,0 +1,27 @@
+package com.banking.system.cardservice.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the account lookup coalescing, read from card.account-lookup properties
+ */
+@Component
+@ConfigurationProperties(prefix = "card.account-lookup")
+@Getter
+@Setter
+public class AccountLookupConfig {
+    /**
+     * Lookups of different accounts arriving within this window are sent as one multi-get.
+     * Zero disables batching, identical in-flight lookups are still merged
+     */
+    private Duration batchWindow = Duration.ofMillis(2);
+    /**
+     * A batch is sent as soon as it holds this many accounts. Must not exceed account-service account.batch.max-size
+     */
+    private int maxBatchSize = 100;
+}
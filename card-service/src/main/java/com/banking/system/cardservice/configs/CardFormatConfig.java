@@ -3,18 +3,49 @@ package com.banking.system.cardservice.configs;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A configuration to fetch card validation details from properties
+ * Accessible globally, compiled into CardFormatRules by CardValidationEngine
+ */
 @Component
 @ConfigurationProperties(prefix = "card.validation")
 @Getter
 @Setter
-/**
- * A configuration to fetch card validation details from properties
- * Accessible globally
- */
 public class CardFormatConfig {
-    private String panFormat;
-    private String cvvFormat;
+    /**
+     * Check the PAN Luhn (mod 10) check digit
+     */
+    private boolean luhn = true;
+    /**
+     * Accepted card schemes by name. A PAN belongs to the scheme of its longest matching BIN range
+     */
+    private Map<String, Scheme> schemes = new LinkedHashMap<>();
+    /**
+     * Optional YAML or properties file holding the complete card.validation rules, used instead of the ones above.
+     * Re-read when its modification time changes, checked every card.validation.rules-file-check-interval.
+     * Empty = the rules above, fixed until the next start
+     */
+    private String rulesFile;
+
+    @Getter
+    @Setter
+    public static class Scheme {
+        /**
+         * BIN prefixes (4) or inclusive ranges of prefixes of the same length (2221-2720), up to 8 digits.
+         * No range = any PAN, used when no other scheme matches
+         */
+        private List<String> binRanges = new ArrayList<>();
+        /**
+         * Accepted PAN lengths, up to 19. None = any length
+         */
+        private List<Integer> panLengths = new ArrayList<>();
+        private int cvvLength = 3;
+    }
 }
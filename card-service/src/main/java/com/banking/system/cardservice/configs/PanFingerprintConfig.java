@@ -0,0 +1,25 @@
+package com.banking.system.cardservice.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * PAN fingerprint settings, read from card.pan-fingerprint properties
+ */
+@Component
+@ConfigurationProperties(prefix = "card.pan-fingerprint")
+@Getter
+@Setter
+public class PanFingerprintConfig {
+    /**
+     * HMAC-SHA256 key, base64, at least 32 bytes, required (no default). Every stored fingerprint depends on it:
+     * a new key needs CARD_PAN_FINGERPRINT cleared and backfilled again
+     */
+    private String key;
+    /**
+     * Cards updated per JDBC batch and transaction by the backfill of the PAN derived columns (CardPanBackfill)
+     */
+    private int backfillBatchSize = 1000;
+}
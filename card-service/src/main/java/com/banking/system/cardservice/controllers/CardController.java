@@ -1,19 +1,32 @@
 package com.banking.system.cardservice.controllers;
 
 import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import com.banking.system.cardservice.dtos.UpdateCardDto;
 import com.banking.system.cardservice.enums.CardType;
 import com.banking.system.cardservice.services.CardService;
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.utils.ETags;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
+@Timed(MetricsConfig.CONTROLLER_CALLS)
 @RequestMapping("/card")
 @RequiredArgsConstructor
 public class CardController {
@@ -47,24 +60,126 @@ public class CardController {
         return new ResponseEntity<>(cardService.getAllCards(page, size, accountId,cardAlias, pan, cardType, showSensitiveData ), HttpStatus.OK);
     }
 
+    @GetMapping(params = {"includeTotal=false", "!cursor", "!panLast4"})
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "fetch all cards without the total count (includeTotal=false), hasNext tells whether there is " +
+            "a next page. Same filters as fetch all")
+    public ResponseEntity<SlicePage<CardDto>> findAllWithoutTotal(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) String pan,
+            @RequestParam(required = false) CardType cardType,
+            @RequestParam(required = false, defaultValue = "false")Boolean showSensitiveData
+    ) {
+        return new ResponseEntity<>(cardService.getAllCardsWithoutTotal(page, size, accountId, cardAlias, pan, cardType, showSensitiveData), HttpStatus.OK);
+    }
+
+    @GetMapping(params = {"cursor", "!panLast4"})
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "fetch all cards in cursor mode, ordered by card id. Pass an empty cursor for the first page, " +
+            "then the returned nextCursor. Same filters as fetch all, no total count is returned")
+    public ResponseEntity<CursorPage<CardDto>> findAllByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) String pan,
+            @RequestParam(required = false) CardType cardType,
+            @RequestParam(required = false, defaultValue = "false")Boolean showSensitiveData
+    ) {
+        return new ResponseEntity<>(cardService.getAllCards(cursor, size, accountId, cardAlias, pan, cardType, showSensitiveData), HttpStatus.OK);
+    }
+
+    @GetMapping(params = "panLast4")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "search the cards by the last 4 digits of their PAN, in cursor mode ordered by card id. " +
+            "Omit the cursor for the first page, then pass the returned nextCursor. accountId and cardType narrow the search")
+    public ResponseEntity<CursorPage<CardDto>> searchByPanLast4(
+            @RequestParam String panLast4,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) CardType cardType,
+            @RequestParam(required = false, defaultValue = "false")Boolean showSensitiveData
+    ) {
+        return new ResponseEntity<>(cardService.searchByPanLast4(panLast4, cursor, size, accountId, cardType, showSensitiveData), HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Export all cards matching the filters as NDJSON or CSV, streamed from the database. " +
+            "PAN and CVV are always masked")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) String pan,
+            @RequestParam(required = false) CardType cardType
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("cards." + format.getExtension()).build());
+        StreamingResponseBody body = out -> cardService.exportCards(format, accountId, cardAlias, pan, cardType, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/links")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Card id, alias and account id of the cards after afterCardId, ordered by card id. " +
+            "Used by account-service to reconcile its card index")
+    public ResponseEntity<List<CardLinkDto>> getCardLinks(
+            @RequestParam(defaultValue = "0") Long afterCardId,
+            @RequestParam(defaultValue = "1000") int size
+    ) {
+        return new ResponseEntity<>(cardService.getCardLinks(afterCardId, size), HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(value = HttpStatus.OK)
-    @Operation(summary = "Fetch a card by its ID")
+    @Operation(summary = "Fetch a card by its ID. The ETag header holds the card version, " +
+            "send it back in If-None-Match to get 304 Not Modified while the card is unchanged")
     public ResponseEntity<CardDto> getCardById(
             @PathVariable Long id,
-            @RequestParam(required = false, defaultValue = "false") Boolean showSensitiveData
+            @RequestParam(required = false, defaultValue = "false") Boolean showSensitiveData,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return new ResponseEntity<>(cardService.getCardById(id, showSensitiveData), HttpStatus.OK);
+        /*
+         * Masked and clear representations of the same version get different ETags
+         */
+        String representation = showSensitiveData == null || showSensitiveData ? "full" : null;
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(cardService.getCardVersion(id), representation);
+            if (ETags.matchesNoneMatch(ifNoneMatch, etag)) {
+                headers.setETag(etag);
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+        }
+        CardDto dto = cardService.getCardById(id, showSensitiveData);
+        if (dto.getVersion() != null) {
+            headers.setETag(ETags.of(dto.getVersion(), representation));
+        }
+        return new ResponseEntity<>(dto, headers, HttpStatus.OK);
     }
 
     @PutMapping("/{cardId}")
     @ResponseStatus(value = HttpStatus.OK)
-    @Operation(summary = "Update an existing card.")
+    @Operation(summary = "Update an existing card. " +
+            "With If-Match (ETag of a previous read) the update is only applied if the card is unchanged, else 412")
     public ResponseEntity<CardDto> update(
             @Valid @RequestBody UpdateCardDto dto,
-            @PathVariable Long cardId
+            @PathVariable Long cardId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ){
-        return new ResponseEntity<>(cardService.updateCardDetails(cardId, dto),HttpStatus.OK);
+        CardDto updated = cardService.updateCardDetails(cardId, dto, ETags.expectedVersion(ifMatch));
+        HttpHeaders headers = new HttpHeaders();
+        if (updated.getVersion() != null) {
+            headers.setETag(ETags.of(updated.getVersion()));
+        }
+        return new ResponseEntity<>(updated, headers, HttpStatus.OK);
     }
 
     @DeleteMapping("/{cardId}")
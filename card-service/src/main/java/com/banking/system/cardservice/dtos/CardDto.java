@@ -2,7 +2,12 @@ package com.banking.system.cardservice.dtos;
 
 import com.banking.system.cardservice.enums.CardType;
 import com.banking.system.cardservice.enums.CardTypeDeserializer;
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import com.banking.system.cardservice.utils.SensitiveValueSerializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -29,14 +34,66 @@ public class CardDto {
     @Schema(description = "Type of card to be saved. Either VIRTUAL or PHYSICAL")
     private CardType typeOfCard;
 
+    /**
+     * PAN and CVV as stored, masked when written if sensitiveDataHidden (SensitiveValueSerializer)
+     */
     @NotBlank(message = "{pan.mandatory}")
+    @JsonProperty
+    @JsonSerialize(using = SensitiveValueSerializer.Pan.class)
     @Schema(description = "Primary Account Number - identifies the account with key details about the account. Format to be specified on the property file")
     private String pan;
 
     @NotBlank(message = "{cvv.mandatory}")
+    @JsonProperty
+    @JsonSerialize(using = SensitiveValueSerializer.Cvv.class)
     @Schema(description = "Card Verification Value. Format to be specified on the property file")
     private String cvv;
 
     @Schema(description = "An optional name given to the card for easy differentiation, user-defined")
     private String cardAlias;
+
+    /**
+     * Card version, sent as the ETag header and not in the body
+     */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
+
+    /**
+     * Read with showSensitiveData=false: PAN and CVV are written masked
+     */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private boolean sensitiveDataHidden;
+
+    /**
+     * Shown list projection
+     */
+    public CardDto(Long cardId, Long accountId, CardType typeOfCard, String pan,
+                   String cvv, String cardAlias, Long version) {
+        this(cardId, accountId, typeOfCard, pan, cvv, cardAlias, version, false);
+    }
+
+    /**
+     * Masked list projection: the stored masked pan (CARD_PAN_MASKED) and the cvv length,
+     * the query never reads the pan or the cvv themselves. A card the backfill has not reached yet shows stars
+     */
+    public CardDto(Long cardId, Long accountId, CardType typeOfCard, String panMasked,
+                   Integer cvvLength, String cardAlias, Long version) {
+        this(cardId, accountId, typeOfCard, panMasked != null ? panMasked : MaskSensitiveData.maskPan(null),
+                MaskSensitiveData.maskCvv(cvvLength), cardAlias, version, true);
+    }
+
+    /**
+     * The masked pan when hidden, for the readers other than the JSON writer (CSV export)
+     */
+    @JsonIgnore
+    public String getPan() {
+        return sensitiveDataHidden && pan != null ? MaskSensitiveData.maskPan(pan) : pan;
+    }
+
+    @JsonIgnore
+    public String getCvv() {
+        return sensitiveDataHidden && cvv != null ? MaskSensitiveData.maskCvv(cvv) : cvv;
+    }
 }
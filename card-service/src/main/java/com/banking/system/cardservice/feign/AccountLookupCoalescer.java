@@ -0,0 +1,193 @@
+package com.banking.system.cardservice.feign;
+
+import com.banking.system.cardservice.configs.AccountLookupConfig;
+import com.banking.system.cardservice.dtos.AccountDto;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Account lookups of card-service, merged before they reach account-service:
+ * - a lookup of an account already in flight waits for that call instead of sending its own (single-flight)
+ * - lookups of other accounts arriving within the batch window are sent as one GET /accounts/by-ids
+ *
+ * Nothing is cached, a lookup arriving after the call completed sends a new one.
+ * Published metrics: account.lookup.requests, account.lookup.downstream.calls, account.lookup.calls.saved
+ * and the account.lookup.coalescing.ratio gauge (requests per downstream call).
+ */
+@Component
+public class AccountLookupCoalescer {
+    private final AccountServiceFeign accountServiceFeign;
+    private final AccountLookupConfig config;
+    private final Map<Long, CompletableFuture<Optional<AccountDto>>> inFlight = new ConcurrentHashMap<>();
+    /**
+     * ReentrantLock, not synchronized: callers run on virtual threads
+     */
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private List<Long> pending = new ArrayList<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong downstreamCalls = new AtomicLong();
+    private final Counter requestCounter;
+    private final Counter downstreamCallCounter;
+    private final Counter savedCallCounter;
+
+    public AccountLookupCoalescer(AccountServiceFeign accountServiceFeign, AccountLookupConfig config,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.accountServiceFeign = accountServiceFeign;
+        this.config = config;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            requestCounter = registry.counter("account.lookup.requests");
+            downstreamCallCounter = registry.counter("account.lookup.downstream.calls");
+            savedCallCounter = registry.counter("account.lookup.calls.saved");
+            Gauge.builder("account.lookup.coalescing.ratio", this, AccountLookupCoalescer::coalescingRatio)
+                    .description("Account lookups per call to account-service")
+                    .register(registry);
+        } else {
+            requestCounter = null;
+            downstreamCallCounter = null;
+            savedCallCounter = null;
+        }
+    }
+
+    /**
+     * @return the account, empty when account-service does not know it
+     * @throws FeignException when account-service cannot be reached
+     */
+    public Optional<AccountDto> getAccountById(Long accountId) {
+        requests.incrementAndGet();
+        increment(requestCounter, 1);
+
+        CompletableFuture<Optional<AccountDto>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<AccountDto>> existing = inFlight.putIfAbsent(accountId, call);
+        if (existing != null) {
+            increment(savedCallCounter, 1);
+            return await(existing);
+        }
+        if (config.getBatchWindow().isZero()) {
+            dispatch(List.of(accountId));
+        } else {
+            enqueue(accountId);
+        }
+        return await(call);
+    }
+
+    public double coalescingRatio() {
+        long calls = downstreamCalls.get();
+        return calls == 0 ? 1.0 : (double) requests.get() / calls;
+    }
+
+    /**
+     * The first account of a batch starts its window, a full batch is sent right away
+     */
+    private void enqueue(Long accountId) {
+        List<Long> full = null;
+        boolean first;
+        pendingLock.lock();
+        try {
+            pending.add(accountId);
+            first = pending.size() == 1;
+            if (pending.size() >= config.getMaxBatchSize()) {
+                full = pending;
+                pending = new ArrayList<>();
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+        if (full != null) {
+            List<Long> batch = full;
+            Thread.ofVirtual().name("account-lookup-batch").start(() -> dispatch(batch));
+        } else if (first) {
+            Thread.ofVirtual().name("account-lookup-window").start(this::flushAfterWindow);
+        }
+    }
+
+    private void flushAfterWindow() {
+        try {
+            Thread.sleep(config.getBatchWindow());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Long> batch;
+        pendingLock.lock();
+        try {
+            batch = pending;
+            pending = new ArrayList<>();
+        } finally {
+            pendingLock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * One call to account-service for the batch. A single account keeps the plain GET /accounts/{id}
+     */
+    private void dispatch(List<Long> accountIds) {
+        downstreamCalls.incrementAndGet();
+        increment(downstreamCallCounter, 1);
+        increment(savedCallCounter, accountIds.size() - 1);
+
+        Map<Long, AccountDto> found;
+        try {
+            found = accountIds.size() == 1
+                    ? fetchOne(accountIds.get(0))
+                    : accountServiceFeign.getAccountsByIds(accountIds).stream()
+                        .collect(Collectors.toMap(AccountDto::getAccountId, Function.identity(), (a, b) -> a));
+        } catch (RuntimeException e) {
+            for (Long accountId : accountIds) {
+                CompletableFuture<Optional<AccountDto>> call = inFlight.remove(accountId);
+                if (call != null) call.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Long accountId : accountIds) {
+            CompletableFuture<Optional<AccountDto>> call = inFlight.remove(accountId);
+            if (call != null) call.complete(Optional.ofNullable(found.get(accountId)));
+        }
+    }
+
+    private Map<Long, AccountDto> fetchOne(Long accountId) {
+        try {
+            AccountDto account = accountServiceFeign.getAccountById(accountId);
+            return account == null ? Map.of() : Map.of(accountId, account);
+        } catch (FeignException.NotFound | FeignException.BadRequest e) {
+            // account-service answers an unknown account with 400 (IllegalArgumentException)
+            return Map.of();
+        }
+    }
+
+    private static Optional<AccountDto> await(CompletableFuture<Optional<AccountDto>> call) {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void increment(Counter counter, double amount) {
+        if (counter != null && amount > 0) counter.increment(amount);
+    }
+}
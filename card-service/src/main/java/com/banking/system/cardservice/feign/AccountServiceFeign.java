@@ -1,13 +1,32 @@
 package com.banking.system.cardservice.feign;
 
 import com.banking.system.cardservice.dtos.AccountDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "account-service", url = "127.0.0.1:1501")
+import java.util.List;
+
+@FeignClient(name = "account-service", url = "${downstream.clients.account-service.url:http://127.0.0.1:1501}")
 public interface AccountServiceFeign {
 
     @GetMapping("/accounts/{accountId}")
     AccountDto getAccountById(@PathVariable("accountId") Long accountId);
+
+    @GetMapping("/accounts/by-ids")
+    List<AccountDto> getAccountsByIds(@RequestParam("accountIds") List<Long> accountIds);
+
+    @PutMapping("/accounts/{accountId}/cards/{cardId}")
+    void linkCard(@PathVariable("accountId") Long accountId,
+                  @PathVariable("cardId") Long cardId,
+                  @RequestBody CardLinkDto dto);
+
+    @DeleteMapping("/accounts/{accountId}/cards/{cardId}")
+    void unlinkCard(@PathVariable("accountId") Long accountId,
+                    @PathVariable("cardId") Long cardId);
 }
@@ -0,0 +1,139 @@
+package com.banking.system.cardservice.indexes;
+
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.models.CardKeyView;
+import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.common.indexes.ExistenceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Existence filters of the unique keys of the cards, in front of the uniqueness queries of card creation:
+ * - PAN fingerprint (filter tag "pan"), CARD_PAN_FINGERPRINT unique constraint. The pan itself is not read
+ * - account and card type (filter tag "account.card.type"), CARD_ACC_ID, CARD_TYPE unique constraint
+ * A key they do not hold is new and is not queried, the unique constraints still reject a card created
+ * meanwhile by another instance, or a card CardPanBackfill filled after the build.
+ *
+ * Built on startup and kept up to date by the card service after each committed write. The keys of a card are
+ * removed only once the card was deleted by this instance.
+ */
+@Component
+public class CardKeyFilter {
+    static final String PAN_FILTER = "pan";
+    static final String ACCOUNT_CARD_TYPE_FILTER = "account.card.type";
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final CardRepository cardRepository;
+    private final boolean enabled;
+    private final ExistenceFilter pans;
+    private final ExistenceFilter accountCardTypes;
+
+    public CardKeyFilter(CardRepository cardRepository,
+                         ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${card.key-filter.enabled:true}") boolean enabled,
+                         @Value("${card.key-filter.min-keys:100000}") int minKeys) {
+        this.cardRepository = cardRepository;
+        this.enabled = enabled;
+        this.pans = new ExistenceFilter(PAN_FILTER, minKeys, meterRegistry.getIfAvailable());
+        this.accountCardTypes = new ExistenceFilter(ACCOUNT_CARD_TYPE_FILTER, minKeys, meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * Load the keys of every card, in primary key order, batch by batch
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) return;
+        long cards = cardRepository.count();
+        pans.start(cards);
+        accountCardTypes.start(cards);
+        long lastId = 0L;
+        List<CardKeyView> batch;
+        do {
+            batch = cardRepository.findByCardIdGreaterThanOrderByCardId(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (CardKeyView card : batch) {
+                add(card.getPanFingerprint(), card.getAccountId(), card.getCardType());
+                lastId = card.getCardId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        pans.ready();
+        accountCardTypes.ready();
+    }
+
+    /**
+     * @return false when no card has the PAN fingerprint, true when it must be queried (then report the result
+     * with confirmPan)
+     */
+    public boolean panMightExist(byte[] panFingerprint) {
+        return pans.mightContain(ExistenceFilter.hash(panFingerprint));
+    }
+
+    /**
+     * @return false when the account has no card of this type, true when it must be queried
+     * (then report the result with confirmAccountCardType)
+     */
+    public boolean accountCardTypeMightExist(Long accountId, CardType cardType) {
+        return accountCardTypes.mightContain(accountCardTypeHash(accountId, cardType));
+    }
+
+    /**
+     * @param exists result of the existsByPanFingerprint query of a possibly used PAN
+     * @return exists
+     */
+    public boolean confirmPan(boolean exists) {
+        return pans.confirm(exists);
+    }
+
+    /**
+     * @param exists result of the existsByAccountIdAndCardType query of a possibly used pair
+     * @return exists
+     */
+    public boolean confirmAccountCardType(boolean exists) {
+        return accountCardTypes.confirm(exists);
+    }
+
+    /**
+     * A unique constraint rejected the PAN
+     */
+    public void stalePan(byte[] panFingerprint) {
+        pans.stale(ExistenceFilter.hash(panFingerprint));
+    }
+
+    /**
+     * CARD_ACC_ID, CARD_TYPE unique constraint rejected the pair
+     */
+    public void staleAccountCardType(Long accountId, CardType cardType) {
+        accountCardTypes.stale(accountCardTypeHash(accountId, cardType));
+    }
+
+    /**
+     * @param panFingerprint null for a card CardPanBackfill has not filled yet
+     */
+    public void add(byte[] panFingerprint, Long accountId, CardType cardType) {
+        if (panFingerprint != null) pans.add(ExistenceFilter.hash(panFingerprint));
+        if (accountId != null && cardType != null) accountCardTypes.add(accountCardTypeHash(accountId, cardType));
+    }
+
+    /**
+     * Keys of a card deleted by this instance, see ExistenceFilter.remove
+     */
+    public void remove(byte[] panFingerprint, Long accountId, CardType cardType) {
+        if (panFingerprint != null) pans.remove(ExistenceFilter.hash(panFingerprint));
+        if (accountId != null && cardType != null) accountCardTypes.remove(accountCardTypeHash(accountId, cardType));
+    }
+
+    public boolean isReady() {
+        return pans.isReady() && accountCardTypes.isReady();
+    }
+
+    private static long accountCardTypeHash(Long accountId, CardType cardType) {
+        return ExistenceFilter.hash(accountId, cardType.ordinal());
+    }
+}
@@ -26,6 +26,8 @@ public class CardMapper {
         card.setAccountId(dto.getAccountId());
         card.setCardType(dto.getTypeOfCard());
         card.setPan(dto.getPan());
+        card.setPanLast4(MaskSensitiveData.lastDigits(dto.getPan()));
+        card.setPanMasked(dto.getPan() == null ? null : MaskSensitiveData.maskPan(dto.getPan()));
         card.setCvv(dto.getCvv());
         card.setCardAlias(dto.getCardAlias());
 
@@ -41,17 +43,14 @@ public class CardMapper {
         card.setAccountId(entity.getAccountId());
         card.setTypeOfCard(entity.getCardType());
         card.setCardAlias(entity.getCardAlias());
+        card.setVersion(entity.getVersion());
 
         /**
-         * if showSensitiveData is false - PAN and CVV will be masked
+         * if showSensitiveData is false - PAN and CVV will be masked when written, see SensitiveValueSerializer
          */
-        if (!show) {
-            card.setPan(MaskSensitiveData.maskPan(entity.getPan()));
-            card.setCvv(MaskSensitiveData.maskCvv(entity.getCvv()));
-        } else {
-            card.setPan(entity.getPan());
-            card.setCvv(entity.getCvv());
-        }
+        card.setPan(entity.getPan());
+        card.setCvv(entity.getCvv());
+        card.setSensitiveDataHidden(!show);
 
         return card;
     }
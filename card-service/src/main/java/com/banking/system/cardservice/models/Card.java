@@ -1,6 +1,8 @@
 package com.banking.system.cardservice.models;
 
 import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import com.banking.system.cardservice.utils.PanFingerprint;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "BANK_CARDS", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"CARD_ACC_ID", "CARD_TYPE"})
+}, indexes = {
+        @Index(name = "IDX_CARD_PAN_LAST4", columnList = "CARD_PAN_LAST4, CARD_ID")
 })
 @Getter
 @Setter
@@ -32,6 +36,27 @@ public class Card {
     @Column(name = "CARD_PAN_CODE", nullable = false, unique = true)
     private String pan;
 
+    /**
+     * Keyed fingerprint of the pan, see PanFingerprint. Exact pan lookups and the pan uniqueness check use
+     * this column and its unique index, and the pan column too until CardPanBackfill has filled the cards created
+     * before it. NOT NULL from then on
+     */
+    @Column(name = "CARD_PAN_FINGERPRINT", length = PanFingerprint.LENGTH, unique = true)
+    private byte[] panFingerprint;
+
+    /**
+     * Last digits of the pan, searched by the panLast4 mode, with the card id of its keyset pages in the index
+     */
+    @Column(name = "CARD_PAN_LAST4", length = MaskSensitiveData.PAN_VISIBLE_DIGITS)
+    private String panLast4;
+
+    /**
+     * Masked pan, returned as is by the masked reads. Both columns are set on insert, NOT NULL once CardPanBackfill
+     * has filled the cards created before them
+     */
+    @Column(name = "CARD_PAN_MASKED", length = 19)
+    private String panMasked;
+
     @Column(name = "CARD_CVV_NUMBER", nullable = false)
     private String cvv;
 
@@ -41,4 +66,11 @@ public class Card {
     @CreationTimestamp
     @Column(name = "CARD_CREATED_AT")
     private LocalDateTime createdAt;
+
+    /**
+     * Optimistic lock version, incremented by every update of the card. Exposed as the card ETag
+     */
+    @Version
+    @Column(name = "CARD_VERSION", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
 }
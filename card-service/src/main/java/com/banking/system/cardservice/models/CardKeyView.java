@@ -0,0 +1,16 @@
+package com.banking.system.cardservice.models;
+
+import com.banking.system.cardservice.enums.CardType;
+
+/**
+ * Projection of the card id and unique keys only. Used to build in-memory key filters
+ */
+public interface CardKeyView {
+    Long getCardId();
+
+    Long getAccountId();
+
+    CardType getCardType();
+
+    byte[] getPanFingerprint();
+}
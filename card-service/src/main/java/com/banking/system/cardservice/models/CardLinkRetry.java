@@ -0,0 +1,53 @@
+package com.banking.system.cardservice.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A card whose link or unlink call to account-service failed.
+ * CardLinkRetrier sends the current state of the card again (linked when it exists, unlinked otherwise)
+ * and deletes the rows of the card recorded up to then.
+ */
+
+@Getter
+@Setter
+@Entity
+@Table(name = "CARD_LINK_RETRIES", indexes = {
+        @Index(name = "IDX_CLR_CARD_ID", columnList = "CLR_CARD_ID")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardLinkRetry {
+
+    /**
+     * Increasing with every failure, a failure recorded while the card is sent again keeps its row
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "CLR_ID", nullable = false, updatable = false)
+    private Long retryId;
+
+    @Column(name = "CLR_CARD_ID", nullable = false, updatable = false)
+    private Long cardId;
+
+    /**
+     * Account of the card, unlinked when the card no longer exists
+     */
+    @Column(name = "CLR_ACC_ID", nullable = false, updatable = false)
+    private Long accountId;
+
+    @CreationTimestamp
+    @Column(name = "CLR_FAILED_AT")
+    private LocalDateTime failedAt;
+
+    public CardLinkRetry(Long cardId, Long accountId) {
+        this.cardId = cardId;
+        this.accountId = accountId;
+    }
+}
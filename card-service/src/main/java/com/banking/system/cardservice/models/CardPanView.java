@@ -0,0 +1,10 @@
+package com.banking.system.cardservice.models;
+
+/**
+ * Projection of the card id and pan only. Used to fill the pan derived columns
+ */
+public interface CardPanView {
+    Long getCardId();
+
+    String getPan();
+}
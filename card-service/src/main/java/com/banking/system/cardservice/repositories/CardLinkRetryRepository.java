@@ -0,0 +1,29 @@
+package com.banking.system.cardservice.repositories;
+
+import com.banking.system.cardservice.models.CardLinkRetry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface CardLinkRetryRepository extends JpaRepository<CardLinkRetry, Long> {
+
+    /**
+     * Oldest failures first
+     * @param limit - batch size
+     */
+    List<CardLinkRetry> findAllByOrderByRetryId(Limit limit);
+
+    /**
+     * Delete in its own transaction the failures of the card recorded up to retryId, once the card was sent again
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from CardLinkRetry r where r.cardId = :cardId and r.retryId <= :retryId")
+    int deleteSent(@Param("cardId") Long cardId, @Param("retryId") Long retryId);
+}
@@ -1,11 +1,61 @@
 package com.banking.system.cardservice.repositories;
 
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import com.banking.system.cardservice.enums.CardType;
 import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.models.CardKeyView;
+import com.banking.system.cardservice.models.CardPanView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
+import java.util.List;
+import java.util.Optional;
+
+public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card>,
+        CardRepositoryCustom {
     boolean existsByAccountIdAndCardType(Long accountId, CardType cardType);
+    boolean existsByPanFingerprint(byte[] panFingerprint);
     boolean existsByPan(String pan);
+
+    /**
+     * Keyset batch of ids and unique keys, used to load in-memory filters without loading full entities
+     * @param cardId - last id of the previous batch
+     * @param limit - batch size
+     */
+    List<CardKeyView> findByCardIdGreaterThanOrderByCardId(Long cardId, Limit limit);
+
+    /**
+     * Keyset batch of the cards missing a pan derived column (fingerprint, last digits, masked pan), for the backfill
+     * @param cardId - last id of the previous batch
+     * @param limit - batch size
+     */
+    @Query("select c.cardId as cardId, c.pan as pan from Card c " +
+            "where c.cardId > :cardId and (c.panFingerprint is null or c.panLast4 is null or c.panMasked is null) " +
+            "order by c.cardId")
+    List<CardPanView> findPanBackfillBatch(@Param("cardId") Long cardId, Limit limit);
+
+    @Query("select new com.banking.system.cardservice.dtos.CardLinkDto(c.cardId, c.cardAlias, c.accountId) " +
+            "from Card c where c.cardId > :afterCardId order by c.cardId")
+    List<CardLinkDto> findCardLinks(@Param("afterCardId") Long afterCardId, Limit limit);
+
+    /**
+     * Delete in its own transaction, committed when it returns
+     * @return number of deleted cards, 0 when another request deleted it first
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Card c where c.cardId = :cardId")
+    int deleteByCardId(@Param("cardId") Long cardId);
+
+    /**
+     * Version only, to answer a conditional GET without loading the card
+     */
+    @Query("select c.version from Card c where c.cardId = :cardId")
+    Optional<Long> findVersionByCardId(@Param("cardId") Long cardId);
+
 }
@@ -0,0 +1,70 @@
+package com.banking.system.cardservice.repositories;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.models.Card;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries not supported by the Spring Data derived/specification methods
+ */
+public interface CardRepositoryCustom {
+    /**
+     * Forward-only stream of every card matching the specification, ordered by id.
+     * Rows are read from a database cursor and detached once read, so memory stays constant.
+     * Must be called inside a transaction and the stream must be closed
+     */
+    Stream<Card> streamAll(Specification<Card> spec);
+
+    /**
+     * Read-only page of the matching cards, built as dtos straight from the query.
+     * The count query is skipped when the page content already tells the total
+     */
+    Page<CardDto> findAllAsDto(Specification<Card> spec, Pageable pageable, boolean showSensitiveData);
+
+    /**
+     * Same as findAllAsDto without the count query:
+     * size + 1 rows are fetched, the extra one only tells whether there is a next page
+     */
+    Slice<CardDto> findSliceAsDto(Specification<Card> spec, Pageable pageable, boolean showSensitiveData);
+
+    /**
+     * Keyset page: the first matching cards with an id greater than afterCardId (all when null), ordered by id
+     */
+    List<CardDto> findAfterAsDto(Specification<Card> spec, Long afterCardId, int limit, boolean showSensitiveData);
+
+    /**
+     * Single statement partial update: UPDATE ... SET only the given (non null) columns ... RETURNING the new row
+     * and the previous alias. One round trip, no entity loaded, no dirty check
+     * @param expectedVersion when not null, the row is only updated if it is still at this version (If-Match)
+     * @return the updated row, empty when the card does not exist or is not at the expected version
+     */
+    Optional<PartialUpdate> updatePartially(Long cardId, Long expectedVersion, String cardAlias);
+
+    /**
+     * Sets the pan derived columns of the given cards in one JDBC batch, without changing the card version
+     * @return number of updated cards
+     */
+    int setPanColumns(List<PanColumns> cards);
+
+    /**
+     * NOT NULL on the pan derived columns, once no card misses them. Columns already NOT NULL are left as they are
+     */
+    void requirePanColumns();
+
+    /**
+     * @param card the card after the update, not managed by the persistence context
+     * @param previousAlias alias before the update
+     */
+    record PartialUpdate(Card card, String previousAlias) {
+    }
+
+    record PanColumns(Long cardId, byte[] panFingerprint, String panLast4, String panMasked) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.banking.system.cardservice.repositories;
+
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.models.Card;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class CardRepositoryCustomImpl implements CardRepositoryCustom {
+    private static final int FETCH_SIZE = 1000;
+    private static final List<String> PAN_COLUMNS = List.of("CARD_PAN_FINGERPRINT", "CARD_PAN_LAST4", "CARD_PAN_MASKED");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Stream<Card> streamAll(Specification<Card> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Card> query = criteriaBuilder.createQuery(Card.class);
+        Root<Card> root = query.from(Card.class);
+        query.where(spec.toPredicate(root, query, criteriaBuilder))
+                .orderBy(criteriaBuilder.asc(root.get("cardId")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public Page<CardDto> findAllAsDto(Specification<Card> spec, Pageable pageable, boolean showSensitiveData) {
+        List<CardDto> content = dtoQuery(spec, null, pageable.getSort(), showSensitiveData)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<CardDto> findSliceAsDto(Specification<Card> spec, Pageable pageable, boolean showSensitiveData) {
+        List<CardDto> content = dtoQuery(spec, null, pageable.getSort(), showSensitiveData)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<CardDto> findAfterAsDto(Specification<Card> spec, Long afterCardId, int limit, boolean showSensitiveData) {
+        return dtoQuery(spec, afterCardId, Sort.by("cardId"), showSensitiveData)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * SELECT new CardDto(...) over the filtered cards: only the returned columns are read
+     * and no entity, snapshot or persistence context entry is created per row.
+     * Masked, the query returns the stored masked pan and the cvv length, the pan and cvv never leave the database
+     */
+    private TypedQuery<CardDto> dtoQuery(Specification<Card> spec, Long afterCardId, Sort sort, boolean showSensitiveData) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardDto> query = criteriaBuilder.createQuery(CardDto.class);
+        Root<Card> root = query.from(Card.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (afterCardId != null) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.greaterThan(root.get("cardId"), afterCardId));
+        }
+        if (showSensitiveData) {
+            query.select(criteriaBuilder.construct(CardDto.class,
+                    root.get("cardId"), root.get("accountId"), root.get("cardType"),
+                    root.get("pan"), root.get("cvv"), root.get("cardAlias"), root.get("version")));
+        } else {
+            query.select(criteriaBuilder.construct(CardDto.class,
+                    root.get("cardId"), root.get("accountId"), root.get("cardType"), root.get("panMasked"),
+                    criteriaBuilder.length(root.<String>get("cvv")), root.get("cardAlias"), root.get("version")));
+        }
+        query.where(predicate)
+                .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Card> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Card> root = query.from(Card.class);
+        query.select(criteriaBuilder.count(root))
+                .where(spec.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Optional<PartialUpdate> updatePartially(Long cardId, Long expectedVersion, String cardAlias) {
+        MapSqlParameterSource params = new MapSqlParameterSource("cardId", cardId);
+        StringBuilder sql = new StringBuilder("UPDATE BANK_CARDS c SET CARD_VERSION = c.CARD_VERSION + 1");
+        if (cardAlias != null) {
+            sql.append(", CARD_ALIAS = :cardAlias");
+            params.addValue("cardAlias", cardAlias);
+        }
+        sql.append(" FROM (SELECT CARD_ID, CARD_ALIAS FROM BANK_CARDS WHERE CARD_ID = :cardId FOR UPDATE) previous")
+                .append(" WHERE c.CARD_ID = previous.CARD_ID");
+        if (expectedVersion != null) {
+            sql.append(" AND c.CARD_VERSION = :version");
+            params.addValue("version", expectedVersion);
+        }
+        sql.append(" RETURNING c.CARD_ID, c.CARD_ACC_ID, c.CARD_TYPE, c.CARD_PAN_CODE, c.CARD_PAN_LAST4, c.CARD_PAN_MASKED,")
+                .append(" c.CARD_CVV_NUMBER, c.CARD_ALIAS, c.CARD_CREATED_AT, c.CARD_VERSION,")
+                .append(" previous.CARD_ALIAS AS PREVIOUS_ALIAS");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new PartialUpdate(Card.builder()
+                .cardId(rs.getLong("CARD_ID"))
+                .accountId(rs.getLong("CARD_ACC_ID"))
+                .cardType(CardType.valueOf(rs.getString("CARD_TYPE")))
+                .pan(rs.getString("CARD_PAN_CODE"))
+                .panLast4(rs.getString("CARD_PAN_LAST4"))
+                .panMasked(rs.getString("CARD_PAN_MASKED"))
+                .cvv(rs.getString("CARD_CVV_NUMBER"))
+                .cardAlias(rs.getString("CARD_ALIAS"))
+                .createdAt(rs.getObject("CARD_CREATED_AT", LocalDateTime.class))
+                .version(rs.getLong("CARD_VERSION"))
+                .build(), rs.getString("PREVIOUS_ALIAS"))).stream().findFirst();
+    }
+
+    @Override
+    public int setPanColumns(List<PanColumns> cards) {
+        SqlParameterSource[] batch = cards.stream()
+                .map(card -> new MapSqlParameterSource("cardId", card.cardId())
+                        .addValue("panFingerprint", card.panFingerprint())
+                        .addValue("panLast4", card.panLast4())
+                        .addValue("panMasked", card.panMasked()))
+                .toArray(SqlParameterSource[]::new);
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE BANK_CARDS SET CARD_PAN_FINGERPRINT = :panFingerprint," +
+                " CARD_PAN_LAST4 = :panLast4, CARD_PAN_MASKED = :panMasked WHERE CARD_ID = :cardId", batch);
+        int updated = 0;
+        for (int count : counts) {
+            // the driver may report a batched statement as run without its row count
+            updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return updated;
+    }
+
+    @Override
+    public void requirePanColumns() {
+        List<String> nullable = jdbcTemplate.queryForList("SELECT upper(column_name) FROM information_schema.columns" +
+                " WHERE table_schema = current_schema AND upper(table_name) = 'BANK_CARDS'" +
+                " AND upper(column_name) IN (:columns) AND is_nullable = 'YES'",
+                new MapSqlParameterSource("columns", PAN_COLUMNS), String.class);
+        for (String column : nullable) {
+            jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE BANK_CARDS ALTER COLUMN " + column + " SET NOT NULL");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.banking.system.cardservice.schedulers;
+
+import com.banking.system.cardservice.dtos.CardLinkDto;
+import com.banking.system.cardservice.feign.AccountServiceFeign;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.models.CardLinkRetry;
+import com.banking.system.cardservice.repositories.CardLinkRetryRepository;
+import com.banking.system.cardservice.repositories.CardRepository;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sends again the card links account-service did not receive (see CardLinkRetry).
+ * The current state of the card is sent, not the failed call: a card created then deleted while account-service
+ * was down is unlinked only, and the calls are idempotent on the account-service side. A run stops at the first
+ * call failing for account-service being unavailable, the next run resumes it. A call it rejects (4xx) is
+ * dropped and left to the account-service reconciliation.
+ */
+@Slf4j
+@Component
+public class CardLinkRetrier {
+    private final CardLinkRetryRepository cardLinkRetryRepository;
+    private final CardRepository cardRepository;
+    private final AccountServiceFeign accountServiceFeign;
+    private final int batchSize;
+
+    public CardLinkRetrier(CardLinkRetryRepository cardLinkRetryRepository,
+                           CardRepository cardRepository,
+                           AccountServiceFeign accountServiceFeign,
+                           @Value("${card.link-retry.batch-size:100}") int batchSize) {
+        this.cardLinkRetryRepository = cardLinkRetryRepository;
+        this.cardRepository = cardRepository;
+        this.accountServiceFeign = accountServiceFeign;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${card.link-retry.interval:30s}",
+            fixedDelayString = "${card.link-retry.interval:30s}")
+    public void scheduledRetry() {
+        try {
+            int sent = retry();
+            if (sent > 0) {
+                log.info("Card links sent again to account-service for {} cards", sent);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Card link retry stopped, account-service unavailable: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of cards sent
+     */
+    public int retry() {
+        int sent = 0;
+        List<CardLinkRetry> batch;
+        do {
+            // the rows sent are deleted, the next batch is the oldest left
+            batch = cardLinkRetryRepository.findAllByOrderByRetryId(Limit.of(batchSize));
+            Map<Long, CardLinkRetry> latestByCard = new LinkedHashMap<>();
+            for (CardLinkRetry retry : batch) {
+                latestByCard.put(retry.getCardId(), retry);
+            }
+            for (CardLinkRetry retry : latestByCard.values()) {
+                send(retry);
+                cardLinkRetryRepository.deleteSent(retry.getCardId(), retry.getRetryId());
+                sent++;
+            }
+        } while (batch.size() == batchSize);
+        return sent;
+    }
+
+    private void send(CardLinkRetry retry) {
+        try {
+            Optional<Card> card = cardRepository.findById(retry.getCardId());
+            if (card.isPresent()) {
+                accountServiceFeign.linkCard(card.get().getAccountId(), card.get().getCardId(),
+                        new CardLinkDto(card.get().getCardId(), card.get().getCardAlias(), card.get().getAccountId()));
+            } else {
+                accountServiceFeign.unlinkCard(retry.getAccountId(), retry.getCardId());
+            }
+        } catch (FeignException.FeignClientException e) {
+            log.warn("Card {} link rejected by account-service, dropped: {}", retry.getCardId(), e.getMessage());
+        }
+    }
+}
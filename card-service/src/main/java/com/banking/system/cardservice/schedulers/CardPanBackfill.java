@@ -0,0 +1,95 @@
+package com.banking.system.cardservice.schedulers;
+
+import com.banking.system.cardservice.configs.PanFingerprintConfig;
+import com.banking.system.cardservice.models.CardPanView;
+import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom.PanColumns;
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import com.banking.system.cardservice.utils.PanFingerprint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills the PAN derived columns (fingerprint, last digits, masked pan) of the cards created before they existed,
+ * then makes them NOT NULL. Runs once the service is up, on its own virtual thread, so startup does not wait
+ * for it. Cards missing one of them are read in card id order, batch by batch, each batch sent as one JDBC batch
+ * in its own transaction. The card version is not changed. New cards get their columns on insert, a run with
+ * nothing left to fill costs one query and the columns check.
+ * Until the run completes, the exact pan lookups also match the pan column (see isCompleted), a card not filled
+ * yet has no fingerprint
+ */
+@Slf4j
+@Component
+public class CardPanBackfill {
+    private final CardRepository cardRepository;
+    private final PanFingerprint panFingerprint;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private volatile boolean completed;
+
+    public CardPanBackfill(CardRepository cardRepository,
+                           PanFingerprint panFingerprint,
+                           TransactionTemplate transactionTemplate,
+                           PanFingerprintConfig config) {
+        this.cardRepository = cardRepository;
+        this.panFingerprint = panFingerprint;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = config.getBackfillBatchSize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("card-pan-backfill").start(this::run);
+    }
+
+    /**
+     * Backfill then NOT NULL constraints, a failure is logged and the next start resumes it
+     */
+    void run() {
+        try {
+            long start = System.currentTimeMillis();
+            int filled = backfill();
+            if (filled > 0) {
+                log.info("PAN derived columns backfilled on {} cards in {} ms", filled, System.currentTimeMillis() - start);
+            }
+            cardRepository.requirePanColumns();
+            completed = true;
+        } catch (RuntimeException e) {
+            log.error("PAN derived columns backfill failed, resumed on the next start", e);
+        }
+    }
+
+    /**
+     * @return true once every card has its fingerprint, false until the run completes and after a failed run
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return number of cards updated
+     */
+    public int backfill() {
+        int filled = 0;
+        long lastId = 0L;
+        List<CardPanView> batch;
+        do {
+            batch = cardRepository.findPanBackfillBatch(lastId, Limit.of(batchSize));
+            if (batch.isEmpty()) break;
+            List<PanColumns> columns = batch.stream()
+                    .map(card -> new PanColumns(card.getCardId(), panFingerprint.of(card.getPan()),
+                            MaskSensitiveData.lastDigits(card.getPan()), MaskSensitiveData.maskPan(card.getPan())))
+                    .toList();
+            Integer updated = transactionTemplate.execute(status -> cardRepository.setPanColumns(columns));
+            filled += updated == null ? 0 : updated;
+            lastId = batch.get(batch.size() - 1).getCardId();
+        } while (batch.size() == batchSize);
+        return filled;
+    }
+}
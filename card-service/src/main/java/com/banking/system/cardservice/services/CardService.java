@@ -1,10 +1,18 @@
 package com.banking.system.cardservice.services;
 
 import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import com.banking.system.cardservice.dtos.UpdateCardDto;
 import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 public interface CardService {
     CardDto saveCard(CardDto cardDto);
 
@@ -13,9 +21,46 @@ public interface CardService {
 
     CardDto updateCardDetails(Long cardId, UpdateCardDto dto);
 
+    /**
+     * Conditional update, applied with a single UPDATE only if the card is still at the expected version
+     * @param expectedVersion version of the If-Match ETag, null for an unconditional update
+     * @throws com.banking.system.common.exceptions.PreconditionFailedException when the card was modified since
+     */
+    CardDto updateCardDetails(Long cardId, UpdateCardDto dto, Long expectedVersion);
+
     String deleteCard(Long cardId);
 
     Page<CardDto> getAllCards(int page, int size, Long accountId, String cardAlias, String pan, CardType cardType, Boolean showSensitiveData);
 
+    /**
+     * Same page as getAllCards, without the total count query
+     */
+    SlicePage<CardDto> getAllCardsWithoutTotal(int page, int size, Long accountId, String cardAlias, String pan, CardType cardType, Boolean showSensitiveData);
+
+    CursorPage<CardDto> getAllCards(String cursor, int size, Long accountId, String cardAlias, String pan, CardType cardType, Boolean showSensitiveData);
+
+    /**
+     * Cursor page of the cards whose PAN ends with the 4 given digits, ordered by card id
+     * @param cursor null or empty for the first page
+     */
+    CursorPage<CardDto> searchByPanLast4(String panLast4, String cursor, int size, Long accountId, CardType cardType, Boolean showSensitiveData);
+
+    /**
+     * Stream every card matching the filters to the output, ordered by card id.
+     * PAN and CVV are always masked, there is no way to export sensitive data
+     */
+    void exportCards(ExportFormat format, Long accountId, String cardAlias, String pan, CardType cardType, OutputStream out) throws IOException;
+
+    /**
+     * Keyset page of card to account links, without any sensitive data.
+     * Used by account-service to reconcile its card alias index and card counters
+     */
+    List<CardLinkDto> getCardLinks(Long afterCardId, int size);
+
     CardDto getCardById(Long id, Boolean showSensitiveData);
+
+    /**
+     * @return current version of the card, used in its ETag
+     */
+    long getCardVersion(Long cardId);
 }
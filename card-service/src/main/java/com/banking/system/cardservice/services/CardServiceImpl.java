@@ -1,127 +1,379 @@
 package com.banking.system.cardservice.services;
 
-import com.banking.system.cardservice.configs.CardFormatConfig;
 import com.banking.system.cardservice.dtos.AccountDto;
 import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import com.banking.system.cardservice.dtos.UpdateCardDto;
 import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.feign.AccountLookupCoalescer;
 import com.banking.system.cardservice.feign.AccountServiceFeign;
+import com.banking.system.cardservice.indexes.CardKeyFilter;
 import com.banking.system.cardservice.mappers.CardMapper;
 import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.models.CardLinkRetry;
+import com.banking.system.cardservice.repositories.CardLinkRetryRepository;
 import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom;
+import com.banking.system.cardservice.schedulers.CardPanBackfill;
 import com.banking.system.cardservice.specifications.CardSpecification;
+import com.banking.system.cardservice.utils.MaskSensitiveData;
+import com.banking.system.cardservice.utils.PanFingerprint;
+import com.banking.system.cardservice.validation.CardFormatViolation;
+import com.banking.system.cardservice.validation.CardValidationEngine;
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.exceptions.PreconditionFailedException;
+import com.banking.system.common.exceptions.ValidationException;
+import com.banking.system.common.utils.CursorCodec;
+import com.banking.system.common.utils.ETags;
+import com.banking.system.common.utils.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_CALLS)
 @RequiredArgsConstructor
 public class CardServiceImpl implements CardService{
+    private static final List<ExportWriter.Column<CardDto>> EXPORT_COLUMNS = List.of(
+            new ExportWriter.Column<>("cardId", CardDto::getCardId),
+            new ExportWriter.Column<>("accountId", CardDto::getAccountId),
+            new ExportWriter.Column<>("typeOfCard", CardDto::getTypeOfCard),
+            new ExportWriter.Column<>("pan", CardDto::getPan),
+            new ExportWriter.Column<>("cvv", CardDto::getCvv),
+            new ExportWriter.Column<>("cardAlias", CardDto::getCardAlias));
+    private static final Pattern PAN_LAST4 = Pattern.compile("\\d{" + MaskSensitiveData.PAN_VISIBLE_DIGITS + "}");
+
     private final CardRepository cardRepository;
     private final MessageSource messageSource;
     private final AccountServiceFeign accountServiceFeign;
-    private final CardFormatConfig cardFormatConfig;
-
-//    @Value("${card.validation.pan-format}")
-//    private String panFormat;
-//
-//    @Value("${card.validation.cvv-format}")
-//    private String cvvFormat;
+    private final AccountLookupCoalescer accountLookup;
+    private final CardValidationEngine cardValidation;
+    private final CardKeyFilter cardKeyFilter;
+    private final PanFingerprint panFingerprint;
+    private final ObjectMapper objectMapper;
+    private final CardLinkRetryRepository cardLinkRetryRepository;
+    private final CardPanBackfill cardPanBackfill;
 
     @Override
     public CardDto saveCard(CardDto dto) {
         validateAccountExist(dto);
         validateCardDetails(dto);
-        validateDataUniqueness(dto);
+        byte[] fingerprint = panFingerprint.of(dto.getPan());
+        validateDataUniqueness(dto, fingerprint);
 
         Card card = CardMapper.toEntity(dto);
-        card = cardRepository.save(card);
+        card.setPanFingerprint(fingerprint);
+        try {
+            card = cardRepository.save(card);
+        } catch (DataIntegrityViolationException e) {
+            throw uniqueKeyViolation(dto, fingerprint, e);
+        }
+        cardKeyFilter.add(card.getPanFingerprint(), card.getAccountId(), card.getCardType());
+        linkCardToAccount(card);
         return CardMapper.toEntityDataHidden(card,false);
     }
 
+    /**
+     * List modes read dtos straight from the query (constructor projection), masking included,
+     * no managed entity per row
+     */
     @Override
     public Page<CardDto> getAllCards(int page, int size, Long accountId, String cardAlias,
                               String pan, CardType cardType, Boolean showSensitiveData) {
         Pageable pageable = PageRequest.of(page, size);
-        Specification<Card> spec = CardSpecification.filterCardDetails(pan, cardType, cardAlias,accountId);
-        Page<Card> card = cardRepository.findAll(spec, pageable);
-        return card.map(cards -> CardMapper.toEntityDataHidden(cards, showSensitiveData));
+        Specification<Card> spec = cardFilter(pan, cardType, cardAlias, accountId);
+        return cardRepository.findAllAsDto(spec, pageable, show(showSensitiveData));
+    }
+
+    @Override
+    public SlicePage<CardDto> getAllCardsWithoutTotal(int page, int size, Long accountId, String cardAlias,
+                                                      String pan, CardType cardType, Boolean showSensitiveData) {
+        Specification<Card> spec = cardFilter(pan, cardType, cardAlias, accountId);
+        Slice<CardDto> cards = cardRepository.findSliceAsDto(spec, PageRequest.of(page, size), show(showSensitiveData));
+        return SlicePage.of(cards);
+    }
+
+    @Override
+    public CursorPage<CardDto> getAllCards(String cursor, int size, Long accountId, String cardAlias,
+                                           String pan, CardType cardType, Boolean showSensitiveData) {
+        return cursorPage(cardFilter(pan, cardType, cardAlias, accountId), cursor, size, showSensitiveData);
+    }
+
+    /**
+     * Index lookup on the stored last digits, the masked page reads the stored masked pan
+     */
+    @Override
+    public CursorPage<CardDto> searchByPanLast4(String panLast4, String cursor, int size, Long accountId,
+                                                CardType cardType, Boolean showSensitiveData) {
+        if (panLast4 == null || !PAN_LAST4.matcher(panLast4).matches()) {
+            throw new ValidationException(messageSource, "invalid.pan.last4", new Object[]{panLast4});
+        }
+        Specification<Card> spec = CardSpecification.filterByPanLast4(panLast4, cardType, accountId);
+        return cursorPage(spec, cursor, size, showSensitiveData);
+    }
+
+    private CursorPage<CardDto> cursorPage(Specification<Card> spec, String cursor, int size, Boolean showSensitiveData) {
+        Long lastId = decodeCursor(cursor);
+
+        List<CardDto> cards = cardRepository.findAfterAsDto(spec, lastId, size + 1, show(showSensitiveData));
+        boolean hasNext = cards.size() > size;
+        if (hasNext) {
+            cards = cards.subList(0, size);
+        }
+
+        String nextCursor = hasNext && !cards.isEmpty()
+                ? CursorCodec.encode(cards.get(cards.size() - 1).getCardId())
+                : null;
+        return new CursorPage<>(cards, nextCursor, size);
+    }
+
+    /**
+     * Same default as CardMapper.toEntityDataHidden: shown unless explicitly hidden
+     */
+    private static boolean show(Boolean showSensitiveData) {
+        return showSensitiveData == null || showSensitiveData;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCards(ExportFormat format, Long accountId, String cardAlias, String pan,
+                            CardType cardType, OutputStream out) throws IOException {
+        Specification<Card> spec = cardFilter(pan, cardType, cardAlias, accountId);
+        try (Stream<Card> cards = cardRepository.streamAll(spec);
+             ExportWriter<CardDto> writer = new ExportWriter<>(objectMapper, CardDto.class, format, EXPORT_COLUMNS, out)) {
+            for (Card card : (Iterable<Card>) cards::iterator) {
+                writer.write(CardMapper.toEntityDataHidden(card, false));
+            }
+        }
+    }
+
+    @Override
+    public List<CardLinkDto> getCardLinks(Long afterCardId, int size) {
+        return cardRepository.findCardLinks(afterCardId == null ? 0L : afterCardId, Limit.of(size));
     }
 
     @Override
     public CardDto getCardById(Long cardId, Boolean showSensitiveData) {
         Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("card.not.found", new Object[]{cardId},null)));
+                .orElseThrow(() -> new ValidationException(messageSource, "card.not.found", new Object[]{cardId}));
         return CardMapper.toEntityDataHidden(card,showSensitiveData);
     }
 
     @Override
-    public CardDto updateCardDetails(Long cardId, UpdateCardDto dto) {
-        Card existingCard = cardRepository.findById(cardId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("card.not.found", new Object[]{cardId},null)));
+    public long getCardVersion(Long cardId) {
+        return cardRepository.findVersionByCardId(cardId)
+                .orElseThrow(() -> new ValidationException(messageSource, "card.not.found", new Object[]{cardId}));
+    }
 
-        if (dto.getCardAlias() != null && !dto.getCardAlias().trim().isEmpty()) {
-            existingCard.setCardAlias(dto.getCardAlias());
+    /**
+     * Single UPDATE ... RETURNING statement, only the provided columns are set.
+     * Not found and version mismatch are told apart by a version read, on failure only.
+     * The account is only told about the card when its alias changed
+     */
+    @Override
+    public CardDto updateCardDetails(Long cardId, UpdateCardDto dto, Long expectedVersion) {
+        String cardAlias = dto.getCardAlias() != null && !dto.getCardAlias().trim().isEmpty() ? dto.getCardAlias() : null;
+
+        if (cardAlias == null) {
+            Card existingCard = cardRepository.findById(cardId)
+                    .orElseThrow(() -> new ValidationException(messageSource, "card.not.found", new Object[]{cardId}));
+            if (expectedVersion != null && existingCard.getVersion() != expectedVersion) {
+                throw versionMismatch(cardId, existingCard.getVersion());
+            }
+            return CardMapper.toEntityDataHidden(existingCard, false);
         }
 
-        Card updatedCard = cardRepository.save(existingCard);
+        CardRepositoryCustom.PartialUpdate update = cardRepository.updatePartially(cardId, expectedVersion, cardAlias)
+                .orElseThrow(() -> {
+                    if (expectedVersion == null) {
+                        return new ValidationException(messageSource, "card.not.found", new Object[]{cardId});
+                    }
+                    return versionMismatch(cardId, getCardVersion(cardId));
+                });
+        if (!cardAlias.equals(update.previousAlias())) {
+            linkCardToAccount(update.card());
+        }
+        return CardMapper.toEntityDataHidden(update.card(), false);
+    }
 
-        return CardMapper.toEntityDataHidden(updatedCard, false);
+    @Override
+    public CardDto updateCardDetails(Long cardId, UpdateCardDto dto) {
+        return updateCardDetails(cardId, dto, null);
+    }
+
+    private PreconditionFailedException versionMismatch(Long cardId, long currentVersion) {
+        return new PreconditionFailedException(messageSource.getMessage("card.version.mismatch",
+                new Object[]{cardId, ETags.of(currentVersion)}, null));
     }
 
     @Override
     public String deleteCard(Long cardId) {
         Card existingAccount = cardRepository.findById(cardId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("card.not.found", new Object[]{cardId},null)));
+                .orElseThrow(() -> new ValidationException(messageSource, "card.not.found", new Object[]{cardId}));
 
-        cardRepository.delete(existingAccount);
+        // keys forgotten and account unlinked only for a card this request deleted, a concurrent delete does nothing
+        if (cardRepository.deleteByCardId(cardId) > 0) {
+            cardKeyFilter.remove(existingAccount.getPanFingerprint(), existingAccount.getAccountId(), existingAccount.getCardType());
+            unlinkCardFromAccount(existingAccount);
+        }
         return messageSource.getMessage("card.deletion.successful", new Object[]{cardId},null);
     }
 
+    /**
+     * Build the card filter, a full PAN is looked up by its fingerprint
+     */
+    private Specification<Card> cardFilter(String pan, CardType cardType, String cardAlias, Long accountId) {
+        byte[] fingerprint = pan != null && cardValidation.isPan(pan) ? panFingerprint.of(pan) : null;
+        return CardSpecification.filterCardDetails(pan, fingerprint, cardPanBackfill.isCompleted(),
+                cardType, cardAlias, accountId);
+    }
+
+    private Long decodeCursor(String cursor) {
+        try {
+            return CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(messageSource, "invalid.cursor", new Object[]{cursor});
+        }
+    }
+
+    /**
+     * Mandatory fields, then the PAN and CVV against the card.validation rules (scheme by BIN range,
+     * PAN length, Luhn check digit, CVV length)
+     */
     public void validateCardDetails(CardDto dto) {
         if (dto.getCvv() == null) {
-            throw new IllegalArgumentException(messageSource.getMessage("cvv.mandatory", null, null));
-        } else if (!dto.getCvv().matches(cardFormatConfig.getCvvFormat())) {
-            throw new IllegalArgumentException(messageSource.getMessage("invalid.card.cvvformat", null, null));
+            throw new ValidationException(messageSource, "cvv.mandatory", null);
         }
 
         if (dto.getTypeOfCard() == null ||
                 (!dto.getTypeOfCard().equals(CardType.VIRTUAL) && !dto.getTypeOfCard().equals(CardType.PHYSICAL))) {
-            throw new IllegalArgumentException(messageSource.getMessage("invalid.card.type", null, null));
+            throw new ValidationException(messageSource, "invalid.card.type", null);
         }
 
         if (dto.getPan() == null) {
-            throw  new IllegalArgumentException(messageSource.getMessage("pan.mandatory", null, null));
-        }else if (!dto.getPan().matches(cardFormatConfig.getPanFormat())){
-            throw new IllegalArgumentException(messageSource.getMessage("invalid.card.panformat", null, null));
+            throw  new ValidationException(messageSource, "pan.mandatory", null);
+        }
+
+        CardFormatViolation violation = cardValidation.validate(dto.getPan(), dto.getCvv());
+        if (violation != null) {
+            throw new ValidationException(messageSource, violation.getMessageKey(), null);
+        }
+    }
+
+    /**
+     * Each key is queried only when the card key filter may hold it
+     */
+    private void validateDataUniqueness(CardDto dto, byte[] fingerprint) {
+        if (cardKeyFilter.accountCardTypeMightExist(dto.getAccountId(), dto.getTypeOfCard())
+                && cardKeyFilter.confirmAccountCardType(cardRepository.existsByAccountIdAndCardType(dto.getAccountId(), dto.getTypeOfCard()))){
+            throw new ValidationException(messageSource, "account.type.exist", new Object[]{dto.getAccountId()});
+        }
+        if (panUsed(dto.getPan(), fingerprint)){
+            throw new ValidationException(messageSource, "card.pan.exist", new Object[]{dto.getAccountId()});
         }
     }
 
-    private void validateDataUniqueness(CardDto dto) {
-        if (cardRepository.existsByAccountIdAndCardType(dto.getAccountId(), dto.getTypeOfCard())){
-            throw new IllegalArgumentException(messageSource.getMessage("account.type.exist", new Object[]{dto.getAccountId()},null));
+    /**
+     * A unique key used meanwhile, by another instance when the card key filter skipped its query.
+     * The keys are queried again to tell which one
+     */
+    private RuntimeException uniqueKeyViolation(CardDto dto, byte[] fingerprint, DataIntegrityViolationException e) {
+        if (cardRepository.existsByAccountIdAndCardType(dto.getAccountId(), dto.getTypeOfCard())) {
+            cardKeyFilter.staleAccountCardType(dto.getAccountId(), dto.getTypeOfCard());
+            return new ValidationException(messageSource, "account.type.exist", new Object[]{dto.getAccountId()});
         }
-        if (cardRepository.existsByPan(dto.getPan())){
-            throw new IllegalArgumentException(messageSource.getMessage("card.pan.exist", new Object[]{dto.getAccountId()},null));
+        if (panExists(dto.getPan(), fingerprint)) {
+            cardKeyFilter.stalePan(fingerprint);
+            return new ValidationException(messageSource, "card.pan.exist", new Object[]{dto.getAccountId()});
         }
+        return e;
+    }
+
+    /**
+     * The card key filter holds fingerprints only, a card not filled yet is not in it: the pan is queried without
+     * it until CardPanBackfill completes
+     */
+    private boolean panUsed(String pan, byte[] fingerprint) {
+        if (!cardPanBackfill.isCompleted()) {
+            return panExists(pan, fingerprint);
+        }
+        return cardKeyFilter.panMightExist(fingerprint) && cardKeyFilter.confirmPan(panExists(pan, fingerprint));
+    }
+
+    /**
+     * A card created before CARD_PAN_FINGERPRINT has none until CardPanBackfill completes, the pan column is
+     * queried meanwhile
+     */
+    private boolean panExists(String pan, byte[] fingerprint) {
+        return cardRepository.existsByPanFingerprint(fingerprint)
+                || (!cardPanBackfill.isCompleted() && cardRepository.existsByPan(pan));
     }
 
     private void validateAccountExist(CardDto dto) {
         if (dto.getAccountId() == null|| dto.getAccountId() ==0L) {
-            throw new IllegalArgumentException(messageSource.getMessage("account.detail.missing", null, null));
+            throw new ValidationException(messageSource, "account.detail.missing", null);
         }
         try {
-            accountServiceFeign.getAccountById(dto.getAccountId());
+            accountLookup.getAccountById(dto.getAccountId()).orElseThrow();
         }catch (Exception e){
-            throw new IllegalArgumentException(messageSource.getMessage("account.not.found", new Object[]{dto.getAccountId()}, null));
+            throw new ValidationException(messageSource, "account.not.found", new Object[]{dto.getAccountId()});
+        }
+    }
+
+    /**
+     * Keep account-service card alias index in sync.
+     * The card is already persisted at this point, a failed sync is not rolled back: it is recorded and
+     * sent again by CardLinkRetrier.
+     */
+    private void linkCardToAccount(Card card) {
+        try {
+            accountServiceFeign.linkCard(card.getAccountId(), card.getCardId(),
+                    new CardLinkDto(card.getCardId(), card.getCardAlias(), card.getAccountId()));
+        } catch (Exception e) {
+            log.warn("Failed to link card {} to account {}, recorded for retry", card.getCardId(), card.getAccountId(), e);
+            recordLinkRetry(card);
+        }
+    }
+
+    private void unlinkCardFromAccount(Card card) {
+        try {
+            accountServiceFeign.unlinkCard(card.getAccountId(), card.getCardId());
+        } catch (Exception e) {
+            log.warn("Failed to unlink card {} from account {}, recorded for retry", card.getCardId(), card.getAccountId(), e);
+            recordLinkRetry(card);
+        }
+    }
+
+    /**
+     * A card not recorded either (database unavailable) is left to the account-service reconciliation
+     */
+    private void recordLinkRetry(Card card) {
+        try {
+            cardLinkRetryRepository.save(new CardLinkRetry(card.getCardId(), card.getAccountId()));
+        } catch (RuntimeException e) {
+            log.error("Card {} link not recorded for retry", card.getCardId(), e);
         }
     }
 }
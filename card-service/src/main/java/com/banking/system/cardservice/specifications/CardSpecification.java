@@ -10,10 +10,31 @@ import java.util.List;
 
 public class CardSpecification {
     public static Specification<Card> filterCardDetails(String pan, CardType cardType, String cardAlias, Long accountId) {
+        return filterCardDetails(pan, null, cardType, cardAlias, accountId);
+    }
+
+    public static Specification<Card> filterCardDetails(String pan, byte[] panFingerprint, CardType cardType,
+                                                        String cardAlias, Long accountId) {
+        return filterCardDetails(pan, panFingerprint, true, cardType, cardAlias, accountId);
+    }
+
+    /**
+     * @param panFingerprint fingerprint of pan when it is a full PAN: exact match on CARD_PAN_FINGERPRINT
+     *                       instead of a substring search of the pan
+     * @param fingerprintsComplete false while cards may have no fingerprint yet, the exact match then also
+     *                             matches the pan column
+     */
+    public static Specification<Card> filterCardDetails(String pan, byte[] panFingerprint, boolean fingerprintsComplete,
+                                                        CardType cardType, String cardAlias, Long accountId) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            if (pan != null && !pan.isEmpty()) {
+            if (panFingerprint != null && fingerprintsComplete) {
+                predicates.add(criteriaBuilder.equal(root.get("panFingerprint"), panFingerprint));
+            } else if (panFingerprint != null) {
+                predicates.add(criteriaBuilder.or(criteriaBuilder.equal(root.get("panFingerprint"), panFingerprint),
+                        criteriaBuilder.equal(root.get("pan"), pan)));
+            } else if (pan != null && !pan.isEmpty()) {
                 predicates.add(criteriaBuilder.like(root.get("pan"), "%" + pan + "%"));
             }
 
@@ -32,4 +53,12 @@ public class CardSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[predicates.size()]));
         };
     }
+
+    /**
+     * Cards whose pan ends with panLast4: equality on CARD_PAN_LAST4 (IDX_CARD_PAN_LAST4), the pan is not read
+     */
+    public static Specification<Card> filterByPanLast4(String panLast4, CardType cardType, Long accountId) {
+        Specification<Card> last4 = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("panLast4"), panLast4);
+        return last4.and(filterCardDetails(null, cardType, null, accountId));
+    }
 }
@@ -1,20 +1,55 @@
 package com.banking.system.cardservice.utils;
 
+import java.util.Arrays;
 
 /**
- * A util class to hide PAN and CVV data
+ * A util class to hide PAN and CVV data.
+ * A mask without visible characters (CVV) only depends on its length, these masks are shared Strings
  */
 public class MaskSensitiveData {
+    public static final int PAN_VISIBLE_DIGITS = 4;
 
+    /**
+     * Masks without visible characters, shared up to this length
+     */
+    private static final String[] STARS = new String[33];
+
+    static {
+        for (int i = 0; i < STARS.length; i++) {
+            STARS[i] = "*".repeat(i);
+        }
+    }
+
+    /**
+     * Masked pan stored in CARD_PAN_MASKED, the list reads use the stored one
+     */
     public static String maskPan(String pan) {
-        if (pan == null || pan.length() < 4) return "****";
-        int visibleDigits = 4;
-        String maskedSection = "*".repeat(pan.length() - visibleDigits);
-        return maskedSection + pan.substring(pan.length() - visibleDigits);
+        if (pan == null || pan.length() < PAN_VISIBLE_DIGITS) return stars(4);
+        int hidden = pan.length() - PAN_VISIBLE_DIGITS;
+        char[] masked = new char[pan.length()];
+        Arrays.fill(masked, 0, hidden, '*');
+        pan.getChars(hidden, pan.length(), masked, hidden);
+        return new String(masked);
+    }
+
+    /**
+     * Last PAN_VISIBLE_DIGITS digits of the pan, stored in CARD_PAN_LAST4. Null for a shorter pan
+     */
+    public static String lastDigits(String pan) {
+        if (pan == null || pan.length() < PAN_VISIBLE_DIGITS) return null;
+        return pan.substring(pan.length() - PAN_VISIBLE_DIGITS);
     }
 
     public static String maskCvv(String cvv) {
-        if (cvv == null || cvv.isEmpty()) return "***";
-        return "*".repeat(cvv.length());
+        return maskCvv(cvv == null ? null : cvv.length());
+    }
+
+    public static String maskCvv(Integer cvvLength) {
+        if (cvvLength == null || cvvLength == 0) return stars(3);
+        return stars(cvvLength);
+    }
+
+    private static String stars(int length) {
+        return length < STARS.length ? STARS[length] : "*".repeat(length);
     }
 }
@@ -0,0 +1,88 @@
+package com.banking.system.cardservice.utils;
+
+import com.banking.system.cardservice.configs.PanFingerprintConfig;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keyed fingerprint of a PAN, HMAC-SHA256 with the card.pan-fingerprint.key, 32 bytes.
+ * Stored in CARD_PAN_FINGERPRINT: exact PAN lookups and the PAN uniqueness check compare fixed size values
+ * on a unique index, without reading the PAN. Without the key a fingerprint cannot be matched to a PAN by
+ * hashing every possible PAN.
+ *
+ * Initialized Macs are pooled, not kept per thread: requests run on virtual threads, a thread local Mac would be
+ * created for each one. The PAN chars are written to a reused buffer, no String or byte[] per call but the result
+ */
+@Component
+public class PanFingerprint {
+    public static final int LENGTH = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final Queue<Hmac> pool = new ConcurrentLinkedQueue<>();
+
+    public PanFingerprint(PanFingerprintConfig config) {
+        this.key = new SecretKeySpec(decodeKey(config.getKey()), ALGORITHM);
+        // fail on startup, not on the first card, when the key or algorithm is not usable
+        pool.offer(new Hmac(key));
+    }
+
+    /**
+     * @return 32 bytes fingerprint of the PAN chars (ASCII digits)
+     */
+    public byte[] of(CharSequence pan) {
+        Hmac hmac = pool.poll();
+        if (hmac == null) {
+            hmac = new Hmac(key);
+        }
+        try {
+            return hmac.digest(pan);
+        } finally {
+            pool.offer(hmac);
+        }
+    }
+
+    private static byte[] decodeKey(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("card.pan-fingerprint.key is required");
+        }
+        byte[] decoded = Base64.getDecoder().decode(key.trim());
+        if (decoded.length < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("card.pan-fingerprint.key must hold at least " + MIN_KEY_LENGTH + " bytes");
+        }
+        return decoded;
+    }
+
+    private static final class Hmac {
+        private final Mac mac;
+        private byte[] buffer = new byte[32];
+
+        Hmac(SecretKeySpec key) {
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+            }
+        }
+
+        byte[] digest(CharSequence pan) {
+            int length = pan.length();
+            if (buffer.length < length) {
+                buffer = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (byte) pan.charAt(i);
+            }
+            mac.update(buffer, 0, length);
+            return mac.doFinal();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.system.cardservice.utils;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Writes the card PAN and CVV of a CardDto. Shown (showSensitiveData not false) the value is written as is.
+ * Hidden, the mask is built in a char array local to the call and written with the generator char array API,
+ * no masked String is created. Masking a value that is already masked (stored masked pan) gives the same value
+ */
+public abstract class SensitiveValueSerializer extends JsonSerializer<String> {
+    private final int visibleChars;
+    private final int missingStars;
+
+    SensitiveValueSerializer(int visibleChars, int missingStars) {
+        this.visibleChars = visibleChars;
+        this.missingStars = missingStars;
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        if (!(generator.currentValue() instanceof CardDto card) || !card.isSensitiveDataHidden()) {
+            generator.writeString(value);
+            return;
+        }
+        // same masks as MaskSensitiveData.maskPan and maskCvv
+        boolean tooShort = value.length() < Math.max(visibleChars, 1);
+        int length = tooShort ? missingStars : value.length();
+        int visible = tooShort ? 0 : visibleChars;
+        char[] masked = new char[length];
+        Arrays.fill(masked, 0, length - visible, '*');
+        value.getChars(value.length() - visible, value.length(), masked, length - visible);
+        generator.writeString(masked, 0, length);
+    }
+
+    /**
+     * Last MaskSensitiveData.PAN_VISIBLE_DIGITS digits visible, 4 stars for a shorter pan
+     */
+    public static class Pan extends SensitiveValueSerializer {
+        public Pan() {
+            super(MaskSensitiveData.PAN_VISIBLE_DIGITS, 4);
+        }
+    }
+
+    /**
+     * Stars only, 3 for an empty cvv
+     */
+    public static class Cvv extends SensitiveValueSerializer {
+        public Cvv() {
+            super(0, 3);
+        }
+    }
+}
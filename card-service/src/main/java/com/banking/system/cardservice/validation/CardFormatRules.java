@@ -0,0 +1,183 @@
+package com.banking.system.cardservice.validation;
+
+import com.banking.system.cardservice.configs.CardFormatConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Card validation rules compiled from CardFormatConfig, immutable.
+ * A check is a single scan of the PAN and CVV chars, no regex and no allocation:
+ * digits, BIN prefix and Luhn sum are read in one pass, the scheme is then picked from the BIN ranges
+ * sorted longest prefix first
+ */
+public final class CardFormatRules {
+    public static final int MAX_PAN_LENGTH = 19;
+    static final int MAX_BIN_DIGITS = 8;
+    private static final int[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    private final boolean luhn;
+    private final int binDigits;
+    private final int[] rangeDigits;
+    private final int[] rangeLow;
+    private final int[] rangeHigh;
+    private final int[] rangeScheme;
+    private final int[] schemePanLengths;
+    private final int[] schemeCvvLength;
+
+    private CardFormatRules(boolean luhn, List<Range> ranges, int[] schemePanLengths, int[] schemeCvvLength) {
+        this.luhn = luhn;
+        this.schemePanLengths = schemePanLengths;
+        this.schemeCvvLength = schemeCvvLength;
+        ranges.sort(Comparator.comparingInt(Range::digits).reversed());
+        this.rangeDigits = ranges.stream().mapToInt(Range::digits).toArray();
+        this.rangeLow = ranges.stream().mapToInt(Range::low).toArray();
+        this.rangeHigh = ranges.stream().mapToInt(Range::high).toArray();
+        this.rangeScheme = ranges.stream().mapToInt(Range::scheme).toArray();
+        this.binDigits = ranges.isEmpty() ? 0 : rangeDigits[0];
+    }
+
+    /**
+     * @throws IllegalArgumentException on a malformed BIN range, PAN or CVV length, or without any scheme
+     */
+    public static CardFormatRules compile(CardFormatConfig config) {
+        Map<String, CardFormatConfig.Scheme> schemes = config.getSchemes();
+        if (schemes == null || schemes.isEmpty()) {
+            throw new IllegalArgumentException("card.validation.schemes: at least one card scheme is needed");
+        }
+        List<Range> ranges = new ArrayList<>();
+        int[] panLengths = new int[schemes.size()];
+        int[] cvvLength = new int[schemes.size()];
+
+        int scheme = 0;
+        for (Map.Entry<String, CardFormatConfig.Scheme> entry : schemes.entrySet()) {
+            String name = entry.getKey();
+            CardFormatConfig.Scheme rule = entry.getValue();
+            panLengths[scheme] = panLengths(name, rule.getPanLengths());
+            if (rule.getCvvLength() < 1 || rule.getCvvLength() > 9) {
+                throw new IllegalArgumentException("card.validation.schemes." + name + ".cvv-length must be 1 to 9");
+            }
+            cvvLength[scheme] = rule.getCvvLength();
+
+            if (rule.getBinRanges() == null || rule.getBinRanges().isEmpty()) {
+                ranges.add(new Range(0, 0, 0, scheme));
+            } else {
+                for (String binRange : rule.getBinRanges()) {
+                    ranges.add(Range.parse(name, binRange, scheme));
+                }
+            }
+            scheme++;
+        }
+        return new CardFormatRules(config.isLuhn(), ranges, panLengths, cvvLength);
+    }
+
+    /**
+     * @return the first violation, PAN before CVV, or null when both are valid
+     */
+    public CardFormatViolation check(CharSequence pan, CharSequence cvv) {
+        int length = pan.length();
+        if (length == 0 || length > MAX_PAN_LENGTH) {
+            return CardFormatViolation.PAN_FORMAT;
+        }
+
+        int bin = 0;
+        int luhnSum = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = pan.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return CardFormatViolation.PAN_FORMAT;
+            }
+            if (i < binDigits) {
+                bin = bin * 10 + digit;
+            }
+            // every second digit from the check digit (last) is doubled
+            if (((length - i) & 1) == 0) {
+                digit = digit < 5 ? digit * 2 : digit * 2 - 9;
+            }
+            luhnSum += digit;
+        }
+
+        int scheme = scheme(bin, Math.min(length, binDigits));
+        if (scheme < 0) {
+            return CardFormatViolation.PAN_SCHEME;
+        }
+        if ((schemePanLengths[scheme] & (1 << length)) == 0) {
+            return CardFormatViolation.PAN_FORMAT;
+        }
+        if (luhn && luhnSum % 10 != 0) {
+            return CardFormatViolation.PAN_CHECKSUM;
+        }
+        return allDigits(cvv, schemeCvvLength[scheme]) ? null : CardFormatViolation.CVV_FORMAT;
+    }
+
+    /**
+     * @param bin first read digits of the PAN, as a number
+     */
+    private int scheme(int bin, int read) {
+        for (int r = 0; r < rangeDigits.length; r++) {
+            int digits = rangeDigits[r];
+            if (digits > read) {
+                continue;
+            }
+            int prefix = bin / POW10[read - digits];
+            if (prefix >= rangeLow[r] && prefix <= rangeHigh[r]) {
+                return rangeScheme[r];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean allDigits(CharSequence value, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return bit n set when a PAN of n digits is accepted
+     */
+    private static int panLengths(String scheme, List<Integer> lengths) {
+        if (lengths == null || lengths.isEmpty()) {
+            return ((1 << (MAX_PAN_LENGTH + 1)) - 1) & ~1;
+        }
+        int mask = 0;
+        for (Integer length : lengths) {
+            if (length == null || length < 1 || length > MAX_PAN_LENGTH) {
+                throw new IllegalArgumentException("card.validation.schemes." + scheme
+                        + ".pan-lengths must be 1 to " + MAX_PAN_LENGTH + ", got " + length);
+            }
+            mask |= 1 << length;
+        }
+        return mask;
+    }
+
+    private record Range(int digits, int low, int high, int scheme) {
+        static Range parse(String schemeName, String range, int scheme) {
+            String[] bounds = range.trim().split("\\s*-\\s*", -1);
+            if (bounds.length > 2 || bounds[0].length() != bounds[bounds.length - 1].length()
+                    || bounds[0].isEmpty() || bounds[0].length() > MAX_BIN_DIGITS
+                    || !allDigits(bounds[0], bounds[0].length())
+                    || !allDigits(bounds[bounds.length - 1], bounds[0].length())) {
+                throw new IllegalArgumentException("card.validation.schemes." + schemeName
+                        + ".bin-ranges: invalid range '" + range + "', expected digits or digits-digits of the same length, up to "
+                        + MAX_BIN_DIGITS);
+            }
+            int low = Integer.parseInt(bounds[0]);
+            int high = Integer.parseInt(bounds[bounds.length - 1]);
+            if (low > high) {
+                throw new IllegalArgumentException("card.validation.schemes." + schemeName
+                        + ".bin-ranges: range '" + range + "' ends before it starts");
+            }
+            return new Range(bounds[0].length(), low, high, scheme);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.banking.system.cardservice.validation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Why a PAN/CVV pair was rejected, with the key of its message in messages.properties
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CardFormatViolation {
+    PAN_FORMAT("invalid.card.panformat"),
+    PAN_SCHEME("invalid.card.scheme"),
+    PAN_CHECKSUM("invalid.card.checksum"),
+    CVV_FORMAT("invalid.card.cvvformat");
+
+    private final String messageKey;
+}
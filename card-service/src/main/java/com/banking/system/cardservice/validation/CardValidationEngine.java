@@ -0,0 +1,101 @@
+package com.banking.system.cardservice.validation;
+
+import com.banking.system.cardservice.configs.CardFormatConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Validates the PAN and CVV of new cards against the card.validation rules.
+ *
+ * Rules are compiled once at startup, an invalid configuration fails the startup. When card.validation.rules-file
+ * is set, the rules are read from that file and recompiled when it changes on disk. No endpoint changes them.
+ * New rules are swapped in without a lock, a check in progress finishes on the rules it started with.
+ * An invalid change is logged and the previous rules are kept
+ */
+@Slf4j
+@Component
+public class CardValidationEngine {
+    static final String PREFIX = "card.validation";
+
+    private final Path rulesFile;
+    private FileTime rulesFileModified;
+    private volatile CardFormatRules rules;
+
+    public CardValidationEngine(CardFormatConfig cardFormatConfig) {
+        String file = cardFormatConfig.getRulesFile();
+        if (file == null || file.isBlank()) {
+            this.rulesFile = null;
+            this.rules = CardFormatRules.compile(cardFormatConfig);
+            return;
+        }
+        this.rulesFile = Path.of(file.trim());
+        try {
+            this.rulesFileModified = Files.getLastModifiedTime(rulesFile);
+            this.rules = CardFormatRules.compile(load(rulesFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Card validation rules file " + rulesFile + " not readable", e);
+        }
+    }
+
+    /**
+     * @return the first violation, or null when the PAN and CVV are valid
+     */
+    public CardFormatViolation validate(CharSequence pan, CharSequence cvv) {
+        return rules.check(pan, cvv);
+    }
+
+    /**
+     * @return true when the value is a full PAN of a configured scheme (length, BIN range, Luhn)
+     */
+    public boolean isPan(CharSequence value) {
+        // an empty CVV never has a scheme CVV length: CVV_FORMAT means the PAN checks passed
+        CardFormatViolation violation = rules.check(value, "");
+        return violation == null || violation == CardFormatViolation.CVV_FORMAT;
+    }
+
+    /**
+     * Recompiles the rules when the rules file was modified since it was last read
+     */
+    @Scheduled(initialDelayString = "${card.validation.rules-file-check-interval:30s}",
+            fixedDelayString = "${card.validation.rules-file-check-interval:30s}")
+    public void reloadRulesFile() {
+        if (rulesFile == null) return;
+        try {
+            FileTime modified = Files.getLastModifiedTime(rulesFile);
+            if (modified.equals(rulesFileModified)) return;
+            // an invalid file is reported once, not on every check
+            rulesFileModified = modified;
+            CardFormatConfig config = load(rulesFile);
+            rules = CardFormatRules.compile(config);
+            log.info("Card validation rules reloaded from {}, schemes {}", rulesFile, config.getSchemes().keySet());
+        } catch (IOException | RuntimeException e) {
+            log.error("Invalid card validation rules file {}, keeping the previous rules", rulesFile, e);
+        }
+    }
+
+    /**
+     * Binds the card.validation properties of the file, YAML unless it ends with .properties
+     */
+    private static CardFormatConfig load(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        PropertySourceLoader loader = name.endsWith(".properties")
+                ? new PropertiesPropertySourceLoader() : new YamlPropertySourceLoader();
+        List<PropertySource<?>> sources = loader.load(name, new FileSystemResource(file));
+        return new Binder(ConfigurationPropertySources.from(sources)).bindOrCreate(PREFIX, CardFormatConfig.class);
+    }
+}
@@ -1,10 +1,14 @@
 package com.banking.system.cardservice.controllers;
 
 import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import com.banking.system.cardservice.dtos.UpdateCardDto;
 import com.banking.system.cardservice.enums.CardType;
 import com.banking.system.cardservice.models.Card;
 import com.banking.system.cardservice.services.CardService;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,9 +17,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -101,6 +108,44 @@ class CardControllerTest {
         assertEquals(cardAlias, response.getBody().getContent().get(0).getCardAlias());
     }
 
+    @Test
+    void findAllCards_WithoutTotal() {
+        SlicePage<CardDto> expectedPage = new SlicePage<>(List.of(fetchCardDto), page, size, false);
+        when(cardService.getAllCardsWithoutTotal(page, size, 1L, null, null, null, false))
+                .thenReturn(expectedPage);
+
+        ResponseEntity<SlicePage<CardDto>> response = cardController.findAllWithoutTotal(page, size, 1L, null, null, null, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.getBody().isHasNext());
+        assertEquals(fetchCardDto, response.getBody().getContent().get(0));
+    }
+
+    @Test
+    void findAllCards_CursorMode() {
+        CursorPage<CardDto> expectedPage = new CursorPage<>(List.of(fetchCardDto), null, size);
+        when(cardService.getAllCards("", size, 1L, null, null, null, false))
+                .thenReturn(expectedPage);
+
+        ResponseEntity<CursorPage<CardDto>> response = cardController.findAllByCursor("", size, 1L, null, null, null, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody().getNextCursor());
+        assertEquals(fetchCardDto, response.getBody().getContent().get(0));
+    }
+
+    @Test
+    void searchByPanLast4_CursorPage() {
+        CursorPage<CardDto> expectedPage = new CursorPage<>(List.of(fetchCardDto), null, size);
+        when(cardService.searchByPanLast4("9383", null, size, null, CardType.PHYSICAL, false))
+                .thenReturn(expectedPage);
+
+        ResponseEntity<CursorPage<CardDto>> response = cardController.searchByPanLast4("9383", null, size, null, CardType.PHYSICAL, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(fetchCardDto, response.getBody().getContent().get(0));
+    }
+
     @Test
     void getCardById_ExistingId() {
         Long cardId = 1L;
@@ -108,13 +153,27 @@ class CardControllerTest {
 
         when(cardService.getCardById(cardId, showSensitiveData)).thenReturn(fetchCardDto);
 
-        ResponseEntity<CardDto> response = cardController.getCardById(cardId, showSensitiveData);
+        ResponseEntity<CardDto> response = cardController.getCardById(cardId, showSensitiveData, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(fetchCardDto, response.getBody());
         verify(cardService).getCardById(cardId, showSensitiveData);
     }
 
+    @Test
+    void getCardById_ETagDependsOnRepresentation() {
+        when(cardService.getCardVersion(1L)).thenReturn(2L);
+        fetchCardDto.setVersion(2L);
+        when(cardService.getCardById(1L, true)).thenReturn(fetchCardDto);
+
+        ResponseEntity<CardDto> masked = cardController.getCardById(1L, false, "\"2\"");
+        ResponseEntity<CardDto> clear = cardController.getCardById(1L, true, "\"2\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, masked.getStatusCode());
+        assertEquals(HttpStatus.OK, clear.getStatusCode());
+        assertEquals("\"2-full\"", clear.getHeaders().getETag());
+    }
+
     @Test
     void updateCard_ValidInput() {
         Long cardId = 1L;
@@ -125,14 +184,27 @@ class CardControllerTest {
         updatedDto.setCardId(cardId);
         updatedDto.setCardAlias("Learning card");
 
-        when(cardService.updateCardDetails(cardId, updateDto)).thenReturn(updatedDto);
+        when(cardService.updateCardDetails(cardId, updateDto, null)).thenReturn(updatedDto);
 
-        ResponseEntity<CardDto> response = cardController.update(updateDto, cardId);
+        ResponseEntity<CardDto> response = cardController.update(updateDto, cardId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedDto, response.getBody());
         assertEquals("Learning card", response.getBody().getCardAlias());
-        verify(cardService).updateCardDetails(cardId, updateDto);
+        verify(cardService).updateCardDetails(cardId, updateDto, null);
+    }
+
+    @Test
+    void updateCard_IfMatch_PassesExpectedVersion() {
+        UpdateCardDto updateDto = new UpdateCardDto();
+        updateDto.setCardAlias("Learning card");
+        CardDto updatedDto = new CardDto();
+        updatedDto.setVersion(6L);
+        when(cardService.updateCardDetails(1L, updateDto, 5L)).thenReturn(updatedDto);
+
+        ResponseEntity<CardDto> response = cardController.update(updateDto, 1L, "\"5-full\"");
+
+        assertEquals("\"6\"", response.getHeaders().getETag());
     }
 
     @Test
@@ -160,4 +232,28 @@ class CardControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void export_StreamsCardsAsAttachment() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = cardController.export(ExportFormat.NDJSON, 1L, null, null, CardType.VIRTUAL);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", String.valueOf(response.getHeaders().getContentType()));
+        assertEquals("attachment; filename=\"cards.ndjson\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(cardService).exportCards(ExportFormat.NDJSON, 1L, null, null, CardType.VIRTUAL, out);
+    }
+
+    @Test
+    void getCardLinks() {
+        List<CardLinkDto> links = List.of(new CardLinkDto(1L, "Shopping card", 1L));
+        when(cardService.getCardLinks(0L, 1000)).thenReturn(links);
+
+        ResponseEntity<List<CardLinkDto>> response = cardController.getCardLinks(0L, 1000);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(links, response.getBody());
+    }
+}
@@ -0,0 +1,138 @@
+package com.banking.system.cardservice.feign;
+
+import com.banking.system.cardservice.configs.AccountLookupConfig;
+import com.banking.system.cardservice.dtos.AccountDto;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class AccountLookupCoalescerTest {
+    private AccountServiceFeign accountServiceFeign;
+    private AccountLookupConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountLookupCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        accountServiceFeign = mock(AccountServiceFeign.class);
+        config = new AccountLookupConfig();
+        config.setBatchWindow(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        coalescer = new AccountLookupCoalescer(accountServiceFeign, config, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void getAccountById_ConcurrentLookupsOfSameAccount_OneDownstreamCall() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(accountServiceFeign.getAccountById(1L)).thenAnswer(invocation -> {
+            called.countDown();
+            release.await();
+            return new AccountDto(1L);
+        });
+
+        List<Optional<AccountDto>> results = Collections.synchronizedList(new ArrayList<>());
+        Thread leader = Thread.ofVirtual().start(() -> results.add(coalescer.getAccountById(1L)));
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            followers.add(Thread.ofVirtual().start(() -> results.add(coalescer.getAccountById(1L))));
+        }
+        while (meterRegistry.counter("account.lookup.requests").count() < 10) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        leader.join();
+        for (Thread follower : followers) follower.join();
+
+        assertEquals(10, results.size());
+        assertTrue(results.stream().allMatch(result -> result.orElseThrow().getAccountId() == 1L));
+        verify(accountServiceFeign, times(1)).getAccountById(1L);
+        assertEquals(1, meterRegistry.counter("account.lookup.downstream.calls").count());
+        assertEquals(9, meterRegistry.counter("account.lookup.calls.saved").count());
+        assertEquals(10.0, meterRegistry.get("account.lookup.coalescing.ratio").gauge().value());
+    }
+
+    @Test
+    void getAccountById_LookupsWithinWindow_SentAsOneMultiGet() throws Exception {
+        config.setBatchWindow(Duration.ofMillis(200));
+        when(accountServiceFeign.getAccountsByIds(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .stream().filter(accountId -> accountId != 3L).map(AccountDto::new).toList());
+
+        Map<Long, Optional<AccountDto>> results = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (long accountId = 1; accountId <= 5; accountId++) {
+            long id = accountId;
+            threads.add(Thread.ofVirtual().start(() -> results.put(id, coalescer.getAccountById(id))));
+        }
+        for (Thread thread : threads) thread.join();
+
+        verify(accountServiceFeign, times(1)).getAccountsByIds(argThat(ids -> ids.size() == 5));
+        verify(accountServiceFeign, never()).getAccountById(anyLong());
+        assertTrue(results.get(3L).isEmpty());
+        assertEquals(2L, results.get(2L).orElseThrow().getAccountId());
+        assertEquals(4, meterRegistry.counter("account.lookup.calls.saved").count());
+    }
+
+    @Test
+    void getAccountById_FullBatch_SentBeforeWindowEnds() {
+        config.setBatchWindow(Duration.ofSeconds(30));
+        config.setMaxBatchSize(1);
+        when(accountServiceFeign.getAccountById(1L)).thenReturn(new AccountDto(1L));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> coalescer.getAccountById(1L));
+    }
+
+    @Test
+    void getAccountById_UnknownAccount_Empty() {
+        when(accountServiceFeign.getAccountById(9L)).thenThrow(FeignException.errorStatus("getAccountById", response(400)));
+
+        assertTrue(coalescer.getAccountById(9L).isEmpty());
+    }
+
+    @Test
+    void getAccountById_AccountServiceDown_Throws() {
+        when(accountServiceFeign.getAccountById(1L)).thenThrow(FeignException.errorStatus("getAccountById", response(503)));
+
+        assertThrows(FeignException.class, () -> coalescer.getAccountById(1L));
+    }
+
+    @Test
+    void getAccountById_CompletedLookup_NotCached() {
+        when(accountServiceFeign.getAccountById(1L)).thenReturn(new AccountDto(1L));
+
+        coalescer.getAccountById(1L);
+        coalescer.getAccountById(1L);
+
+        verify(accountServiceFeign, times(2)).getAccountById(1L);
+    }
+
+    private static Response response(int status) {
+        Request request = Request.create(Request.HttpMethod.GET, "/accounts/1", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        return Response.builder().status(status).request(request).headers(Collections.emptyMap()).build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.banking.system.cardservice.repositories;
+
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom.PanColumns;
+import com.banking.system.cardservice.specifications.CardSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batched backfill of the pan derived columns and their NOT NULL constraints, and the exact pan filter of the
+ * cards not filled yet, on an in-memory database
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class CardRepositoryPanColumnsTest {
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void setPanColumnsThenRequirePanColumns() {
+        Card first = cardRepository.save(card(0L, "4646557784849383"));
+        Card second = cardRepository.save(card(1L, "4111111111111111"));
+        entityManager.flush();
+        entityManager.clear();
+
+        int updated = cardRepository.setPanColumns(List.of(
+                new PanColumns(first.getCardId(), new byte[]{1}, "9383", "************9383"),
+                new PanColumns(second.getCardId(), new byte[]{2}, "1111", "************1111")));
+
+        assertEquals(2, updated);
+        Card filled = entityManager.find(Card.class, second.getCardId());
+        assertArrayEquals(new byte[]{2}, filled.getPanFingerprint());
+        assertEquals("1111", filled.getPanLast4());
+        assertEquals("************1111", filled.getPanMasked());
+        assertEquals(second.getVersion(), filled.getVersion());
+        assertEquals(3, nullablePanColumns());
+
+        cardRepository.requirePanColumns();
+        assertEquals(0, nullablePanColumns());
+        // already NOT NULL, nothing altered
+        assertDoesNotThrow(() -> cardRepository.requirePanColumns());
+    }
+
+    @Test
+    void exactPanFilter_CardWithoutFingerprintMatchedByPanUntilFingerprintsComplete() {
+        Card card = cardRepository.save(card(0L, "4646557784849383"));
+        entityManager.flush();
+        entityManager.clear();
+        byte[] fingerprint = {1};
+
+        List<Card> beforeBackfill = cardRepository.findAll(
+                CardSpecification.filterCardDetails("4646557784849383", fingerprint, false, null, null, null));
+        List<Card> afterBackfill = cardRepository.findAll(
+                CardSpecification.filterCardDetails("4646557784849383", fingerprint, true, null, null, null));
+
+        assertEquals(List.of(card.getCardId()), beforeBackfill.stream().map(Card::getCardId).toList());
+        assertTrue(afterBackfill.isEmpty());
+    }
+
+    private int nullablePanColumns() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.columns" +
+                " WHERE upper(table_name) = 'BANK_CARDS' AND upper(column_name) IN" +
+                " ('CARD_PAN_FINGERPRINT', 'CARD_PAN_LAST4', 'CARD_PAN_MASKED') AND is_nullable = 'YES'", Integer.class);
+    }
+
+    private static Card card(Long accountId, String pan) {
+        return Card.builder()
+                .accountId(accountId)
+                .cardType(CardType.PHYSICAL)
+                .pan(pan)
+                .cvv("123")
+                .cardAlias("Card " + accountId)
+                .build();
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Card.class)
+    @EnableJpaRepositories(basePackageClasses = CardRepository.class)
+    static class PanColumnsConfig {
+    }
+}
@@ -0,0 +1,120 @@
+package com.banking.system.cardservice.repositories;
+
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom.PanColumns;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom.PartialUpdate;
+import com.banking.system.common.database.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The partial update statement (UPDATE ... FROM ... FOR UPDATE ... RETURNING) and the pan columns constraint
+ * check on an embedded postgres, H2 does not run the first and folds identifiers the other way
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CardRepositoryPostgresTest {
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Card card;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        card = cardRepository.save(Card.builder()
+                .accountId(3L)
+                .cardType(CardType.PHYSICAL)
+                .pan("4646557784849383")
+                .panFingerprint(new byte[]{1})
+                .panLast4("9383")
+                .panMasked("************9383")
+                .cvv("123")
+                .cardAlias("Learning card")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void updatePartially_ReturnsTheNewRowAndThePreviousAlias() {
+        PartialUpdate update = cardRepository.updatePartially(card.getCardId(), null, "Travel card").orElseThrow();
+
+        assertEquals("Learning card", update.previousAlias());
+        Card updated = update.card();
+        assertEquals(card.getCardId(), updated.getCardId());
+        assertEquals("Travel card", updated.getCardAlias());
+        assertEquals(3L, updated.getAccountId());
+        assertEquals(CardType.PHYSICAL, updated.getCardType());
+        assertEquals("************9383", updated.getPanMasked());
+        assertEquals(card.getVersion() + 1, updated.getVersion());
+        Card stored = entityManager.find(Card.class, card.getCardId());
+        assertEquals("Travel card", stored.getCardAlias());
+        assertEquals(stored.getCreatedAt(), updated.getCreatedAt());
+    }
+
+    @Test
+    void updatePartially_ExpectedVersion_UpdatedOnlyAtThatVersion() {
+        assertTrue(cardRepository.updatePartially(card.getCardId(), card.getVersion() + 1, "Travel card").isEmpty());
+        assertEquals("Learning card", entityManager.find(Card.class, card.getCardId()).getCardAlias());
+        entityManager.clear();
+
+        PartialUpdate update = cardRepository.updatePartially(card.getCardId(), card.getVersion(), "Travel card")
+                .orElseThrow();
+
+        assertEquals("Travel card", update.card().getCardAlias());
+    }
+
+    @Test
+    void updatePartially_UnknownId_Empty() {
+        assertTrue(cardRepository.updatePartially(card.getCardId() + 1000, null, "Travel card").isEmpty());
+    }
+
+    @Test
+    void setPanColumnsThenRequirePanColumns() {
+        assertEquals(1, cardRepository.setPanColumns(List.of(
+                new PanColumns(card.getCardId(), new byte[]{2}, "9383", "************9383"))));
+        assertEquals(3, nullablePanColumns());
+
+        cardRepository.requirePanColumns();
+
+        assertEquals(0, nullablePanColumns());
+    }
+
+    private int nullablePanColumns() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.columns" +
+                " WHERE table_name = 'bank_cards' AND column_name IN" +
+                " ('card_pan_fingerprint', 'card_pan_last4', 'card_pan_masked') AND is_nullable = 'YES'", Integer.class);
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Card.class)
+    @EnableJpaRepositories(basePackageClasses = CardRepository.class)
+    static class PostgresConfig {
+    }
+}
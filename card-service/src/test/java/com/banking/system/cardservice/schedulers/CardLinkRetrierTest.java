@@ -0,0 +1,91 @@
+package com.banking.system.cardservice.schedulers;
+
+import com.banking.system.cardservice.dtos.CardLinkDto;
+import com.banking.system.cardservice.feign.AccountServiceFeign;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.models.CardLinkRetry;
+import com.banking.system.cardservice.repositories.CardLinkRetryRepository;
+import com.banking.system.cardservice.repositories.CardRepository;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardLinkRetrierTest {
+    private CardLinkRetryRepository cardLinkRetryRepository;
+    private CardRepository cardRepository;
+    private AccountServiceFeign accountServiceFeign;
+    private CardLinkRetrier retrier;
+
+    @BeforeEach
+    void setUp() {
+        cardLinkRetryRepository = mock(CardLinkRetryRepository.class);
+        cardRepository = mock(CardRepository.class);
+        accountServiceFeign = mock(AccountServiceFeign.class);
+        retrier = new CardLinkRetrier(cardLinkRetryRepository, cardRepository, accountServiceFeign, 3);
+    }
+
+    @Test
+    void retry_SendsTheCurrentStateOncePerCard() {
+        when(cardLinkRetryRepository.findAllByOrderByRetryId(Limit.of(3)))
+                .thenReturn(List.of(retry(1L, 5L, 1L), retry(2L, 6L, 2L), retry(3L, 5L, 1L)))
+                .thenReturn(Collections.emptyList());
+        when(cardRepository.findById(5L)).thenReturn(Optional.of(Card.builder()
+                .cardId(5L).accountId(1L).cardAlias("Shopping card").build()));
+        when(cardRepository.findById(6L)).thenReturn(Optional.empty());
+
+        assertEquals(2, retrier.retry());
+
+        verify(accountServiceFeign).linkCard(eq(1L), eq(5L), argThat((CardLinkDto link) ->
+                "Shopping card".equals(link.getCardAlias())));
+        verify(accountServiceFeign).unlinkCard(2L, 6L);
+        verify(cardLinkRetryRepository).deleteSent(5L, 3L);
+        verify(cardLinkRetryRepository).deleteSent(6L, 2L);
+    }
+
+    @Test
+    void scheduledRetry_AccountServiceDown_RowsKept() {
+        when(cardLinkRetryRepository.findAllByOrderByRetryId(Limit.of(3))).thenReturn(List.of(retry(1L, 6L, 2L)));
+        when(cardRepository.findById(6L)).thenReturn(Optional.empty());
+        doThrow(accountServiceError(503)).when(accountServiceFeign).unlinkCard(2L, 6L);
+
+        assertDoesNotThrow(() -> retrier.scheduledRetry());
+        verify(cardLinkRetryRepository, never()).deleteSent(anyLong(), anyLong());
+    }
+
+    @Test
+    void retry_RejectedByAccountService_Dropped() {
+        when(cardLinkRetryRepository.findAllByOrderByRetryId(Limit.of(3)))
+                .thenReturn(List.of(retry(1L, 5L, 9L)))
+                .thenReturn(Collections.emptyList());
+        when(cardRepository.findById(5L)).thenReturn(Optional.of(Card.builder().cardId(5L).accountId(9L).build()));
+        doThrow(accountServiceError(404)).when(accountServiceFeign).linkCard(any(), any(), any());
+
+        assertEquals(1, retrier.retry());
+        verify(cardLinkRetryRepository).deleteSent(5L, 1L);
+    }
+
+    private static CardLinkRetry retry(Long retryId, Long cardId, Long accountId) {
+        return new CardLinkRetry(retryId, cardId, accountId, null);
+    }
+
+    private static FeignException accountServiceError(int status) {
+        Request request = Request.create(Request.HttpMethod.PUT, "/accounts", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("linkCard",
+                feign.Response.builder().status(status).request(request).headers(Collections.emptyMap()).build());
+    }
+}
@@ -0,0 +1,122 @@
+package com.banking.system.cardservice.schedulers;
+
+import com.banking.system.cardservice.configs.PanFingerprintConfig;
+import com.banking.system.cardservice.models.CardPanView;
+import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom.PanColumns;
+import com.banking.system.cardservice.utils.PanFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardPanBackfillTest {
+    private CardRepository cardRepository;
+    private PanFingerprint panFingerprint;
+    private TransactionTemplate transactionTemplate;
+    private CardPanBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository = mock(CardRepository.class);
+        PanFingerprintConfig config = new PanFingerprintConfig();
+        config.setKey("c2VjcmV0LWtleS1vZi10aGUtY2FyZC1zZXJ2aWNlLXRlc3Rz");
+        config.setBackfillBatchSize(2);
+        panFingerprint = new PanFingerprint(config);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(cardRepository.setPanColumns(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        backfill = new CardPanBackfill(cardRepository, panFingerprint, transactionTemplate, config);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfill_BatchesInCardIdOrder_OneJdbcBatchAndTransactionPerBatch() {
+        when(cardRepository.findPanBackfillBatch(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(card(1L, "4646557784849383"), card(3L, "4111111111111111")));
+        when(cardRepository.findPanBackfillBatch(eq(3L), any(Limit.class)))
+                .thenReturn(List.of(card(7L, "5555555555554444")));
+
+        assertEquals(3, backfill.backfill());
+
+        ArgumentCaptor<List<PanColumns>> batches = ArgumentCaptor.forClass(List.class);
+        verify(cardRepository, times(2)).setPanColumns(batches.capture());
+        List<PanColumns> first = batches.getAllValues().get(0);
+        assertEquals(List.of(1L, 3L), first.stream().map(PanColumns::cardId).toList());
+        assertArrayEquals(panFingerprint.of("4646557784849383"), first.get(0).panFingerprint());
+        assertEquals("9383", first.get(0).panLast4());
+        assertEquals("************9383", first.get(0).panMasked());
+        assertArrayEquals(panFingerprint.of("4111111111111111"), first.get(1).panFingerprint());
+        PanColumns last = batches.getAllValues().get(1).get(0);
+        assertEquals(7L, last.cardId());
+        assertArrayEquals(panFingerprint.of("5555555555554444"), last.panFingerprint());
+        assertEquals("4444", last.panLast4());
+        assertEquals("************4444", last.panMasked());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void run_ColumnsRequiredOnceFilled() {
+        when(cardRepository.findPanBackfillBatch(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(card(1L, "4646557784849383")));
+
+        assertFalse(backfill.isCompleted());
+        backfill.run();
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).setPanColumns(anyList());
+        inOrder.verify(cardRepository).requirePanColumns();
+        assertTrue(backfill.isCompleted());
+    }
+
+    @Test
+    void run_BackfillFails_ColumnsLeftNullable() {
+        when(cardRepository.findPanBackfillBatch(eq(0L), any(Limit.class)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertDoesNotThrow(backfill::run);
+
+        verify(cardRepository, never()).requirePanColumns();
+        assertFalse(backfill.isCompleted());
+    }
+
+    @Test
+    void backfill_NothingLeft_SingleQuery() {
+        when(cardRepository.findPanBackfillBatch(eq(0L), any(Limit.class)))
+                .thenReturn(List.of());
+
+        assertEquals(0, backfill.backfill());
+
+        verify(cardRepository, times(1)).findPanBackfillBatch(anyLong(), any(Limit.class));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    private static CardPanView card(Long cardId, String pan) {
+        return new CardPanView() {
+            @Override
+            public Long getCardId() {
+                return cardId;
+            }
+
+            @Override
+            public String getPan() {
+                return pan;
+            }
+        };
+    }
+}
@@ -1,13 +1,31 @@
 package com.banking.system.cardservice.services;
 
 import com.banking.system.cardservice.configs.CardFormatConfig;
+import com.banking.system.cardservice.configs.PanFingerprintConfig;
 import com.banking.system.cardservice.dtos.AccountDto;
 import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
 import com.banking.system.cardservice.dtos.UpdateCardDto;
 import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.feign.AccountLookupCoalescer;
 import com.banking.system.cardservice.feign.AccountServiceFeign;
+import com.banking.system.cardservice.indexes.CardKeyFilter;
+import com.banking.system.cardservice.mappers.CardMapper;
 import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.models.CardKeyView;
+import com.banking.system.cardservice.repositories.CardLinkRetryRepository;
 import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.cardservice.schedulers.CardPanBackfill;
+import com.banking.system.cardservice.repositories.CardRepositoryCustom;
+import com.banking.system.cardservice.utils.PanFingerprint;
+import com.banking.system.cardservice.validation.CardValidationEngine;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.exceptions.PreconditionFailedException;
+import com.banking.system.common.utils.CursorCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.aspectj.util.Reflection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,18 +33,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.platform.commons.util.ReflectionUtils;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.context.MessageSource;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,11 +71,35 @@ class CardServiceImplTest {
     @Mock
     private AccountServiceFeign accountServiceFeign;
 
+    @Mock
+    private AccountLookupCoalescer accountLookup;
+
+    @Mock
+    private CardLinkRetryRepository cardLinkRetryRepository;
+
+    /**
+     * Not completed: the pan column is queried too, unless a test completes it
+     */
+    @Mock
+    private CardPanBackfill cardPanBackfill;
+
     @InjectMocks
     private CardServiceImpl cardService;
 
-    @Mock
-    private CardFormatConfig cardFormatConfig;
+    @Spy
+    private CardValidationEngine cardValidation = new CardValidationEngine(visaConfig());
+
+    /**
+     * Not built: every key is possibly used and queried, unless a test builds it
+     */
+    @Spy
+    private CardKeyFilter cardKeyFilter = new CardKeyFilter(null, mock(ObjectProvider.class), true, 16);
+
+    @Spy
+    private PanFingerprint panFingerprint = new PanFingerprint(fingerprintConfig());
+
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
 
     private CardDto createCardDto;
     private CardDto fetchCardDto;
@@ -67,29 +118,57 @@ class CardServiceImplTest {
         savedCard = new Card();
             savedCard.setCardId(1L);
             savedCard.setPan("4646557784849383");
+            savedCard.setPanFingerprint(panFingerprint.of("4646557784849383"));
+        clearInvocations(panFingerprint);
             savedCard.setCardType(CardType.PHYSICAL);
-
-        lenient().when(cardFormatConfig.getPanFormat()).thenReturn("\\d{16}");
-        lenient().when(cardFormatConfig.getCvvFormat()).thenReturn("\\d{3}");
     }
 
     @Test
     void saveCard_ValidInput() {
-        when(accountServiceFeign.getAccountById(1L)).thenReturn(new AccountDto());
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
         when(cardRepository.existsByAccountIdAndCardType(anyLong(), any())).thenReturn(false);
-        when(cardRepository.existsByPan(anyString())).thenReturn(false);
+        when(cardRepository.existsByPanFingerprint(any())).thenReturn(false);
         when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
 
         CardDto result = cardService.saveCard(createCardDto);
 
         assertNotNull(result);
         assertEquals(1L, result.getCardId());
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).save(argThat(card -> Arrays.equals(panFingerprint.of("4646557784849383"), card.getPanFingerprint())
+                && "9383".equals(card.getPanLast4()) && "************9383".equals(card.getPanMasked())));
+        verify(accountServiceFeign).linkCard(any(), eq(1L), any(CardLinkDto.class));
+    }
+
+    @Test
+    void saveCard_AliasSyncFailureDoesNotFailSave() {
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.existsByAccountIdAndCardType(anyLong(), any())).thenReturn(false);
+        when(cardRepository.existsByPanFingerprint(any())).thenReturn(false);
+        when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+        doThrow(new RuntimeException()).when(accountServiceFeign).linkCard(any(), any(), any());
+
+        CardDto result = cardService.saveCard(createCardDto);
+
+        assertEquals(1L, result.getCardId());
+        verify(cardLinkRetryRepository).save(argThat(retry -> retry.getCardId() == 1L));
+    }
+
+    @Test
+    void saveCard_RetryNotRecorded_SaveNotFailed() {
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.existsByAccountIdAndCardType(anyLong(), any())).thenReturn(false);
+        when(cardRepository.existsByPanFingerprint(any())).thenReturn(false);
+        when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+        doThrow(new RuntimeException()).when(accountServiceFeign).linkCard(any(), any(), any());
+        when(cardLinkRetryRepository.save(any())).thenThrow(new RuntimeException());
+
+        assertEquals(1L, cardService.saveCard(createCardDto).getCardId());
     }
 
     @Test
     void saveCard_InvalidPan() {
         createCardDto.setPan("invalid");
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
 
         when(messageSource.getMessage(eq("invalid.card.panformat"), isNull(), any()))
                 .thenReturn("Invalid PAN format");
@@ -103,7 +182,7 @@ class CardServiceImplTest {
     void saveCard_AccountDoesNotExist() {
         createCardDto.setAccountId(999L);
 
-        when(accountServiceFeign.getAccountById(999L)).thenThrow(new RuntimeException());
+        when(accountLookup.getAccountById(999L)).thenReturn(Optional.empty());
         when(messageSource.getMessage(eq("account.not.found"), any(), any()))
                 .thenReturn("Account not found");
 
@@ -116,9 +195,9 @@ class CardServiceImplTest {
     void getAllCards_WithFilters() {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Card> cardPage = new PageImpl<>(List.of(savedCard), pageable, 1);
+        Page<CardDto> cardPage = new PageImpl<>(List.of(CardMapper.toEntityDataHidden(savedCard, true)), pageable, 1);
 
-        when(cardRepository.findAll(any(Specification.class), eq(pageable)))
+        when(cardRepository.findAllAsDto(any(Specification.class), eq(pageable), eq(true)))
                 .thenReturn(cardPage);
 
         Page<CardDto> result = cardService.getAllCards(
@@ -126,16 +205,27 @@ class CardServiceImplTest {
 
         assertEquals(1, result.getTotalElements());
         assertEquals(CardType.PHYSICAL, result.getContent().get(0).getTypeOfCard());
-        verify(cardRepository).findAll(any(Specification.class), eq(pageable));
+        verify(cardRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getAllCards_FullPan_FingerprintLookup() {
+        when(cardRepository.findAllAsDto(any(Specification.class), any(Pageable.class), eq(false))).thenReturn(Page.empty());
+
+        cardService.getAllCards(page, size, null, null, "4646557784849383", null, false);
+        cardService.getAllCards(page, size, null, null, "464655778484", null, false);
+
+        verify(panFingerprint).of("4646557784849383");
+        verify(panFingerprint, never()).of("464655778484");
     }
 
     @Test
     void getAllCards_EmptyResult() {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Card> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+        Page<CardDto> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-        when(cardRepository.findAll(any(Specification.class), eq(pageable)))
+        when(cardRepository.findAllAsDto(any(Specification.class), eq(pageable), eq(false)))
                 .thenReturn(emptyPage);
 
         Page<CardDto> result = cardService.getAllCards(
@@ -145,6 +235,55 @@ class CardServiceImplTest {
         assertTrue(result.getContent().isEmpty());
     }
 
+    @Test
+    void getAllCards_WithoutTotal_NoCountQuery() {
+        Pageable pageable = PageRequest.of(page, size);
+        when(cardRepository.findSliceAsDto(any(Specification.class), eq(pageable), eq(false)))
+                .thenReturn(new SliceImpl<>(List.of(CardMapper.toEntityDataHidden(savedCard, false)), pageable, true));
+
+        SlicePage<CardDto> result = cardService.getAllCardsWithoutTotal(page, size, 1L, null, null, null, false);
+
+        assertTrue(result.isHasNext());
+        assertEquals(1, result.getContent().size());
+        verify(cardRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getAllCards_CursorMode_MaskedProjection() {
+        CardDto second = CardMapper.toEntityDataHidden(savedCard, false);
+        second.setCardId(2L);
+        when(cardRepository.findAfterAsDto(any(Specification.class), isNull(), eq(2), eq(false)))
+                .thenReturn(List.of(CardMapper.toEntityDataHidden(savedCard, false), second));
+
+        CursorPage<CardDto> result = cardService.getAllCards("", 1, 1L, null, null, null, false);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals("************9383", result.getContent().get(0).getPan());
+        assertEquals(1L, CursorCodec.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void searchByPanLast4_StoredMaskedPan() {
+        savedCard.setPanMasked("************9383");
+        when(cardRepository.findAfterAsDto(any(Specification.class), isNull(), eq(11), eq(false)))
+                .thenReturn(List.of(CardMapper.toEntityDataHidden(savedCard, false)));
+
+        CursorPage<CardDto> result = cardService.searchByPanLast4("9383", null, size, null, null, false);
+
+        assertEquals("************9383", result.getContent().get(0).getPan());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void searchByPanLast4_NotFourDigits() {
+        when(messageSource.getMessage(eq("invalid.pan.last4"), any(), any())).thenReturn("Invalid last PAN digits");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardService.searchByPanLast4("938", null, size, null, null, false));
+        assertEquals("Invalid last PAN digits", exception.getMessage());
+        verifyNoInteractions(cardRepository);
+    }
+
     @Test
     void getCardById_ExistingId() {
         Long cardId = 1L;
@@ -177,15 +316,77 @@ class CardServiceImplTest {
         UpdateCardDto updateDto = new UpdateCardDto();
         updateDto.setCardAlias("Learning card");
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(savedCard));
-        when(cardRepository.save(savedCard)).thenReturn(savedCard);
+        when(cardRepository.updatePartially(cardId, null, "Learning card"))
+                .thenReturn(Optional.of(new CardRepositoryCustom.PartialUpdate(savedCard, "Old card")));
 
         CardDto result = cardService.updateCardDetails(cardId, updateDto);
 
         assertNotNull(result);
         assertEquals(cardId, result.getCardId());
-        verify(cardRepository).findById(cardId);
-        verify(cardRepository).save(savedCard);
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).save(any());
+        verify(accountServiceFeign).linkCard(eq(savedCard.getAccountId()), eq(cardId), any());
+    }
+
+    @Test
+    void updateCardDetails_SameAlias_AccountNotCalled() {
+        UpdateCardDto updateDto = new UpdateCardDto();
+        updateDto.setCardAlias("Learning card");
+        when(cardRepository.updatePartially(1L, null, "Learning card"))
+                .thenReturn(Optional.of(new CardRepositoryCustom.PartialUpdate(savedCard, "Learning card")));
+
+        cardService.updateCardDetails(1L, updateDto);
+
+        verifyNoInteractions(accountServiceFeign);
+    }
+
+    @Test
+    void updateCardDetails_NoAlias_NoUpdateAndAccountNotCalled() {
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(savedCard));
+
+        CardDto result = cardService.updateCardDetails(1L, new UpdateCardDto());
+
+        assertEquals(1L, result.getCardId());
+        verify(cardRepository, never()).updatePartially(any(), any(), any());
+        verifyNoInteractions(accountServiceFeign);
+    }
+
+    @Test
+    void updateCardDetails_UnknownId_NotFoundFromRowCount() {
+        UpdateCardDto updateDto = new UpdateCardDto();
+        updateDto.setCardAlias("Learning card");
+        when(cardRepository.updatePartially(9L, null, "Learning card")).thenReturn(Optional.empty());
+        when(messageSource.getMessage(eq("card.not.found"), any(), any())).thenReturn("Card not found");
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.updateCardDetails(9L, updateDto));
+        verify(cardRepository, never()).findVersionByCardId(any());
+        verifyNoInteractions(accountServiceFeign);
+    }
+
+    @Test
+    void updateCardDetails_IfMatchCurrentVersion_SingleConditionalUpdate() {
+        UpdateCardDto updateDto = new UpdateCardDto();
+        updateDto.setCardAlias("Learning card");
+        when(cardRepository.updatePartially(1L, 0L, "Learning card"))
+                .thenReturn(Optional.of(new CardRepositoryCustom.PartialUpdate(savedCard, "Old card")));
+
+        CardDto result = cardService.updateCardDetails(1L, updateDto, 0L);
+
+        assertEquals(1L, result.getCardId());
+        verify(cardRepository, never()).save(any());
+        verify(accountServiceFeign).linkCard(eq(savedCard.getAccountId()), eq(1L), any());
+    }
+
+    @Test
+    void updateCardDetails_IfMatchStaleVersion_PreconditionFailed() {
+        UpdateCardDto updateDto = new UpdateCardDto();
+        updateDto.setCardAlias("Learning card");
+        when(cardRepository.updatePartially(1L, 0L, "Learning card")).thenReturn(Optional.empty());
+        when(cardRepository.findVersionByCardId(1L)).thenReturn(Optional.of(2L));
+        when(messageSource.getMessage(eq("card.version.mismatch"), any(), any())).thenReturn("modified");
+
+        assertThrows(PreconditionFailedException.class, () -> cardService.updateCardDetails(1L, updateDto, 0L));
+        verifyNoInteractions(accountServiceFeign);
     }
 
     @Test
@@ -193,13 +394,41 @@ class CardServiceImplTest {
         Long cardId = 1L;
 
         when(cardRepository.findById(cardId)).thenReturn(Optional.of(savedCard));
+        when(cardRepository.deleteByCardId(cardId)).thenReturn(1);
         when(messageSource.getMessage(eq("card.deletion.successful"), any(), any()))
                 .thenReturn("Card deleted successfully");
 
         String result = cardService.deleteCard(cardId);
 
         assertEquals("Card deleted successfully", result);
-        verify(cardRepository).delete(savedCard);
+        verify(cardRepository).deleteByCardId(cardId);
+        verify(accountServiceFeign).unlinkCard(savedCard.getAccountId(), cardId);
+        verifyNoInteractions(cardLinkRetryRepository);
+    }
+
+    @Test
+    void deleteCard_UnlinkFailure_RecordedForRetry() {
+        savedCard.setAccountId(3L);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(savedCard));
+        when(cardRepository.deleteByCardId(1L)).thenReturn(1);
+        doThrow(new RuntimeException()).when(accountServiceFeign).unlinkCard(3L, 1L);
+
+        cardService.deleteCard(1L);
+
+        verify(cardLinkRetryRepository).save(argThat(retry -> retry.getCardId() == 1L && retry.getAccountId() == 3L));
+    }
+
+    @Test
+    void deleteCard_DeletedMeanwhile_NoUnlinkAndKeysKept() {
+        savedCard.setAccountId(1L);
+        buildKeyFilter(cardKey(1L, 1L, "4646557784849383", CardType.PHYSICAL));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(savedCard));
+        when(cardRepository.deleteByCardId(1L)).thenReturn(0);
+
+        cardService.deleteCard(1L);
+
+        verifyNoInteractions(accountServiceFeign);
+        assertTrue(cardKeyFilter.panMightExist(panFingerprint.of("4646557784849383")));
     }
 
     @Test
@@ -214,10 +443,22 @@ class CardServiceImplTest {
         assertEquals("Invalid cvv format provided", exception.getMessage());
     }
 
+    @Test
+    void validateCardDetails_InvalidCheckDigit() {
+        createCardDto.setPan("4646557784849384");
+
+        when(messageSource.getMessage("invalid.card.checksum", null, null))
+                .thenReturn("Invalid pan, the check digit does not match.");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardService.validateCardDetails(createCardDto));
+        assertEquals("Invalid pan, the check digit does not match.", exception.getMessage());
+    }
+
     @Test
     void validateDataUniqueness_DuplicatePan_ShouldThrowException() {
-        when(accountServiceFeign.getAccountById(1L)).thenReturn(new AccountDto());
-        when(cardRepository.existsByPan("4646557784849383")).thenReturn(true);
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.existsByPanFingerprint(panFingerprint.of("4646557784849383"))).thenReturn(true);
         when(messageSource.getMessage(eq("card.pan.exist"), any(), any()))
                 .thenReturn("PAN already exists");
 
@@ -226,4 +467,186 @@ class CardServiceImplTest {
                 () -> cardService.saveCard(createCardDto));
         assertEquals("PAN already exists", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveCard_PanOfCardNotBackfilledYet_FoundByPanColumn() {
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.existsByPanFingerprint(panFingerprint.of("4646557784849383"))).thenReturn(false);
+        when(cardRepository.existsByPan("4646557784849383")).thenReturn(true);
+        when(messageSource.getMessage(eq("card.pan.exist"), any(), any())).thenReturn("PAN already exists");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardService.saveCard(createCardDto));
+        assertEquals("PAN already exists", exception.getMessage());
+    }
+
+    @Test
+    void saveCard_NotBackfilledPanUsedMeanwhile_UniqueConstraintReportedAsPan() {
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.save(any(Card.class))).thenThrow(new DataIntegrityViolationException("CARD_PAN_CODE"));
+        when(cardRepository.existsByPan("4646557784849383")).thenReturn(false, true);
+        when(messageSource.getMessage(eq("card.pan.exist"), any(), any())).thenReturn("PAN already exists");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardService.saveCard(createCardDto));
+        assertEquals("PAN already exists", exception.getMessage());
+    }
+
+    @Test
+    void saveCard_BackfillRunning_PanQueriedThoughNotInFilter() {
+        buildKeyFilter();
+        when(cardPanBackfill.isCompleted()).thenReturn(false);
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+
+        cardService.saveCard(createCardDto);
+
+        verify(cardRepository).existsByPanFingerprint(panFingerprint.of("4646557784849383"));
+        verify(cardRepository).existsByPan("4646557784849383");
+    }
+
+    @Test
+    void saveCard_BackfillCompleted_PanColumnNotQueried() {
+        when(cardPanBackfill.isCompleted()).thenReturn(true);
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+
+        cardService.saveCard(createCardDto);
+
+        verify(cardRepository).existsByPanFingerprint(panFingerprint.of("4646557784849383"));
+        verify(cardRepository, never()).existsByPan(any());
+    }
+
+    @Test
+    void saveCard_KeysNotInFilter_NoUniquenessQuery() {
+        buildKeyFilter(cardKey(2L, 2L, "4111111111111111", CardType.PHYSICAL));
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+
+        cardService.saveCard(createCardDto);
+
+        verify(cardRepository, never()).existsByPanFingerprint(any());
+        verify(cardRepository, never()).existsByAccountIdAndCardType(anyLong(), any());
+        assertTrue(cardKeyFilter.panMightExist(panFingerprint.of("4646557784849383")));
+    }
+
+    @Test
+    void saveCard_PanInFilter_OnlyPanQueried() {
+        buildKeyFilter(cardKey(2L, 2L, "4646557784849383", CardType.PHYSICAL));
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.existsByPanFingerprint(panFingerprint.of("4646557784849383"))).thenReturn(true);
+        when(messageSource.getMessage(eq("card.pan.exist"), any(), any())).thenReturn("PAN already exists");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardService.saveCard(createCardDto));
+        assertEquals("PAN already exists", exception.getMessage());
+        verify(cardRepository, never()).existsByAccountIdAndCardType(anyLong(), any());
+    }
+
+    @Test
+    void saveCard_KeyUsedByAnotherInstance_UniqueConstraint() {
+        buildKeyFilter();
+        when(accountLookup.getAccountById(1L)).thenReturn(Optional.of(new AccountDto()));
+        when(cardRepository.save(any(Card.class))).thenThrow(new DataIntegrityViolationException("CARD_ACC_ID, CARD_TYPE"));
+        when(cardRepository.existsByAccountIdAndCardType(1L, CardType.PHYSICAL)).thenReturn(true);
+        when(messageSource.getMessage(eq("account.type.exist"), any(), any())).thenReturn("Account already has this card type");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardService.saveCard(createCardDto));
+        assertEquals("Account already has this card type", exception.getMessage());
+        assertTrue(cardKeyFilter.accountCardTypeMightExist(1L, CardType.PHYSICAL));
+        verify(accountServiceFeign, never()).linkCard(any(), any(), any());
+    }
+
+    @Test
+    void deleteCard_KeysRemovedFromFilter() {
+        savedCard.setAccountId(1L);
+        buildKeyFilter(cardKey(1L, 1L, "4646557784849383", CardType.PHYSICAL));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(savedCard));
+        when(cardRepository.deleteByCardId(1L)).thenReturn(1);
+
+        cardService.deleteCard(1L);
+
+        assertFalse(cardKeyFilter.panMightExist(panFingerprint.of("4646557784849383")));
+        assertFalse(cardKeyFilter.accountCardTypeMightExist(1L, CardType.PHYSICAL));
+    }
+
+    @Test
+    void exportCards_AlwaysMasksSensitiveData() throws Exception {
+        savedCard.setCvv("123");
+        when(cardRepository.streamAll(any(Specification.class))).thenReturn(Stream.of(savedCard));
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+
+        cardService.exportCards(ExportFormat.NDJSON, 1L, null, null, null, ndjson);
+        when(cardRepository.streamAll(any(Specification.class))).thenReturn(Stream.of(savedCard));
+        cardService.exportCards(ExportFormat.CSV, 1L, null, null, null, csv);
+
+        CardDto exported = objectMapper.readValue(ndjson.toString(StandardCharsets.UTF_8).trim(), CardDto.class);
+        assertEquals("************9383", exported.getPan());
+        assertFalse(ndjson.toString(StandardCharsets.UTF_8).contains("4646557784849383"));
+        assertEquals("cardId,accountId,typeOfCard,pan,cvv,cardAlias\n1,,PHYSICAL,************9383,***,\n",
+                csv.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getCardLinks_KeysetPage() {
+        List<CardLinkDto> links = List.of(new CardLinkDto(6L, "Shopping card", 1L));
+        when(cardRepository.findCardLinks(5L, Limit.of(100))).thenReturn(links);
+
+        List<CardLinkDto> result = cardService.getCardLinks(5L, 100);
+
+        assertEquals(links, result);
+    }
+
+    /**
+     * Build the card key filter from the given existing cards, all of them backfilled
+     */
+    private void buildKeyFilter(CardKeyView... cards) {
+        lenient().when(cardPanBackfill.isCompleted()).thenReturn(true);
+        when(cardRepository.count()).thenReturn((long) cards.length);
+        when(cardRepository.findByCardIdGreaterThanOrderByCardId(eq(0L), any(Limit.class))).thenReturn(List.of(cards));
+        ReflectionTestUtils.setField(cardKeyFilter, "cardRepository", cardRepository);
+        cardKeyFilter.build();
+    }
+
+    private CardKeyView cardKey(Long cardId, Long accountId, String pan, CardType cardType) {
+        byte[] fingerprint = panFingerprint.of(pan);
+        return new CardKeyView() {
+            @Override
+            public Long getCardId() {
+                return cardId;
+            }
+
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public CardType getCardType() {
+                return cardType;
+            }
+
+            @Override
+            public byte[] getPanFingerprint() {
+                return fingerprint;
+            }
+        };
+    }
+
+    static PanFingerprintConfig fingerprintConfig() {
+        PanFingerprintConfig config = new PanFingerprintConfig();
+        config.setKey("c2VjcmV0LWtleS1vZi10aGUtY2FyZC1zZXJ2aWNlLXRlc3Rz");
+        return config;
+    }
+
+    private static CardFormatConfig visaConfig() {
+        CardFormatConfig.Scheme visa = new CardFormatConfig.Scheme();
+        visa.setBinRanges(List.of("4"));
+        visa.setPanLengths(List.of(16));
+        CardFormatConfig config = new CardFormatConfig();
+        config.getSchemes().put("visa", visa);
+        return config;
+    }
+}
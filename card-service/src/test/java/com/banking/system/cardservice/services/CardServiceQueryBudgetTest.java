@@ -0,0 +1,145 @@
+package com.banking.system.cardservice.services;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.dtos.CardLinkDto;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.feign.AccountLookupCoalescer;
+import com.banking.system.cardservice.feign.AccountServiceFeign;
+import com.banking.system.cardservice.indexes.CardKeyFilter;
+import com.banking.system.cardservice.models.Card;
+import com.banking.system.cardservice.repositories.CardLinkRetryRepository;
+import com.banking.system.cardservice.repositories.CardRepository;
+import com.banking.system.cardservice.schedulers.CardPanBackfill;
+import com.banking.system.cardservice.utils.PanFingerprint;
+import com.banking.system.cardservice.validation.CardValidationEngine;
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import com.banking.system.common.diagnostics.QueryBudget;
+import com.banking.system.common.diagnostics.SqlDataSourceProxy;
+import com.banking.system.common.diagnostics.SqlStatementListener;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statement budgets of the card read paths on an in-memory database, a list must not turn into
+ * one query per row
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class CardServiceQueryBudgetTest {
+    private static final int CARDS = 30;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final PanFingerprint panFingerprint = new PanFingerprint(CardServiceImplTest.fingerprintConfig());
+    private final CardValidationEngine cardValidation = mock(CardValidationEngine.class);
+    private CardServiceImpl cardService;
+
+    @BeforeEach
+    void setUp() {
+        cardService = new CardServiceImpl(cardRepository, mock(MessageSource.class), mock(AccountServiceFeign.class),
+                mock(AccountLookupCoalescer.class), cardValidation, mock(CardKeyFilter.class), panFingerprint,
+                new ObjectMapper(), mock(CardLinkRetryRepository.class), completedBackfill());
+
+        IntStream.range(0, CARDS).forEach(i -> cardRepository.save(Card.builder()
+                .accountId((long) i / 2)
+                .cardType(i % 2 == 0 ? CardType.PHYSICAL : CardType.VIRTUAL)
+                .pan(String.format("4646%012d", i))
+                .panFingerprint(panFingerprint.of(String.format("4646%012d", i)))
+                .panLast4(String.format("%04d", i))
+                .panMasked(String.format("************%04d", i))
+                .cvv("123")
+                .cardAlias("Card " + i)
+                .build()));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAllCardsMasked_PageAndCount() {
+        Page<CardDto> cards = QueryBudget.atMost(2, () -> cardService.getAllCards(0, 20, null, null, null, null, false));
+
+        assertEquals(20, cards.getContent().size());
+        assertEquals(CARDS, cards.getTotalElements());
+        assertEquals("************0000", cards.getContent().get(0).getPan());
+    }
+
+    @Test
+    void getAllCardsWithoutTotal_SingleStatement() {
+        SlicePage<CardDto> cards = QueryBudget.atMost(1, () -> cardService.getAllCardsWithoutTotal(0, 20, null, null, null, CardType.VIRTUAL, true));
+
+        assertEquals(15, cards.getContent().size());
+    }
+
+    @Test
+    void getAllCardsByCursor_SingleStatement() {
+        CursorPage<CardDto> cards = QueryBudget.atMost(1, () -> cardService.getAllCards((String) null, 20, null, null, null, null, false));
+
+        assertEquals(20, cards.getContent().size());
+        assertNotNull(cards.getNextCursor());
+    }
+
+    @Test
+    void getAllCardsByFullPan_SingleStatementOnFingerprint() {
+        when(cardValidation.isPan("4646000000000007")).thenReturn(true);
+
+        CursorPage<CardDto> cards = QueryBudget.atMost(1, () -> cardService.getAllCards((String) null, 20, null, null, "4646000000000007", null, true));
+
+        assertEquals(List.of("4646000000000007"), cards.getContent().stream().map(CardDto::getPan).toList());
+    }
+
+    @Test
+    void searchByPanLast4_SingleStatementOnLast4() {
+        CursorPage<CardDto> cards = QueryBudget.atMost(1, () -> cardService.searchByPanLast4("0007", null, 20, null, null, false));
+
+        assertEquals(List.of("************0007"), cards.getContent().stream().map(CardDto::getPan).toList());
+        assertNull(cards.getNextCursor());
+    }
+
+    @Test
+    void existsByPanFingerprint_SingleStatement() {
+        assertTrue(QueryBudget.atMost(1, () -> cardRepository.existsByPanFingerprint(panFingerprint.of("4646000000000029"))));
+        assertFalse(cardRepository.existsByPanFingerprint(panFingerprint.of("4646000000000030")));
+    }
+
+    @Test
+    void getCardLinks_SingleStatement() {
+        List<CardLinkDto> links = QueryBudget.atMost(1, () -> cardService.getCardLinks(null, 100));
+
+        assertEquals(CARDS, links.size());
+    }
+
+    private static CardPanBackfill completedBackfill() {
+        CardPanBackfill backfill = mock(CardPanBackfill.class);
+        when(backfill.isCompleted()).thenReturn(true);
+        return backfill;
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Card.class)
+    @EnableJpaRepositories(basePackageClasses = CardRepository.class)
+    @Import({SqlDiagnosticsConfig.class, SqlStatementListener.class, SqlDataSourceProxy.class})
+    static class QueryBudgetConfig {
+    }
+}
@@ -0,0 +1,47 @@
+package com.banking.system.cardservice.utils;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.enums.CardType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaskSensitiveDataTest {
+
+    @Test
+    void lastDigits_StoredLast4() {
+        assertEquals("9383", MaskSensitiveData.lastDigits("4646557784849383"));
+        assertEquals("************9383", MaskSensitiveData.maskPan("4646557784849383"));
+        assertNull(MaskSensitiveData.lastDigits("46"));
+        assertNull(MaskSensitiveData.lastDigits(null));
+    }
+
+    @Test
+    void maskPan_ShortOrMissingPan_Stars() {
+        assertEquals("****", MaskSensitiveData.maskPan("46"));
+        assertEquals("****", MaskSensitiveData.maskPan(null));
+    }
+
+    @Test
+    void maskCvv_FromLength_SameSharedMaskAsFromCvv() {
+        assertSame(MaskSensitiveData.maskCvv("123"), MaskSensitiveData.maskCvv(3));
+        assertEquals("***", MaskSensitiveData.maskCvv((Integer) null));
+        assertEquals("*".repeat(40), MaskSensitiveData.maskCvv(40));
+    }
+
+    @Test
+    void maskedProjection_NeverHoldsThePanOrCvv() {
+        CardDto card = new CardDto(1L, 2L, CardType.PHYSICAL, "************9383", 3, "Shopping card", 4L);
+
+        assertEquals("************9383", card.getPan());
+        assertEquals("***", card.getCvv());
+        assertEquals(4L, card.getVersion());
+    }
+
+    @Test
+    void maskedProjection_NotBackfilledYet_Stars() {
+        CardDto card = new CardDto(1L, 2L, CardType.PHYSICAL, null, 3, "Shopping card", 4L);
+
+        assertEquals("****", card.getPan());
+    }
+}
@@ -0,0 +1,47 @@
+package com.banking.system.cardservice.utils;
+
+import com.banking.system.cardservice.configs.PanFingerprintConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PanFingerprintTest {
+
+    @Test
+    void hmacSha256_Rfc4231LargeKey() {
+        byte[] key = new byte[131];
+        Arrays.fill(key, (byte) 0xaa);
+        PanFingerprint fingerprint = new PanFingerprint(config(Base64.getEncoder().encodeToString(key)));
+
+        assertEquals("60e431591ee0b67f0d8a26aacbf5b77f8e0bc6213728c5140546040f0ee37f54",
+                HexFormat.of().formatHex(fingerprint.of("Test Using Larger Than Block-Size Key - Hash Key First")));
+    }
+
+    @Test
+    void samePanSameFingerprint_OtherKeyOtherFingerprint() {
+        PanFingerprint fingerprint = new PanFingerprint(config("c2VjcmV0LWtleS1vZi10aGUtY2FyZC1zZXJ2aWNlLXRlc3Rz"));
+        PanFingerprint otherKey = new PanFingerprint(config("b3RoZXIta2V5LW9mLXRoZS1jYXJkLXNlcnZpY2UtdGVzdHM="));
+
+        byte[] pan = fingerprint.of("4646557784849383");
+        assertEquals(PanFingerprint.LENGTH, pan.length);
+        assertArrayEquals(pan, fingerprint.of(new StringBuilder("4646557784849383")));
+        assertFalse(Arrays.equals(pan, fingerprint.of("4646557784849384")));
+        assertFalse(Arrays.equals(pan, otherKey.of("4646557784849383")));
+    }
+
+    @Test
+    void missingOrShortKey_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PanFingerprint(config(null)));
+        assertThrows(IllegalArgumentException.class, () -> new PanFingerprint(config("c2hvcnQta2V5")));
+    }
+
+    private static PanFingerprintConfig config(String key) {
+        PanFingerprintConfig config = new PanFingerprintConfig();
+        config.setKey(key);
+        return config;
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.system.cardservice.utils;
+
+import com.banking.system.cardservice.dtos.CardDto;
+import com.banking.system.cardservice.enums.CardType;
+import com.banking.system.cardservice.mappers.CardMapper;
+import com.banking.system.cardservice.models.Card;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensitiveValueSerializerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Card card = Card.builder()
+            .cardId(1L)
+            .accountId(2L)
+            .cardType(CardType.VIRTUAL)
+            .pan("4646557784849383")
+            .cvv("1234")
+            .cardAlias("Shopping card")
+            .build();
+
+    @Test
+    void hiddenCard_WrittenMasked() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(CardMapper.toEntityDataHidden(card, false)));
+
+        assertEquals("************9383", json.get("pan").asText());
+        assertEquals("****", json.get("cvv").asText());
+        assertEquals("Shopping card", json.get("cardAlias").asText());
+        assertFalse(json.has("sensitiveDataHidden"));
+    }
+
+    @Test
+    void shownCard_WrittenAsIs() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(CardMapper.toEntityDataHidden(card, true)));
+
+        assertEquals("4646557784849383", json.get("pan").asText());
+        assertEquals("1234", json.get("cvv").asText());
+    }
+
+    @Test
+    void maskedProjection_StoredMaskWrittenAsIs() throws Exception {
+        CardDto projected = new CardDto(1L, 2L, CardType.PHYSICAL, "***************9383", (Integer) null, null, 0L);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(projected));
+
+        assertEquals("***************9383", json.get("pan").asText());
+        assertEquals("***", json.get("cvv").asText());
+    }
+
+    @Test
+    void hiddenCard_SameMasksAsMaskSensitiveData() throws Exception {
+        card.setPan("46");
+        card.setCvv("");
+        CardDto hidden = CardMapper.toEntityDataHidden(card, false);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(hidden));
+
+        assertEquals(MaskSensitiveData.maskPan("46"), json.get("pan").asText());
+        assertEquals(MaskSensitiveData.maskCvv(""), json.get("cvv").asText());
+        // readers other than the JSON writer get the masks too
+        assertEquals("****", hidden.getPan());
+        assertEquals("***", hidden.getCvv());
+    }
+
+    @Test
+    void requestBody_ReadAsShown() throws Exception {
+        CardDto dto = objectMapper.readValue(
+                "{\"accountId\":2,\"typeOfCard\":\"virtual\",\"pan\":\"4646557784849383\",\"cvv\":\"123\"}", CardDto.class);
+
+        assertEquals("4646557784849383", dto.getPan());
+        assertEquals("123", dto.getCvv());
+        assertFalse(dto.isSensitiveDataHidden());
+    }
+}
@@ -0,0 +1,188 @@
+package com.banking.system.cardservice.validation;
+
+import com.banking.system.cardservice.configs.CardFormatConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardValidationEngineTest {
+    private static final String VISA_RULES = """
+            card:
+              validation:
+                schemes:
+                  visa:
+                    bin-ranges: 4
+                    pan-lengths: 16
+            """;
+
+    private static final String DISCOVER_RULES = """
+            card:
+              validation:
+                luhn: false
+                schemes:
+                  discover:
+                    bin-ranges: 6011, 644-649, 65
+                    pan-lengths: 16
+            """;
+
+    private final CardValidationEngine engine = new CardValidationEngine(config());
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void validCards_OfEachScheme() {
+        assertNull(engine.validate("4646557784849383", "123"));
+        assertNull(engine.validate("5555555555554444", "123"));
+        assertNull(engine.validate("2223000048400011", "123"));
+        assertNull(engine.validate("378282246310005", "1234"));
+    }
+
+    @Test
+    void pan_FormatSchemeAndCheckDigit() {
+        assertEquals(CardFormatViolation.PAN_FORMAT, engine.validate("4646-5577-8484-9383", "123"));
+        assertEquals(CardFormatViolation.PAN_FORMAT, engine.validate("", "123"));
+        assertEquals(CardFormatViolation.PAN_FORMAT, engine.validate("46465577848493830000", "123"));
+        assertEquals(CardFormatViolation.PAN_FORMAT, engine.validate("46465577848493", "123"));
+        assertEquals(CardFormatViolation.PAN_SCHEME, engine.validate("6011111111111117", "123"));
+        assertEquals(CardFormatViolation.PAN_SCHEME, engine.validate("2721000000000006", "123"));
+        assertEquals(CardFormatViolation.PAN_CHECKSUM, engine.validate("4646557784849384", "123"));
+    }
+
+    @Test
+    void cvv_LengthOfTheScheme() {
+        assertEquals(CardFormatViolation.CVV_FORMAT, engine.validate("4646557784849383", "1234"));
+        assertEquals(CardFormatViolation.CVV_FORMAT, engine.validate("4646557784849383", "12a"));
+        assertEquals(CardFormatViolation.CVV_FORMAT, engine.validate("378282246310005", "123"));
+    }
+
+    @Test
+    void isPan_FullPanOfAScheme() {
+        assertTrue(engine.isPan("4646557784849383"));
+        assertTrue(engine.isPan("378282246310005"));
+        assertFalse(engine.isPan("9383"));
+        assertFalse(engine.isPan("4646557784849384"));
+        assertFalse(engine.isPan("6011111111111117"));
+    }
+
+    @Test
+    void longestBinRange_PicksTheScheme() {
+        CardFormatConfig config = config();
+        config.getSchemes().put("private-label", scheme(List.of("464655"), List.of(16), 4));
+        CardValidationEngine withPrivateLabel = new CardValidationEngine(config);
+
+        assertNull(withPrivateLabel.validate("4646557784849383", "1234"));
+        assertNull(withPrivateLabel.validate("4111111111111111", "123"));
+    }
+
+    @Test
+    void schemeWithoutBinRanges_AcceptsOtherPans() {
+        CardFormatConfig config = config();
+        config.getSchemes().put("other", scheme(List.of(), List.of(), 3));
+        config.setLuhn(false);
+        CardValidationEngine withCatchAll = new CardValidationEngine(config);
+
+        assertNull(withCatchAll.validate("6011111111111118", "123"));
+        assertEquals(CardFormatViolation.CVV_FORMAT, withCatchAll.validate("378282246310005", "123"));
+    }
+
+    @Test
+    void invalidRules_Rejected() {
+        CardFormatConfig config = config();
+        config.getSchemes().put("broken", scheme(List.of("51-5"), List.of(16), 3));
+
+        assertThrows(IllegalArgumentException.class, () -> new CardValidationEngine(config));
+        assertThrows(IllegalArgumentException.class, () -> new CardValidationEngine(new CardFormatConfig()));
+    }
+
+    @Test
+    void rulesFile_UsedInsteadOfTheProperties() throws IOException {
+        CardValidationEngine fromFile = new CardValidationEngine(withRulesFile(writeRules(DISCOVER_RULES, 1)));
+
+        assertNull(fromFile.validate("6011111111111118", "123"));
+        assertEquals(CardFormatViolation.PAN_SCHEME, fromFile.validate("4646557784849383", "123"));
+    }
+
+    @Test
+    void rulesFileChanged_Reloaded() throws IOException {
+        Path file = writeRules(VISA_RULES, 1);
+        CardValidationEngine fromFile = new CardValidationEngine(withRulesFile(file));
+        assertEquals(CardFormatViolation.PAN_SCHEME, fromFile.validate("6011111111111117", "123"));
+
+        writeRules(DISCOVER_RULES, 2);
+        fromFile.reloadRulesFile();
+
+        assertNull(fromFile.validate("6011111111111118", "123"));
+        assertEquals(CardFormatViolation.PAN_SCHEME, fromFile.validate("4646557784849383", "123"));
+    }
+
+    @Test
+    void rulesFileUnchanged_NotReloaded() throws IOException {
+        Path file = writeRules(VISA_RULES, 1);
+        CardValidationEngine fromFile = new CardValidationEngine(withRulesFile(file));
+
+        writeRules(DISCOVER_RULES, 1);
+        fromFile.reloadRulesFile();
+
+        assertNull(fromFile.validate("4646557784849383", "123"));
+    }
+
+    @Test
+    void invalidRulesFileChange_KeepsPreviousRules() throws IOException {
+        Path file = writeRules(VISA_RULES, 1);
+        CardValidationEngine fromFile = new CardValidationEngine(withRulesFile(file));
+
+        writeRules(VISA_RULES.replace("bin-ranges: 4", "bin-ranges: 4-"), 2);
+        fromFile.reloadRulesFile();
+
+        assertNull(fromFile.validate("4646557784849383", "123"));
+    }
+
+    @Test
+    void missingRulesFile_Rejected() {
+        CardFormatConfig config = withRulesFile(directory.resolve("missing.yml"));
+
+        assertThrows(UncheckedIOException.class, () -> new CardValidationEngine(config));
+    }
+
+    /**
+     * Rules file with an explicit modification time, the reload compares it
+     */
+    private Path writeRules(String rules, long modifiedSecond) throws IOException {
+        Path file = directory.resolve("card-validation.yml");
+        Files.writeString(file, rules);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(modifiedSecond)));
+        return file;
+    }
+
+    private static CardFormatConfig withRulesFile(Path file) {
+        CardFormatConfig config = config();
+        config.setRulesFile(file.toString());
+        return config;
+    }
+
+    private static CardFormatConfig config() {
+        CardFormatConfig config = new CardFormatConfig();
+        config.getSchemes().put("visa", scheme(List.of("4"), List.of(13, 16, 19), 3));
+        config.getSchemes().put("mastercard", scheme(List.of("51-55", "2221-2720"), List.of(16), 3));
+        config.getSchemes().put("amex", scheme(List.of("34", "37"), List.of(15), 4));
+        return config;
+    }
+
+    private static CardFormatConfig.Scheme scheme(List<String> binRanges, List<Integer> panLengths, int cvvLength) {
+        CardFormatConfig.Scheme scheme = new CardFormatConfig.Scheme();
+        scheme.setBinRanges(binRanges);
+        scheme.setPanLengths(panLengths);
+        scheme.setCvvLength(cvvLength);
+        return scheme;
+    }
+}
@@ -0,0 +1,24 @@
+package com.banking.system.customer.service.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the customer overview, read from customer.overview properties
+ */
+@Component
+@ConfigurationProperties(prefix = "customer.overview")
+@Getter
+@Setter
+public class CustomerOverviewConfig {
+    /**
+     * Time budget of the whole overview. What account-service and card-service did not return by then is marked TIMED_OUT
+     */
+    private Duration deadline = Duration.ofSeconds(2);
+    private int maxAccounts = 50;
+    private int maxCardsPerAccount = 20;
+}
@@ -1,22 +1,33 @@
 package com.banking.system.customer.service.controllers;
 
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.utils.ETags;
 import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.dtos.CustomerOverviewDto;
 import com.banking.system.customer.service.services.CustomerService;
 
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@Timed(MetricsConfig.CONTROLLER_CALLS)
 @RequestMapping(path = "/customer")
 @RequiredArgsConstructor
 public class CustomerController {
@@ -46,23 +57,96 @@ public class CustomerController {
         return new ResponseEntity<>(customerService.getAllCustomers(page, size, name, startDate,endDate), HttpStatus.OK);
     }
 
+    @GetMapping(params = {"includeTotal=false", "!cursor"})
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "fetch all customers without the total count (includeTotal=false), hasNext tells whether there is " +
+            "a next page. Name, date created can be used to filter customers")
+    public ResponseEntity<SlicePage<CustomerDto>> findAllWithoutTotal(
+    @RequestParam(defaultValue = "0") int page,
+    @RequestParam(defaultValue = "10") int size,
+    @RequestParam(required = false) String name,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return new ResponseEntity<>(customerService.getAllCustomersWithoutTotal(page, size, name, startDate, endDate), HttpStatus.OK);
+    }
+
+    @GetMapping(params = "cursor")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "fetch all customers in cursor mode, ordered by customer id. Pass an empty cursor for the first page, " +
+            "then the returned nextCursor. Name, date created can be used to filter customers")
+    public ResponseEntity<CursorPage<CustomerDto>> findAllByCursor(
+    @RequestParam String cursor,
+    @RequestParam(defaultValue = "10") int size,
+    @RequestParam(required = false) String name,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return new ResponseEntity<>(customerService.getAllCustomers(cursor, size, name, startDate, endDate), HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Export all customers as NDJSON or CSV, streamed from the database. Name, date created can be used to filter customers")
+    public ResponseEntity<StreamingResponseBody> export(
+    @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+    @RequestParam(required = false) String name,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("customers." + format.getExtension()).build());
+        StreamingResponseBody body = out -> customerService.exportCustomers(format, name, startDate, endDate, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
     @GetMapping("/{customerId}")
     @ResponseStatus(value = HttpStatus.OK)
-    @Operation(summary = "Fetch a customer using customer Id")
+    @Operation(summary = "Fetch a customer using customer Id. The ETag header holds the customer version, " +
+            "send it back in If-None-Match to get 304 Not Modified while the customer is unchanged")
     public ResponseEntity<CustomerDto> getCustomerById(
+            @PathVariable Long customerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(customerService.getCustomerVersion(customerId));
+            if (ETags.matchesNoneMatch(ifNoneMatch, etag)) {
+                headers.setETag(etag);
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+        }
+        CustomerDto dto = customerService.getCustomerById(customerId);
+        if (dto.getVersion() != null) {
+            headers.setETag(ETags.of(dto.getVersion()));
+        }
+        return new ResponseEntity<>(dto, headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/{customerId}/overview")
+    @ResponseStatus(value = HttpStatus.OK)
+    @Operation(summary = "Fetch a customer with their accounts and each account's masked cards. " +
+            "Accounts or cards not available in time are marked TIMED_OUT/UNAVAILABLE and partial is set")
+    public ResponseEntity<CustomerOverviewDto> getCustomerOverview(
             @PathVariable Long customerId
     ) {
-        return new ResponseEntity<>(customerService.getCustomerById(customerId), HttpStatus.OK);
+        return new ResponseEntity<>(customerService.getCustomerOverview(customerId), HttpStatus.OK);
     }
 
     @PutMapping("/{customerId}")
     @ResponseStatus(value = HttpStatus.OK)
-    @Operation(summary = "update customer details. Only FirstName, LastName and OtherName can be updated")
+    @Operation(summary = "update customer details. Only FirstName, LastName and OtherName can be updated. " +
+            "With If-Match (ETag of a previous read) the update is only applied if the customer is unchanged, else 412")
     public ResponseEntity<CustomerDto> update(
             @Valid @RequestBody CustomerDto dto,
-            @PathVariable Long customerId
+            @PathVariable Long customerId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ){
-        return new ResponseEntity<>(customerService.updateCustomer(customerId, dto),HttpStatus.OK);
+        CustomerDto updated = customerService.updateCustomer(customerId, dto, ETags.expectedVersion(ifMatch));
+        HttpHeaders headers = new HttpHeaders();
+        if (updated.getVersion() != null) {
+            headers.setETag(ETags.of(updated.getVersion()));
+        }
+        return new ResponseEntity<>(updated, headers, HttpStatus.OK);
     }
 
     @DeleteMapping("/{customerId}")
@@ -1,10 +1,22 @@
 package com.banking.system.customer.service.dtos;
 
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
+@Schema(description = "Account details, as returned by account-service")
 public class AccountDto {
     private Long accountId;
+
+    private String iban;
+
+    private String bicSwift;
+
+    private Long customerId;
+
+    private LocalDateTime createdAt;
 }
@@ -0,0 +1,28 @@
+package com.banking.system.customer.service.dtos;
+
+import com.banking.system.customer.service.enums.OverviewStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "An account of the customer with its cards")
+public class AccountOverviewDto {
+    private AccountDto account;
+
+    @Schema(description = "Masked cards linked to the account, empty when cardsStatus is TIMED_OUT or UNAVAILABLE")
+    private List<CardDto> cards;
+
+    @Schema(description = "Number of cards linked to the account, null when cardsStatus is TIMED_OUT or UNAVAILABLE")
+    private Long totalCards;
+
+    @Schema(description = "COMPLETE, TRUNCATED (more cards than returned), TIMED_OUT or UNAVAILABLE")
+    private OverviewStatus cardsStatus;
+}
@@ -1,6 +1,7 @@
 package com.banking.system.customer.service.dtos;
 
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,9 +10,17 @@ import java.util.List;
 @Getter
 @Setter
 public class AccountResponse {
+    /**
+     * account-service answers with a Spring Data page, the list is its content
+     */
+    @JsonAlias("content")
     private List<AccountDto> accounts;
     private long totalElements;
     private int totalPages;
     private int number;
     private int size;
+    /**
+     * Only set by the no-count mode (includeTotal=false), where totalElements and totalPages are not returned
+     */
+    private boolean hasNext;
 }
@@ -0,0 +1,22 @@
+package com.banking.system.customer.service.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Card details, as returned by card-service. Pan and cvv are masked")
+public class CardDto {
+    private Long cardId;
+
+    private Long accountId;
+
+    @Schema(description = "VIRTUAL or PHYSICAL")
+    private String typeOfCard;
+
+    @Schema(description = "Masked Primary Account Number")
+    private String pan;
+
+    private String cardAlias;
+}
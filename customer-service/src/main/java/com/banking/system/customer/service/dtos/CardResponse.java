@@ -0,0 +1,21 @@
+package com.banking.system.customer.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class CardResponse {
+    /**
+     * card-service answers with a Spring Data page, the list is its content
+     */
+    @JsonAlias("content")
+    private List<CardDto> cards;
+    private long totalElements;
+    private int totalPages;
+    private int number;
+    private int size;
+}
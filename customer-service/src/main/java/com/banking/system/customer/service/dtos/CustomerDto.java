@@ -1,5 +1,6 @@
 package com.banking.system.customer.service.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
@@ -35,4 +36,11 @@ public class CustomerDto {
             example = "2024-09-18T14:23:00",
             accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime createdAt;
+
+    /**
+     * Customer version, sent as the ETag header and not in the body
+     */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
 }
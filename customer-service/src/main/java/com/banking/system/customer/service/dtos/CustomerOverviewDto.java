@@ -0,0 +1,31 @@
+package com.banking.system.customer.service.dtos;
+
+import com.banking.system.customer.service.enums.OverviewStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Customer with their accounts and each account's masked cards. " +
+        "Parts that account-service or card-service could not serve in time are marked, the rest is still returned")
+public class CustomerOverviewDto {
+    private CustomerDto customer;
+
+    private List<AccountOverviewDto> accounts;
+
+    @Schema(description = "Number of accounts of the customer, null when accountsStatus is TIMED_OUT or UNAVAILABLE")
+    private Long totalAccounts;
+
+    @Schema(description = "COMPLETE, TRUNCATED (more accounts than returned), TIMED_OUT or UNAVAILABLE")
+    private OverviewStatus accountsStatus;
+
+    @Schema(description = "True when accounts or the cards of an account are TIMED_OUT or UNAVAILABLE")
+    private boolean partial;
+}
@@ -0,0 +1,23 @@
+package com.banking.system.customer.service.enums;
+
+/**
+ * Completeness marker of a part of the customer overview
+ */
+public enum OverviewStatus {
+    /**
+     * Data fully loaded
+     */
+    COMPLETE,
+    /**
+     * More items exist than the overview returns, see the totals
+     */
+    TRUNCATED,
+    /**
+     * The downstream service did not answer before the overview deadline
+     */
+    TIMED_OUT,
+    /**
+     * The downstream service failed (error, circuit open)
+     */
+    UNAVAILABLE
+}
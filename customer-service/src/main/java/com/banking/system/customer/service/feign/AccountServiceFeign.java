@@ -2,10 +2,12 @@ package com.banking.system.customer.service.feign;
 
 import com.banking.system.customer.service.dtos.AccountResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "account-service", url = "127.0.0.1:1501")
+@FeignClient(name = "account-service", url = "${downstream.clients.account-service.url:http://127.0.0.1:1501}")
 public interface AccountServiceFeign {
 
     @GetMapping("/accounts")
@@ -14,4 +16,17 @@ public interface AccountServiceFeign {
             @RequestParam("page") int page,
             @RequestParam("size") int size
     );
+
+    /**
+     * Same page without the total count (includeTotal=false), for callers that only need to know whether accounts exist
+     */
+    @GetMapping("/accounts?includeTotal=false")
+    AccountResponse getAccountSliceByCustomerCode(
+            @RequestParam("customerId") Long customerId,
+            @RequestParam("page") int page,
+            @RequestParam("size") int size
+    );
+
+    @DeleteMapping("/accounts/customer-cache/{customerId}")
+    void evictCustomer(@PathVariable("customerId") Long customerId);
 }
@@ -0,0 +1,19 @@
+package com.banking.system.customer.service.feign;
+
+import com.banking.system.customer.service.dtos.CardResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "card-service", url = "${downstream.clients.card-service.url:http://127.0.0.1:1502}")
+public interface CardServiceFeign {
+
+    @Operation(summary = "Get cards by account ID", description = "Page of the cards linked to an account, pan and cvv masked.")
+    @GetMapping("/card")
+    CardResponse getCardsByAccountCode(
+            @RequestParam("accountId") Long accountId,
+            @RequestParam("page") int page,
+            @RequestParam("size") int size
+    );
+}
@@ -19,6 +19,7 @@ public class CustomerMapper {
         dto.setLastName(customer.getLastName());
         dto.setOtherName(customer.getOtherName());
         dto.setCreatedAt(customer.getCreatedAt());
+        dto.setVersion(customer.getVersion());
         return dto;
     }
 
@@ -39,4 +39,11 @@ public class Customer {
     @CreationTimestamp
     @Column(name = "CREATED_AT", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    /**
+     * Optimistic lock version, incremented by every update of the customer. Exposed as the customer ETag
+     */
+    @Version
+    @Column(name = "CUST_VERSION", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
 }
@@ -3,7 +3,18 @@ package com.banking.system.customer.service.repositories;
 import com.banking.system.customer.service.models.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
+import java.util.Optional;
+
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer>,
+        CustomerRepositoryCustom {
+
+    /**
+     * Version only, to answer a conditional GET without loading the customer
+     */
+    @Query("select c.version from Customer c where c.customerId = :customerId")
+    Optional<Long> findVersionByCustomerId(@Param("customerId") Long customerId);
 
 }
@@ -0,0 +1,50 @@
+package com.banking.system.customer.service.repositories;
+
+import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.models.Customer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries not supported by the Spring Data derived/specification methods
+ */
+public interface CustomerRepositoryCustom {
+    /**
+     * Forward-only stream of every customer matching the specification, ordered by id.
+     * Rows are read from a database cursor and detached once read, so memory stays constant.
+     * Must be called inside a transaction and the stream must be closed
+     */
+    Stream<Customer> streamAll(Specification<Customer> spec);
+
+    /**
+     * Read-only page of the matching customers, built as dtos straight from the query.
+     * The count query is skipped when the page content already tells the total
+     */
+    Page<CustomerDto> findAllAsDto(Specification<Customer> spec, Pageable pageable);
+
+    /**
+     * Same as findAllAsDto without the count query:
+     * size + 1 rows are fetched, the extra one only tells whether there is a next page
+     */
+    Slice<CustomerDto> findSliceAsDto(Specification<Customer> spec, Pageable pageable);
+
+    /**
+     * Keyset page: the first matching customers with an id greater than afterCustomerId (all when null), ordered by id
+     */
+    List<CustomerDto> findAfterAsDto(Specification<Customer> spec, Long afterCustomerId, int limit);
+
+    /**
+     * Single statement partial update: UPDATE ... SET only the given (non null) columns ... RETURNING the new row.
+     * One round trip, no entity loaded, no dirty check
+     * @param expectedVersion when not null, the row is only updated if it is still at this version (If-Match)
+     * @return the updated customer, empty when it does not exist or is not at the expected version
+     */
+    Optional<Customer> updatePartially(Long customerId, Long expectedVersion,
+                                       String firstName, String lastName, String otherName);
+}
@@ -0,0 +1,142 @@
+package com.banking.system.customer.service.repositories;
+
+import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.models.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Stream<Customer> streamAll(Specification<Customer> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = criteriaBuilder.createQuery(Customer.class);
+        Root<Customer> root = query.from(Customer.class);
+        query.where(spec.toPredicate(root, query, criteriaBuilder))
+                .orderBy(criteriaBuilder.asc(root.get("customerId")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public Page<CustomerDto> findAllAsDto(Specification<Customer> spec, Pageable pageable) {
+        List<CustomerDto> content = dtoQuery(spec, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<CustomerDto> findSliceAsDto(Specification<Customer> spec, Pageable pageable) {
+        List<CustomerDto> content = dtoQuery(spec, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<CustomerDto> findAfterAsDto(Specification<Customer> spec, Long afterCustomerId, int limit) {
+        return dtoQuery(spec, afterCustomerId, Sort.by("customerId"))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * SELECT new CustomerDto(...) over the filtered customers: only the returned columns are read
+     * and no entity, snapshot or persistence context entry is created per row
+     */
+    private TypedQuery<CustomerDto> dtoQuery(Specification<Customer> spec, Long afterCustomerId, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CustomerDto> query = criteriaBuilder.createQuery(CustomerDto.class);
+        Root<Customer> root = query.from(Customer.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (afterCustomerId != null) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.greaterThan(root.get("customerId"), afterCustomerId));
+        }
+        query.select(criteriaBuilder.construct(CustomerDto.class,
+                        root.get("customerId"), root.get("firstName"), root.get("lastName"),
+                        root.get("otherName"), root.get("createdAt"), root.get("version")))
+                .where(predicate)
+                .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Customer> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Customer> root = query.from(Customer.class);
+        query.select(criteriaBuilder.count(root))
+                .where(spec.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Optional<Customer> updatePartially(Long customerId, Long expectedVersion,
+                                              String firstName, String lastName, String otherName) {
+        MapSqlParameterSource params = new MapSqlParameterSource("customerId", customerId);
+        StringBuilder sql = new StringBuilder("UPDATE CUSTOMERS SET CUST_VERSION = CUST_VERSION + 1");
+        if (firstName != null) {
+            sql.append(", CUST_FIRST_NAME = :firstName");
+            params.addValue("firstName", firstName);
+        }
+        if (lastName != null) {
+            sql.append(", CUST_LAST_NAME = :lastName");
+            params.addValue("lastName", lastName);
+        }
+        if (otherName != null) {
+            sql.append(", CUST_OTHER_NAME = :otherName");
+            params.addValue("otherName", otherName);
+        }
+        sql.append(" WHERE CUST_ID = :customerId");
+        if (expectedVersion != null) {
+            sql.append(" AND CUST_VERSION = :version");
+            params.addValue("version", expectedVersion);
+        }
+        sql.append(" RETURNING CUST_ID, CUST_FIRST_NAME, CUST_LAST_NAME, CUST_OTHER_NAME, CREATED_AT, CUST_VERSION");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> Customer.builder()
+                .customerId(rs.getLong("CUST_ID"))
+                .firstName(rs.getString("CUST_FIRST_NAME"))
+                .lastName(rs.getString("CUST_LAST_NAME"))
+                .otherName(rs.getString("CUST_OTHER_NAME"))
+                .createdAt(rs.getObject("CREATED_AT", LocalDateTime.class))
+                .version(rs.getLong("CUST_VERSION"))
+                .build()).stream().findFirst();
+    }
+}
@@ -1,8 +1,14 @@
 package com.banking.system.customer.service.services;
 
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
 import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.dtos.CustomerOverviewDto;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 
 public interface CustomerService {
@@ -22,9 +28,47 @@ public interface CustomerService {
      */
     Page<CustomerDto> getAllCustomers(int page, int size, String name, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Same page as getAllCustomers, without the total count query
+     * @return A list of customers and whether there is a next page
+     */
+    SlicePage<CustomerDto> getAllCustomersWithoutTotal(int page, int size, String name, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Keyset (cursor) pagination ordered by customer id. Same filters as the paged version, no total count
+     * @param cursor nextCursor of the previous page, empty for the first page
+     * @return A list of customers and the cursor of the next page
+     */
+    CursorPage<CustomerDto> getAllCustomers(String cursor, int size, String name, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Stream every customer matching the filters to the output, ordered by customer id.
+     * Rows are read from a database cursor and written as they come, whatever the number of customers
+     * @param format NDJSON or CSV
+     */
+    void exportCustomers(ExportFormat format, String name, LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException;
+
     CustomerDto updateCustomer(Long customerId, CustomerDto dto);
 
+    /**
+     * Conditional update, applied with a single UPDATE only if the customer is still at the expected version
+     * @param expectedVersion version of the If-Match ETag, null for an unconditional update
+     * @throws com.banking.system.common.exceptions.PreconditionFailedException when the customer was modified since
+     */
+    CustomerDto updateCustomer(Long customerId, CustomerDto dto, Long expectedVersion);
+
     String deleteCustomer(Long customerId);
 
     CustomerDto getCustomerById(Long customerId);
+
+    /**
+     * @return current version of the customer, used as its ETag
+     */
+    long getCustomerVersion(Long customerId);
+
+    /**
+     * Customer with their accounts and each account's masked cards, cards of all accounts fetched in parallel.
+     * Bounded by customer.overview.deadline: parts not served in time are marked and the rest returned
+     */
+    CustomerOverviewDto getCustomerOverview(Long customerId);
 }
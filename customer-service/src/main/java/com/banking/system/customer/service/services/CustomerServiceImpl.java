@@ -1,28 +1,73 @@
 package com.banking.system.customer.service.services;
 
+import com.banking.system.common.configs.MetricsConfig;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.exceptions.PreconditionFailedException;
+import com.banking.system.common.exceptions.ValidationException;
+import com.banking.system.common.utils.CursorCodec;
+import com.banking.system.common.utils.ETags;
+import com.banking.system.common.utils.ExportWriter;
+import com.banking.system.customer.service.configs.CustomerOverviewConfig;
+import com.banking.system.customer.service.dtos.AccountDto;
+import com.banking.system.customer.service.dtos.AccountOverviewDto;
 import com.banking.system.customer.service.dtos.AccountResponse;
+import com.banking.system.customer.service.dtos.CardDto;
+import com.banking.system.customer.service.dtos.CardResponse;
 import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.dtos.CustomerOverviewDto;
+import com.banking.system.customer.service.enums.OverviewStatus;
 import com.banking.system.customer.service.feign.AccountServiceFeign;
+import com.banking.system.customer.service.feign.CardServiceFeign;
 import com.banking.system.customer.service.mappers.CustomerMapper;
 import com.banking.system.customer.service.models.Customer;
 import com.banking.system.customer.service.repositories.CustomerRepository;
 import com.banking.system.customer.service.specifications.CustomerSpecification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_CALLS)
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
+    private static final List<ExportWriter.Column<CustomerDto>> EXPORT_COLUMNS = List.of(
+            new ExportWriter.Column<>("customerId", CustomerDto::getCustomerId),
+            new ExportWriter.Column<>("firstName", CustomerDto::getFirstName),
+            new ExportWriter.Column<>("lastName", CustomerDto::getLastName),
+            new ExportWriter.Column<>("otherName", CustomerDto::getOtherName),
+            new ExportWriter.Column<>("createdAt", CustomerDto::getCreatedAt));
+
     private final CustomerRepository customerRepository;
     private final MessageSource messageSource;
     private final AccountServiceFeign accountServiceFeign;
+    private final ObjectMapper objectMapper;
+    private final CardServiceFeign cardServiceFeign;
+    private final CustomerOverviewConfig overviewConfig;
 
     @Override
     public CustomerDto saveCustomer(CustomerDto dto) {
@@ -34,74 +79,226 @@ public class CustomerServiceImpl implements CustomerService {
         return CustomerMapper.toDto(savedCustomer);
     }
 
+    /**
+     * List modes read dtos straight from the query (constructor projection), no managed entity per row
+     */
     @Override
     public Page<CustomerDto> getAllCustomers(int page, int size, String name, LocalDate startDate, LocalDate endDate) {
         Pageable pageable = PageRequest.of(page, size);
         Specification<Customer> spec = CustomerSpecification.findWithFilters(name, startDate, endDate);
-        Page<Customer> customers = customerRepository.findAll(spec, pageable);
-        return customers.map(CustomerMapper::toDto);
+        return customerRepository.findAllAsDto(spec, pageable);
+    }
+
+    @Override
+    public SlicePage<CustomerDto> getAllCustomersWithoutTotal(int page, int size, String name, LocalDate startDate, LocalDate endDate) {
+        Specification<Customer> spec = CustomerSpecification.findWithFilters(name, startDate, endDate);
+        Slice<CustomerDto> customers = customerRepository.findSliceAsDto(spec, PageRequest.of(page, size));
+        return SlicePage.of(customers);
+    }
+
+    @Override
+    public CursorPage<CustomerDto> getAllCustomers(String cursor, int size, String name, LocalDate startDate, LocalDate endDate) {
+        Specification<Customer> spec = CustomerSpecification.findWithFilters(name, startDate, endDate);
+        Long lastId = decodeCursor(cursor);
+
+        List<CustomerDto> customers = customerRepository.findAfterAsDto(spec, lastId, size + 1);
+        boolean hasNext = customers.size() > size;
+        if (hasNext) {
+            customers = customers.subList(0, size);
+        }
+
+        String nextCursor = hasNext && !customers.isEmpty()
+                ? CursorCodec.encode(customers.get(customers.size() - 1).getCustomerId())
+                : null;
+        return new CursorPage<>(customers, nextCursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCustomers(ExportFormat format, String name, LocalDate startDate, LocalDate endDate,
+                                OutputStream out) throws IOException {
+        Specification<Customer> spec = CustomerSpecification.findWithFilters(name, startDate, endDate);
+        try (Stream<Customer> customers = customerRepository.streamAll(spec);
+             ExportWriter<CustomerDto> writer = new ExportWriter<>(objectMapper, CustomerDto.class, format, EXPORT_COLUMNS, out)) {
+            for (Customer customer : (Iterable<Customer>) customers::iterator) {
+                writer.write(CustomerMapper.toDto(customer));
+            }
+        }
     }
 
+    private Long decodeCursor(String cursor) {
+        try {
+            return CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(messageSource, "invalid.cursor", new Object[]{cursor});
+        }
+    }
 
     private void validateCustomerDto(CustomerDto dto) {
         if (dto.getFirstName() == null || dto.getFirstName().trim().isEmpty()) {
-            throw new IllegalArgumentException(messageSource.getMessage("first.name.validation", null, null));
+            throw new ValidationException(messageSource, "first.name.validation", null);
         }
 
         if (dto.getLastName() == null || dto.getLastName().trim().isEmpty()) {
-            throw new IllegalArgumentException(messageSource.getMessage("last.name.validation", null, null));
+            throw new ValidationException(messageSource, "last.name.validation", null);
         }
     }
 
+    /**
+     * Single UPDATE ... RETURNING statement, only the provided columns are set.
+     * Not found and version mismatch are told apart by a version read, on failure only
+     */
     @Override
-    public CustomerDto updateCustomer(Long customerId, CustomerDto dto) {
-        Customer existingCustomer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("customer.not.found", new Object[]{customerId},null)));
+    public CustomerDto updateCustomer(Long customerId, CustomerDto dto, Long expectedVersion) {
+        String firstName = nonBlank(dto.getFirstName());
+        String lastName = nonBlank(dto.getLastName());
+        String otherName = nonBlank(dto.getOtherName());
 
-        if (dto.getFirstName() != null && !dto.getFirstName().trim().isEmpty()) {
-            existingCustomer.setFirstName(dto.getFirstName());
+        if (firstName == null && lastName == null && otherName == null) {
+            Customer existingCustomer = customerRepository.findById(customerId)
+                    .orElseThrow(() -> new ValidationException(messageSource, "customer.not.found", new Object[]{customerId}));
+            if (expectedVersion != null && existingCustomer.getVersion() != expectedVersion) {
+                throw versionMismatch(customerId, existingCustomer.getVersion());
+            }
+            return CustomerMapper.toDto(existingCustomer);
         }
 
-        if (dto.getLastName() != null && !dto.getLastName().trim().isEmpty()) {
-            existingCustomer.setLastName(dto.getLastName());
-        }
+        Customer updatedCustomer = customerRepository
+                .updatePartially(customerId, expectedVersion, firstName, lastName, otherName)
+                .orElseThrow(() -> {
+                    if (expectedVersion == null) {
+                        return new ValidationException(messageSource, "customer.not.found", new Object[]{customerId});
+                    }
+                    return versionMismatch(customerId, getCustomerVersion(customerId));
+                });
+        return CustomerMapper.toDto(updatedCustomer);
+    }
 
-        if (dto.getOtherName() != null && !dto.getOtherName().trim().isEmpty()) {
-            existingCustomer.setOtherName(dto.getOtherName());
-        }
+    private static String nonBlank(String value) {
+        return value != null && !value.trim().isEmpty() ? value : null;
+    }
 
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
-        return CustomerMapper.toDto(updatedCustomer);
+    private PreconditionFailedException versionMismatch(Long customerId, long currentVersion) {
+        return new PreconditionFailedException(messageSource.getMessage("customer.version.mismatch",
+                new Object[]{customerId, ETags.of(currentVersion)}, null));
+    }
+
+    @Override
+    public CustomerDto updateCustomer(Long customerId, CustomerDto dto) {
+        return updateCustomer(customerId, dto, null);
     }
 
 
     @Override
     public String deleteCustomer(Long customerId){
         Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("customer.not.found", new Object[]{customerId},null)));
+                .orElseThrow(() -> new ValidationException(messageSource, "customer.not.found", new Object[]{customerId}));
 
-        AccountResponse accounts = accountServiceFeign.getAccountsByCustomerCode(
+        /*
+         * Existence only: a single row without account-service counting all the customer accounts
+         */
+        AccountResponse accounts = accountServiceFeign.getAccountSliceByCustomerCode(
                 customer.getCustomerId(),0,1
         );
 
-        if (accounts.getTotalElements() > 0) {
-            throw new IllegalArgumentException(
-                    messageSource.getMessage("customer.has.accounts", new Object[]{customerId}, null)
-            );
+        if (accounts.getAccounts() != null && !accounts.getAccounts().isEmpty()) {
+            throw new ValidationException(messageSource, "customer.has.accounts", new Object[]{customerId});
         }
         customerRepository.delete(customer);
+        evictFromAccountService(customerId);
         return messageSource.getMessage("customer.deleted.success", new Object[]{customerId},null);
     }
 
+    /**
+     * account-service caches customer existence, drop the deleted customer from it.
+     * The customer is already deleted, a failure is logged and the cache entry expires on its own.
+     */
+    private void evictFromAccountService(Long customerId) {
+        try {
+            accountServiceFeign.evictCustomer(customerId);
+        } catch (Exception e) {
+            log.warn("Failed to evict customer {} from account-service cache", customerId, e);
+        }
+    }
+
     @Override
     public CustomerDto getCustomerById(Long customerId) {
         Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        messageSource.getMessage("customer.not.found", new Object[]{customerId},null)));
+                .orElseThrow(() -> new ValidationException(messageSource, "customer.not.found", new Object[]{customerId}));
 
         return  CustomerMapper.toDto(customer);
     }
 
+    @Override
+    public long getCustomerVersion(Long customerId) {
+        return customerRepository.findVersionByCustomerId(customerId)
+                .orElseThrow(() -> new ValidationException(messageSource, "customer.not.found", new Object[]{customerId}));
+    }
+
+    /**
+     * One call to account-service, then one call to card-service per account, all in parallel on virtual threads.
+     * Every call shares the overview deadline: a call still running then is cancelled (interrupted) and
+     * its part is marked TIMED_OUT, a failed call is marked UNAVAILABLE. No call outlives the request.
+     */
+    @Override
+    public CustomerOverviewDto getCustomerOverview(Long customerId) {
+        CustomerDto customer = getCustomerById(customerId);
+        long deadline = System.nanoTime() + overviewConfig.getDeadline().toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<AccountResponse> accountsCall = executor.submit(() -> accountServiceFeign.getAccountsByCustomerCode(
+                    customerId, 0, overviewConfig.getMaxAccounts()));
+            OverviewStatus accountsStatus = await(accountsCall, deadline, "account-service", customerId);
+            if (accountsStatus != OverviewStatus.COMPLETE) {
+                return new CustomerOverviewDto(customer, List.of(), null, accountsStatus, true);
+            }
+            AccountResponse accountResponse = accountsCall.resultNow();
+            List<AccountDto> accounts = accountResponse.getAccounts() == null ? List.of() : accountResponse.getAccounts();
+
+            List<Future<CardResponse>> cardCalls = accounts.stream()
+                    .map(account -> executor.submit(() -> cardServiceFeign.getCardsByAccountCode(
+                            account.getAccountId(), 0, overviewConfig.getMaxCardsPerAccount())))
+                    .toList();
+
+            List<AccountOverviewDto> overviews = new ArrayList<>(accounts.size());
+            boolean partial = false;
+            for (int i = 0; i < accounts.size(); i++) {
+                Future<CardResponse> cardsCall = cardCalls.get(i);
+                OverviewStatus cardsStatus = await(cardsCall, deadline, "card-service", customerId);
+                if (cardsStatus == OverviewStatus.COMPLETE) {
+                    CardResponse cards = cardsCall.resultNow();
+                    List<CardDto> cardList =
+                            cards.getCards() == null ? List.of() : cards.getCards();
+                    overviews.add(new AccountOverviewDto(accounts.get(i), cardList, cards.getTotalElements(),
+                            cards.getTotalElements() > cardList.size() ? OverviewStatus.TRUNCATED : OverviewStatus.COMPLETE));
+                } else {
+                    partial = true;
+                    overviews.add(new AccountOverviewDto(accounts.get(i), List.of(), null, cardsStatus));
+                }
+            }
+
+            return new CustomerOverviewDto(customer, overviews, accountResponse.getTotalElements(),
+                    accountResponse.getTotalElements() > accounts.size() ? OverviewStatus.TRUNCATED : OverviewStatus.COMPLETE,
+                    partial);
+        }
+    }
+
+    private static OverviewStatus await(Future<?> call, long deadline, String downstream, Long customerId) {
+        try {
+            call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return OverviewStatus.COMPLETE;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            log.warn("Customer {} overview: {} did not answer before the deadline", customerId, downstream);
+            return OverviewStatus.TIMED_OUT;
+        } catch (ExecutionException e) {
+            log.warn("Customer {} overview: {} call failed: {}", customerId, downstream, e.getCause().getMessage());
+            return OverviewStatus.UNAVAILABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.cancel(true);
+            return OverviewStatus.TIMED_OUT;
+        }
+    }
+
 }
@@ -1,6 +1,11 @@
 package com.banking.system.customer.service.controllers;
 
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
 import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.dtos.CustomerOverviewDto;
+import com.banking.system.customer.service.enums.OverviewStatus;
 import com.banking.system.customer.service.services.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,11 +15,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -89,18 +97,57 @@ class CustomerControllerTest {
         assertEquals(0, response.getBody().getTotalElements());
     }
 
+    @Test
+    void findAllCustomers_WithoutTotal() {
+        SlicePage<CustomerDto> expectedPage = new SlicePage<>(List.of(fetchDto), page, size, true);
+        when(customerService.getAllCustomersWithoutTotal(page, size, null, null, null))
+                .thenReturn(expectedPage);
+
+        ResponseEntity<SlicePage<CustomerDto>> response = customerController.findAllWithoutTotal(
+                page, size, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isHasNext());
+    }
+
+    @Test
+    void findAllCustomers_CursorMode() {
+        CursorPage<CustomerDto> expectedPage = new CursorPage<>(List.of(fetchDto), "MQ", size);
+        when(customerService.getAllCustomers("", size, null, null, null))
+                .thenReturn(expectedPage);
+
+        ResponseEntity<CursorPage<CustomerDto>> response = customerController.findAllByCursor(
+                "", size, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("MQ", response.getBody().getNextCursor());
+    }
+
     @Test
     void getCustomerById() {
         Long customerId = 1L;
         when(customerService.getCustomerById(customerId)).thenReturn(fetchDto);
 
-        ResponseEntity<CustomerDto> response = customerController.getCustomerById(customerId);
+        ResponseEntity<CustomerDto> response = customerController.getCustomerById(customerId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(fetchDto, response.getBody());
         verify(customerService).getCustomerById(customerId);
     }
 
+    @Test
+    void getCustomerOverview() {
+        Long customerId = 1L;
+        CustomerOverviewDto overview = new CustomerOverviewDto(fetchDto, Collections.emptyList(), 0L,
+                OverviewStatus.COMPLETE, false);
+        when(customerService.getCustomerOverview(customerId)).thenReturn(overview);
+
+        ResponseEntity<CustomerOverviewDto> response = customerController.getCustomerOverview(customerId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(overview, response.getBody());
+    }
+
     @Test
     void updateCustomer() {
         Long customerId = 1L;
@@ -113,13 +160,37 @@ class CustomerControllerTest {
         savedDto.setFirstName("Philip");
         savedDto.setLastName("Shaw");
 
-        when(customerService.updateCustomer(customerId, updateDto)).thenReturn(savedDto);
+        when(customerService.updateCustomer(customerId, updateDto, null)).thenReturn(savedDto);
 
-        ResponseEntity<CustomerDto> response = customerController.update(updateDto, customerId);
+        ResponseEntity<CustomerDto> response = customerController.update(updateDto, customerId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(savedDto, response.getBody());
-        verify(customerService).updateCustomer(customerId, updateDto);
+        verify(customerService).updateCustomer(customerId, updateDto, null);
+    }
+
+    @Test
+    void updateCustomer_IfMatch_PassesExpectedVersion() {
+        CustomerDto updateDto = new CustomerDto();
+        updateDto.setFirstName("Philip");
+        CustomerDto savedDto = new CustomerDto();
+        savedDto.setVersion(3L);
+        when(customerService.updateCustomer(1L, updateDto, 2L)).thenReturn(savedDto);
+
+        ResponseEntity<CustomerDto> response = customerController.update(updateDto, 1L, "\"2\"");
+
+        assertEquals("\"3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getCustomerById_CurrentETag_NotModified() {
+        when(customerService.getCustomerVersion(1L)).thenReturn(2L);
+
+        ResponseEntity<CustomerDto> response = customerController.getCustomerById(1L, "\"2\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(customerService, never()).getCustomerById(any());
     }
 
     @Test
@@ -135,4 +206,17 @@ class CustomerControllerTest {
         assertEquals(successMessage, response.getBody());
         verify(customerService).deleteCustomer(customerId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void export_StreamsCustomersAsAttachment() throws Exception {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        ResponseEntity<StreamingResponseBody> response = customerController.export(ExportFormat.CSV, "John", startDate, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("attachment; filename=\"customers.csv\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(customerService).exportCustomers(ExportFormat.CSV, "John", startDate, null, out);
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.system.customer.service.repositories;
+
+import com.banking.system.common.database.PostgresTestDatabase;
+import com.banking.system.customer.service.models.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The partial update statement (UPDATE ... RETURNING) on an embedded postgres, H2 does not run it
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CustomerRepositoryPostgresTest {
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Customer customer;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Philip")
+                .lastName("Shaw")
+                .otherName("Luke")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void updatePartially_OnlyGivenColumnsSetAndVersionIncremented() {
+        Customer updated = customerRepository.updatePartially(customer.getCustomerId(), null, null, "Mwangi", null)
+                .orElseThrow();
+
+        assertEquals("Philip", updated.getFirstName());
+        assertEquals("Mwangi", updated.getLastName());
+        assertEquals("Luke", updated.getOtherName());
+        assertEquals(customer.getVersion() + 1, updated.getVersion());
+        Customer stored = entityManager.find(Customer.class, customer.getCustomerId());
+        assertEquals("Mwangi", stored.getLastName());
+        assertEquals(stored.getCreatedAt(), updated.getCreatedAt());
+    }
+
+    @Test
+    void updatePartially_ExpectedVersion_UpdatedOnlyAtThatVersion() {
+        assertTrue(customerRepository.updatePartially(customer.getCustomerId(), customer.getVersion() + 1,
+                "Peter", null, null).isEmpty());
+        assertEquals("Philip", entityManager.find(Customer.class, customer.getCustomerId()).getFirstName());
+
+        Optional<Customer> updated = customerRepository.updatePartially(customer.getCustomerId(), customer.getVersion(),
+                "Peter", null, null);
+
+        assertEquals("Peter", updated.orElseThrow().getFirstName());
+    }
+
+    @Test
+    void updatePartially_UnknownId_Empty() {
+        assertTrue(customerRepository.updatePartially(customer.getCustomerId() + 1000, null, "Peter", null, null).isEmpty());
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Customer.class)
+    @EnableJpaRepositories(basePackageClasses = CustomerRepository.class)
+    static class PostgresConfig {
+    }
+}
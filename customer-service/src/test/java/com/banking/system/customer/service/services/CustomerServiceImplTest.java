@@ -1,27 +1,48 @@
 package com.banking.system.customer.service.services;
 
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.common.enums.ExportFormat;
+import com.banking.system.common.exceptions.PreconditionFailedException;
+import com.banking.system.common.utils.CursorCodec;
+import com.banking.system.customer.service.configs.CustomerOverviewConfig;
+import com.banking.system.customer.service.dtos.AccountDto;
 import com.banking.system.customer.service.dtos.AccountResponse;
+import com.banking.system.customer.service.dtos.CardDto;
+import com.banking.system.customer.service.dtos.CardResponse;
 import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.dtos.CustomerOverviewDto;
+import com.banking.system.customer.service.enums.OverviewStatus;
 import com.banking.system.customer.service.feign.AccountServiceFeign;
+import com.banking.system.customer.service.feign.CardServiceFeign;
+import com.banking.system.customer.service.mappers.CustomerMapper;
 import com.banking.system.customer.service.models.Customer;
 import com.banking.system.customer.service.repositories.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,6 +60,15 @@ class CustomerServiceImplTest {
     @Mock
     private AccountServiceFeign accountServiceFeign;
 
+    @Mock
+    private CardServiceFeign cardServiceFeign;
+
+    @Spy
+    private CustomerOverviewConfig overviewConfig = new CustomerOverviewConfig();
+
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -112,9 +142,9 @@ class CustomerServiceImplTest {
 
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Customer> customerPage = new PageImpl<>(List.of(customer));
+        Page<CustomerDto> customerPage = new PageImpl<>(List.of(CustomerMapper.toDto(customer)));
 
-        when(customerRepository.findAll(any(Specification.class), eq(pageable)))
+        when(customerRepository.findAllAsDto(any(Specification.class), eq(pageable)))
                 .thenReturn(customerPage);
 
         Page<CustomerDto> result = customerService.getAllCustomers(page, size, name, startDate, endDate);
@@ -122,22 +152,49 @@ class CustomerServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(1L, result.getContent().get(0).getCustomerId());
-        verify(customerRepository).findAll(any(Specification.class), eq(pageable));
+        verify(customerRepository).findAllAsDto(any(Specification.class), eq(pageable));
     }
 
     @Test
     void getAllCustomers_WithoutFilters() {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Customer> customerPage = new PageImpl<>(Collections.emptyList());
+        Page<CustomerDto> customerPage = new PageImpl<>(Collections.emptyList());
 
-        when(customerRepository.findAll(any(Specification.class), eq(pageable)))
+        when(customerRepository.findAllAsDto(any(Specification.class), eq(pageable)))
                 .thenReturn(customerPage);
 
         Page<CustomerDto> result = customerService.getAllCustomers(page, size, null, null, null);
 
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
-        verify(customerRepository).findAll(any(Specification.class), eq(pageable));
+        verify(customerRepository).findAllAsDto(any(Specification.class), eq(pageable));
+    }
+
+    @Test
+    void getAllCustomers_WithoutTotal_NoCountQuery() {
+        Pageable pageable = PageRequest.of(page, size);
+        when(customerRepository.findSliceAsDto(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(CustomerMapper.toDto(customer)), pageable, false));
+
+        SlicePage<CustomerDto> result = customerService.getAllCustomersWithoutTotal(page, size, "John", null, null);
+
+        assertFalse(result.isHasNext());
+        assertEquals(1L, result.getContent().get(0).getCustomerId());
+        verify(customerRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getAllCustomers_CursorMode() {
+        CustomerDto second = CustomerMapper.toDto(customer);
+        second.setCustomerId(2L);
+        when(customerRepository.findAfterAsDto(any(Specification.class), eq(0L), eq(2)))
+                .thenReturn(List.of(CustomerMapper.toDto(customer), second));
+
+        CursorPage<CustomerDto> result = customerService.getAllCustomers(CursorCodec.encode(0L), 1, "John", null, null);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, CursorCodec.decode(result.getNextCursor()));
+        verify(customerRepository, never()).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -183,8 +240,8 @@ class CustomerServiceImplTest {
         savedCustomer.setLastName("Shaw");
         savedCustomer.setOtherName("Luke");
 
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(customerRepository.save(customer)).thenReturn(savedCustomer);
+        when(customerRepository.updatePartially(customerId, null, "Philip", "Shaw", "Luke"))
+                .thenReturn(Optional.of(savedCustomer));
 
         CustomerDto result = customerService.updateCustomer(customerId, updateDto);
 
@@ -193,8 +250,22 @@ class CustomerServiceImplTest {
         assertEquals("Philip", result.getFirstName());
         assertEquals("Shaw", result.getLastName());
         assertEquals("Luke", result.getOtherName());
-        verify(customerRepository).findById(customerId);
-        verify(customerRepository).save(customer);
+        verify(customerRepository, never()).findById(any());
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void updateCustomer_UnknownId_NotFoundFromRowCount() {
+        CustomerDto updateDto = new CustomerDto();
+        updateDto.setFirstName("Philip");
+        when(customerRepository.updatePartially(1000L, null, "Philip", null, null)).thenReturn(Optional.empty());
+        when(messageSource.getMessage(eq("customer.not.found"), any(), any())).thenReturn("Customer not found");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> customerService.updateCustomer(1000L, updateDto));
+
+        assertEquals("Customer not found", exception.getMessage());
+        verify(customerRepository, never()).findVersionByCustomerId(any());
     }
 
     @Test
@@ -222,7 +293,7 @@ class CustomerServiceImplTest {
         emptyAccountResponse.setTotalElements(0L);
 
         when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(accountServiceFeign.getAccountsByCustomerCode(eq(customerId), eq(0), eq(1)))
+        when(accountServiceFeign.getAccountSliceByCustomerCode(eq(customerId), eq(0), eq(1)))
                 .thenReturn(emptyAccountResponse);
         when(messageSource.getMessage(eq("customer.deleted.success"), any(), any()))
                 .thenReturn("Customer deleted successfully");
@@ -231,7 +302,28 @@ class CustomerServiceImplTest {
 
         assertEquals("Customer deleted successfully", result);
         verify(customerRepository).findById(customerId);
-        verify(accountServiceFeign).getAccountsByCustomerCode(customerId, 0, 1);
+        verify(accountServiceFeign).getAccountSliceByCustomerCode(customerId, 0, 1);
+        verify(customerRepository).delete(customer);
+        verify(accountServiceFeign).evictCustomer(customerId);
+    }
+
+    @Test
+    void deleteCustomer_CacheEvictionFailureDoesNotFailDeletion() {
+        Long customerId = 1L;
+
+        AccountResponse emptyAccountResponse = new AccountResponse();
+        emptyAccountResponse.setTotalElements(0L);
+
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(accountServiceFeign.getAccountSliceByCustomerCode(eq(customerId), eq(0), eq(1)))
+                .thenReturn(emptyAccountResponse);
+        doThrow(new RuntimeException()).when(accountServiceFeign).evictCustomer(customerId);
+        when(messageSource.getMessage(eq("customer.deleted.success"), any(), any()))
+                .thenReturn("Customer deleted successfully");
+
+        String result = customerService.deleteCustomer(customerId);
+
+        assertEquals("Customer deleted successfully", result);
         verify(customerRepository).delete(customer);
     }
 
@@ -240,10 +332,10 @@ class CustomerServiceImplTest {
         Long customerId = 1L;
 
         AccountResponse accountResponse = new AccountResponse();
-        accountResponse.setTotalElements(1L);
+        accountResponse.setAccounts(List.of(new AccountDto()));
 
         when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(accountServiceFeign.getAccountsByCustomerCode(eq(customerId), eq(0), eq(1)))
+        when(accountServiceFeign.getAccountSliceByCustomerCode(eq(customerId), eq(0), eq(1)))
                 .thenReturn(accountResponse);
         when(messageSource.getMessage(eq("customer.has.accounts"), any(), any()))
                 .thenReturn("Customer has accounts and cannot be deleted");
@@ -253,7 +345,7 @@ class CustomerServiceImplTest {
 
         assertEquals("Customer has accounts and cannot be deleted", exception.getMessage());
         verify(customerRepository).findById(customerId);
-        verify(accountServiceFeign).getAccountsByCustomerCode(customerId, 0, 1);
+        verify(accountServiceFeign).getAccountSliceByCustomerCode(customerId, 0, 1);
         verify(customerRepository, never()).delete(any(Customer.class));
     }
 
@@ -271,7 +363,161 @@ class CustomerServiceImplTest {
 
         assertEquals("Customer not found", exception.getMessage());
         verify(customerRepository).findById(customerId);
-        verify(accountServiceFeign, never()).getAccountsByCustomerCode(anyLong(), anyInt(), anyInt());
+        verify(accountServiceFeign, never()).getAccountSliceByCustomerCode(anyLong(), anyInt(), anyInt());
         verify(customerRepository, never()).delete(any(Customer.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportCustomers_Csv_QuotesSpecialCharacters() throws Exception {
+        customer.setLastName("Doe, \"Jr\"");
+        when(customerRepository.streamAll(any(Specification.class))).thenReturn(Stream.of(customer));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        customerService.exportCustomers(ExportFormat.CSV, "John", null, null, out);
+
+        assertEquals("customerId,firstName,lastName,otherName,createdAt\n1,John,\"Doe, \"\"Jr\"\"\",,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportCustomers_Ndjson() throws Exception {
+        Customer second = new Customer();
+        second.setCustomerId(2L);
+        second.setFirstName("Jane");
+        second.setLastName("Doe");
+        when(customerRepository.streamAll(any(Specification.class))).thenReturn(Stream.of(customer, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        customerService.exportCustomers(ExportFormat.NDJSON, null, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Jane", objectMapper.readValue(lines[1], CustomerDto.class).getFirstName());
+    }
+
+    @Test
+    void updateCustomer_IfMatchCurrentVersion_SingleConditionalUpdate() {
+        CustomerDto updateDto = new CustomerDto();
+        updateDto.setFirstName("Philip");
+        updateDto.setOtherName("");
+        customer.setVersion(5L);
+        when(customerRepository.updatePartially(1L, 4L, "Philip", null, null)).thenReturn(Optional.of(customer));
+
+        CustomerDto result = customerService.updateCustomer(1L, updateDto, 4L);
+
+        assertEquals(5L, result.getVersion());
+        verify(customerRepository, never()).findById(any());
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void updateCustomer_IfMatchStaleVersion_PreconditionFailed() {
+        CustomerDto updateDto = new CustomerDto();
+        updateDto.setLastName("Shaw");
+        when(customerRepository.updatePartially(1L, 4L, null, "Shaw", null)).thenReturn(Optional.empty());
+        when(customerRepository.findVersionByCustomerId(1L)).thenReturn(Optional.of(6L));
+        when(messageSource.getMessage(eq("customer.version.mismatch"), any(), any())).thenReturn("modified");
+
+        assertThrows(PreconditionFailedException.class, () -> customerService.updateCustomer(1L, updateDto, 4L));
+    }
+
+    @Test
+    void getCustomerOverview_FetchesCardsOfEveryAccountInParallel() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(accountServiceFeign.getAccountsByCustomerCode(1L, 0, 50)).thenReturn(accountResponse(3, 10L, 11L));
+        when(cardServiceFeign.getCardsByAccountCode(anyLong(), eq(0), eq(20))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            Long accountId = invocation.getArgument(0);
+            return cardResponse(accountId == 10L ? 25 : 1, accountId);
+        });
+
+        long start = System.nanoTime();
+        CustomerOverviewDto overview = customerService.getCustomerOverview(1L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 550, "card calls should overlap, took " + elapsedMillis + " ms");
+        assertFalse(overview.isPartial());
+        assertEquals("John", overview.getCustomer().getFirstName());
+        assertEquals(OverviewStatus.TRUNCATED, overview.getAccountsStatus());
+        assertEquals(3L, overview.getTotalAccounts());
+        assertEquals(2, overview.getAccounts().size());
+        assertEquals(OverviewStatus.TRUNCATED, overview.getAccounts().get(0).getCardsStatus());
+        assertEquals(25L, overview.getAccounts().get(0).getTotalCards());
+        assertEquals(OverviewStatus.COMPLETE, overview.getAccounts().get(1).getCardsStatus());
+        assertEquals(11L, overview.getAccounts().get(1).getCards().get(0).getAccountId());
+    }
+
+    @Test
+    void getCustomerOverview_SlowOrFailingCardService_ReturnsPartialResult() {
+        overviewConfig.setDeadline(Duration.ofMillis(200));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(accountServiceFeign.getAccountsByCustomerCode(1L, 0, 50)).thenReturn(accountResponse(3, 10L, 11L, 12L));
+        when(cardServiceFeign.getCardsByAccountCode(eq(10L), anyInt(), anyInt())).thenReturn(cardResponse(1, 10L));
+        when(cardServiceFeign.getCardsByAccountCode(eq(11L), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return cardResponse(1, 11L);
+        });
+        when(cardServiceFeign.getCardsByAccountCode(eq(12L), anyInt(), anyInt())).thenThrow(new IllegalStateException("down"));
+
+        long start = System.nanoTime();
+        CustomerOverviewDto overview = customerService.getCustomerOverview(1L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1000, "deadline not enforced, took " + elapsedMillis + " ms");
+        assertTrue(overview.isPartial());
+        assertEquals(OverviewStatus.COMPLETE, overview.getAccountsStatus());
+        assertEquals(OverviewStatus.COMPLETE, overview.getAccounts().get(0).getCardsStatus());
+        assertEquals(OverviewStatus.TIMED_OUT, overview.getAccounts().get(1).getCardsStatus());
+        assertNull(overview.getAccounts().get(1).getTotalCards());
+        assertEquals(OverviewStatus.UNAVAILABLE, overview.getAccounts().get(2).getCardsStatus());
+    }
+
+    @Test
+    void getCustomerOverview_AccountServiceTimesOut_ReturnsCustomerOnly() {
+        overviewConfig.setDeadline(Duration.ofMillis(100));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(accountServiceFeign.getAccountsByCustomerCode(1L, 0, 50)).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return accountResponse(0);
+        });
+
+        CustomerOverviewDto overview = customerService.getCustomerOverview(1L);
+
+        assertTrue(overview.isPartial());
+        assertEquals(OverviewStatus.TIMED_OUT, overview.getAccountsStatus());
+        assertTrue(overview.getAccounts().isEmpty());
+        verifyNoInteractions(cardServiceFeign);
+    }
+
+    @Test
+    void getCustomerOverview_UnknownCustomer_Throws() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
+        when(messageSource.getMessage(eq("customer.not.found"), any(), any())).thenReturn("Customer not found");
+
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomerOverview(1L));
+        verifyNoInteractions(accountServiceFeign, cardServiceFeign);
+    }
+
+    private static AccountResponse accountResponse(long totalElements, Long... accountIds) {
+        AccountResponse response = new AccountResponse();
+        response.setAccounts(Stream.of(accountIds).map(accountId -> {
+            AccountDto account = new AccountDto();
+            account.setAccountId(accountId);
+            account.setCustomerId(1L);
+            return account;
+        }).toList());
+        response.setTotalElements(totalElements);
+        return response;
+    }
+
+    private static CardResponse cardResponse(long totalElements, Long accountId) {
+        CardDto card = new CardDto();
+        card.setCardId(accountId * 100);
+        card.setAccountId(accountId);
+        card.setPan("************1234");
+        CardResponse response = new CardResponse();
+        response.setCards(List.of(card));
+        response.setTotalElements(totalElements);
+        return response;
+    }
+}
@@ -0,0 +1,104 @@
+package com.banking.system.customer.service.services;
+
+import com.banking.system.common.configs.SqlDiagnosticsConfig;
+import com.banking.system.common.diagnostics.QueryBudget;
+import com.banking.system.common.diagnostics.SqlDataSourceProxy;
+import com.banking.system.common.diagnostics.SqlStatementListener;
+import com.banking.system.common.dtos.CursorPage;
+import com.banking.system.common.dtos.SlicePage;
+import com.banking.system.customer.service.configs.CustomerOverviewConfig;
+import com.banking.system.customer.service.dtos.CustomerDto;
+import com.banking.system.customer.service.feign.AccountServiceFeign;
+import com.banking.system.customer.service.feign.CardServiceFeign;
+import com.banking.system.customer.service.models.Customer;
+import com.banking.system.customer.service.repositories.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Statement budgets of the customer read paths on an in-memory database, a list must not turn into
+ * one query per row
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class CustomerServiceQueryBudgetTest {
+    private static final int CUSTOMERS = 30;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private CustomerServiceImpl customerService;
+    private List<Long> customerIds;
+
+    @BeforeEach
+    void setUp() {
+        customerService = new CustomerServiceImpl(customerRepository, mock(MessageSource.class), mock(AccountServiceFeign.class),
+                new ObjectMapper(), mock(CardServiceFeign.class), new CustomerOverviewConfig());
+
+        customerIds = IntStream.range(0, CUSTOMERS)
+                .mapToObj(i -> customerRepository.save(Customer.builder()
+                        .firstName(i % 2 == 0 ? "Jane" : "John")
+                        .lastName("Doe " + i)
+                        .build()))
+                .map(Customer::getCustomerId)
+                .toList();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAllCustomers_PageAndCount() {
+        Page<CustomerDto> customers = QueryBudget.atMost(2, () -> customerService.getAllCustomers(0, 20, null, null, null));
+
+        assertEquals(20, customers.getContent().size());
+        assertEquals(CUSTOMERS, customers.getTotalElements());
+    }
+
+    @Test
+    void getAllCustomersWithoutTotal_SingleStatement() {
+        SlicePage<CustomerDto> customers = QueryBudget.atMost(1, () -> customerService.getAllCustomersWithoutTotal(0, 20, "Jane", null, null));
+
+        assertEquals(15, customers.getContent().size());
+        assertFalse(customers.isHasNext());
+    }
+
+    @Test
+    void getAllCustomersByCursor_SingleStatement() {
+        CursorPage<CustomerDto> customers = QueryBudget.atMost(1, () -> customerService.getAllCustomers((String) null, 20, null, null, null));
+
+        assertEquals(20, customers.getContent().size());
+        assertNotNull(customers.getNextCursor());
+    }
+
+    @Test
+    void getCustomerById_SingleStatement() {
+        CustomerDto customer = QueryBudget.atMost(1, () -> customerService.getCustomerById(customerIds.get(0)));
+
+        assertEquals("Jane", customer.getFirstName());
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Customer.class)
+    @EnableJpaRepositories(basePackageClasses = CustomerRepository.class)
+    @Import({SqlDiagnosticsConfig.class, SqlStatementListener.class, SqlDataSourceProxy.class})
+    static class QueryBudgetConfig {
+    }
+}
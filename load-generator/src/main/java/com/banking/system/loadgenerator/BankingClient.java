@@ -0,0 +1,170 @@
+package com.banking.system.loadgenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Calls of the three services, every call timed and recorded under its endpoint template
+ * (e.g. "DELETE /card/{id}") in the current phase metrics
+ */
+public class BankingClient implements AutoCloseable {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String customerUrl;
+    private final String accountUrl;
+    private final String cardUrl;
+    private final Duration requestTimeout;
+    private volatile EndpointMetrics metrics = new EndpointMetrics();
+
+    public BankingClient(String customerUrl, String accountUrl, String cardUrl, Duration requestTimeout) {
+        this.customerUrl = customerUrl;
+        this.accountUrl = accountUrl;
+        this.cardUrl = cardUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    /**
+     * Calls made from now on are recorded in the given metrics (warmup, then measured phase)
+     */
+    public void recordInto(EndpointMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public EndpointMetrics metrics() {
+        return metrics;
+    }
+
+    public JsonNode createCustomer(String firstName, String lastName, long startNanos) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("firstName", firstName)
+                .put("lastName", lastName);
+        return exchange("POST /customer", post(customerUrl + "/customer", body), startNanos);
+    }
+
+    public JsonNode createAccount(long customerId, String iban, String bicSwift, long startNanos) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("customerId", customerId)
+                .put("iban", iban)
+                .put("bicSwift", bicSwift);
+        return exchange("POST /accounts", post(accountUrl + "/accounts", body), startNanos);
+    }
+
+    public JsonNode createCard(long accountId, String typeOfCard, String pan, String cvv, String cardAlias,
+                               long startNanos) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("accountId", accountId)
+                .put("typeOfCard", typeOfCard)
+                .put("pan", pan)
+                .put("cvv", cvv)
+                .put("cardAlias", cardAlias);
+        return exchange("POST /card", post(cardUrl + "/card", body), startNanos);
+    }
+
+    public JsonNode listCustomers(String name, long startNanos) {
+        return exchange("GET /customer?name", get(customerUrl + "/customer?size=10&name=" + encode(name)), startNanos);
+    }
+
+    public JsonNode listAccounts(long customerId, long startNanos) {
+        return exchange("GET /accounts?customerId", get(accountUrl + "/accounts?size=10&customerId=" + customerId),
+                startNanos);
+    }
+
+    public JsonNode listCards(long accountId, String cardType, long startNanos) {
+        return exchange("GET /card?accountId&cardType",
+                get(cardUrl + "/card?size=10&accountId=" + accountId + "&cardType=" + cardType), startNanos);
+    }
+
+    public void deleteCard(long cardId, long startNanos) {
+        exchange("DELETE /card/{id}", delete(cardUrl + "/card/" + cardId), startNanos);
+    }
+
+    public void deleteAccount(long accountId, long startNanos) {
+        exchange("DELETE /accounts/{id}", delete(accountUrl + "/accounts/" + accountId), startNanos);
+    }
+
+    public void deleteCustomer(long customerId, long startNanos) {
+        exchange("DELETE /customer/{id}", delete(customerUrl + "/customer/" + customerId), startNanos);
+    }
+
+    /**
+     * @param startNanos when the call should have started, earlier than now when an open loop is late
+     * @return the json body, null when empty or not json
+     * @throws CallFailedException on a transport error or a non 2xx status, after recording the error
+     */
+    private JsonNode exchange(String endpoint, HttpRequest request, long startNanos) {
+        EndpointMetrics phase = metrics;
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            phase.record(endpoint, System.nanoTime() - startNanos, false);
+            phase.error(endpoint, e.toString());
+            throw new CallFailedException(endpoint + " failed: " + e, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CallFailedException(endpoint + " interrupted", e);
+        }
+        boolean success = response.statusCode() / 100 == 2;
+        phase.record(endpoint, System.nanoTime() - startNanos, success);
+        if (!success) {
+            String error = response.statusCode() + " " + response.body();
+            phase.error(endpoint, error);
+            throw new CallFailedException(endpoint + " answered " + error, null);
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private HttpRequest post(String url, JsonNode body) {
+        return request(url)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private HttpRequest get(String url) {
+        return request(url).GET().build();
+    }
+
+    private HttpRequest delete(String url) {
+        return request(url).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    public static class CallFailedException extends RuntimeException {
+        public CallFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.banking.system.loadgenerator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency (HdrHistogram, microseconds) and error count per endpoint and per scenario, for one phase of the run
+ */
+public class EndpointMetrics {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+    private final Map<String, String> firstErrors = new ConcurrentSkipListMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public void record(String endpoint, long nanos, boolean success) {
+        Endpoint metrics = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        metrics.recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            metrics.errors.increment();
+        }
+    }
+
+    /**
+     * Keeps the first error of each endpoint for the report
+     */
+    public void error(String endpoint, String message) {
+        firstErrors.putIfAbsent(endpoint, message);
+    }
+
+    /**
+     * Open loop only: scenario not started because max-in-flight were still running
+     */
+    public void drop() {
+        dropped.increment();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Snapshot of every endpoint over the measured duration
+     */
+    public List<Summary> summaries(Duration measured) {
+        List<Summary> summaries = new ArrayList<>();
+        endpoints.forEach((name, endpoint) -> summaries.add(
+                new Summary(name, endpoint.histogram(), endpoint.errors.sum(), measured)));
+        return summaries;
+    }
+
+    /**
+     * Prints the summary table and writes one .hgrm percentile distribution per endpoint (milliseconds),
+     * to be plotted with the HdrHistogram plotter or compared between runs
+     */
+    public void report(Duration measured, Path reportDir, PrintStream out) throws IOException {
+        Files.createDirectories(reportDir);
+        List<Summary> summaries = summaries(measured);
+        try (PrintStream summaryFile = new PrintStream(Files.newOutputStream(reportDir.resolve("summary.txt")))) {
+            for (PrintStream stream : List.of(out, summaryFile)) {
+                stream.printf("%-36s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                        "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+                summaries.forEach(summary -> stream.println(summary.format()));
+                firstErrors.forEach((endpoint, message) -> stream.printf("first error of %s: %s%n", endpoint, message));
+                if (dropped() > 0) {
+                    stream.printf("%d scenarios dropped, more than max-in-flight running%n", dropped());
+                }
+            }
+        }
+        for (Summary summary : summaries) {
+            Path file = reportDir.resolve(summary.name().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file))) {
+                summary.histogram().outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+    }
+
+    private static class Endpoint {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+        /**
+         * Adds what was recorded since the previous snapshot
+         */
+        synchronized Histogram histogram() {
+            total.add(recorder.getIntervalHistogram());
+            return total.copy();
+        }
+    }
+
+    public record Summary(String name, Histogram histogram, long errors, Duration measured) {
+        public long count() {
+            return histogram.getTotalCount();
+        }
+
+        public double throughput() {
+            return count() / (measured.toNanos() / 1e9);
+        }
+
+        public double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        String format() {
+            return String.format("%-36s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name, count(), errors,
+                    throughput(), percentileMillis(50), percentileMillis(90), percentileMillis(99),
+                    percentileMillis(99.9), histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
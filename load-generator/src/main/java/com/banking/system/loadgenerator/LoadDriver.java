@@ -0,0 +1,87 @@
+package com.banking.system.loadgenerator;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the workload for one phase, open or closed loop, every scenario on its own virtual thread
+ */
+public class LoadDriver {
+    private final Workload workload;
+    private final LoadOptions options;
+
+    public LoadDriver(Workload workload, LoadOptions options) {
+        this.workload = workload;
+        this.options = options;
+    }
+
+    public void run(Duration duration) throws InterruptedException {
+        if (options.getMode() == LoadOptions.Mode.OPEN) {
+            openLoop(duration);
+        } else {
+            closedLoop(duration);
+        }
+    }
+
+    /**
+     * Scenario i starts at start + i / rate. A late start is still timed from its intended time,
+     * so a slow service shows in the latencies instead of lowering the offered load
+     */
+    private void openLoop(Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+        EndpointMetrics phase = workload.metrics();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * intervalNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    phase.drop();
+                    continue;
+                }
+                Scenario scenario = workload.nextScenario();
+                executor.execute(() -> {
+                    try {
+                        workload.run(scenario, intendedStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Each client starts its next scenario as soon as the previous one ended
+     */
+    private void closedLoop(Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(options.getConcurrency());
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            Thread.ofVirtual().name("load-client-" + i).start(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        workload.run(workload.nextScenario(), System.nanoTime());
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
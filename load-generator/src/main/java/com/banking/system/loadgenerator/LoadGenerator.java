@@ -0,0 +1,72 @@
+package com.banking.system.loadgenerator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end load test of customer-service, account-service and card-service on one machine:
+ * starts postgres and the three services on the loopback interface, creates the seed chains,
+ * runs the warmup then the measured phase, and reports the latency percentiles (HdrHistogram)
+ * and throughput per endpoint and per scenario.
+ *
+ * mvn package -DskipTests
+ * java -jar load-generator/target/load-generator-1.0.0.jar [--mode=open --rate=100] [--mode=closed --concurrency=32]
+ *     [--duration=60s --warmup=30s --mix=create-chain:30,list:60,delete-chain:10] [--postgres=local --jdbc-url=...]
+ */
+public class LoadGenerator {
+    private static final String CUSTOMER_SERVICE = "customer-service";
+    private static final String ACCOUNT_SERVICE = "account-service";
+    private static final String CARD_SERVICE = "card-service";
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        int customerPort = options.getBasePort();
+        int accountPort = options.getBasePort() + 1;
+        int cardPort = options.getBasePort() + 2;
+
+        try (PostgresServer postgres = PostgresServer.start(options);
+             ServiceProcess customer = ServiceProcess.start(CUSTOMER_SERVICE, customerPort,
+                     Map.of(ACCOUNT_SERVICE, accountPort, CARD_SERVICE, cardPort), postgres, options);
+             ServiceProcess account = ServiceProcess.start(ACCOUNT_SERVICE, accountPort,
+                     Map.of(CUSTOMER_SERVICE, customerPort, CARD_SERVICE, cardPort), postgres, options);
+             ServiceProcess card = ServiceProcess.start(CARD_SERVICE, cardPort,
+                     Map.of(ACCOUNT_SERVICE, accountPort), postgres, options)) {
+            for (ServiceProcess service : List.of(customer, account, card)) {
+                service.awaitHealthy(options.getStartupTimeout());
+            }
+            System.out.printf("services up on ports %d-%d, database %s%n", customerPort, cardPort, postgres.jdbcUrl());
+
+            try (BankingClient client = new BankingClient(customer.baseUrl(), account.baseUrl(), card.baseUrl(),
+                    options.getRequestTimeout())) {
+                Workload workload = new Workload(client, options.getMix(), System.currentTimeMillis());
+                LoadDriver driver = new LoadDriver(workload, options);
+
+                for (int i = 0; i < options.getSeedChains(); i++) {
+                    workload.createChain(System.nanoTime());
+                }
+                System.out.printf("%s loop, warmup %ds%n", options.getMode().name().toLowerCase(),
+                        options.getWarmup().toSeconds());
+                driver.run(options.getWarmup());
+
+                EndpointMetrics measured = new EndpointMetrics();
+                client.recordInto(measured);
+                System.out.printf("measuring %ds%n", options.getDuration().toSeconds());
+                driver.run(options.getDuration());
+
+                System.out.printf("%n%s loop, %s, mix %s%n", options.getMode().name().toLowerCase(),
+                        options.getMode() == LoadOptions.Mode.OPEN
+                                ? options.getRate() + " scenarios/s" : options.getConcurrency() + " clients",
+                        mix(options.getMix()));
+                measured.report(options.getDuration(), options.getReportDir(), System.out);
+                System.out.println("histograms (.hgrm) and summary in " + options.getReportDir().toAbsolutePath().normalize());
+            }
+        }
+    }
+
+    private static String mix(Map<Scenario, Integer> mix) {
+        return mix.entrySet().stream()
+                .map(weight -> weight.getKey().scenarioName() + ":" + weight.getValue())
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,134 @@
+package com.banking.system.loadgenerator;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of the load generator, --name=value. Every option has a default, see the README
+ */
+@Getter
+public class LoadOptions {
+    public enum Mode {
+        /**
+         * Scenarios started at a fixed rate whatever the response times, latency measured from the
+         * intended start (no coordinated omission)
+         */
+        OPEN,
+        /**
+         * A fixed number of clients, each starting its next scenario when the previous one ended
+         */
+        CLOSED
+    }
+
+    private Mode mode = Mode.CLOSED;
+    private double rate = 50;
+    private int concurrency = 32;
+    private Duration warmup = Duration.ofSeconds(30);
+    private Duration duration = Duration.ofSeconds(60);
+    private Map<Scenario, Integer> mix = defaultMix();
+    private int seedChains = 100;
+    private int maxInFlight = 5000;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    private boolean embeddedPostgres = true;
+    private String jdbcUrl = "jdbc:postgresql://localhost:5432/dtb";
+    private String dbUsername = "postgres";
+    private String dbPassword = "ta";
+
+    private int basePort = 1500;
+    private Path projectDir = Path.of(".");
+    private List<String> serviceJvmArgs = List.of("-Xmx512m");
+    private Duration startupTimeout = Duration.ofMinutes(3);
+    private Path reportDir;
+
+    public static LoadOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadOptions options = new LoadOptions();
+        for (Map.Entry<String, String> option : values.entrySet()) {
+            String value = option.getValue();
+            switch (option.getKey()) {
+                case "mode" -> options.mode = Mode.valueOf(value.toUpperCase());
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "seed-chains" -> options.seedChains = Integer.parseInt(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "request-timeout" -> options.requestTimeout = DurationStyle.detectAndParse(value);
+                case "postgres" -> options.embeddedPostgres = switch (value) {
+                    case "embedded" -> true;
+                    case "local" -> false;
+                    default -> throw new IllegalArgumentException("--postgres is embedded or local, got " + value);
+                };
+                case "jdbc-url" -> options.jdbcUrl = value;
+                case "db-username" -> options.dbUsername = value;
+                case "db-password" -> options.dbPassword = value;
+                case "base-port" -> options.basePort = Integer.parseInt(value);
+                case "project-dir" -> options.projectDir = Path.of(value);
+                case "service-jvm-args" -> options.serviceJvmArgs = value.isBlank() ? List.of()
+                        : Arrays.asList(value.trim().split("\\s+"));
+                case "startup-timeout" -> options.startupTimeout = DurationStyle.detectAndParse(value);
+                case "report-dir" -> options.reportDir = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + option.getKey());
+            }
+        }
+        if (options.rate <= 0 || options.concurrency <= 0) {
+            throw new IllegalArgumentException("--rate and --concurrency must be positive");
+        }
+        if (options.reportDir == null) {
+            options.reportDir = options.projectDir.resolve("load-generator/target/load-report");
+        }
+        return options;
+    }
+
+    /**
+     * create-chain:30,list:60,delete-chain:10
+     */
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String weight : value.split(",")) {
+            String[] parts = weight.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in --mix, got " + weight);
+            }
+            int scenarioWeight = Integer.parseInt(parts[1].trim());
+            if (scenarioWeight < 0) {
+                throw new IllegalArgumentException("Negative weight in --mix: " + weight);
+            }
+            mix.put(Scenario.fromName(parts[0].trim()), scenarioWeight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix has no scenario with a positive weight");
+        }
+        return mix;
+    }
+
+    private static Map<Scenario, Integer> defaultMix() {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        mix.put(Scenario.CREATE_CHAIN, 30);
+        mix.put(Scenario.LIST, 60);
+        mix.put(Scenario.DELETE_CHAIN, 10);
+        return mix;
+    }
+
+    public Path serviceJar(String service) {
+        return projectDir.resolve(service + "/target/" + service + "-1.0.0-exec.jar");
+    }
+}
@@ -0,0 +1,57 @@
+package com.banking.system.loadgenerator;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Database of the three services: an embedded postgres (binaries from the classpath, started on a free
+ * local port, data directory under the report directory) or an already running local one
+ */
+public class PostgresServer implements AutoCloseable {
+    private final EmbeddedPostgres embedded;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+
+    private PostgresServer(EmbeddedPostgres embedded, String jdbcUrl, String username, String password) {
+        this.embedded = embedded;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static PostgresServer start(LoadOptions options) throws IOException {
+        if (!options.isEmbeddedPostgres()) {
+            return new PostgresServer(null, options.getJdbcUrl(), options.getDbUsername(), options.getDbPassword());
+        }
+        Path dataDirectory = options.getReportDir().resolve("postgres-data");
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setDataDirectory(dataDirectory)
+                .setCleanDataDirectory(true)
+                .setServerConfig("max_connections", "200")
+                .start();
+        return new PostgresServer(postgres,
+                "jdbc:postgresql://127.0.0.1:" + postgres.getPort() + "/postgres", "postgres", "");
+    }
+
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.banking.system.loadgenerator;
+
+/**
+ * User journeys of the load mix
+ */
+public enum Scenario {
+    /**
+     * POST /customer, POST /accounts for it, POST /card on the account
+     */
+    CREATE_CHAIN("create-chain"),
+    /**
+     * Customers by name, accounts by customer, cards by account and type, on a previously created chain
+     */
+    LIST("list"),
+    /**
+     * DELETE card, account then customer of the oldest created chain
+     */
+    DELETE_CHAIN("delete-chain");
+
+    private final String scenarioName;
+
+    Scenario(String scenarioName) {
+        this.scenarioName = scenarioName;
+    }
+
+    public String scenarioName() {
+        return scenarioName;
+    }
+
+    public static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.scenarioName.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario " + name + ", expected create-chain, list or delete-chain");
+    }
+}
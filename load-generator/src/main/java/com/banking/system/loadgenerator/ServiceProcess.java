@@ -0,0 +1,108 @@
+package com.banking.system.loadgenerator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One service started from its executable jar in its own JVM (as deployed: own classpath, application.yml
+ * and messages), output in report-dir/service.log
+ */
+public class ServiceProcess implements AutoCloseable {
+    private static final String LOAD_TEST_PAN_FINGERPRINT_KEY = "bG9hZC1nZW5lcmF0b3ItcGFuLWZpbmdlcnByaW50LWtleQ==";
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final Path log;
+
+    private ServiceProcess(String name, int port, Process process, Path log) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.log = log;
+    }
+
+    /**
+     * @param downstreamPorts port of every Feign client of the service (downstream.clients.name.url)
+     */
+    public static ServiceProcess start(String name, int port, Map<String, Integer> downstreamPorts,
+                                       PostgresServer postgres, LoadOptions options) throws IOException {
+        Path jar = options.serviceJar(name);
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(jar + " not found, build it first: mvn package -DskipTests");
+        }
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(options.getServiceJvmArgs());
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + postgres.jdbcUrl());
+        command.add("--spring.datasource.username=" + postgres.username());
+        command.add("--spring.datasource.password=" + postgres.password());
+        downstreamPorts.forEach((client, downstreamPort) ->
+                command.add("--downstream.clients." + client + ".url=http://127.0.0.1:" + downstreamPort));
+
+        Path log = options.getReportDir().resolve(name + ".log");
+        Files.createDirectories(log.getParent());
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        // the card service has no default pan fingerprint key, the load test one unless set
+        processBuilder.environment().putIfAbsent("CARD_PAN_FINGERPRINT_KEY", LOAD_TEST_PAN_FINGERPRINT_KEY);
+        Process process = processBuilder
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ServiceProcess(name, port, process, log);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    /**
+     * Polls /actuator/health until UP
+     */
+    public void awaitHealthy(Duration timeout) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException(name + " not healthy after " + timeout.toSeconds() + "s, see " + log);
+    }
+
+    /**
+     * Graceful shutdown (SIGTERM), killed after 30s
+     */
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.banking.system.loadgenerator;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Runs the scenarios of the mix against the services. Created chains (customer, account, card)
+ * are kept to be listed and deleted by the later scenarios.
+ *
+ * Generated IBANs and PANs start with a run id, so runs against a kept local database do not collide
+ */
+public class Workload {
+    private static final String[] LAST_NAMES = {"Otieno", "Wanjiru", "Kamau", "Achieng", "Mwangi", "Njeri"};
+    private static final String BIC = "DEUTDEFFXXX";
+    private static final int RECENT_CHAINS = 1024;
+
+    private final BankingClient client;
+    private final Scenario[] weightedScenarios;
+    private final long runId;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentLinkedDeque<Chain> chains = new ConcurrentLinkedDeque<>();
+    private final AtomicReferenceArray<Chain> recentChains = new AtomicReferenceArray<>(RECENT_CHAINS);
+
+    public Workload(BankingClient client, Map<Scenario, Integer> mix, long runId) {
+        this.client = client;
+        this.weightedScenarios = mix.entrySet().stream()
+                .flatMap(weight -> Stream.generate(weight::getKey).limit(weight.getValue()))
+                .toArray(Scenario[]::new);
+        this.runId = runId % 1_000_000_000L;
+    }
+
+    public EndpointMetrics metrics() {
+        return client.metrics();
+    }
+
+    public Scenario nextScenario() {
+        return weightedScenarios[ThreadLocalRandom.current().nextInt(weightedScenarios.length)];
+    }
+
+    /**
+     * Runs one scenario and records its duration under "scenario name". A list or delete without a created
+     * chain to work on creates one instead
+     *
+     * @param intendedStartNanos when the scenario should have started (open loop), the first call is timed from it
+     */
+    public void run(Scenario scenario, long intendedStartNanos) {
+        EndpointMetrics phase = metrics();
+        boolean success = true;
+        try {
+            switch (scenario) {
+                case CREATE_CHAIN -> createChain(intendedStartNanos);
+                case LIST -> list(intendedStartNanos);
+                case DELETE_CHAIN -> deleteChain(intendedStartNanos);
+            }
+        } catch (BankingClient.CallFailedException e) {
+            success = false;
+        }
+        phase.record("scenario " + scenario.scenarioName(), System.nanoTime() - intendedStartNanos, success);
+    }
+
+    public Chain createChain(long startNanos) {
+        long n = sequence.incrementAndGet();
+        String firstName = "lg" + runId + "n" + n;
+        String lastName = LAST_NAMES[(int) (n % LAST_NAMES.length)];
+        long customerId = client.createCustomer(firstName, lastName, startNanos).get("customerId").asLong();
+        long accountId = client.createAccount(customerId, iban(runId, n), BIC, System.nanoTime())
+                .get("accountId").asLong();
+        String cardType = n % 2 == 0 ? "VIRTUAL" : "PHYSICAL";
+        long cardId = client.createCard(accountId, cardType, pan(runId, n), "123", "card " + n, System.nanoTime())
+                .get("cardId").asLong();
+
+        Chain chain = new Chain(firstName, customerId, accountId, cardId, cardType);
+        chains.addLast(chain);
+        recentChains.set((int) (n % RECENT_CHAINS), chain);
+        return chain;
+    }
+
+    private void list(long startNanos) {
+        long created = sequence.get();
+        Chain chain = created == 0 ? null : recentChains.get(
+                (int) ((created - ThreadLocalRandom.current().nextLong(Math.min(created, RECENT_CHAINS))) % RECENT_CHAINS));
+        if (chain == null) {
+            createChain(startNanos);
+            return;
+        }
+        client.listCustomers(chain.firstName(), startNanos);
+        client.listAccounts(chain.customerId(), System.nanoTime());
+        client.listCards(chain.accountId(), chain.cardType(), System.nanoTime());
+    }
+
+    private void deleteChain(long startNanos) {
+        Chain chain = chains.pollFirst();
+        if (chain == null) {
+            createChain(startNanos);
+            return;
+        }
+        client.deleteCard(chain.cardId(), startNanos);
+        client.deleteAccount(chain.accountId(), System.nanoTime());
+        client.deleteCustomer(chain.customerId(), System.nanoTime());
+    }
+
+    /**
+     * German IBAN (DEkk + 18 digit BBAN) with valid mod-97 check digits
+     */
+    static String iban(long runId, long n) {
+        String bban = String.format("%09d%09d", runId, n);
+        // country letters as digits (D=13, E=14) and 00 check digits moved to the end
+        BigInteger rearranged = new BigInteger(bban + "131400");
+        int check = 98 - rearranged.mod(BigInteger.valueOf(97)).intValue();
+        return String.format("DE%02d%s", check, bban);
+    }
+
+    /**
+     * 16 digit Visa PAN with its Luhn check digit, unique per run id and sequence number
+     */
+    static String pan(long runId, long n) {
+        String payload = String.format("4%08d%06d", runId % 100_000_000L, n % 1_000_000);
+        int sum = 0;
+        for (int i = 0; i < payload.length(); i++) {
+            int digit = payload.charAt(i) - '0';
+            // the check digit is appended, payload digits from the last one are doubled
+            if ((payload.length() - i) % 2 == 1) {
+                digit = digit < 5 ? digit * 2 : digit * 2 - 9;
+            }
+            sum += digit;
+        }
+        return payload + (10 - sum % 10) % 10;
+    }
+
+    public record Chain(String firstName, long customerId, long accountId, long cardId, String cardType) {
+    }
+}
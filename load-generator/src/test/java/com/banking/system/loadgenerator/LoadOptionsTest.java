@@ -0,0 +1,49 @@
+package com.banking.system.loadgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadOptionsTest {
+
+    @Test
+    void defaultsToClosedLoopOnEmbeddedPostgres() {
+        LoadOptions options = LoadOptions.parse();
+
+        assertEquals(LoadOptions.Mode.CLOSED, options.getMode());
+        assertTrue(options.isEmbeddedPostgres());
+        assertEquals(Map.of(Scenario.CREATE_CHAIN, 30, Scenario.LIST, 60, Scenario.DELETE_CHAIN, 10), options.getMix());
+        assertEquals(Path.of("./load-generator/target/load-report"), options.getReportDir());
+        assertEquals(Path.of("./card-service/target/card-service-1.0.0-exec.jar"), options.serviceJar("card-service"));
+    }
+
+    @Test
+    void parsesOpenLoopOnLocalPostgres() {
+        LoadOptions options = LoadOptions.parse("--mode=open", "--rate=250", "--duration=2m", "--warmup=500ms",
+                "--mix=list:9,delete-chain:1", "--postgres=local", "--jdbc-url=jdbc:postgresql://localhost:5433/load",
+                "--service-jvm-args=-Xmx1g -XX:+UseZGC");
+
+        assertEquals(LoadOptions.Mode.OPEN, options.getMode());
+        assertEquals(250, options.getRate());
+        assertEquals(Duration.ofMinutes(2), options.getDuration());
+        assertEquals(Duration.ofMillis(500), options.getWarmup());
+        assertEquals(Map.of(Scenario.LIST, 9, Scenario.DELETE_CHAIN, 1), options.getMix());
+        assertFalse(options.isEmbeddedPostgres());
+        assertEquals("jdbc:postgresql://localhost:5433/load", options.getJdbcUrl());
+        assertEquals(List.of("-Xmx1g", "-XX:+UseZGC"), options.getServiceJvmArgs());
+    }
+
+    @Test
+    void rejectsUnknownOptionsAndScenarios() {
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse("--threads=4"));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse("--mix=browse:1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse("--mix=list:0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse("--rate=0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse("--postgres=remote"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.banking.system.loadgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadTest {
+
+    @Test
+    void generatesValidGermanIbans() {
+        for (long n = 1; n < 200; n++) {
+            String iban = Workload.iban(123456789L, n);
+
+            assertEquals(22, iban.length());
+            assertTrue(iban.startsWith("DE"));
+            // ISO 13616 check: first four characters moved to the end, letters as numbers, mod 97 is 1
+            String rearranged = iban.substring(4) + "1314" + iban.substring(2, 4);
+            assertEquals(1, new BigInteger(rearranged).mod(BigInteger.valueOf(97)).intValue(), iban);
+        }
+    }
+
+    @Test
+    void generatesSixteenDigitPansUniquePerRun() {
+        String pan = Workload.pan(123456789L, 42);
+
+        assertTrue(pan.matches("4\\d{15}"));
+        for (long n = 0; n < 100; n++) {
+            String other = Workload.pan(987654321L, n);
+            int sum = 0;
+            for (int i = 0; i < other.length(); i++) {
+                int digit = other.charAt(i) - '0';
+                sum += (other.length() - i) % 2 == 0 ? (digit * 2) / 10 + (digit * 2) % 10 : digit;
+            }
+            assertEquals(0, sum % 10, other);
+        }
+        assertNotEquals(pan, Workload.pan(123456789L, 43));
+        assertNotEquals(pan, Workload.pan(123456788L, 42));
+    }
+}